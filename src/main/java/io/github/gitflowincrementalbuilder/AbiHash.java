@@ -0,0 +1,91 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Hash of the application binary interface (ABI) of the classes in a class directory: the public and protected classes along with their public and
+ * protected fields and methods (including the generic signatures, thrown exceptions, runtime visible annotations and the values of compile-time
+ * constants, since these are inlined by the compiler), the permitted subclasses of sealed classes and the components of records.<br/>
+ * Method bodies and private members do not contribute, so as long as the hash of a module stays the same, the already compiled classes of its
+ * downstream modules are still valid.
+ */
+final class AbiHash {
+
+    // modifiers that do not affect callers
+    private static final int IGNORED_METHOD_MODIFIERS = Modifier.SYNCHRONIZED | Modifier.NATIVE | Modifier.STRICT;
+    private static final int IGNORED_FIELD_MODIFIERS = Modifier.VOLATILE | Modifier.TRANSIENT;
+
+    private AbiHash() {
+    }
+
+    /**
+     * Computes the hash of the classes in the given directory.
+     *
+     * @param classDir the class directory, e.g. {@code target/classes}
+     * @return the hex encoded hash or empty if there are no class files
+     * @throws IOException if reading a class file fails
+     */
+    static Optional<String> compute(Path classDir) throws IOException {
+        List<Path> classFiles = new ArrayList<>(ClassDependencyIndex.listClassFiles(classDir));
+        if (classFiles.isEmpty()) {
+            return Optional.empty();
+        }
+        Collections.sort(classFiles);
+        MessageDigest digest = newDigest();
+        for (Path classFile : classFiles) {
+            ClassFile parsed = ClassFile.read(classFile);
+            if (parsed.isPublicOrProtected()) {
+                update(digest, "class", parsed.access, parsed.name, parsed.superName, String.join(",", parsed.interfaces), parsed.signature,
+                        parsed.annotations, parsed.permittedSubclasses, parsed.recordComponents);
+                update(digest, "field", parsed.fields, IGNORED_FIELD_MODIFIERS);
+                update(digest, "method", parsed.methods, IGNORED_METHOD_MODIFIERS);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return Optional.of(hex.toString());
+    }
+
+    private static void update(MessageDigest digest, String kind, List<ClassFile.Member> members, int ignoredModifiers) {
+        members.stream()
+                .filter(ClassFile.Member::isPublicOrProtected)
+                .sorted(Comparator.comparing((ClassFile.Member member) -> member.name).thenComparing(member -> member.descriptor))
+                .forEach(member -> update(digest, kind, member.access & ~ignoredModifiers, member.name, member.descriptor, member.signature,
+                        member.constantValue, sorted(member.exceptions), member.annotations));
+    }
+
+    // the order of the exceptions in a throws clause is irrelevant
+    private static List<String> sorted(List<String> values) {
+        List<String> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private static void update(MessageDigest digest, String kind, int access, Object... parts) {
+        StringBuilder line = new StringBuilder(kind).append(' ').append(access);
+        for (Object part : parts) {
+            line.append(' ').append(part);
+        }
+        digest.update(line.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+import io.github.gitflowincrementalbuilder.config.Configuration.DownstreamAbiMode;
+import io.github.gitflowincrementalbuilder.config.Property;
+
+/**
+ * Tracks the {@link AbiHash ABI} of the changed modules during the build (via an {@link ExecutionListener}, just like {@link ModuleDurationsRecorder}):
+ * the hash that was recorded at the end of the last successful build of a module is compared to the hash after the module is built (see
+ * {@link FingerprintTrackingListener}). If none of the (transitive) upstream modules of a downstream module changed its ABI, the downstream module is not
+ * recompiled (its class files of the previous build are still valid) and, depending on {@link Configuration#downstreamAbiMode}, its tests are skipped
+ * as well.<br/>
+ * The record ({@value #RECORD_FILE} next to the output directory) also contains a fingerprint of the sources (paths, sizes and modification times) and the
+ * pom as well as of the recorded ABI hashes of the upstream modules, so a downstream module is only skipped if neither its sources nor the ABI of its
+ * upstream modules changed since it was recorded (e.g. in a build of just the upstream modules). Modules without a record are always compiled.<br/>
+ * Downstream modules that are compiled nevertheless are tracked as well so that their own downstream modules can still benefit.
+ */
+@Singleton
+@Named
+class AbiTracker {
+
+    private static final String MAVEN_MAIN_SKIP = "maven.main.skip";
+    private static final String MAVEN_TEST_SKIP_EXEC = "skipTests";
+    private static final String POM_XML = "pom.xml";
+    static final String RECORD_FILE = "gib-abi.txt";
+    private static final Set<String> CLEAN_GOALS = Set.of("clean", "post-clean");
+
+    private Logger logger = LoggerFactory.getLogger(AbiTracker.class);
+
+    /**
+     * Registers the tracking listener for the session of the given configuration.
+     *
+     * @param changed the changed modules
+     * @param downstream the unchanged downstream modules of the changed modules
+     * @param config the configuration
+     */
+    void register(Set<MavenProject> changed, Collection<MavenProject> downstream, Configuration config) {
+        if (downstream.isEmpty()) {
+            return;
+        }
+        if (config.mavenSession.getGoals().stream().anyMatch(goal -> CLEAN_GOALS.contains(goal) || goal.endsWith(":clean"))) {
+            logger.warn("Ignoring {} since the class files of the previous build are cleaned.", Property.downstreamAbiMode.prefixedName());
+            return;
+        }
+        MavenExecutionRequest request = config.mavenSession.getRequest();
+        request.setExecutionListener(new TrackingExecutionListener(request.getExecutionListener(), changed, downstream, config.downstreamAbiMode));
+    }
+
+    /**
+     * Records the ABI hash of the class files of the given module along with the fingerprints of its sources and of its upstream modules, see
+     * {@link #readRecord(MavenProject)}.
+     *
+     * @param project the module that has just been built successfully
+     * @param upstream the (transitive) upstream modules of the module
+     * @return the ABI hash or empty if there are no class files (in which case any previous record is deleted)
+     * @throws IOException if computing the hash or writing the record fails
+     */
+    static Optional<String> record(MavenProject project, Collection<MavenProject> upstream) throws IOException {
+        Optional<String> abiHash = AbiHash.compute(outputDirectory(project));
+        if (abiHash.isEmpty()) {
+            deleteRecord(project);
+        } else {
+            Files.writeString(recordFile(project), abiHash.get() + " " + sourcesFingerprint(project) + " " + upstreamFingerprint(upstream),
+                    StandardCharsets.UTF_8);
+        }
+        return abiHash;
+    }
+
+    /**
+     * Reads the record of the given module.
+     *
+     * @param project the module
+     * @return the recorded ABI hash, sources fingerprint and upstream fingerprint or empty if there is no (valid) record
+     * @throws IOException if reading the record fails
+     */
+    static Optional<String[]> readRecord(MavenProject project) throws IOException {
+        Path recordFile = recordFile(project);
+        if (!Files.isRegularFile(recordFile)) {
+            return Optional.empty();
+        }
+        String[] record = Files.readString(recordFile, StandardCharsets.UTF_8).trim().split(" ");
+        return record.length == 3 ? Optional.of(record) : Optional.empty();
+    }
+
+    private static void deleteRecord(MavenProject project) throws IOException {
+        Files.deleteIfExists(recordFile(project));
+    }
+
+    // the file attributes are sufficient (and much cheaper than the contents) since the record is only meant for the same workspace
+    // (only the configured source directory: source roots that are added during the build are not known yet when a module is about to be skipped)
+    static String sourcesFingerprint(MavenProject project) throws IOException {
+        MessageDigest digest = newDigest();
+        update(digest, project.getFile().toPath());
+        String sourceDirectory = project.getBuild().getSourceDirectory();
+        if (sourceDirectory != null && Files.isDirectory(Paths.get(sourceDirectory))) {
+            List<Path> files;
+            try (Stream<Path> stream = Files.walk(Paths.get(sourceDirectory))) {
+                files = stream.filter(Files::isRegularFile).collect(Collectors.toCollection(ArrayList::new));
+            }
+            Collections.sort(files);
+            for (Path file : files) {
+                update(digest, file);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    static String upstreamFingerprint(Collection<MavenProject> upstream) throws IOException {
+        List<MavenProject> sorted = new ArrayList<>(upstream);
+        sorted.sort(Comparator.comparing(MavenProject::getId));
+        MessageDigest digest = newDigest();
+        for (MavenProject project : sorted) {
+            String abiHash = readRecord(project).map(record -> record[0]).orElse("-");
+            digest.update((project.getId() + " " + abiHash + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return toHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        digest.update((file + " " + attributes.size() + " " + attributes.lastModifiedTime().toMillis() + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    private static Path outputDirectory(MavenProject project) {
+        return Paths.get(project.getBuild().getOutputDirectory());
+    }
+
+    private static Path recordFile(MavenProject project) {
+        return outputDirectory(project).resolveSibling(RECORD_FILE);
+    }
+
+    private class TrackingExecutionListener extends FingerprintTrackingListener {
+
+        private final DownstreamAbiMode mode;
+
+        private final Set<MavenProject> skipped = ConcurrentHashMap.newKeySet();
+        private final Map<MavenProject, Optional<String>> recorded = new ConcurrentHashMap<>();
+
+        private volatile ProjectDependencyGraph graph;
+
+        TrackingExecutionListener(ExecutionListener delegate, Set<MavenProject> changed, Collection<MavenProject> downstream, DownstreamAbiMode mode) {
+            super(delegate, changed, downstream, AbiTracker.this.logger);
+            this.mode = mode;
+        }
+
+        // a changed pom might e.g. change the dependencies (and thereby the classpath of the downstream modules)
+        @Override
+        protected boolean isTrackable(MavenProject changedProject) {
+            Path pom = changedProject.getBasedir().toPath().resolve(POM_XML);
+            return ChangedProjects.getChangedFiles(changedProject)
+                    .filter(files -> !files.contains(pom))
+                    .isPresent();
+        }
+
+        // the class files of the previous build might stem from a failed or partial build, so the record of the last successful build is used instead
+        @Override
+        protected Optional<String> fingerprintBefore(MavenProject project, MavenSession session) throws IOException {
+            return readRecord(project).map(record -> record[0]);
+        }
+
+        @Override
+        protected Optional<String> fingerprintAfter(MavenProject project) throws IOException {
+            Optional<String> abiHash = recorded.get(project);
+            return abiHash != null ? abiHash : AbiHash.compute(outputDirectory(project));
+        }
+
+        @Override
+        protected boolean canSkip(MavenProject project) {
+            if (!super.canSkip(project)) {
+                return false;
+            }
+            try {
+                Optional<String[]> record = readRecord(project);
+                if (record.isPresent() && record.get()[1].equals(sourcesFingerprint(project))
+                        && record.get()[2].equals(upstreamFingerprint(graph.getUpstreamProjects(project, true)))) {
+                    return true;
+                }
+                logger.debug("Compiling {} since its sources or the ABI of its upstream modules changed since the last recorded build (or there is no record).",
+                        project.getArtifactId());
+            } catch (IOException e) {
+                logger.debug("Failed to read the ABI record of {}: {}", project.getArtifactId(), e.toString());
+            }
+            return false;
+        }
+
+        @Override
+        public void projectStarted(ExecutionEvent event) {
+            graph = event.getSession().getProjectDependencyGraph();
+            super.projectStarted(event);
+        }
+
+        // before the fingerprint is compared (see fingerprintAfter)
+        @Override
+        public void projectSucceeded(ExecutionEvent event) {
+            MavenProject project = event.getProject();
+            if (!skipped.contains(project)) {
+                try {
+                    recorded.put(project, record(project, event.getSession().getProjectDependencyGraph().getUpstreamProjects(project, true)));
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Failed to record the ABI of {}: {}", project.getArtifactId(), e.toString());
+                    logger.debug("Full exception:", e);
+                }
+            }
+            super.projectSucceeded(event);
+            recorded.remove(project);
+        }
+
+        // the class files might be incomplete now
+        @Override
+        public void projectFailed(ExecutionEvent event) {
+            try {
+                deleteRecord(event.getProject());
+            } catch (IOException e) {
+                logger.warn("Failed to delete the ABI record of {}: {}", event.getProject().getArtifactId(), e.toString());
+            }
+            super.projectFailed(event);
+        }
+
+        @Override
+        protected void skip(MavenProject project, MavenSession session) {
+            skipped.add(project);
+            Properties properties = project.getProperties();
+            properties.setProperty(MAVEN_MAIN_SKIP, Boolean.TRUE.toString());
+            if (mode == DownstreamAbiMode.SKIP) {
+                properties.setProperty(MAVEN_TEST_SKIP_EXEC, Boolean.TRUE.toString());
+                // the artifact only depends on the (unchanged) class files if the tests are skipped as well (think of test-jars)
+                if (skipInstallIfInstalled(project, session)) {
+                    logger.info("Skipping compilation, tests and installation of {} since the ABI of its upstream modules is unchanged.",
+                            project.getArtifactId());
+                } else {
+                    logger.info("Skipping compilation and tests of {} since the ABI of its upstream modules is unchanged.", project.getArtifactId());
+                }
+            } else {
+                logger.info("Skipping compilation of {} since the ABI of its upstream modules is unchanged.", project.getArtifactId());
+            }
+        }
+    }
+}
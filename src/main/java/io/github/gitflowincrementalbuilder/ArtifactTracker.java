@@ -0,0 +1,152 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.maven.RepositoryUtils;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Build;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.repository.LocalRepositoryManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+
+/**
+ * Tracks the main artifacts of the changed modules during the build (via an {@link ExecutionListener}, just like {@link AbiTracker}): the hash of the
+ * artifact in the local repository (installed by a previous build) is compared to the hash of the freshly packaged artifact (see
+ * {@link FingerprintTrackingListener}). If the artifacts of all (transitive) upstream modules of a downstream module turned out to be identical, the
+ * downstream module is not rebuilt at all since its inputs did not change.<br/>
+ * This requires reproducible builds, otherwise the artifacts will differ in any case (e.g. because of timestamps).
+ */
+@Singleton
+@Named
+class ArtifactTracker {
+
+    private static final String MAVEN_MAIN_SKIP = "maven.main.skip";
+    private static final String MAVEN_TEST_SKIP_EXEC = "skipTests";
+    private static final String MAVEN_CLEAN_SKIP = "maven.clean.skip";
+
+    private Logger logger = LoggerFactory.getLogger(ArtifactTracker.class);
+
+    /**
+     * Registers the tracking listener for the session of the given configuration.
+     *
+     * @param changed the changed modules
+     * @param downstream the unchanged downstream modules of the changed modules
+     * @param config the configuration
+     */
+    void register(Set<MavenProject> changed, Collection<MavenProject> downstream, Configuration config) {
+        if (downstream.isEmpty()) {
+            return;
+        }
+        MavenExecutionRequest request = config.mavenSession.getRequest();
+        request.setExecutionListener(new TrackingExecutionListener(request.getExecutionListener(), changed, downstream));
+    }
+
+    /**
+     * Computes the SHA-256 hash of the given file.
+     *
+     * @param file the file, might be {@code null}
+     * @return the hex encoded hash or empty if the file does not exist
+     * @throws IOException if reading the file fails
+     */
+    static Optional<String> hash(File file) throws IOException {
+        if (file == null || !file.isFile()) {
+            return Optional.empty();
+        }
+        MessageDigest digest = newDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file.toPath()), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return Optional.of(hex.toString());
+    }
+
+    /**
+     * Returns whether or not the artifact that was packaged by the previous build of the given module (e.g. {@code target/<finalName>.jar}) is identical
+     * to the artifact in the local repository.
+     *
+     * @param project the module
+     * @param session the session
+     * @return {@code true} if both exist and are identical
+     * @throws IOException if reading the artifacts fails
+     */
+    static boolean isPackagedArtifactInstalled(MavenProject project, MavenSession session) throws IOException {
+        Build build = project.getBuild();
+        if (project.getArtifact() == null || build.getDirectory() == null || build.getFinalName() == null) {
+            return false;
+        }
+        Optional<String> packaged = hash(Paths.get(build.getDirectory(), build.getFinalName() + "." + project.getArtifact().getArtifactHandler().getExtension())
+                .toFile());
+        return packaged.isPresent() && packaged.equals(hash(installedFile(project, session)));
+    }
+
+    private static File installedFile(MavenProject project, MavenSession session) {
+        LocalRepositoryManager localRepositoryManager = session.getRepositorySession().getLocalRepositoryManager();
+        return localRepositoryManager.getRepository().getBasedir().toPath()
+                .resolve(localRepositoryManager.getPathForLocalArtifact(RepositoryUtils.toArtifact(project.getArtifact())))
+                .toFile();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    private class TrackingExecutionListener extends FingerprintTrackingListener {
+
+        TrackingExecutionListener(ExecutionListener delegate, Set<MavenProject> changed, Collection<MavenProject> downstream) {
+            super(delegate, changed, downstream, ArtifactTracker.this.logger);
+        }
+
+        // must be called before the module is installed, overwriting the artifact of the previous build
+        @Override
+        protected Optional<String> fingerprintBefore(MavenProject project, MavenSession session) throws IOException {
+            return project.getArtifact() != null ? hash(installedFile(project, session)) : Optional.empty();
+        }
+
+        @Override
+        protected Optional<String> fingerprintAfter(MavenProject project) throws IOException {
+            return project.getArtifact() != null ? hash(project.getArtifact().getFile()) : Optional.empty();
+        }
+
+        // the class files of the previous build are kept (no clean), so that e.g. the jar can still be packaged
+        @Override
+        protected void skip(MavenProject project, MavenSession session) {
+            Properties properties = project.getProperties();
+            properties.setProperty(MAVEN_MAIN_SKIP, Boolean.TRUE.toString());
+            properties.setProperty(MAVEN_TEST_SKIP_EXEC, Boolean.TRUE.toString());
+            properties.setProperty(MAVEN_CLEAN_SKIP, Boolean.TRUE.toString());
+            if (skipInstallIfInstalled(project, session)) {
+                logger.info("Skipping compilation, tests and installation of {} since the artifacts of its upstream modules are unchanged.",
+                        project.getArtifactId());
+            } else {
+                logger.info("Skipping compilation and tests of {} since the artifacts of its upstream modules are unchanged.", project.getArtifactId());
+            }
+        }
+    }
+}
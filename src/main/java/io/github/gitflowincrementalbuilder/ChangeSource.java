@@ -0,0 +1,92 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.apache.maven.project.MavenProject;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+import io.github.gitflowincrementalbuilder.config.Property;
+
+/**
+ * Source of the changes that the build is adjusted to, selected by name via {@link Property#changeSource}.<br/>
+ * Besides the built-in {@value #JGIT} (handled directly by {@link ChangedProjects}), implementations are Sisu components: annotate them with
+ * {@code @Singleton} and {@code @Named("<name>")} and add them to the classpath of the extension (e.g. as a dependency of the extension in
+ * {@code .mvn/extensions.xml}).<br/>
+ * The changes are streamed and mapped to modules one by one, so that a source does not need to collect all of them up front.
+ */
+public interface ChangeSource {
+
+    /**
+     * Name of the default source that detects the changes via JGit.
+     */
+    String JGIT = "jgit";
+
+    /**
+     * Streams the changes. The returned stream is closed after it was consumed.<br/>
+     * Changed paths are still subject to {@link Property#skipIfPathMatches}, {@link Property#excludePathsMatching} and
+     * {@link Property#includePathsMatching}, relative to {@link #getRootDirectory(Configuration)}.
+     *
+     * @param config the configuration
+     * @return the changes
+     */
+    Stream<Change> stream(Configuration config);
+
+    /**
+     * Returns the root directory of the changed paths, by default the directory of the top-level project.
+     *
+     * @param config the configuration
+     * @return the absolute and normalized root directory
+     */
+    default Path getRootDirectory(Configuration config) {
+        return Optional.ofNullable(config.mavenSession.getRequest().getMultiModuleProjectDirectory())
+                .or(() -> Optional.ofNullable(config.mavenSession.getTopLevelProject()).map(MavenProject::getBasedir))
+                .orElseGet(config.currentProject::getBasedir)
+                .toPath().toAbsolutePath().normalize();
+    }
+
+    /**
+     * A single change: either a changed file or an impacted (external) dependency.
+     */
+    final class Change {
+
+        private final Path path;
+        private final String gav;
+
+        private Change(Path path, String gav) {
+            this.path = path;
+            this.gav = gav;
+        }
+
+        /**
+         * @param path the path of a changed file, either absolute or relative to {@link ChangeSource#getRootDirectory(Configuration)}
+         * @return the change
+         */
+        public static Change ofPath(Path path) {
+            return new Change(Objects.requireNonNull(path, "path"), null);
+        }
+
+        /**
+         * @param gav the {@code groupId:artifactId:version} of an impacted dependency (see also {@link Property#loadImpactedDependenciesFrom})
+         * @return the change
+         */
+        public static Change ofGav(String gav) {
+            return new Change(null, Objects.requireNonNull(gav, "gav"));
+        }
+
+        public Optional<Path> getPath() {
+            return Optional.ofNullable(path);
+        }
+
+        public Optional<String> getGav() {
+            return Optional.ofNullable(gav);
+        }
+
+        @Override
+        public String toString() {
+            return path != null ? path.toString() : gav;
+        }
+    }
+}
@@ -3,10 +3,15 @@ package io.github.gitflowincrementalbuilder;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -17,7 +22,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.github.gitflowincrementalbuilder.ChangeSource.Change;
 import io.github.gitflowincrementalbuilder.config.Configuration;
+import io.github.gitflowincrementalbuilder.config.Property;
 import io.github.gitflowincrementalbuilder.jgit.DifferentFiles;
 import io.github.gitflowincrementalbuilder.jgit.GitProvider;
 
@@ -32,25 +39,136 @@ class ChangedProjects {
      */
     public static final String CTX_TEST_ONLY = ChangedProjects.class.getName() + "#TEST-ONLY";
 
+    /**
+     * Key of the {@link MavenProject#setContextValue(String, Object) context value} this class sets for each returned project. A value of {@link Boolean#TRUE}
+     * means that only the {@code pom.xml} of the module was changed.
+     */
+    public static final String CTX_POM_ONLY = ChangedProjects.class.getName() + "#POM-ONLY";
+
+    /**
+     * Key of the {@link MavenProject#setContextValue(String, Object) context value} this class sets for each returned project. The value is the
+     * immutable {@code Set<Path>} of changed files that were mapped to the project (absent for projects that are only changed because of changed
+     * properties), which is shared by all projects of the same module directory.<br/>
+     * Prefer using {@link #getChangedFiles(MavenProject)} instead of using this key directly.
+     */
+    public static final String CTX_CHANGED_FILES = ChangedProjects.class.getName() + "#CHANGED-FILES";
+
+    private static final String POM_XML = "pom.xml";
+
     private Logger logger = LoggerFactory.getLogger(ChangedProjects.class);
 
     @Inject private DifferentFiles differentFiles;
     @Inject private Modules modules;
     @Inject private GitProvider gitProvider;
+    @Inject private PropertyChanges propertyChanges;
+    @Inject private ImpactedDependencies impactedDependencies;
+    @Inject private Map<String, ChangeSource> changeSources;
 
     public static boolean isTestOnly(MavenProject project) {
         return Boolean.TRUE.equals(project.getContextValue(CTX_TEST_ONLY));
     }
 
+    @SuppressWarnings("unchecked")
+    public static Optional<Set<Path>> getChangedFiles(MavenProject project) {
+        return Optional.ofNullable((Set<Path>) project.getContextValue(CTX_CHANGED_FILES));
+    }
+
     public Set<MavenProject> get(Configuration config) {
         Map<Path, List<MavenProject>> modulesPathMap = modules.createPathMap(config.mavenSession);
+        if (!ChangeSource.JGIT.equals(config.changeSource)) {
+            // note: changed properties are not tracked since that requires the previous content of the changed pom files
+            return mapToProjects(getChangeSource(config), modulesPathMap, config);
+        }
+        return toChangedProjects(differentFiles.get(config), modulesPathMap, config);
+    }
+
+    /**
+     * Returns the changed projects like {@link #get(Configuration)} and supplies the changed projects per
+     * {@link Configuration#additionalReferenceBranches additional reference branch}, which are detected in the same pass, to the given consumer.<br/>
+     * Since the {@link #CTX_TEST_ONLY context values} of the supplied projects are only valid until the consumer returns, the projects of each reference
+     * branch have to be processed before the projects of the next one are supplied. The projects of the additional reference branches are supplied
+     * before the returned projects are determined.<br/>
+     * Changed properties are not tracked for the additional reference branches (see {@link Configuration#trackPropertyChanges}).
+     *
+     * @param config the configuration
+     * @param additionalReferenceConsumer receives the additional reference branch and the respective changed projects, in the configured order
+     * @return the changed projects
+     */
+    public Set<MavenProject> get(Configuration config, BiConsumer<String, Set<MavenProject>> additionalReferenceConsumer) {
+        if (!ChangeSource.JGIT.equals(config.changeSource) || config.additionalReferenceBranches.isEmpty()) {
+            return get(config);
+        }
+        Map<String, Set<Path>> pathsPerReference = differentFiles.getPerReference(config);
+        Set<Path> paths = pathsPerReference.remove(config.referenceBranch);
+        Map<Path, List<MavenProject>> modulesPathMap = modules.createPathMap(config.mavenSession);
+        try {
+            pathsPerReference.forEach((reference, referencePaths) -> {
+                resetContextValues(config);
+                additionalReferenceConsumer.accept(reference, mapToProjects(referencePaths, modulesPathMap, config));
+            });
+        } finally {
+            resetContextValues(config);
+        }
+        return toChangedProjects(paths, modulesPathMap, config);
+    }
+
+    private Set<MavenProject> toChangedProjects(Set<Path> paths, Map<Path, List<MavenProject>> modulesPathMap, Configuration config) {
+        Set<MavenProject> changedProjects = mapToProjects(paths, modulesPathMap, config);
+        return config.trackPropertyChanges ? propertyChanges.addImpactedChildren(changedProjects, config) : changedProjects;
+    }
+
+    private Set<MavenProject> mapToProjects(Set<Path> paths, Map<Path, List<MavenProject>> modulesPathMap, Configuration config) {
         Path projectRoot = gitProvider.getProjectRoot(config);
-        return differentFiles.get(config).stream()
-                .flatMap(path -> findProject(path, modulesPathMap, projectRoot).stream())
+        Map<Path, Set<Path>> changedFilesPerModule = new HashMap<>();
+        Set<MavenProject> changedProjects = paths.stream()
+                .flatMap(path -> findProject(path, modulesPathMap, projectRoot, changedFilesPerModule).stream())
                 .collect(Collectors.toSet());
+        setChangedFiles(changedFilesPerModule, modulesPathMap);
+        return changedProjects;
     }
 
-    private List<MavenProject> findProject(Path diffPath, Map<Path, List<MavenProject>> modulesPathMap, Path projectRoot) {
+    private ChangeSource getChangeSource(Configuration config) {
+        ChangeSource changeSource = changeSources.get(config.changeSource);
+        if (changeSource == null) {
+            throw new IllegalArgumentException("Unknown " + Property.changeSource.prefixedName() + " '" + config.changeSource + "', available: "
+                    + Stream.concat(Stream.of(ChangeSource.JGIT), changeSources.keySet().stream().sorted()).collect(Collectors.joining(", ")));
+        }
+        logger.info("Getting changes from {}", config.changeSource);
+        return changeSource;
+    }
+
+    private Set<MavenProject> mapToProjects(ChangeSource changeSource, Map<Path, List<MavenProject>> modulesPathMap, Configuration config) {
+        Path rootDirectory = changeSource.getRootDirectory(config);
+        Set<MavenProject> changedProjects = new HashSet<>();
+        Set<String> impactedGavs = new HashSet<>();
+        Map<Path, Set<Path>> changedFilesPerModule = new HashMap<>();
+        try (Stream<Change> changes = changeSource.stream(config)) {
+            changes.forEach(change -> {
+                change.getPath()
+                        .map(path -> rootDirectory.resolve(path).normalize())
+                        .filter(path -> differentFiles.isIncluded(rootDirectory.relativize(path), config))
+                        .ifPresent(path -> changedProjects.addAll(findProject(path, modulesPathMap, rootDirectory, changedFilesPerModule)));
+                change.getGav().ifPresent(impactedGavs::add);
+            });
+        }
+        setChangedFiles(changedFilesPerModule, modulesPathMap);
+        if (!impactedGavs.isEmpty()) {
+            changedProjects.addAll(impactedDependencies.get(impactedGavs, config));
+        }
+        return changedProjects;
+    }
+
+    private static void resetContextValues(Configuration config) {
+        for (MavenProject project : config.mavenSession.getAllProjects()) {
+            project.setContextValue(CTX_TEST_ONLY, null);
+            project.setContextValue(CTX_POM_ONLY, null);
+            project.setContextValue(CTX_CHANGED_FILES, null);
+            project.setContextValue(PropertyChanges.CTX_PROPERTIES_ONLY, null);
+        }
+    }
+
+    private List<MavenProject> findProject(Path diffPath, Map<Path, List<MavenProject>> modulesPathMap, Path projectRoot,
+            Map<Path, Set<Path>> changedFilesPerModule) {
         // Strip src/* subpath (if present) to make sure that embedded (test) projects contribute
         // to the "change state" of containing reactor module instead of considering them as separate (non-reactor) modules.
         Path path = stripSrcSubpath(diffPath, projectRoot);
@@ -69,15 +187,28 @@ class ChangedProjects {
             return Collections.emptyList();
         }
         logger.debug("Changed file: {}", diffPath);
+        changedFilesPerModule.computeIfAbsent(path, ignored -> new HashSet<>()).add(diffPath);
         for (MavenProject changedReactorProject : changedReactorProjects) {
             Boolean testOnlyFlag = (Boolean) changedReactorProject.getContextValue(CTX_TEST_ONLY);
             if (!Boolean.FALSE.equals(testOnlyFlag)) {
                 changedReactorProject.setContextValue(CTX_TEST_ONLY, diffPath.startsWith(path.resolve("src").resolve("test")));
             }
+            Boolean pomOnlyFlag = (Boolean) changedReactorProject.getContextValue(CTX_POM_ONLY);
+            if (!Boolean.FALSE.equals(pomOnlyFlag)) {
+                changedReactorProject.setContextValue(CTX_POM_ONLY, diffPath.equals(path.resolve(POM_XML)));
+            }
         }
         return changedReactorProjects;
     }
 
+    // one compact set per module directory instead of one growing HashSet per project (these sets are kept until the end of the build)
+    private static void setChangedFiles(Map<Path, Set<Path>> changedFilesPerModule, Map<Path, List<MavenProject>> modulesPathMap) {
+        changedFilesPerModule.forEach((modulePath, changedFiles) -> {
+            Set<Path> sharedChangedFiles = Set.copyOf(changedFiles);
+            modulesPathMap.get(modulePath).forEach(project -> project.setContextValue(CTX_CHANGED_FILES, sharedChangedFiles));
+        });
+    }
+
     @SuppressFBWarnings(value = "NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE",
                justification = "Extremely unlikely that getFileName() or getRoot() will return null here.")
     private Path stripSrcSubpath(Path path, Path projectRoot) {
@@ -99,6 +230,6 @@ class ChangedProjects {
     }
 
     private boolean pomXmlExistsIn(Path path) {
-        return Files.exists(path.resolve("pom.xml"));
+        return Files.exists(path.resolve(POM_XML));
     }
 }
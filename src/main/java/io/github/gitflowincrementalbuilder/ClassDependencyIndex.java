@@ -0,0 +1,133 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of the references between the classes of some class directories (e.g. {@code target/classes} and {@code target/test-classes}), read from the
+ * constant pools of the class files (see {@link ClassFile}).<br/>
+ * Besides the referenced classes, every type descriptor that occurs in the constant pool counts as a reference (e.g. types of fields, method parameters,
+ * annotations and generic signatures). Uses of compile-time constants (e.g. {@code static final String}s) are inlined by the compiler though and not every
+ * compiler keeps a reference to the class that declares them, so such classes are tracked separately (see {@link #declaresConstants(String)}).<br/>
+ * Classes are identified by their internal names, e.g. {@code a/b/Foo$Bar}.
+ */
+class ClassDependencyIndex {
+
+    private static final String CLASS_FILE_EXTENSION = ".class";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassDependencyIndex.class);
+
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+    private final Map<String, Set<String>> classesPerSourceFile = new HashMap<>();
+    private final Set<String> constantHolders = new HashSet<>();
+
+    /**
+     * Reads all class files in the given directories (non-existing directories are skipped).
+     *
+     * @param classDirs the class directories
+     * @return the index
+     * @throws IOException if reading a class file fails or if a file with the extension {@code .class} is not a class file
+     */
+    static ClassDependencyIndex read(Collection<Path> classDirs) throws IOException {
+        ClassDependencyIndex index = new ClassDependencyIndex();
+        for (Path classDir : classDirs) {
+            for (Path classFile : listClassFiles(classDir)) {
+                index.add(classFile);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the internal names of the classes in the given directory.
+     *
+     * @param classDir the class directory
+     * @return the class names, empty if the directory does not exist
+     * @throws IOException if listing the directory fails
+     */
+    static Set<String> listClasses(Path classDir) throws IOException {
+        return listClassFiles(classDir).stream()
+                .map(classFile -> {
+                    String relativePath = classDir.relativize(classFile).toString().replace('\\', '/');
+                    return relativePath.substring(0, relativePath.length() - CLASS_FILE_EXTENSION.length());
+                })
+                .collect(Collectors.toSet());
+    }
+
+    static List<Path> listClassFiles(Path classDir) throws IOException {
+        if (!Files.isDirectory(classDir)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> files = Files.walk(classDir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(CLASS_FILE_EXTENSION))
+                    .filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private void add(Path classFile) throws IOException {
+        ClassFile parsed = ClassFile.read(classFile);
+        parsed.referencedClasses.forEach(ref -> dependents.computeIfAbsent(ref, key -> new HashSet<>()).add(parsed.name));
+        classesPerSourceFile.computeIfAbsent(parsed.getSourcePath(), key -> new HashSet<>()).add(parsed.name);
+        if (parsed.fields.stream().anyMatch(field -> field.constantValue != null)) {
+            constantHolders.add(parsed.name);
+        }
+    }
+
+    /**
+     * Returns the classes that were compiled from the given source file.
+     *
+     * @param sourcePath the path of the source file relative to its source root, e.g. {@code a/b/Foo.java}
+     * @return the internal class names, empty if the source file is unknown
+     */
+    Set<String> getClassesOf(String sourcePath) {
+        return classesPerSourceFile.getOrDefault(sourcePath, Collections.emptySet());
+    }
+
+    /**
+     * Returns whether the given class declares fields with a constant value, which the compiler inlines into the classes that use them.<br/>
+     * The dependents of such a class are therefore unknown. Note: this is based on the indexed class files (e.g. of the previous build), but a class
+     * that declares a constant only in its changed source can only be used by classes that were changed as well.
+     *
+     * @param className the internal name of the class
+     * @return {@code true} if the class declares constants
+     */
+    boolean declaresConstants(String className) {
+        return constantHolders.contains(className);
+    }
+
+    /**
+     * Returns the given classes and all classes that (transitively) reference any of them.
+     *
+     * @param classNames the internal names of the classes
+     * @return the given classes and all their direct and indirect dependents
+     */
+    Set<String> getDependentsClosure(Set<String> classNames) {
+        Set<String> closure = new HashSet<>(classNames);
+        Deque<String> queue = new ArrayDeque<>(classNames);
+        while (!queue.isEmpty()) {
+            for (String dependent : dependents.getOrDefault(queue.poll(), Collections.emptySet())) {
+                if (closure.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        LOGGER.debug("{} class(es) depend on {} class(es).", closure.size() - classNames.size(), classNames.size());
+        return closure;
+    }
+}
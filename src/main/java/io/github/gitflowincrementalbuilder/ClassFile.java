@@ -0,0 +1,394 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal reader for the parts of a class file that are relevant for change detection: the referenced classes (from the constant pool),
+ * the declared members and their signatures, thrown exceptions and (runtime visible) annotations, the permitted subclasses, the record components
+ * and the source file. Classes are identified by their internal names, e.g. {@code a/b/Foo$Bar}.
+ */
+final class ClassFile {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int TAG_CLASS = 7;
+    private static final int TAG_STRING = 8;
+    private static final String ATTR_SOURCE_FILE = "SourceFile";
+    private static final String ATTR_SIGNATURE = "Signature";
+    private static final String ATTR_CONSTANT_VALUE = "ConstantValue";
+    private static final String ATTR_EXCEPTIONS = "Exceptions";
+    private static final String ATTR_ANNOTATIONS = "RuntimeVisibleAnnotations";
+    private static final String ATTR_PARAMETER_ANNOTATIONS = "RuntimeVisibleParameterAnnotations";
+    private static final String ATTR_ANNOTATION_DEFAULT = "AnnotationDefault";
+    private static final String ATTR_PERMITTED_SUBCLASSES = "PermittedSubclasses";
+    private static final String ATTR_RECORD = "Record";
+    private static final Pattern DESCRIPTOR_TYPE = Pattern.compile("L([\\p{javaJavaIdentifierPart}/]+);");
+
+    /**
+     * A field or method.
+     */
+    static final class Member {
+
+        final int access;
+        final String name;
+        final String descriptor;
+        final String signature;
+        final Object constantValue;
+        final List<String> exceptions;
+        // including the annotations of the parameters and the default value of an annotation method
+        final List<String> annotations;
+
+        private Member(int access, String name, String descriptor, String signature, Object constantValue, List<String> exceptions,
+                List<String> annotations) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.signature = signature;
+            this.constantValue = constantValue;
+            this.exceptions = exceptions;
+            this.annotations = annotations;
+        }
+
+        boolean isPublicOrProtected() {
+            return (access & (Modifier.PUBLIC | Modifier.PROTECTED)) != 0;
+        }
+    }
+
+    final int access;
+    final String name;
+    final String superName;
+    final List<String> interfaces;
+    final String signature;
+    final List<Member> fields;
+    final List<Member> methods;
+    final List<String> annotations;
+    final List<String> permittedSubclasses;
+    // name, descriptor, signature and annotations of each component of a record
+    final List<String> recordComponents;
+    final String sourceFile;
+    final Set<String> referencedClasses;
+
+    private ClassFile(int access, String name, String superName, List<String> interfaces, String signature, List<Member> fields, List<Member> methods,
+            List<String> annotations, List<String> permittedSubclasses, List<String> recordComponents, String sourceFile,
+            Set<String> referencedClasses) {
+        this.access = access;
+        this.name = name;
+        this.superName = superName;
+        this.interfaces = interfaces;
+        this.signature = signature;
+        this.fields = fields;
+        this.methods = methods;
+        this.annotations = annotations;
+        this.permittedSubclasses = permittedSubclasses;
+        this.recordComponents = recordComponents;
+        this.sourceFile = sourceFile;
+        this.referencedClasses = referencedClasses;
+    }
+
+    /**
+     * Reads the given class file.
+     *
+     * @param classFile the class file
+     * @return the parsed class file
+     * @throws IOException if reading fails or if the file is not a class file
+     */
+    static ClassFile read(Path classFile) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(classFile));
+                DataInputStream data = new DataInputStream(in)) {
+            if (data.readInt() != MAGIC) {
+                throw new IOException("Not a class file: " + classFile);
+            }
+            data.skipBytes(4);  // minor and major version
+            int constantPoolCount = data.readUnsignedShort();
+            // Utf8 and constant values as is, Class and String entries as index of their Utf8 entry
+            Object[] pool = new Object[constantPoolCount];
+            int[] tags = new int[constantPoolCount];
+            for (int i = 1; i < constantPoolCount; i++) {
+                int tag = data.readUnsignedByte();
+                tags[i] = tag;
+                switch (tag) {
+                    case 1: // Utf8
+                        pool[i] = data.readUTF();
+                        break;
+                    case 3: // Integer
+                        pool[i] = data.readInt();
+                        break;
+                    case 4: // Float
+                        pool[i] = data.readFloat();
+                        break;
+                    case 5: // Long
+                        pool[i++] = data.readLong();    // takes two entries
+                        break;
+                    case 6: // Double
+                        pool[i++] = data.readDouble();  // takes two entries
+                        break;
+                    case TAG_CLASS:
+                    case TAG_STRING:
+                        pool[i] = data.readUnsignedShort();
+                        break;
+                    case 16: // MethodType
+                    case 19: // Module
+                    case 20: // Package
+                        data.skipBytes(2);
+                        break;
+                    case 15: // MethodHandle
+                        data.skipBytes(3);
+                        break;
+                    case 9: // Fieldref
+                    case 10: // Methodref
+                    case 11: // InterfaceMethodref
+                    case 12: // NameAndType
+                    case 17: // Dynamic
+                    case 18: // InvokeDynamic
+                        data.skipBytes(4);
+                        break;
+                    default:
+                        throw new IOException("Unknown constant pool tag " + tag + " in " + classFile);
+                }
+            }
+            ConstantPool constants = new ConstantPool(pool, tags);
+
+            int access = data.readUnsignedShort();
+            String name = constants.className(data.readUnsignedShort());
+            String superName = constants.className(data.readUnsignedShort());
+            int interfaceCount = data.readUnsignedShort();
+            List<String> interfaces = new ArrayList<>(interfaceCount);
+            for (int i = 0; i < interfaceCount; i++) {
+                interfaces.add(constants.className(data.readUnsignedShort()));
+            }
+            List<Member> fields = readMembers(data, constants);
+            List<Member> methods = readMembers(data, constants);
+            String signature = null;
+            String sourceFile = null;
+            List<String> annotations = List.of();
+            List<String> permittedSubclasses = List.of();
+            List<String> recordComponents = List.of();
+            int attributeCount = data.readUnsignedShort();
+            for (int i = 0; i < attributeCount; i++) {
+                String attributeName = constants.utf8(data.readUnsignedShort());
+                int length = data.readInt();
+                if (ATTR_SOURCE_FILE.equals(attributeName)) {
+                    sourceFile = constants.utf8(data.readUnsignedShort());
+                } else if (ATTR_SIGNATURE.equals(attributeName)) {
+                    signature = constants.utf8(data.readUnsignedShort());
+                } else if (ATTR_ANNOTATIONS.equals(attributeName)) {
+                    annotations = readAnnotations(data, constants, "");
+                } else if (ATTR_PERMITTED_SUBCLASSES.equals(attributeName)) {
+                    permittedSubclasses = readClassNames(data, constants);
+                } else if (ATTR_RECORD.equals(attributeName)) {
+                    recordComponents = readRecordComponents(data, constants);
+                } else {
+                    data.skipBytes(length);
+                }
+            }
+            Set<String> referencedClasses = constants.referencedClasses();
+            referencedClasses.remove(name);
+            return new ClassFile(access, name, superName, interfaces, signature, fields, methods, annotations, permittedSubclasses, recordComponents,
+                    sourceFile, referencedClasses);
+        }
+    }
+
+    private static List<Member> readMembers(DataInputStream data, ConstantPool constants) throws IOException {
+        int memberCount = data.readUnsignedShort();
+        List<Member> members = new ArrayList<>(memberCount);
+        for (int i = 0; i < memberCount; i++) {
+            int access = data.readUnsignedShort();
+            String name = constants.utf8(data.readUnsignedShort());
+            String descriptor = constants.utf8(data.readUnsignedShort());
+            String signature = null;
+            Object constantValue = null;
+            List<String> exceptions = List.of();
+            List<String> annotations = new ArrayList<>();
+            int attributeCount = data.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                String attributeName = constants.utf8(data.readUnsignedShort());
+                int length = data.readInt();
+                if (ATTR_SIGNATURE.equals(attributeName)) {
+                    signature = constants.utf8(data.readUnsignedShort());
+                } else if (ATTR_CONSTANT_VALUE.equals(attributeName)) {
+                    constantValue = constants.value(data.readUnsignedShort());
+                } else if (ATTR_EXCEPTIONS.equals(attributeName)) {
+                    exceptions = readClassNames(data, constants);
+                } else if (ATTR_ANNOTATIONS.equals(attributeName)) {
+                    annotations.addAll(readAnnotations(data, constants, ""));
+                } else if (ATTR_PARAMETER_ANNOTATIONS.equals(attributeName)) {
+                    int parameterCount = data.readUnsignedByte();
+                    for (int parameter = 0; parameter < parameterCount; parameter++) {
+                        annotations.addAll(readAnnotations(data, constants, "parameter" + parameter + " "));
+                    }
+                } else if (ATTR_ANNOTATION_DEFAULT.equals(attributeName)) {
+                    StringBuilder value = new StringBuilder("default ");
+                    readElementValue(data, constants, value);
+                    annotations.add(value.toString());
+                } else {
+                    data.skipBytes(length);
+                }
+            }
+            members.add(new Member(access, name, descriptor, signature, constantValue, exceptions, annotations));
+        }
+        return Collections.unmodifiableList(members);
+    }
+
+    private static List<String> readClassNames(DataInputStream data, ConstantPool constants) throws IOException {
+        int count = data.readUnsignedShort();
+        List<String> classNames = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            classNames.add(constants.className(data.readUnsignedShort()));
+        }
+        return classNames;
+    }
+
+    private static List<String> readRecordComponents(DataInputStream data, ConstantPool constants) throws IOException {
+        int count = data.readUnsignedShort();
+        List<String> components = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder component = new StringBuilder(constants.utf8(data.readUnsignedShort()))
+                    .append(' ').append(constants.utf8(data.readUnsignedShort()));
+            int attributeCount = data.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                String attributeName = constants.utf8(data.readUnsignedShort());
+                int length = data.readInt();
+                if (ATTR_SIGNATURE.equals(attributeName)) {
+                    component.append(' ').append(constants.utf8(data.readUnsignedShort()));
+                } else if (ATTR_ANNOTATIONS.equals(attributeName)) {
+                    readAnnotations(data, constants, "").forEach(annotation -> component.append(' ').append(annotation));
+                } else {
+                    data.skipBytes(length);
+                }
+            }
+            components.add(component.toString());
+        }
+        return components;
+    }
+
+    // e.g. @La/b/Foo;(value=I1,type=La/b/Bar;.class), each prefixed with the given prefix
+    private static List<String> readAnnotations(DataInputStream data, ConstantPool constants, String prefix) throws IOException {
+        int count = data.readUnsignedShort();
+        List<String> annotations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder annotation = new StringBuilder(prefix);
+            readAnnotation(data, constants, annotation);
+            annotations.add(annotation.toString());
+        }
+        return annotations;
+    }
+
+    private static void readAnnotation(DataInputStream data, ConstantPool constants, StringBuilder out) throws IOException {
+        out.append('@').append(constants.utf8(data.readUnsignedShort())).append('(');
+        int pairCount = data.readUnsignedShort();
+        for (int i = 0; i < pairCount; i++) {
+            out.append(i > 0 ? "," : "").append(constants.utf8(data.readUnsignedShort())).append('=');
+            readElementValue(data, constants, out);
+        }
+        out.append(')');
+    }
+
+    private static void readElementValue(DataInputStream data, ConstantPool constants, StringBuilder out) throws IOException {
+        int tag = data.readUnsignedByte();
+        switch (tag) {
+            case 'e': // enum constant
+                out.append(constants.utf8(data.readUnsignedShort())).append('.').append(constants.utf8(data.readUnsignedShort()));
+                break;
+            case 'c': // class literal
+                out.append(constants.utf8(data.readUnsignedShort())).append(".class");
+                break;
+            case '@':
+                readAnnotation(data, constants, out);
+                break;
+            case '[':
+                int valueCount = data.readUnsignedShort();
+                out.append('[');
+                for (int i = 0; i < valueCount; i++) {
+                    out.append(i > 0 ? "," : "");
+                    readElementValue(data, constants, out);
+                }
+                out.append(']');
+                break;
+            default: // a constant, prefixed with its type (e.g. I for int, s for String)
+                out.append((char) tag).append(constants.value(data.readUnsignedShort()));
+        }
+    }
+
+    boolean isPublicOrProtected() {
+        return (access & (Modifier.PUBLIC | Modifier.PROTECTED)) != 0;
+    }
+
+    /**
+     * Returns the path of the source file relative to its source root, e.g. {@code a/b/Foo.java}. If the class file does not contain the name of its
+     * source file, it is derived from the name of the (top level) class.
+     *
+     * @return the relative source path
+     */
+    String getSourcePath() {
+        if (sourceFile == null) {
+            return topLevelName(name) + ".java";
+        }
+        int packageEnd = name.lastIndexOf('/');
+        return (packageEnd > 0 ? name.substring(0, packageEnd + 1) : "") + sourceFile;
+    }
+
+    static String topLevelName(String className) {
+        int nestedIndex = className.indexOf('$', className.lastIndexOf('/') + 1);
+        return nestedIndex > 0 ? className.substring(0, nestedIndex) : className;
+    }
+
+    private static final class ConstantPool {
+
+        private final Object[] pool;
+        private final int[] tags;
+
+        ConstantPool(Object[] pool, int[] tags) {
+            this.pool = pool;
+            this.tags = tags;
+        }
+
+        String utf8(int index) {
+            return (String) pool[index];
+        }
+
+        String className(int index) {
+            return index == 0 ? null : utf8((Integer) pool[index]);
+        }
+
+        Object value(int index) {
+            return tags[index] == TAG_STRING ? utf8((Integer) pool[index]) : pool[index];
+        }
+
+        // besides the class entries, every type descriptor counts as a reference (types of fields, method parameters, annotations, signatures)
+        Set<String> referencedClasses() {
+            Set<String> referenced = new HashSet<>();
+            for (int i = 1; i < pool.length; i++) {
+                if (tags[i] == TAG_CLASS) {
+                    addReferences(className(i), referenced);
+                } else if (pool[i] instanceof String && ((String) pool[i]).indexOf(';') > 0) {
+                    addReferences((String) pool[i], referenced);
+                }
+            }
+            return referenced;
+        }
+
+        // a class name can also be an array descriptor, e.g. [La/b/Foo;
+        private static void addReferences(String nameOrDescriptor, Set<String> referenced) {
+            if (nameOrDescriptor.indexOf(';') < 0) {
+                referenced.add(nameOrDescriptor);
+                return;
+            }
+            Matcher matcher = DESCRIPTOR_TYPE.matcher(nameOrDescriptor);
+            while (matcher.find()) {
+                referenced.add(matcher.group(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+
+/**
+ * Sorts projects by their "longest remaining work": the build duration of a project plus the longest chain of build durations of its downstream projects
+ * (the critical path starting at that project).<br/>
+ * The result is still a valid build order (upstream projects first), but among the projects that are ready to be built, the one with the longest
+ * remaining work comes first. This lets Maven's multithreaded builder start the long poles of the build as early as possible.
+ */
+@Singleton
+@Named
+class CriticalPathSorter {
+
+    private Logger logger = LoggerFactory.getLogger(CriticalPathSorter.class);
+
+    /**
+     * Sorts the given projects.
+     *
+     * @param projects the projects to sort, in a valid build order (e.g. the reactor order)
+     * @param config the configuration providing the project dependency graph and the durations file
+     * @return the sorted projects
+     */
+    List<MavenProject> sort(List<MavenProject> projects, Configuration config) {
+        Map<MavenProject, Long> durations = ModuleDurations.read(config.moduleDurationsFile).estimate(projects);
+        ProjectDependencyGraph graph = config.projectDependencyGraph.get();
+        Map<MavenProject, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < projects.size(); i++) {
+            indexes.put(projects.get(i), i);
+        }
+
+        // transitive to retain the dependencies that are "bridged" by projects that are not part of the given projects
+        Map<MavenProject, List<MavenProject>> upstreamByProject = new HashMap<>();
+        Map<MavenProject, List<MavenProject>> downstreamByProject = new HashMap<>();
+        for (MavenProject project : projects) {
+            List<MavenProject> upstream = graph.getUpstreamProjects(project, true).stream()
+                    .filter(indexes::containsKey)
+                    .collect(Collectors.toList());
+            upstreamByProject.put(project, upstream);
+            upstream.forEach(up -> downstreamByProject.computeIfAbsent(up, p -> new ArrayList<>()).add(project));
+        }
+
+        // in reverse build order, all downstream projects are processed before their upstream projects
+        Map<MavenProject, Long> remainingWork = new HashMap<>();
+        for (int i = projects.size() - 1; i >= 0; i--) {
+            MavenProject project = projects.get(i);
+            long downstreamWork = downstreamByProject.getOrDefault(project, List.of()).stream()
+                    .mapToLong(down -> remainingWork.getOrDefault(down, 0L))
+                    .max()
+                    .orElse(0);
+            remainingWork.put(project, durations.get(project) + downstreamWork);
+        }
+
+        // topological sort (Kahn), picking the ready project with the longest remaining work first
+        PriorityQueue<MavenProject> ready = new PriorityQueue<>(
+                Comparator.comparing((MavenProject proj) -> remainingWork.get(proj)).reversed().thenComparing(indexes::get));
+        Map<MavenProject, Integer> pendingUpstreamCounts = new HashMap<>();
+        for (MavenProject project : projects) {
+            int pending = upstreamByProject.get(project).size();
+            pendingUpstreamCounts.put(project, pending);
+            if (pending == 0) {
+                ready.add(project);
+            }
+        }
+        List<MavenProject> sorted = new ArrayList<>(projects.size());
+        while (!ready.isEmpty()) {
+            MavenProject project = ready.poll();
+            sorted.add(project);
+            for (MavenProject down : downstreamByProject.getOrDefault(project, List.of())) {
+                if (pendingUpstreamCounts.merge(down, -1, Integer::sum) == 0) {
+                    ready.add(down);
+                }
+            }
+        }
+        if (sorted.size() != projects.size()) {     // should not happen since Maven rejects cycles, but better safe than sorry
+            logger.warn("Cannot determine critical path order (cyclic dependencies?), retaining the reactor order.");
+            return projects;
+        }
+        logger.debug("Critical path order (remaining work in ms): {}", sorted.stream()
+                .map(proj -> proj.getArtifactId() + "=" + remainingWork.get(proj))
+                .collect(Collectors.joining(", ")));
+        return sorted;
+    }
+}
@@ -1,8 +1,13 @@
 package io.github.gitflowincrementalbuilder;
 
 import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -11,6 +16,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import javax.inject.Named;
@@ -43,9 +49,16 @@ class DownstreamCalculator {
     private static final String TEST_JAR = "test-jar";
     private static final String TEST_JAR_DEFAULT_CLASSIFIER = "tests";
 
-    private final Map<String, Set<MavenProject>> downstreamCache = new HashMap<>();
+    // closures are shared by all modules that depend on the same module, so they are stored as immutable bit sets of project indices
+    // instead of one set of projects per entry (which adds up quickly in reactors with thousands of modules)
+    // key: project index << 1 | testOnly, see key()
+    private final Map<Integer, BitSet> downstreamCache = new HashMap<>();
     private final Map<String, Set<String>> testJarClassifiersCache = new HashMap<>();
+    private final List<MavenProject> indexedProjects = new ArrayList<>();
+    private final Map<MavenProject, Integer> projectIndices = new HashMap<>();
     private ProjectDependencyGraph graph;
+    private BitSet reactorProjects;
+    private BitSet excludedProjects;
 
     private Logger logger = LoggerFactory.getLogger(DownstreamCalculator.class);
 
@@ -60,52 +73,174 @@ class DownstreamCalculator {
             } else {
                 graph = config.projectDependencyGraph.get();
             }
+            allProjects.forEach(this::indexOf);
+            reactorProjects = toBitSet(config.mavenSession.getProjects());
+            excludedProjects = toBitSet(allProjects.stream().filter(proj -> !isDownstreamModuleNotExcluded(proj, config)).collect(Collectors.toList()));
         }
         boolean testOnly = ChangedProjects.isTestOnly(project);
         // idea: if testOnly, try to map actual changes to test-jar inclusions/exclusions (if present) and bail out if no match
         // possible issue: a file that is not part of a test-jar might contribute to a (generated) file that _is_ part of the test-jar
-        return streamProjectWithDownstreamProjects(project, testOnly, config);
+        return stream(getProjectWithDownstreamProjects(project, testOnly, config));
     }
 
-    private Stream<MavenProject> streamProjectWithDownstreamProjects(MavenProject project, boolean testOnly, Configuration config) {
-        final String cacheKey = project.hashCode() + "_" + testOnly;
-        // note: not using computeIfAbsent() here since it would break recursive invocations with ConcurrentModificationException
-        Set<MavenProject> downstream = downstreamCache.get(cacheKey);
+    // Determines the closure in two steps, without recursion (reactors can contain very long chains of modules):
+    // 1. expand all (project, testOnly) states that are reachable and not cached yet
+    //    (this is where the actual work happens: comparing dependencies, evaluating BOM imports)
+    // 2. combine the closures of the successors of each state, level by level from the last downstream states up (plain bit set operations)
+    private BitSet getProjectWithDownstreamProjects(MavenProject project, boolean testOnly, Configuration config) {
+        final int startKey = key(indexOf(project), testOnly);
+        BitSet downstream = downstreamCache.get(startKey);
         if (downstream != null) {
-            return downstream.stream();
+            return downstream;
         }
-        downstream = new LinkedHashSet<>();
-        downstream.add(project);
-
-        List<MavenProject> unfilteredDownstream = graph.getDownstreamProjects(project, false);
-        if (!unfilteredDownstream.isEmpty()) {
-            for (MavenProject downstreamProj : unfilteredDownstream) {
-                ActualDependentState state = getActualDependentState(downstreamProj, project, testOnly);
-                logger.debug("{} -> {} :: {} [testOnly={}]", downstreamProj.getArtifactId(), project.getArtifactId(), state, testOnly);
-                if (state != ActualDependentState.NONE) {
-                    streamProjectWithDownstreamProjects(downstreamProj, state == ActualDependentState.TEST, config)
-                            .filter(proj -> isDownstreamModuleNotExcluded(proj, config))
-                            .forEach(downstream::add);
-                }
+        Map<Integer, Successors> successorsByKey = expand(startKey, config);
+        for (List<Integer> level : levels(startKey, successorsByKey)) {
+            level.forEach(key -> downstreamCache.put(key, combineClosure(key, successorsByKey.get(key))));
+        }
+        return downstreamCache.get(startKey);
+    }
+
+    private Map<Integer, Successors> expand(int startKey, Configuration config) {
+        Map<Integer, Successors> successorsByKey = new HashMap<>();
+        Deque<Integer> pending = new ArrayDeque<>(List.of(startKey));
+        while (!pending.isEmpty()) {
+            int key = pending.pop();
+            if (!successorsByKey.containsKey(key)) {
+                Successors successors = findSuccessors(key, config);
+                successorsByKey.put(key, successors);
+                successors.keys()
+                        .filter(successorKey -> !downstreamCache.containsKey(successorKey) && !successorsByKey.containsKey(successorKey))
+                        .forEach(pending::push);
             }
         }
+        return successorsByKey;
+    }
+
+    private Successors findSuccessors(int key, Configuration config) {
+        MavenProject project = indexedProjects.get(key >> 1);
+        boolean testOnly = (key & 1) == 1;
+        IntStream.Builder dependents = IntStream.builder();
+        for (MavenProject downstreamProj : graph.getDownstreamProjects(project, false)) {
+            ActualDependentState state = getActualDependentState(downstreamProj, project, testOnly);
+            logger.debug("{} -> {} :: {} [testOnly={}]", downstreamProj.getArtifactId(), project.getArtifactId(), state, testOnly);
+            if (state != ActualDependentState.NONE) {
+                dependents.add(key(indexOf(downstreamProj), state == ActualDependentState.TEST));
+            }
+        }
+        int[] bomImporters = new int[0];
         if (PCKG_POM.equals(project.getPackaging())) {    // performance hint: bomArtifactIdRegex or similar could speed things up
-            downstream.addAll(findBOMDownstreamProjects(project, downstream, config));
+            bomImporters = findBOMImporters(project, config).stream().mapToInt(proj -> key(indexOf(proj), false)).toArray();
         }
-        downstreamCache.put(cacheKey, downstream);
+        return new Successors(dependents.build().toArray(), bomImporters);
+    }
 
-        return downstream.stream();
+    // Groups the expanded states by their distance to the last downstream state (in post-order), so that the closures of the successors of the
+    // states of a level are either cached already or part of a previous level.
+    private List<List<Integer>> levels(int startKey, Map<Integer, Successors> successorsByKey) {
+        Map<Integer, Integer> levelByKey = new HashMap<>();
+        Deque<Integer> stack = new ArrayDeque<>(List.of(startKey));
+        Set<Integer> visited = new HashSet<>();
+        while (!stack.isEmpty()) {
+            int key = stack.peek();
+            if (levelByKey.containsKey(key)) {
+                stack.pop();
+                continue;
+            }
+            Successors successors = successorsByKey.get(key);
+            if (visited.add(key)) {
+                successors.keys()
+                        .filter(successorKey -> successorsByKey.containsKey(successorKey) && !levelByKey.containsKey(successorKey))
+                        .forEach(successorKey -> {
+                            // a visited state without a level is still on the stack (below the current one)
+                            if (visited.contains(successorKey)) {
+                                throw new IllegalStateException("Cycle in downstream modules of " + indexedProjects.get(successorKey >> 1));
+                            }
+                            stack.push(successorKey);
+                        });
+            } else {
+                stack.pop();
+                levelByKey.put(key, successors.keys().filter(successorsByKey::containsKey).map(levelByKey::get).max().orElse(-1) + 1);
+            }
+        }
+        List<List<Integer>> levels = new ArrayList<>();
+        levelByKey.forEach((key, level) -> {
+            while (levels.size() <= level) {
+                levels.add(new ArrayList<>());
+            }
+            levels.get(level).add(key);
+        });
+        return levels;
+    }
+
+    private BitSet combineClosure(int key, Successors successors) {
+        BitSet downstream = new BitSet();
+        downstream.set(key >> 1);
+        for (int dependentKey : successors.dependents) {
+            orNotExcluded(downstream, downstreamCache.get(dependentKey));
+        }
+        if (successors.bomImporters.length > 0) {
+            BitSet bomDownstream = new BitSet();
+            for (int importerKey : successors.bomImporters) {
+                if (!downstream.get(importerKey >> 1)) {    // optimization
+                    bomDownstream.or(downstreamCache.get(importerKey));
+                }
+            }
+            bomDownstream.and(reactorProjects);   // skip projects not part of the actual reactor (see getAllProjects() further up)
+            downstream.or(bomDownstream);
+        }
+        return downstream;
+    }
+
+    private static int key(int projectIndex, boolean testOnly) {
+        return projectIndex << 1 | (testOnly ? 1 : 0);
     }
 
     public void clearCache() {
+        if (!downstreamCache.isEmpty() && logger.isDebugEnabled()) {
+            long bytes = downstreamCache.values().stream().mapToLong(closure -> closure.size() / Byte.SIZE).sum();
+            logger.debug("Clearing {} cached downstream closures of {} modules (~{} KiB)", downstreamCache.size(), indexedProjects.size(), bytes / 1024);
+        }
         graph = null;
+        reactorProjects = null;
+        excludedProjects = null;
         downstreamCache.clear();
         testJarClassifiersCache.clear();
+        indexedProjects.clear();
+        projectIndices.clear();
+    }
+
+    private int indexOf(MavenProject project) {
+        // projects that are not part of getAllProjects() are unexpected but would simply be appended
+        return projectIndices.computeIfAbsent(project, proj -> {
+            indexedProjects.add(proj);
+            return indexedProjects.size() - 1;
+        });
+    }
+
+    private BitSet toBitSet(List<MavenProject> projects) {
+        BitSet bitSet = new BitSet(indexedProjects.size());
+        projects.forEach(proj -> bitSet.set(indexOf(proj)));
+        return bitSet;
+    }
+
+    private Stream<MavenProject> stream(BitSet projects) {
+        return projects.stream().mapToObj(indexedProjects::get);
+    }
+
+    private void orNotExcluded(BitSet target, BitSet source) {
+        if (source.intersects(excludedProjects)) {
+            BitSet filtered = (BitSet) source.clone();
+            filtered.andNot(excludedProjects);
+            target.or(filtered);
+        } else {
+            target.or(source);
+        }
     }
 
     private ActualDependentState getActualDependentState(MavenProject downstreamProject, MavenProject upstreamProject, boolean upstreamTestOnly) {
         if (PCKG_POM.equals(upstreamProject.getPackaging()) && upstreamProject.equals(downstreamProject.getParent())) {
-            return ActualDependentState.MAIN;
+            // child modules referencing changed properties of such a parent have already been added by PropertyChanges
+            return PropertyChanges.isPropertiesOnly(upstreamProject) ? ActualDependentState.NONE : ActualDependentState.MAIN;
         }
         Map<String, Dependency> depsByClassifier = downstreamProject.getDependencies().stream()
                 .filter(dep -> dep.getArtifactId().equals(upstreamProject.getArtifactId())
@@ -197,14 +332,11 @@ class DownstreamCalculator {
         return !config.excludeDownstreamModulesPackagedAs.contains(proj.getPackaging());
     }
 
-    private Set<MavenProject> findBOMDownstreamProjects(MavenProject potentialBOMProject, Set<MavenProject> downstream, Configuration config) {
+    private List<MavenProject> findBOMImporters(MavenProject potentialBOMProject, Configuration config) {
         return config.mavenSession.getAllProjects().stream()    // "All" is crucial to properly handle de-selected BOM case (with dsph)
-                .filter(proj -> !downstream.contains(proj)) // optimization
                 .filter(proj -> isDownstreamModuleNotExcluded(proj, config))
                 .filter(proj -> importsBOM(proj, potentialBOMProject, config))
-                .flatMap(proj -> streamProjectWithDownstreamProjects(proj, false, config)) // (indirect) recursion!
-                .filter(config.mavenSession.getProjects()::contains)   // skip projects not part of the actual reactor (see getAllProjects() further up)
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+                .collect(Collectors.toList());
     }
 
     private Boolean importsBOM(MavenProject project, MavenProject potentialBOMProject, Configuration config) {
@@ -223,6 +355,22 @@ class DownstreamCalculator {
                 && Objects.equals(evaluator.evaluate(dependency.getVersion()), potentialBOMProject.getVersion());
     }
 
+    // successors of a (project, testOnly) state, as keys (see key())
+    private static class Successors {
+
+        private final int[] dependents;
+        private final int[] bomImporters;
+
+        private Successors(int[] dependents, int[] bomImporters) {
+            this.dependents = dependents;
+            this.bomImporters = bomImporters;
+        }
+
+        private IntStream keys() {
+            return IntStream.concat(Arrays.stream(dependents), Arrays.stream(bomImporters));
+        }
+    }
+
     private enum ActualDependentState {
         MAIN,
         TEST,
@@ -0,0 +1,47 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+import io.github.gitflowincrementalbuilder.config.Property;
+
+/**
+ * {@link ChangeSource} reading the changes from {@link Property#changeSourceFile}, e.g. as written by a merge queue that already knows the changes.<br/>
+ * Each line is either a {@code groupId:artifactId:version} of an impacted dependency or the path of a changed file (relative to the top-level project
+ * or absolute). Empty lines and lines starting with {@code #} are ignored.
+ */
+@Singleton
+@Named(FileListChangeSource.NAME)
+class FileListChangeSource implements ChangeSource {
+
+    static final String NAME = "file";
+
+    // no slashes or whitespace, exactly two colons (paths with colons are absolute Windows paths which always contain a backslash or slash)
+    private static final Pattern GAV = Pattern.compile("[^:/\\\\\\s]+:[^:/\\\\\\s]+:[^:/\\\\\\s]+");
+
+    @Override
+    public Stream<Change> stream(Configuration config) {
+        Path file = config.changeSourceFile.orElseThrow(() -> new IllegalArgumentException(
+                Property.changeSourceFile.prefixedName() + " is required for " + Property.changeSource.prefixedName() + " " + NAME));
+        try {
+            return parse(Files.lines(file, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read changes from " + file, e);
+        }
+    }
+
+    static Stream<Change> parse(Stream<String> lines) {
+        return lines.map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .map(line -> GAV.matcher(line).matches() ? Change.ofGav(line) : Change.ofPath(Paths.get(line)));
+    }
+}
@@ -0,0 +1,171 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+
+/**
+ * Tracks a fingerprint of the changed modules (and of the downstream modules that are built) during the build: the fingerprint of the previous build
+ * is compared to the fingerprint after the module is built. Right before a downstream module is built, it is {@link #skip(MavenProject, MavenSession) skipped} (partially)
+ * if none of its (transitive) upstream modules changed its fingerprint. Upstream modules that are not part of the build are not rebuilt, so their fingerprint
+ * is unchanged.<br/>
+ * Modules that are not trackable, that do not have a fingerprint of a previous build or that failed count as changed.
+ */
+abstract class FingerprintTrackingListener extends DelegatingExecutionListener {
+
+    private static final String MAVEN_INSTALL_SKIP = "maven.install.skip";
+
+    protected final Logger logger;
+
+    private final Set<MavenProject> tracked = new HashSet<>();
+    private final Set<MavenProject> downstream;
+
+    private final Map<MavenProject, Optional<String>> fingerprintsBefore = new ConcurrentHashMap<>();
+    private final Set<MavenProject> fingerprintChanged = ConcurrentHashMap.newKeySet();
+
+    FingerprintTrackingListener(ExecutionListener delegate, Set<MavenProject> changed, Collection<MavenProject> downstream, Logger logger) {
+        super(delegate);
+        this.logger = logger;
+        this.downstream = new HashSet<>(downstream);
+        for (MavenProject project : changed) {
+            if (isTrackable(project)) {
+                tracked.add(project);
+            } else {
+                fingerprintChanged.add(project);
+            }
+        }
+        tracked.addAll(downstream);
+    }
+
+    /**
+     * Returns whether or not the given changed module can be tracked at all.
+     *
+     * @param changedProject the changed module
+     * @return {@code true} by default
+     */
+    protected boolean isTrackable(MavenProject changedProject) {
+        return true;
+    }
+
+    /**
+     * Returns the fingerprint of the previous build of the given module. Called right before the module is built.
+     *
+     * @param project the module
+     * @param session the session
+     * @return the fingerprint or empty if there is none
+     * @throws IOException if computing the fingerprint fails
+     */
+    protected abstract Optional<String> fingerprintBefore(MavenProject project, MavenSession session) throws IOException;
+
+    /**
+     * Returns the fingerprint of the given module after it has been built.
+     *
+     * @param project the module
+     * @return the fingerprint or empty if there is none
+     * @throws IOException if computing the fingerprint fails
+     */
+    protected abstract Optional<String> fingerprintAfter(MavenProject project) throws IOException;
+
+    /**
+     * Returns whether or not the given downstream module can be skipped, in case the fingerprints of its upstream modules are unchanged.
+     *
+     * @param project the downstream module
+     * @return {@code true} if the module has class files of a previous build (by default)
+     */
+    protected boolean canSkip(MavenProject project) {
+        try {
+            return !ClassDependencyIndex.listClassFiles(Paths.get(project.getBuild().getOutputDirectory())).isEmpty();
+        } catch (IOException e) {
+            logger.debug("Failed to list class files of {}: {}", project.getArtifactId(), e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * Skips (parts of) the given downstream module, e.g. by setting project properties.
+     *
+     * @param project the downstream module
+     * @param session the session
+     */
+    protected abstract void skip(MavenProject project, MavenSession session);
+
+    /**
+     * Skips the installation of the given skipped downstream module if the artifact that was packaged by its previous build is already installed.
+     * The artifact is not packaged again anyway (maven-jar-plugin does not recreate a jar whose contents are unchanged and there is no property to skip it).
+     *
+     * @param project the downstream module
+     * @param session the session
+     * @return {@code true} if the installation is skipped
+     */
+    protected boolean skipInstallIfInstalled(MavenProject project, MavenSession session) {
+        try {
+            if (ArtifactTracker.isPackagedArtifactInstalled(project, session)) {
+                project.getProperties().setProperty(MAVEN_INSTALL_SKIP, Boolean.TRUE.toString());
+                return true;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Failed to compare the packaged and the installed artifact of {}: {}", project.getArtifactId(), e.toString());
+        }
+        return false;
+    }
+
+    @Override
+    public void projectStarted(ExecutionEvent event) {
+        MavenProject project = event.getProject();
+        if (downstream.contains(project) && canSkip(project) && event.getSession().getProjectDependencyGraph().getUpstreamProjects(project, true)
+                .stream().noneMatch(fingerprintChanged::contains)) {
+            skip(project, event.getSession());
+        } else if (tracked.contains(project)) {
+            fingerprintsBefore.put(project, fingerprint(() -> fingerprintBefore(project, event.getSession()), project));
+        }
+        super.projectStarted(event);
+    }
+
+    @Override
+    public void projectSucceeded(ExecutionEvent event) {
+        super.projectSucceeded(event);
+        MavenProject project = event.getProject();
+        Optional<String> before = fingerprintsBefore.remove(project);
+        if (before == null) {
+            return;
+        }
+        if (before.isEmpty() || !before.equals(fingerprint(() -> fingerprintAfter(project), project))) {
+            logger.debug("Fingerprint of {} changed.", project.getArtifactId());
+            fingerprintChanged.add(project);
+        }
+    }
+
+    @Override
+    public void projectFailed(ExecutionEvent event) {
+        super.projectFailed(event);
+        if (fingerprintsBefore.remove(event.getProject()) != null) {
+            fingerprintChanged.add(event.getProject());
+        }
+    }
+
+    private Optional<String> fingerprint(FingerprintSupplier supplier, MavenProject project) {
+        try {
+            return supplier.get();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to compute the fingerprint of {}: {}", project.getArtifactId(), e.toString());
+            logger.debug("Full exception:", e);
+            return Optional.empty();
+        }
+    }
+
+    @FunctionalInterface
+    private interface FingerprintSupplier {
+        Optional<String> get() throws IOException;
+    }
+}
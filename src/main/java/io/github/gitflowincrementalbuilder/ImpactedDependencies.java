@@ -52,24 +52,35 @@ class ImpactedDependencies {
             }
 
             logger.info("Found {} impacted dependencies from file: {}", impactedGAVs.size(), impactedDepsFile);
-            impactedGAVs.forEach(gav -> logger.debug("  - {}", gav));
-
-            // Find all projects that have transitive dependencies matching the impacted GAVs
-            Set<MavenProject> affectedProjects = new HashSet<>();
-            for (MavenProject project : config.mavenSession.getProjects()) {
-                if (hasTransitiveDependency(project, impactedGAVs)) {
-                    affectedProjects.add(project);
-                    logger.debug("Project {} has transitive dependency to impacted GAV", project.getId());
-                }
-            }
-
-            logger.info("Found {} projects with transitive dependencies to impacted GAVs", affectedProjects.size());
-            return affectedProjects;
+            return get(impactedGAVs, config);
         } catch (IOException e) {
             throw new IllegalStateException("Failed to read impacted dependencies from " + impactedDepsFile, e);
         }
     }
 
+    /**
+     * Returns the projects with (transitive) dependencies to any of the given GAVs, e.g. as streamed by a {@link ChangeSource}.
+     *
+     * @param impactedGAVs the impacted {@code groupId:artifactId:version}s
+     * @param config the configuration
+     * @return the affected projects
+     */
+    public Set<MavenProject> get(Set<String> impactedGAVs, Configuration config) {
+        impactedGAVs.forEach(gav -> logger.debug("  - {}", gav));
+
+        // Find all projects that have transitive dependencies matching the impacted GAVs
+        Set<MavenProject> affectedProjects = new HashSet<>();
+        for (MavenProject project : config.mavenSession.getProjects()) {
+            if (hasTransitiveDependency(project, impactedGAVs)) {
+                affectedProjects.add(project);
+                logger.debug("Project {} has transitive dependency to impacted GAV", project.getId());
+            }
+        }
+
+        logger.info("Found {} projects with transitive dependencies to impacted GAVs", affectedProjects.size());
+        return affectedProjects;
+    }
+
     private boolean hasTransitiveDependency(MavenProject project, Set<String> impactedGAVs) {
         List<Dependency> allDependencies = project.getModel().getDependencies();
         if (allDependencies == null) {
@@ -0,0 +1,193 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.ContainerConfiguration;
+import org.codehaus.plexus.DefaultContainerConfiguration;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.codehaus.plexus.PlexusConstants;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.PlexusContainerException;
+import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.gitflowincrementalbuilder.UnchangedProjectsRemover.LazyMavenProjectComparator;
+import io.github.gitflowincrementalbuilder.config.Configuration;
+import io.github.gitflowincrementalbuilder.jgit.GitProvider;
+
+/**
+ * Command line entry point that prints the impacted modules (changed modules and their downstream modules) without running a Maven build.<br/>
+ * The reactor is loaded via {@link ReactorLoader} and the components are wired by the same Sisu container that Maven uses (scanning the
+ * {@code META-INF/sisu} indices of the classpath), so custom {@link ChangeSource} implementations on the classpath are picked up as well.
+ * Log messages are written via SLF4J, so they don't interfere with the module list that is printed to stdout.
+ */
+class ImpactedProjectsCli {
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_ERROR = 1;
+    static final int EXIT_USAGE = 2;
+
+    private static final String POM_XML = "pom.xml";
+
+    private static final String USAGE = "Usage: java -cp <classpath> " + ImpactedProjectsCli.class.getName()
+            + " [-f <pom.xml>] [--gav] [-P <profile>[,<profile>...]] [-D<property>=<value>...]\n"
+            + "  -f, --file        pom.xml of the execution root (default: ./pom.xml)\n"
+            + "  --gav             print groupId:artifactId:version instead of the relative module paths\n"
+            + "  -P, --profiles    profiles to activate (only their modules are considered)\n"
+            + "  -D<prop>=<value>  sets a (GIB) property, e.g. -Dgib.referenceBranch=refs/remotes/origin/main";
+
+    private Logger logger = LoggerFactory.getLogger(ImpactedProjectsCli.class);
+
+    public static void main(String[] args) {
+        System.exit(new ImpactedProjectsCli().run(args, System.out, System.err));
+    }
+
+    int run(String[] args, PrintStream out, PrintStream err) {
+        Path pom = Paths.get(POM_XML);
+        boolean gav = false;
+        Properties userProperties = new Properties();
+        Set<String> profiles = new LinkedHashSet<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if ((arg.equals("-f") || arg.equals("--file")) && i + 1 < args.length) {
+                pom = Paths.get(args[++i]);
+            } else if (arg.equals("--gav")) {
+                gav = true;
+            } else if ((arg.equals("-P") || arg.equals("--profiles")) && i + 1 < args.length) {
+                profiles.addAll(Arrays.asList(args[++i].split(",")));
+            } else if (arg.startsWith("-D") && arg.length() > 2) {
+                int indexOfDelim = arg.indexOf('=');
+                userProperties.setProperty(indexOfDelim > 0 ? arg.substring(2, indexOfDelim) : arg.substring(2),
+                        indexOfDelim > 0 ? arg.substring(indexOfDelim + 1) : "");
+            } else {
+                err.println(arg.equals("-h") || arg.equals("--help") ? USAGE : "Unknown or incomplete argument: " + arg + "\n" + USAGE);
+                return EXIT_USAGE;
+            }
+        }
+        if (Files.isDirectory(pom)) {
+            pom = pom.resolve(POM_XML);
+        }
+        if (!Files.isRegularFile(pom)) {
+            err.println("File not found: " + pom + "\n" + USAGE);
+            return EXIT_USAGE;
+        }
+        try {
+            print(findImpactedProjects(pom, userProperties, profiles), pom, gav, out);
+            return EXIT_OK;
+        } catch (IOException | PlexusContainerException | ComponentLookupException | RuntimeException e) {
+            logger.error("Failed to determine impacted modules", e);
+            return EXIT_ERROR;
+        }
+    }
+
+    private List<MavenProject> findImpactedProjects(Path pom, Properties userProperties, Set<String> profiles)
+            throws IOException, PlexusContainerException, ComponentLookupException {
+        long start = System.currentTimeMillis();
+        List<MavenProject> allProjects = new ReactorLoader(userProperties, profiles).load(pom);
+        // -D properties override the ones defined in the poms (but not the plugin configuration, just like for mvn)
+        allProjects.get(0).getProperties().putAll(userProperties);
+        PlexusContainer container = createContainer();
+        try {
+            MavenSession session = createSession(container, pom, allProjects, userProperties, profiles);
+            Configuration config = new Configuration(session);
+            ProjectDependencyGraph graph = ProjectDependencyGraphFactory.createGraph(allProjects, config, true);
+            session.setProjectDependencyGraph(graph);
+            session.setAllProjects(graph.getSortedProjects());
+            session.setProjects(graph.getSortedProjects());
+            logger.debug("Loading {} projects took {}ms", allProjects.size(), System.currentTimeMillis() - start);
+
+            if (config.disable) {
+                logger.info("gitflow-incremental-builder is disabled, so all modules are impacted.");
+                return session.getProjects();
+            }
+            return findImpactedProjects(container, session, config);
+        } finally {
+            container.dispose();
+            logger.debug("Finished after {}ms", System.currentTimeMillis() - start);
+        }
+    }
+
+    private List<MavenProject> findImpactedProjects(PlexusContainer container, MavenSession session, Configuration config)
+            throws ComponentLookupException {
+        GitProvider gitProvider = container.lookup(GitProvider.class);
+        DownstreamCalculator downstreamCalculator = container.lookup(DownstreamCalculator.class);
+        try {
+            Set<MavenProject> changed = config.impactedDependenciesFrom.isPresent()
+                    ? container.lookup(ImpactedDependencies.class).get(config)
+                    : container.lookup(ChangedProjects.class).get(config);
+            Stream<MavenProject> impacted = changed.stream();
+            if (config.buildAll || config.buildDownstream) {
+                impacted = impacted.flatMap(proj -> downstreamCalculator.streamProjectWithDownstreamProjects(proj, config));
+            }
+            LazyMavenProjectComparator projectComparator = new LazyMavenProjectComparator(session);
+            return impacted
+                    .distinct()
+                    .sorted(projectComparator)
+                    .collect(Collectors.toList());
+        } catch (SkipExecutionException e) {
+            logger.info("gitflow-incremental-builder execution skipped, so all modules are impacted: {}", e.getMessage());
+            return session.getProjects();
+        } finally {
+            downstreamCalculator.clearCache();
+            gitProvider.close();
+        }
+    }
+
+    // like Maven's own container (see MavenCli), just without the core extensions and the class realms of the build extensions
+    private static PlexusContainer createContainer() throws PlexusContainerException {
+        ContainerConfiguration containerConfig = new DefaultContainerConfiguration()
+                .setName("gib-cli")
+                .setClassPathScanning(PlexusConstants.SCANNING_INDEX)
+                .setAutoWiring(true)
+                .setJSR250Lifecycle(true);
+        return new DefaultPlexusContainer(containerConfig);
+    }
+
+    @SuppressWarnings("deprecation")    // all constructors are deprecated (Maven itself creates the session via a Guice scope)
+    private static MavenSession createSession(PlexusContainer container, Path pom, List<MavenProject> allProjects, Properties userProperties,
+            Set<String> profiles) {
+        MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+        request.setPom(pom.toFile());
+        request.setBaseDirectory(pom.toAbsolutePath().getParent().toFile());
+        request.setUserProperties(userProperties);
+        request.setSystemProperties(System.getProperties());
+        request.setActiveProfiles(List.copyOf(profiles));
+
+        MavenSession session = new MavenSession(container, null, request, new DefaultMavenExecutionResult());
+        session.setAllProjects(allProjects);
+        session.setProjects(allProjects);
+        session.setCurrentProject(allProjects.get(0));
+        return session;
+    }
+
+    // paths are relative to the execution root so that they can be passed to -pl as is
+    private static void print(List<MavenProject> projects, Path pom, boolean gav, PrintStream out) {
+        Path rootDir = pom.toAbsolutePath().normalize().getParent();
+        for (MavenProject project : projects) {
+            if (gav) {
+                out.println(project.getGroupId() + ":" + project.getArtifactId() + ":" + project.getVersion());
+            } else {
+                String path = rootDir.relativize(project.getBasedir().toPath().normalize()).toString();
+                out.println(path.isEmpty() ? "." : path);
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * {@link ProjectDependencyGraph} for frequent queries in large reactors, created from a regular graph (which also detects cycles etc.).<br/>
+ * The projects are indexed in their topological order and the direct upstream and downstream projects of each project are stored as sorted arrays
+ * of indices (compressed sparse rows), so the results are already in build order. Transitive results are collected in a single pass over the
+ * indices and cached.
+ */
+class IndexedProjectDependencyGraph implements ProjectDependencyGraph {
+
+    private final List<MavenProject> allProjects;
+    private final List<MavenProject> sortedProjects;
+    private final Map<MavenProject, Integer> indices;
+
+    // the direct downstream projects of project i: downstream[downstreamOffsets[i]] until (exclusive) downstream[downstreamOffsets[i + 1]]
+    private final int[] downstreamOffsets;
+    private final int[] downstream;
+    // same for upstream
+    private final int[] upstreamOffsets;
+    private final int[] upstream;
+
+    private final Map<Integer, List<MavenProject>> transitiveDownstreamCache = new ConcurrentHashMap<>();
+    private final Map<Integer, List<MavenProject>> transitiveUpstreamCache = new ConcurrentHashMap<>();
+
+    IndexedProjectDependencyGraph(ProjectDependencyGraph graph) {
+        this.allProjects = Collections.unmodifiableList(new ArrayList<>(graph.getAllProjects()));
+        this.sortedProjects = Collections.unmodifiableList(new ArrayList<>(graph.getSortedProjects()));
+        int size = sortedProjects.size();
+        this.indices = new HashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            indices.put(sortedProjects.get(i), i);
+        }
+
+        int[][] directDownstream = new int[size][];
+        int edges = 0;
+        for (int i = 0; i < size; i++) {
+            directDownstream[i] = graph.getDownstreamProjects(sortedProjects.get(i), false).stream().mapToInt(this::indexOf).sorted().toArray();
+            edges += directDownstream[i].length;
+        }
+
+        downstreamOffsets = new int[size + 1];
+        downstream = new int[edges];
+        int[] upstreamCounts = new int[size];
+        for (int i = 0, pos = 0; i < size; i++) {
+            downstreamOffsets[i] = pos;
+            for (int j : directDownstream[i]) {
+                downstream[pos++] = j;
+                upstreamCounts[j]++;
+            }
+        }
+        downstreamOffsets[size] = edges;
+
+        // invert the downstream edges, in ascending order of the upstream projects so that each row is sorted
+        upstreamOffsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            upstreamOffsets[i + 1] = upstreamOffsets[i] + upstreamCounts[i];
+        }
+        upstream = new int[edges];
+        int[] upstreamPositions = upstreamOffsets.clone();
+        for (int i = 0; i < size; i++) {
+            for (int j : directDownstream[i]) {
+                upstream[upstreamPositions[j]++] = i;
+            }
+        }
+    }
+
+    @Override
+    public List<MavenProject> getAllProjects() {
+        return allProjects;
+    }
+
+    @Override
+    public List<MavenProject> getSortedProjects() {
+        return new ArrayList<>(sortedProjects);
+    }
+
+    @Override
+    public List<MavenProject> getDownstreamProjects(MavenProject project, boolean transitive) {
+        int index = indexOf(Objects.requireNonNull(project, "project cannot be null"));
+        if (!transitive) {
+            return toProjects(downstream, downstreamOffsets[index], downstreamOffsets[index + 1]);
+        }
+        // downstream projects always have a higher index, so a single ascending pass is sufficient
+        return new ArrayList<>(transitiveDownstreamCache.computeIfAbsent(index, ignored -> {
+            BitSet closure = new BitSet(sortedProjects.size());
+            setAll(closure, downstream, downstreamOffsets[index], downstreamOffsets[index + 1]);
+            for (int i = closure.nextSetBit(index + 1); i >= 0; i = closure.nextSetBit(i + 1)) {
+                setAll(closure, downstream, downstreamOffsets[i], downstreamOffsets[i + 1]);
+            }
+            return toProjects(closure);
+        }));
+    }
+
+    @Override
+    public List<MavenProject> getUpstreamProjects(MavenProject project, boolean transitive) {
+        int index = indexOf(Objects.requireNonNull(project, "project cannot be null"));
+        if (!transitive) {
+            return toProjects(upstream, upstreamOffsets[index], upstreamOffsets[index + 1]);
+        }
+        // upstream projects always have a lower index, so a single descending pass is sufficient
+        return new ArrayList<>(transitiveUpstreamCache.computeIfAbsent(index, ignored -> {
+            BitSet closure = new BitSet(index);
+            setAll(closure, upstream, upstreamOffsets[index], upstreamOffsets[index + 1]);
+            for (int i = closure.previousSetBit(index - 1); i >= 0; i = closure.previousSetBit(i - 1)) {
+                setAll(closure, upstream, upstreamOffsets[i], upstreamOffsets[i + 1]);
+            }
+            return toProjects(closure);
+        }));
+    }
+
+    @Override
+    public String toString() {
+        return sortedProjects.toString();
+    }
+
+    private int indexOf(MavenProject project) {
+        Integer index = indices.get(project);
+        if (index == null) {
+            throw new IllegalArgumentException("Project is not part of the graph: " + project);
+        }
+        return index;
+    }
+
+    private List<MavenProject> toProjects(int[] projectIndices, int from, int to) {
+        List<MavenProject> projects = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            projects.add(sortedProjects.get(projectIndices[i]));
+        }
+        return projects;
+    }
+
+    private List<MavenProject> toProjects(BitSet projectIndices) {
+        List<MavenProject> projects = new ArrayList<>(projectIndices.cardinality());
+        projectIndices.stream().forEach(i -> projects.add(sortedProjects.get(i)));
+        return Collections.unmodifiableList(projects);
+    }
+
+    private static void setAll(BitSet target, int[] projectIndices, int from, int to) {
+        for (int i = from; i < to; i++) {
+            target.set(projectIndices[i]);
+        }
+    }
+}
@@ -1,29 +1,46 @@
 package io.github.gitflowincrementalbuilder;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.apache.maven.AbstractMavenLifecycleParticipant;
 import org.apache.maven.MavenExecutionException;
+import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.github.gitflowincrementalbuilder.config.Configuration;
 import io.github.gitflowincrementalbuilder.config.Property;
+import io.github.gitflowincrementalbuilder.jgit.DifferentFiles;
 import io.github.gitflowincrementalbuilder.jgit.GitProvider;
 
 @Singleton
 @Named
 public class MavenLifecycleParticipant extends AbstractMavenLifecycleParticipant {
 
+    // all properties that the conditions to disable GIB depend on
+    private static final List<Property> DISABLE_PROPERTIES = List.of(
+            Property.disable, Property.disableIfBranchMatches, Property.disableIfReferenceBranchMatches, Property.referenceBranch);
+
     private Logger logger = LoggerFactory.getLogger(MavenLifecycleParticipant.class);
 
     @Inject private UnchangedProjectsRemover unchangedProjectsRemover;
 
     @Inject private GitProvider gitProvider;
 
+    @Inject private DifferentFiles differentFiles;
+
+    @Inject private ModuleDurationsRecorder moduleDurationsRecorder;
+
     private final String implVersion;
 
     public MavenLifecycleParticipant() {
@@ -35,10 +52,25 @@ public class MavenLifecycleParticipant extends AbstractMavenLifecycleParticipant
         this.implVersion = implVersion;
     }
 
+    @Override
+    public void afterSessionStart(MavenSession session) {
+        // the change detection does not depend on the projects, so it can already run while Maven is reading them
+        readPreliminaryConfiguration(session)
+                .filter(config -> config.detectChangesEarly && ChangeSource.JGIT.equals(config.changeSource) && !isDisabledEarly(config))
+                .ifPresent(differentFiles::startEarly);
+    }
+
     @Override
     public void afterProjectsRead(MavenSession session) throws MavenExecutionException {
+        try {
+            afterProjectsRead(new Configuration(session));
+        } finally {
+            differentFiles.discardEarly();
+            gitProvider.close();
+        }
+    }
 
-        final Configuration config = new Configuration(session);
+    private void afterProjectsRead(Configuration config) throws MavenExecutionException {
 
         if (config.help) {
             logHelp();
@@ -51,17 +83,51 @@ public class MavenLifecycleParticipant extends AbstractMavenLifecycleParticipant
 
         // check prerequisites
         // config.projectDependencyGraph is not used here deliberately, because it doesn't make sense to build our own graph if even Maven doesn't provide one
-        if (session.getProjectDependencyGraph() == null) {
+        if (config.mavenSession.getProjectDependencyGraph() == null) {
             logger.warn("Execution of gitflow-incremental-builder is not supported in this environment: "
                     + "Current MavenSession does not provide a ProjectDependencyGraph. "
                     + "Consider disabling gitflow-incremental-builder via property '" + Property.disable.name() + "'.");
             return;
         }
 
+        if (config.recordModuleDurations) {
+            moduleDurationsRecorder.register(config);
+        }
+
+        perform(config);
+    }
+
+    // the projects are not read yet, so the configuration can only be taken from the raw pom of the top-level project (no inheritance, no interpolation)
+    private Optional<Configuration> readPreliminaryConfiguration(MavenSession session) {
+        MavenExecutionRequest request = session.getRequest();
+        File pom = request.getPom();
+        if (!request.isRecursive() || pom == null || !pom.isFile()) {
+            return Optional.empty();
+        }
         try {
-            perform(config);
-        } finally {
-            gitProvider.close();
+            MavenProject project = new MavenProject(new PomParser().parse(pom.toPath()));
+            project.setFile(pom.getAbsoluteFile());
+            return Optional.of(new Configuration(session, project));
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Failed to read preliminary configuration from {}: {}", pom, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    // the same conditions as in afterProjectsRead(), but only logged there since they are evaluated again for the actual configuration
+    private boolean isDisabledEarly(Configuration config) {
+        Map<Property, String> values = config.getValues(DISABLE_PROPERTIES);
+        if (values.values().stream().anyMatch(value -> value.contains("${"))) {
+            logger.debug("Not detecting changes early since the conditions to disable are not interpolated yet: {}", values);
+            return true;
+        }
+        try {
+            return config.disable
+                    || config.disableIfReferenceBranchMatches.map(predicate -> predicate.test(config.referenceBranch)).orElse(false)
+                    || config.disableIfBranchMatches.map(predicate -> predicate.test(gitProvider.getCurrentBranch(config))).orElse(false);
+        } catch (RuntimeException e) {
+            logger.debug("Not detecting changes early since the current branch cannot be determined: {}", e.toString());
+            return true;
         }
     }
 
@@ -0,0 +1,227 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Build durations of modules, read from an append-only file with lines like {@code groupId:artifactId=millis} (the whole module)
+ * or {@code groupId:artifactId@phase=millis} (a single lifecycle phase), empty lines and lines starting with {@code #} are ignored.<br/>
+ * Each line is a sample and multiple samples of the same module (or phase) are condensed into rolling statistics:
+ * an exponentially weighted moving average (newer samples weigh more) and the 95th percentile of the last {@value #MAX_SAMPLES} samples.
+ * Only the durations of whole modules are queried, the ones of the phases are just kept for analysis.<br/>
+ * Since the durations are only used for balancing/prioritizing, a missing or unreadable file is not an error.
+ */
+class ModuleDurations {
+
+    static final int MAX_SAMPLES = 20;
+    static final int COMPACTION_FACTOR = MAX_SAMPLES * 2;
+
+    private static final double EWMA_ALPHA = 0.3;
+    private static final String PHASE_DELIMITER = "@";
+    private static final String LOCK_FILE_SUFFIX = ".lock";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModuleDurations.class);
+
+    // oldest sample first
+    private final Map<String, List<Long>> samples;
+
+    private ModuleDurations(Map<String, List<Long>> samples) {
+        this.samples = samples;
+    }
+
+    /**
+     * Reads the durations from the given file (if any).
+     *
+     * @param file the durations file
+     * @return the durations, empty if no file is given or if it cannot be read
+     */
+    static ModuleDurations read(Optional<Path> file) {
+        if (file.isEmpty()) {
+            return new ModuleDurations(Collections.emptyMap());
+        }
+        Path path = file.get();
+        if (!Files.isRegularFile(path)) {
+            LOGGER.debug("Module durations file {} does not exist (yet).", path);
+            return new ModuleDurations(Collections.emptyMap());
+        }
+        try {
+            return new ModuleDurations(readSamples(path));
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read module durations from {}: {}", path, e.toString());
+            return new ModuleDurations(Collections.emptyMap());
+        }
+    }
+
+    /**
+     * Appends the given samples to the given file. The file is only read for compaction (to the last {@value #MAX_SAMPLES} samples per key), which
+     * happens once it is more than {@value #COMPACTION_FACTOR} times the size of the appended samples, so it holds that many builds (roughly).<br/>
+     * Builds that share the file (e.g. concurrent builds of different worktrees) must not lose each other's samples, so both happen under an exclusive
+     * lock of a lock file next to the given file (the given file itself is replaced by the compaction).
+     *
+     * @param file the durations file
+     * @param newSamples the durations to append, mapped by key (see {@link #key(MavenProject)} and {@link #key(MavenProject, String)})
+     * @throws IOException if reading or writing the file fails
+     */
+    static void append(Path file, Map<String, Long> newSamples) throws IOException {
+        List<String> newLines = newSamples.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.toList());
+        Path parentDir = file.toAbsolutePath().getParent();
+        if (parentDir != null) {
+            Files.createDirectories(parentDir);
+        }
+        Path lockFile = file.resolveSibling(file.getFileName() + LOCK_FILE_SUFFIX);
+        // a file lock is held on behalf of the whole JVM, so it does not guard against other threads
+        synchronized (ModuleDurations.class) {
+            try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                // released by closing the channel
+                lockChannel.lock();
+                append(file, newLines, parentDir);
+            }
+        }
+    }
+
+    private static void append(Path file, List<String> newLines, Path parentDir) throws IOException {
+        long newSize = newLines.stream().mapToLong(line -> line.length() + 1).sum();
+        if (!Files.isRegularFile(file) || Files.size(file) <= newSize * COMPACTION_FACTOR) {
+            Files.write(file, newLines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            return;
+        }
+        Map<String, List<Long>> allSamples = readSamples(file);
+        List<String> compacted = new ArrayList<>();
+        allSamples.forEach((key, keySamples) -> keySamples.subList(Math.max(0, keySamples.size() - MAX_SAMPLES), keySamples.size())
+                .forEach(sample -> compacted.add(key + "=" + sample)));
+        compacted.addAll(newLines);
+        Path tempFile = Files.createTempFile(parentDir, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tempFile, compacted, StandardCharsets.UTF_8);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        LOGGER.debug("Compacted {} from {} to {} samples.", file, allSamples.values().stream().mapToInt(List::size).sum() + newLines.size(),
+                compacted.size());
+    }
+
+    private static Map<String, List<Long>> readSamples(Path path) throws IOException {
+        Map<String, List<Long>> samples = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            int indexOfDelim = line.lastIndexOf('=');
+            if (line.isEmpty() || line.startsWith("#") || indexOfDelim <= 0) {
+                continue;
+            }
+            try {
+                long sample = Long.parseLong(line.substring(indexOfDelim + 1).trim());
+                samples.computeIfAbsent(line.substring(0, indexOfDelim).trim(), key -> new ArrayList<>()).add(sample);
+            } catch (NumberFormatException e) {
+                LOGGER.debug("Ignoring invalid line in {}: {}", path, line);
+            }
+        }
+        return samples;
+    }
+
+    static String key(MavenProject project) {
+        return project.getGroupId() + ":" + project.getArtifactId();
+    }
+
+    static String key(MavenProject project, String phase) {
+        return key(project) + PHASE_DELIMITER + phase;
+    }
+
+    /**
+     * Returns the (average) duration of the given project.
+     *
+     * @param project the project
+     * @return the exponentially weighted moving average of the durations in milliseconds or empty if none is recorded
+     */
+    Optional<Long> get(MavenProject project) {
+        return ewma(key(project));
+    }
+
+    /**
+     * Returns the 95th percentile of the last {@value #MAX_SAMPLES} durations of the given project.
+     *
+     * @param project the project
+     * @return the 95th percentile in milliseconds or empty if none is recorded
+     */
+    Optional<Long> getP95(MavenProject project) {
+        return p95(key(project));
+    }
+
+    private Optional<Long> ewma(String key) {
+        List<Long> keySamples = samples.get(key);
+        if (keySamples == null) {
+            return Optional.empty();
+        }
+        double average = keySamples.get(0);
+        for (int i = 1; i < keySamples.size(); i++) {
+            average = EWMA_ALPHA * keySamples.get(i) + (1 - EWMA_ALPHA) * average;
+        }
+        return Optional.of(Math.round(average));
+    }
+
+    // nearest-rank method
+    private Optional<Long> p95(String key) {
+        List<Long> keySamples = samples.get(key);
+        if (keySamples == null) {
+            return Optional.empty();
+        }
+        List<Long> sorted = keySamples.subList(Math.max(0, keySamples.size() - MAX_SAMPLES), keySamples.size()).stream()
+                .sorted()
+                .collect(Collectors.toList());
+        return Optional.of(sorted.get((int) Math.ceil(0.95 * sorted.size()) - 1));
+    }
+
+    /**
+     * Estimates the durations of the given projects: the recorded duration or, if none is recorded,
+     * the average of the recorded durations of the given projects (or 1 if none of them has a recorded duration).
+     *
+     * @param projects the projects for which the durations shall be estimated
+     * @return the estimated durations in milliseconds (moving averages), mapped by project
+     */
+    Map<MavenProject, Long> estimate(Collection<MavenProject> projects) {
+        return estimate(projects, this::get);
+    }
+
+    /**
+     * Same as {@link #estimate(Collection)}, but based on the 95th percentiles instead of the moving averages.
+     *
+     * @param projects the projects for which the durations shall be estimated
+     * @return the estimated durations in milliseconds (95th percentiles), mapped by project
+     */
+    Map<MavenProject, Long> estimateP95(Collection<MavenProject> projects) {
+        return estimate(projects, this::getP95);
+    }
+
+    private static Map<MavenProject, Long> estimate(Collection<MavenProject> projects, Function<MavenProject, Optional<Long>> recorded) {
+        long fallback = Math.max(1, Math.round(projects.stream()
+                .map(recorded)
+                .flatMap(Optional::stream)
+                .mapToLong(Long::longValue)
+                .average()
+                .orElse(1)));
+        Map<MavenProject, Long> estimates = new HashMap<>();
+        projects.forEach(proj -> estimates.put(proj, Math.max(1, recorded.apply(proj).orElse(fallback))));
+        return estimates;
+    }
+}
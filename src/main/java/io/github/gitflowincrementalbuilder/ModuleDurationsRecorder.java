@@ -0,0 +1,145 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+import io.github.gitflowincrementalbuilder.config.Property;
+
+/**
+ * Records the build durations of the modules (and of their lifecycle phases) via an {@link ExecutionListener} that is chained with the existing listener
+ * of the request (an {@code EventSpy} would only be picked up if GIB is registered as a core extension). The durations are appended to
+ * {@link Configuration#moduleDurationsFile} at the end of the session, see {@link ModuleDurations}.<br/>
+ * The listener just takes timestamps and collects the durations in memory, so its overhead is negligible.
+ * Durations of failed modules, of modules whose tests are skipped by GIB and of validate-only builds are not recorded since they are not representative.
+ */
+@Singleton
+@Named
+class ModuleDurationsRecorder {
+
+    private static final String MAVEN_TEST_SKIP = "maven.test.skip";
+    private static final String MAVEN_TEST_SKIP_EXEC = "skipTests";
+    private static final String VALIDATE = "validate";
+
+    private Logger logger = LoggerFactory.getLogger(ModuleDurationsRecorder.class);
+
+    /**
+     * Registers the recording listener for the session of the given configuration.
+     *
+     * @param config the configuration providing the session and the durations file
+     */
+    void register(Configuration config) {
+        if (config.moduleDurationsFile.isEmpty()) {
+            logger.warn("Ignoring {} since {} is not defined.", Property.recordModuleDurations.prefixedName(), Property.moduleDurationsFile.prefixedName());
+            return;
+        }
+        MavenExecutionRequest request = config.mavenSession.getRequest();
+        request.setExecutionListener(new RecordingExecutionListener(request.getExecutionListener(), config.moduleDurationsFile.get()));
+    }
+
+    private class RecordingExecutionListener extends DelegatingExecutionListener {
+
+        private final Path durationsFile;
+
+        private final Map<MavenProject, Long> projectStarts = new ConcurrentHashMap<>();
+        private final Map<MavenProject, Deque<Long>> mojoStarts = new ConcurrentHashMap<>();
+        private final Map<MavenProject, Map<String, Long>> phaseDurations = new ConcurrentHashMap<>();
+        private final Map<String, Long> samples = new ConcurrentHashMap<>();
+
+        RecordingExecutionListener(ExecutionListener delegate, Path durationsFile) {
+            super(delegate);
+            this.durationsFile = durationsFile;
+        }
+
+        @Override
+        public void sessionEnded(ExecutionEvent event) {
+            super.sessionEnded(event);
+            if (samples.isEmpty() || event.getSession().getGoals().equals(List.of(VALIDATE))) {
+                return;
+            }
+            try {
+                ModuleDurations.append(durationsFile, new TreeMap<>(samples));
+                logger.debug("Recorded {} duration(s) in {}", samples.size(), durationsFile);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to record module durations in {}: {}", durationsFile, e.toString());
+                logger.debug("Full exception:", e);
+            }
+        }
+
+        @Override
+        public void projectStarted(ExecutionEvent event) {
+            projectStarts.put(event.getProject(), System.nanoTime());
+            super.projectStarted(event);
+        }
+
+        @Override
+        public void projectSucceeded(ExecutionEvent event) {
+            super.projectSucceeded(event);
+            MavenProject project = event.getProject();
+            Long start = projectStarts.get(project);
+            if (start == null || isTestSkipped(project)) {
+                return;
+            }
+            samples.put(ModuleDurations.key(project), toMillis(System.nanoTime() - start));
+            phaseDurations.getOrDefault(project, Map.of())
+                    .forEach((phase, duration) -> samples.put(ModuleDurations.key(project, phase), toMillis(duration)));
+        }
+
+        @Override
+        public void mojoStarted(ExecutionEvent event) {
+            // mojos of the same project are executed sequentially, but a mojo might fork and execute further mojos
+            mojoStarts.computeIfAbsent(event.getProject(), proj -> new ArrayDeque<>()).push(System.nanoTime());
+            super.mojoStarted(event);
+        }
+
+        @Override
+        public void mojoSucceeded(ExecutionEvent event) {
+            super.mojoSucceeded(event);
+            Long start = popMojoStart(event);
+            String phase = event.getMojoExecution() != null ? event.getMojoExecution().getLifecyclePhase() : null;
+            if (start != null && phase != null) {
+                phaseDurations.computeIfAbsent(event.getProject(), proj -> new ConcurrentHashMap<>())
+                        .merge(phase, System.nanoTime() - start, Long::sum);
+            }
+        }
+
+        @Override
+        public void mojoFailed(ExecutionEvent event) {
+            super.mojoFailed(event);
+            popMojoStart(event);
+        }
+
+        private Long popMojoStart(ExecutionEvent event) {
+            Deque<Long> starts = mojoStarts.get(event.getProject());
+            return starts != null ? starts.poll() : null;
+        }
+
+        // see UnchangedProjectsRemover.applyUpstreamModuleArgs()
+        private boolean isTestSkipped(MavenProject project) {
+            Properties properties = project.getProperties();
+            return Boolean.parseBoolean(properties.getProperty(MAVEN_TEST_SKIP)) || Boolean.parseBoolean(properties.getProperty(MAVEN_TEST_SKIP_EXEC));
+        }
+
+        private long toMillis(long nanos) {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+    }
+}
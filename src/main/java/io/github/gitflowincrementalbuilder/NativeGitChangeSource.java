@@ -0,0 +1,105 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.stream.Stream;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+
+/**
+ * {@link ChangeSource} invoking native Git instead of JGit, e.g. for checkouts that JGit is not able to handle efficiently.<br/>
+ * Compares {@link Configuration#baseBranch} to {@link Configuration#referenceBranch} (or their merge base) and adds uncommitted and untracked changes
+ * as configured, but neither fetches nor checks out any branch.
+ */
+@Singleton
+@Named(NativeGitChangeSource.NAME)
+class NativeGitChangeSource implements ChangeSource {
+
+    static final String NAME = "native-git";
+
+    private Logger logger = LoggerFactory.getLogger(NativeGitChangeSource.class);
+
+    private Configuration rootDirectoryConfig;
+    private Path rootDirectory;
+
+    @Override
+    public Stream<Change> stream(Configuration config) {
+        Path workTree = getRootDirectory(config);
+        List<List<String>> commands = new ArrayList<>();
+        if (!config.disableBranchComparison) {
+            commands.add(config.compareToMergeBase
+                    ? List.of("diff", "--name-only", "-z", "--no-renames", config.referenceBranch + "..." + config.baseBranch)
+                    : List.of("diff", "--name-only", "-z", "--no-renames", config.referenceBranch, config.baseBranch));
+        }
+        if (config.uncommitted) {
+            commands.add(List.of("diff", "--name-only", "-z", "--no-renames", "HEAD"));
+        }
+        if (config.untracked) {
+            commands.add(List.of("ls-files", "--others", "--exclude-standard", "-z"));
+        }
+        // flatMap() starts each command only when the output of the previous one is consumed
+        return commands.stream()
+                .flatMap(command -> run(workTree, "\0", command))
+                .map(path -> Change.ofPath(workTree.resolve(path)));
+    }
+
+    @Override
+    public Path getRootDirectory(Configuration config) {
+        if (rootDirectoryConfig != config) {
+            try (Stream<String> lines = run(ChangeSource.super.getRootDirectory(config), "\n", List.of("rev-parse", "--show-toplevel"))) {
+                rootDirectory = Paths.get(lines.findFirst().orElseThrow(() -> new IllegalStateException("Native Git did not return the worktree")))
+                        .toAbsolutePath().normalize();
+            }
+            rootDirectoryConfig = config;
+        }
+        return rootDirectory;
+    }
+
+    private Stream<String> run(Path directory, String delimiter, List<String> args) {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(args);
+        logger.debug("Running {} in {}", command, directory);
+        ProcessBuilder procBuilder = new ProcessBuilder(command).directory(directory.toFile());
+        // prevent native git from requesting console input (not implemented)
+        procBuilder.environment().put("GIT_TERMINAL_PROMPT", "0");
+        Process process;
+        try {
+            process = procBuilder.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to run native Git: " + command, e);
+        }
+        Scanner scanner = new Scanner(process.getInputStream(), StandardCharsets.UTF_8).useDelimiter(delimiter);
+        return scanner.tokens().onClose(() -> {
+            scanner.close();
+            waitFor(process, command);
+        });
+    }
+
+    private static void waitFor(Process process, List<String> command) {
+        try (InputStream stderr = process.getErrorStream()) {
+            int rc = process.waitFor();
+            if (rc != 0) {
+                throw new IllegalStateException("Native Git invocation " + command + " failed with return code " + rc + ": "
+                        + new String(stderr.readAllBytes(), StandardCharsets.UTF_8).trim());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to run native Git: " + command, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for native Git: " + command, e);
+        }
+    }
+}
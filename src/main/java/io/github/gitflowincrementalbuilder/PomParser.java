@@ -0,0 +1,404 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.maven.model.Activation;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.Extension;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.model.Profile;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * Reads a pom via StAX, but only the parts that are needed to build the project dependency graph:
+ * coordinates, parent, properties, modules, dependencies, dependency management, build plugins (incl. their configuration) and build extensions.
+ * Profiles are only read for their id, {@code activeByDefault} and modules. Everything else (e.g. reporting or distribution management)
+ * is skipped without creating any model objects.<br/>
+ * Unknown elements and stray text are ignored, just like {@code MavenXpp3Reader} does in non-strict mode.
+ */
+class PomParser {
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    /**
+     * Parses the given pom.
+     *
+     * @param pom the pom to parse
+     * @return a partial raw model (not interpolated, no inheritance)
+     * @throws IOException if reading or parsing fails
+     */
+    Model parse(Path pom) throws IOException {
+        try (InputStream in = Files.newInputStream(pom)) {
+            XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+            try {
+                if (nextTag(reader) != XMLStreamConstants.START_ELEMENT || !reader.getLocalName().equals("project")) {
+                    throw new IOException("Failed to parse " + pom + ": no <project> element");
+                }
+                Model model = new Model();
+                readProject(reader, model);
+                model.setPomFile(pom.toFile());
+                return model;
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to parse " + pom + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void readProject(XMLStreamReader reader, Model model) throws XMLStreamException {
+        forEachChild(reader, name -> {
+            switch (name) {
+                case "modelVersion":
+                    model.setModelVersion(text(reader));
+                    break;
+                case "parent":
+                    model.setParent(readParent(reader));
+                    break;
+                case "groupId":
+                    model.setGroupId(text(reader));
+                    break;
+                case "artifactId":
+                    model.setArtifactId(text(reader));
+                    break;
+                case "version":
+                    model.setVersion(text(reader));
+                    break;
+                case "packaging":
+                    model.setPackaging(text(reader));
+                    break;
+                case "properties":
+                    forEachChild(reader, property -> model.getProperties().setProperty(property, text(reader)));
+                    break;
+                case "modules":
+                    readStrings(reader, "module", model::addModule);
+                    break;
+                case "dependencies":
+                    readDependencies(reader, model.getDependencies());
+                    break;
+                case "dependencyManagement":
+                    model.setDependencyManagement(readDependencyManagement(reader));
+                    break;
+                case "build":
+                    model.setBuild(readBuild(reader));
+                    break;
+                case "profiles":
+                    forEachChild(reader, "profile", () -> model.addProfile(readProfile(reader)));
+                    break;
+                default:
+                    skip(reader);
+            }
+        });
+    }
+
+    private static Parent readParent(XMLStreamReader reader) throws XMLStreamException {
+        Parent parent = new Parent();
+        forEachChild(reader, name -> {
+            switch (name) {
+                case "groupId":
+                    parent.setGroupId(text(reader));
+                    break;
+                case "artifactId":
+                    parent.setArtifactId(text(reader));
+                    break;
+                case "version":
+                    parent.setVersion(text(reader));
+                    break;
+                case "relativePath":
+                    parent.setRelativePath(text(reader));
+                    break;
+                default:
+                    skip(reader);
+            }
+        });
+        return parent;
+    }
+
+    private static DependencyManagement readDependencyManagement(XMLStreamReader reader) throws XMLStreamException {
+        DependencyManagement depMgmt = new DependencyManagement();
+        forEachChild(reader, "dependencies", () -> readDependencies(reader, depMgmt.getDependencies()));
+        return depMgmt;
+    }
+
+    private static void readDependencies(XMLStreamReader reader, List<Dependency> dependencies) throws XMLStreamException {
+        forEachChild(reader, "dependency", () -> dependencies.add(readDependency(reader)));
+    }
+
+    private static Dependency readDependency(XMLStreamReader reader) throws XMLStreamException {
+        Dependency dependency = new Dependency();
+        forEachChild(reader, name -> {
+            switch (name) {
+                case "groupId":
+                    dependency.setGroupId(text(reader));
+                    break;
+                case "artifactId":
+                    dependency.setArtifactId(text(reader));
+                    break;
+                case "version":
+                    dependency.setVersion(text(reader));
+                    break;
+                case "type":
+                    dependency.setType(text(reader));
+                    break;
+                case "classifier":
+                    dependency.setClassifier(text(reader));
+                    break;
+                case "scope":
+                    dependency.setScope(text(reader));
+                    break;
+                case "optional":
+                    dependency.setOptional(text(reader));
+                    break;
+                case "exclusions":
+                    forEachChild(reader, "exclusion", () -> dependency.addExclusion(readExclusion(reader)));
+                    break;
+                default:
+                    skip(reader);
+            }
+        });
+        return dependency;
+    }
+
+    private static Exclusion readExclusion(XMLStreamReader reader) throws XMLStreamException {
+        Exclusion exclusion = new Exclusion();
+        forEachChild(reader, name -> {
+            switch (name) {
+                case "groupId":
+                    exclusion.setGroupId(text(reader));
+                    break;
+                case "artifactId":
+                    exclusion.setArtifactId(text(reader));
+                    break;
+                default:
+                    skip(reader);
+            }
+        });
+        return exclusion;
+    }
+
+    private static Build readBuild(XMLStreamReader reader) throws XMLStreamException {
+        Build build = new Build();
+        forEachChild(reader, name -> {
+            switch (name) {
+                case "plugins":
+                    forEachChild(reader, "plugin", () -> build.addPlugin(readPlugin(reader)));
+                    break;
+                case "extensions":
+                    forEachChild(reader, "extension", () -> build.addExtension(readExtension(reader)));
+                    break;
+                default:
+                    skip(reader);
+            }
+        });
+        return build;
+    }
+
+    private static Plugin readPlugin(XMLStreamReader reader) throws XMLStreamException {
+        Plugin plugin = new Plugin();
+        forEachChild(reader, name -> {
+            switch (name) {
+                case "groupId":
+                    plugin.setGroupId(text(reader));
+                    break;
+                case "artifactId":
+                    plugin.setArtifactId(text(reader));
+                    break;
+                case "version":
+                    plugin.setVersion(text(reader));
+                    break;
+                case "extensions":
+                    plugin.setExtensions(text(reader));
+                    break;
+                case "configuration":
+                    plugin.setConfiguration(readDom(reader));
+                    break;
+                case "executions":
+                    forEachChild(reader, "execution", () -> plugin.addExecution(readExecution(reader)));
+                    break;
+                case "dependencies":
+                    readDependencies(reader, plugin.getDependencies());
+                    break;
+                default:
+                    skip(reader);
+            }
+        });
+        return plugin;
+    }
+
+    private static PluginExecution readExecution(XMLStreamReader reader) throws XMLStreamException {
+        PluginExecution execution = new PluginExecution();
+        forEachChild(reader, name -> {
+            switch (name) {
+                case "id":
+                    execution.setId(text(reader));
+                    break;
+                case "phase":
+                    execution.setPhase(text(reader));
+                    break;
+                case "goals":
+                    readStrings(reader, "goal", execution::addGoal);
+                    break;
+                case "configuration":
+                    execution.setConfiguration(readDom(reader));
+                    break;
+                default:
+                    skip(reader);
+            }
+        });
+        return execution;
+    }
+
+    private static Extension readExtension(XMLStreamReader reader) throws XMLStreamException {
+        Extension extension = new Extension();
+        forEachChild(reader, name -> {
+            switch (name) {
+                case "groupId":
+                    extension.setGroupId(text(reader));
+                    break;
+                case "artifactId":
+                    extension.setArtifactId(text(reader));
+                    break;
+                case "version":
+                    extension.setVersion(text(reader));
+                    break;
+                default:
+                    skip(reader);
+            }
+        });
+        return extension;
+    }
+
+    private static Profile readProfile(XMLStreamReader reader) throws XMLStreamException {
+        Profile profile = new Profile();
+        forEachChild(reader, name -> {
+            switch (name) {
+                case "id":
+                    profile.setId(text(reader));
+                    break;
+                case "activation":
+                    Activation activation = new Activation();
+                    forEachChild(reader, "activeByDefault", () -> activation.setActiveByDefault(Boolean.parseBoolean(text(reader))));
+                    profile.setActivation(activation);
+                    break;
+                case "modules":
+                    readStrings(reader, "module", profile::addModule);
+                    break;
+                default:
+                    skip(reader);
+            }
+        });
+        return profile;
+    }
+
+    // same structure as Xpp3DomBuilder creates it (trimmed values, attributes retained), e.g. for Configuration.getPluginProperties()
+    private static Xpp3Dom readDom(XMLStreamReader reader) throws XMLStreamException {
+        Xpp3Dom dom = new Xpp3Dom(reader.getLocalName());
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            dom.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+        StringBuilder value = new StringBuilder();
+        int event;
+        while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                dom.addChild(readDom(reader));
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA || event == XMLStreamConstants.SPACE) {
+                value.append(reader.getText());
+            }
+        }
+        if (dom.getChildCount() == 0) {
+            dom.setValue(value.toString().trim());
+        }
+        return dom;
+    }
+
+    private static void readStrings(XMLStreamReader reader, String elementName, Consumer<String> consumer) throws XMLStreamException {
+        forEachChild(reader, elementName, () -> consumer.accept(text(reader)));
+    }
+
+    // like XMLStreamReader.getElementText(), but lenient regarding nested elements (which are skipped including their text)
+    private static String text(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int event;
+        while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                skip(reader);
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE) {
+                text.append(reader.getText());
+            }
+        }
+        return text.toString().trim();
+    }
+
+    private static void forEachChild(XMLStreamReader reader, String elementName, ElementAction action) throws XMLStreamException {
+        forEachChild(reader, name -> {
+            if (name.equals(elementName)) {
+                action.run();
+            } else {
+                skip(reader);
+            }
+        });
+    }
+
+    // calls the handler for each child element of the current element, the handler has to consume the respective child element completely
+    private static void forEachChild(XMLStreamReader reader, ElementHandler handler) throws XMLStreamException {
+        while (nextTag(reader) == XMLStreamConstants.START_ELEMENT) {
+            handler.handle(reader.getLocalName());
+        }
+    }
+
+    // like XMLStreamReader.nextTag(), but lenient regarding non-whitespace text
+    private static int nextTag(XMLStreamReader reader) throws XMLStreamException {
+        int event;
+        do {
+            event = reader.next();
+        } while (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT && event != XMLStreamConstants.END_DOCUMENT);
+        return event;
+    }
+
+    private static void skip(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ElementHandler {
+        void handle(String name) throws XMLStreamException;
+    }
+
+    @FunctionalInterface
+    private interface ElementAction {
+        void run() throws XMLStreamException;
+    }
+}
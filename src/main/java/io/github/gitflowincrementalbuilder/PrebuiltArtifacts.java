@@ -0,0 +1,361 @@
+package io.github.gitflowincrementalbuilder;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.maven.RepositoryUtils;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.LocalArtifactRegistration;
+import org.eclipse.aether.repository.LocalRepositoryManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+import io.github.gitflowincrementalbuilder.config.Property;
+import io.github.gitflowincrementalbuilder.jgit.TreeFingerprints;
+
+/**
+ * Prebuilt artifacts of modules, keyed by a fingerprint of the committed sources of each module and of its (transitive) upstream modules
+ * (see {@link TreeFingerprints}) and of the build environment (Maven and Java version, user properties and the active profiles of each module).<br/>
+ * The fingerprint of an installed module is recorded next to its artifact in the local repository (along with the hash of the artifact, so that an
+ * artifact that is overwritten by another build is not mistaken for the recorded one). Optionally, the artifacts are also stored in
+ * {@link Configuration#reuseUpstreamArtifactsDir} (e.g. a directory that is shared or cached between CI jobs), from where they are copied into the
+ * local repository when needed.<br/>
+ * Modules whose fingerprint matches a prebuilt artifact don't need to be built just to satisfy the dependencies of other modules, see
+ * {@link #findReusable(Collection, Configuration)}.
+ */
+@Singleton
+@Named
+class PrebuiltArtifacts {
+
+    private static final String FINGERPRINT_FILE_EXTENSION = ".gib-fingerprint";
+    private static final String ARTIFACTS_FILE = "artifacts.txt";
+    private static final String POM = "pom";
+    // user properties that do not affect the artifacts (besides the ones of this extension)
+    private static final Set<String> IGNORED_USER_PROPERTIES = Set.of("maven.repo.local");
+
+    private Logger logger = LoggerFactory.getLogger(PrebuiltArtifacts.class);
+
+    @Inject private TreeFingerprints treeFingerprints;
+
+    // fingerprints of the last call, for the subsequent calls with the same configuration
+    private Configuration fingerprintsConfig;
+    private Map<MavenProject, String> fingerprints;
+
+    /**
+     * Returns the given modules whose artifacts can be reused, either from the local repository or from {@link Configuration#reuseUpstreamArtifactsDir}
+     * (in which case they are copied into the local repository).
+     *
+     * @param candidates the modules that would be built just to satisfy the dependencies of other modules
+     * @param config the configuration
+     * @return the modules that do not need to be built
+     */
+    Set<MavenProject> findReusable(Collection<MavenProject> candidates, Configuration config) {
+        Map<MavenProject, String> fingerprints = getFingerprints(config);
+        RepositorySystemSession repositorySession = config.mavenSession.getRepositorySession();
+        Set<MavenProject> reusable = new LinkedHashSet<>();
+        for (MavenProject candidate : candidates) {
+            String fingerprint = fingerprints.get(candidate);
+            if (fingerprint == null) {
+                continue;
+            }
+            try {
+                if (isInstalled(candidate, fingerprint, repositorySession)
+                        || (config.reuseUpstreamArtifactsDir.isPresent()
+                                && restore(candidate, fingerprint, config.reuseUpstreamArtifactsDir.get(), repositorySession))) {
+                    reusable.add(candidate);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to look up the prebuilt artifacts of {}: {}", candidate.getArtifactId(), e.toString());
+                logger.debug("Full exception:", e);
+            }
+        }
+        if (!reusable.isEmpty()) {
+            logger.info("Reusing the prebuilt artifacts of {} upstream module(s).", reusable.size());
+            logger.debug("Reused: {}", reusable.stream().map(MavenProject::getArtifactId).collect(toList()));
+        }
+        return reusable;
+    }
+
+    /**
+     * Registers a listener that records the fingerprints of the modules that are installed (and stores their artifacts in
+     * {@link Configuration#reuseUpstreamArtifactsDir}, if defined). Nothing is recorded if the worktree contains uncommitted or untracked changes since
+     * the fingerprints are taken from {@code HEAD}.
+     *
+     * @param config the configuration
+     */
+    void register(Configuration config) {
+        if (!treeFingerprints.isWorkTreeClean(config)) {
+            logger.debug("Not recording prebuilt artifacts since the worktree is not clean.");
+            return;
+        }
+        MavenExecutionRequest request = config.mavenSession.getRequest();
+        request.setExecutionListener(new RecordingExecutionListener(request.getExecutionListener(), getFingerprints(config), config));
+    }
+
+    private Map<MavenProject, String> getFingerprints(Configuration config) {
+        if (fingerprintsConfig != config) {
+            fingerprints = computeFingerprints(config);
+            fingerprintsConfig = config;
+        }
+        return fingerprints;
+    }
+
+    private Map<MavenProject, String> computeFingerprints(Configuration config) {
+        List<MavenProject> projects = config.mavenSession.getProjects();
+        Map<Path, String> dirFingerprints = treeFingerprints.get(
+                projects.stream().map(proj -> proj.getBasedir().toPath()).collect(toList()), config);
+        byte[] environment = environmentFingerprint(config.mavenSession.getRequest()).getBytes(StandardCharsets.UTF_8);
+        Map<MavenProject, String> result = new HashMap<>();
+        for (MavenProject project : projects) {
+            List<MavenProject> closure = Stream.concat(Stream.of(project),
+                            config.projectDependencyGraph.get().getUpstreamProjects(project, true).stream())
+                    .sorted(Comparator.comparing(MavenProject::getId))
+                    .collect(toList());
+            MessageDigest digest = newDigest();
+            digest.update(environment);
+            boolean complete = true;
+            for (MavenProject proj : closure) {
+                String dirFingerprint = dirFingerprints.get(proj.getBasedir().toPath());
+                if (dirFingerprint == null) {
+                    complete = false;
+                    break;
+                }
+                digest.update((proj.getId() + ' ' + proj.getFile().getName() + ' ' + dirFingerprint + ' ' + activeProfiles(proj) + '\n')
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            if (complete) {
+                result.put(project, toHex(digest.digest()));
+            }
+        }
+        return result;
+    }
+
+    private static String environmentFingerprint(MavenExecutionRequest request) {
+        Properties systemProperties = request.getSystemProperties();
+        StringBuilder environment = new StringBuilder()
+                .append("maven ").append(systemProperties.getProperty("maven.version", "")).append('\n')
+                .append("java ").append(systemProperties.getProperty("java.version", "")).append('\n');
+        Properties userProperties = request.getUserProperties();
+        userProperties.stringPropertyNames().stream()
+                .filter(name -> !name.startsWith(Property.PREFIX) && !IGNORED_USER_PROPERTIES.contains(name))
+                .sorted()
+                .forEach(name -> environment.append("-D").append(name).append('=').append(userProperties.getProperty(name)).append('\n'));
+        return environment.toString();
+    }
+
+    // including the profiles of the parent poms and of the settings
+    private static String activeProfiles(MavenProject project) {
+        return project.getInjectedProfileIds().entrySet().stream()
+                .flatMap(entry -> entry.getValue().stream().map(id -> entry.getKey() + ':' + id))
+                .sorted()
+                .collect(joining(","));
+    }
+
+    private boolean isInstalled(MavenProject project, String fingerprint, RepositorySystemSession repositorySession) throws IOException {
+        Path fingerprintFile = fingerprintFile(project, repositorySession);
+        if (!Files.isRegularFile(fingerprintFile)) {
+            return false;
+        }
+        // fingerprint and hash of the main artifact
+        String[] recorded = Files.readString(fingerprintFile, StandardCharsets.UTF_8).trim().split(" ");
+        return recorded.length == 2 && recorded[0].equals(fingerprint)
+                && Files.isRegularFile(localPath(pomArtifact(project), repositorySession))
+                && ArtifactTracker.hash(localPath(mainArtifact(project), repositorySession).toFile()).filter(recorded[1]::equals).isPresent();
+    }
+
+    private boolean restore(MavenProject project, String fingerprint, Path dir, RepositorySystemSession repositorySession) throws IOException {
+        Path storedDir = storedDir(project, fingerprint, dir);
+        Path artifactsFile = storedDir.resolve(ARTIFACTS_FILE);
+        if (!Files.isRegularFile(artifactsFile)) {
+            return false;
+        }
+        LocalRepositoryManager localRepositoryManager = repositorySession.getLocalRepositoryManager();
+        for (String line : Files.readAllLines(artifactsFile, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            // extension:classifier
+            String[] parts = line.split(":", -1);
+            Artifact artifact = new DefaultArtifact(project.getGroupId(), project.getArtifactId(), parts[1], parts[0], project.getVersion());
+            Path target = localPath(artifact, repositorySession);
+            Files.createDirectories(target.getParent());
+            Files.copy(storedDir.resolve(target.getFileName().toString()), target, StandardCopyOption.REPLACE_EXISTING);
+            localRepositoryManager.add(repositorySession, new LocalArtifactRegistration(artifact));
+        }
+        writeFingerprintFile(project, fingerprint, repositorySession);
+        logger.debug("Restored the prebuilt artifacts of {} from {}", project.getArtifactId(), storedDir);
+        return true;
+    }
+
+    private void writeFingerprintFile(MavenProject project, String fingerprint, RepositorySystemSession repositorySession) throws IOException {
+        Optional<String> hash = ArtifactTracker.hash(localPath(mainArtifact(project), repositorySession).toFile());
+        if (hash.isPresent()) {
+            Files.writeString(fingerprintFile(project, repositorySession), fingerprint + " " + hash.get(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Path fingerprintFile(MavenProject project, RepositorySystemSession repositorySession) {
+        return localPath(pomArtifact(project), repositorySession)
+                .resolveSibling(project.getArtifactId() + "-" + project.getVersion() + FINGERPRINT_FILE_EXTENSION);
+    }
+
+    private static Path storedDir(MavenProject project, String fingerprint, Path dir) {
+        return dir.resolve(project.getGroupId()).resolve(project.getArtifactId()).resolve(fingerprint);
+    }
+
+    private static Path localPath(Artifact artifact, RepositorySystemSession repositorySession) {
+        LocalRepositoryManager localRepositoryManager = repositorySession.getLocalRepositoryManager();
+        return localRepositoryManager.getRepository().getBasedir().toPath().resolve(localRepositoryManager.getPathForLocalArtifact(artifact));
+    }
+
+    private static Artifact pomArtifact(MavenProject project) {
+        return new DefaultArtifact(project.getGroupId(), project.getArtifactId(), "", POM, project.getVersion());
+    }
+
+    private static Artifact mainArtifact(MavenProject project) {
+        return POM.equals(project.getPackaging()) ? pomArtifact(project) : RepositoryUtils.toArtifact(project.getArtifact());
+    }
+
+    private static File mainArtifactFile(MavenProject project) {
+        return POM.equals(project.getPackaging()) ? project.getFile() : project.getArtifact().getFile();
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    private class RecordingExecutionListener extends DelegatingExecutionListener {
+
+        private final Map<MavenProject, String> fingerprints;
+        private final Optional<Path> dir;
+
+        RecordingExecutionListener(ExecutionListener delegate, Map<MavenProject, String> fingerprints, Configuration config) {
+            super(delegate);
+            this.fingerprints = fingerprints;
+            this.dir = config.reuseUpstreamArtifactsDir;
+        }
+
+        @Override
+        public void projectSucceeded(ExecutionEvent event) {
+            super.projectSucceeded(event);
+            MavenProject project = event.getProject();
+            String fingerprint = fingerprints.get(project);
+            if (fingerprint == null || project.getArtifact() == null) {
+                return;
+            }
+            try {
+                Optional<String> hash = ArtifactTracker.hash(mainArtifactFile(project));
+                if (hash.isEmpty()) {
+                    return;
+                }
+                record(project, fingerprint, hash.get(), event.getSession());
+                if (dir.isPresent()) {
+                    store(project, fingerprint, dir.get());
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to record the prebuilt artifacts of {}: {}", project.getArtifactId(), e.toString());
+                logger.debug("Full exception:", e);
+            }
+        }
+
+        // only if the artifact was just installed
+        private void record(MavenProject project, String fingerprint, String hash, MavenSession session) throws IOException {
+            RepositorySystemSession repositorySession = session.getRepositorySession();
+            Path installed = localPath(mainArtifact(project), repositorySession);
+            if (ArtifactTracker.hash(installed.toFile()).filter(hash::equals).isPresent()) {
+                Files.writeString(fingerprintFile(project, repositorySession), fingerprint + " " + hash, StandardCharsets.UTF_8);
+            }
+        }
+
+        private void store(MavenProject project, String fingerprint, Path dir) throws IOException {
+            Path storedDir = storedDir(project, fingerprint, dir);
+            if (Files.exists(storedDir)) {
+                return;
+            }
+            Files.createDirectories(storedDir.getParent());
+            // copy to a temporary directory first, so that concurrent builds never see a partially stored module
+            Path tempDir = Files.createTempDirectory(storedDir.getParent(), fingerprint);
+            List<String> lines = new ArrayList<>();
+            copy(new DefaultArtifact(project.getGroupId(), project.getArtifactId(), "", POM, project.getVersion()), project.getFile(), tempDir, lines);
+            if (!POM.equals(project.getPackaging())) {
+                copy(RepositoryUtils.toArtifact(project.getArtifact()), project.getArtifact().getFile(), tempDir, lines);
+            }
+            for (org.apache.maven.artifact.Artifact attached : project.getAttachedArtifacts()) {
+                copy(RepositoryUtils.toArtifact(attached), attached.getFile(), tempDir, lines);
+            }
+            Files.write(tempDir.resolve(ARTIFACTS_FILE), lines, StandardCharsets.UTF_8);
+            try {
+                Files.move(tempDir, storedDir, StandardCopyOption.ATOMIC_MOVE);
+                logger.debug("Stored the prebuilt artifacts of {} in {}", project.getArtifactId(), storedDir);
+            } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+                logger.debug("Prebuilt artifacts of {} were stored concurrently in {}", project.getArtifactId(), storedDir);
+                deleteFlat(tempDir);
+            }
+        }
+
+        private void deleteFlat(Path dir) throws IOException {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+
+        private void copy(Artifact artifact, File file, Path targetDir, List<String> lines) throws IOException {
+            if (file == null || !file.isFile()) {
+                return;
+            }
+            String fileName = artifact.getArtifactId() + "-" + artifact.getVersion()
+                    + (artifact.getClassifier().isEmpty() ? "" : "-" + artifact.getClassifier()) + "." + artifact.getExtension();
+            Files.copy(file.toPath(), targetDir.resolve(fileName));
+            lines.add(artifact.getExtension() + ":" + artifact.getClassifier());
+        }
+    }
+}
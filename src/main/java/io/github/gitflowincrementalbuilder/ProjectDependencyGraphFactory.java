@@ -22,24 +22,26 @@ public class ProjectDependencyGraphFactory {
 
     public static ProjectDependencyGraph createGraph(Collection<MavenProject> projects, Configuration config, boolean forceCreation) {
         if (!forceCreation && config.rebuildProjectDependencyGraphMode == RebuildProjectDependencyGraphMode.OFF) {
-            return config.mavenSession.getProjectDependencyGraph();
+            return index(config.mavenSession.getProjectDependencyGraph(), config);
         }
 
         var start = System.currentTimeMillis();
         try {
+            ProjectDependencyGraph graph;
             try {
-                return new DefaultProjectDependencyGraph(projects);
+                graph = new DefaultProjectDependencyGraph(projects);
             } catch (NoClassDefFoundError err) {
                 // cannot use DPDG in maven < 3.8.8 (https://issues.apache.org/jira/browse/MNG-6972) so use our own copy
-                return new Maven38DefaultDependencyGraph(projects);
+                graph = new Maven38DefaultDependencyGraph(projects);
             }
+            return index(graph, config);
         } catch (CycleDetectedException | DuplicateProjectException e) {
             if (forceCreation) {
                 throw new IllegalStateException("Failed to build project dependency graph for allProjects", e);
             }
             logger.warn("Failed to rebuild project dependency graph, falling back to session graph. "
                     + "Projects added or modified by previous extensions will not be picked up!", e);
-            return config.mavenSession.getProjectDependencyGraph();
+            return index(config.mavenSession.getProjectDependencyGraph(), config);
         } finally {
             var duration = System.currentTimeMillis() - start;
             if (!forceCreation && config.rebuildProjectDependencyGraphMode == RebuildProjectDependencyGraphMode.AUTO
@@ -54,4 +56,9 @@ public class ProjectDependencyGraphFactory {
         }
     }
 
+    // the session graph is not replaced for Maven itself, only the queries of GIB use the index
+    private static ProjectDependencyGraph index(ProjectDependencyGraph graph, Configuration config) {
+        return config.indexProjectDependencyGraph ? new IndexedProjectDependencyGraph(graph) : graph;
+    }
+
 }
@@ -0,0 +1,237 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+import io.github.gitflowincrementalbuilder.jgit.DifferentFiles;
+
+/**
+ * Narrows down the impact of changed parent poms that differ only in their {@code <properties>} to those child modules that actually reference
+ * the changed properties.
+ */
+@Singleton
+@Named
+class PropertyChanges {
+
+    /**
+     * Key of the {@link MavenProject#setContextValue(String, Object) context value} this class sets for each changed parent pom whose changes have been
+     * traced to the referencing child modules. A value of {@link Boolean#TRUE} means that the child modules of that project are not impacted by the change
+     * just by inheriting from it.<br/>
+     * Prefer using {@link #isPropertiesOnly(MavenProject)} instead of using this key directly.
+     */
+    public static final String CTX_PROPERTIES_ONLY = PropertyChanges.class.getName() + "#PROPERTIES-ONLY";
+
+    private static final String PCKG_POM = "pom";
+    private static final Pattern PROPERTY_REFERENCE = Pattern.compile("\\$\\{([^}]+)}");
+
+    private Logger logger = LoggerFactory.getLogger(PropertyChanges.class);
+
+    @Inject private DifferentFiles differentFiles;
+
+    public static boolean isPropertiesOnly(MavenProject project) {
+        return Boolean.TRUE.equals(project.getContextValue(CTX_PROPERTIES_ONLY));
+    }
+
+    /**
+     * Returns the given changed projects plus all (transitive) child modules of those changed parent poms that differ only in their properties, if the
+     * respective child modules reference any of the changed properties.
+     *
+     * @param changedProjects the changed projects as detected by {@link ChangedProjects}
+     * @param config the configuration
+     * @return the given changed projects plus the impacted child modules
+     */
+    public Set<MavenProject> addImpactedChildren(Set<MavenProject> changedProjects, Configuration config) {
+        Set<MavenProject> result = new HashSet<>(changedProjects);
+        Map<MavenProject, List<MavenProject>> childrenByParent = null;
+        // index of property references per module, filled on demand
+        Map<MavenProject, Set<String>> referencesByProject = new HashMap<>();
+        for (MavenProject project : changedProjects) {
+            if (!PCKG_POM.equals(project.getPackaging()) || !Boolean.TRUE.equals(project.getContextValue(ChangedProjects.CTX_POM_ONLY))) {
+                continue;
+            }
+            Properties inheritedProperties = collectRawProperties(project);
+            Optional<Set<String>> changedProperties = findChangedProperties(project, inheritedProperties, config);
+            if (changedProperties.isEmpty()) {
+                continue;
+            }
+            if (childrenByParent == null) {
+                childrenByParent = config.mavenSession.getAllProjects().stream()
+                        .filter(proj -> proj.getParent() != null)
+                        .collect(Collectors.groupingBy(MavenProject::getParent));
+            }
+            Set<MavenProject> impactedChildren = new LinkedHashSet<>();
+            collectImpactedChildren(project, changedProperties.get(), inheritedProperties, childrenByParent, referencesByProject, impactedChildren);
+            logger.info("Changed properties of parent {}: {}, impacted child modules: {}", project.getArtifactId(), changedProperties.get(),
+                    impactedChildren.stream().map(MavenProject::getArtifactId).collect(Collectors.toList()));
+
+            project.setContextValue(CTX_PROPERTIES_ONLY, Boolean.TRUE);
+            for (MavenProject child : impactedChildren) {
+                child.setContextValue(ChangedProjects.CTX_TEST_ONLY, Boolean.FALSE);
+                result.add(child);
+            }
+        }
+        return result;
+    }
+
+    // returns the properties whose definition was changed directly in the given project (not the ones that are defined in terms of those)
+    private Optional<Set<String>> findChangedProperties(MavenProject project, Properties inheritedProperties, Configuration config) {
+        Path pom = project.getFile().toPath();
+        try {
+            Optional<String> previousContent = differentFiles.getPreviousContent(config, pom);
+            if (previousContent.isEmpty()) {
+                logger.debug("No previous content of {}", pom);
+                return Optional.empty();
+            }
+            Model previousModel = readModel(new StringReader(previousContent.get()));
+            Model currentModel;
+            try (Reader reader = Files.newBufferedReader(pom, StandardCharsets.UTF_8)) {
+                currentModel = readModel(reader);
+            }
+            String currentModelWithoutProperties = writeWithoutProperties(currentModel);
+            if (!writeWithoutProperties(previousModel).equals(currentModelWithoutProperties)) {
+                logger.debug("{} has changes outside of properties", pom);
+                return Optional.empty();
+            }
+            Properties previousProperties = previousModel.getProperties();
+            Properties currentProperties = currentModel.getProperties();
+            Set<String> changedProperties = Stream.concat(previousProperties.stringPropertyNames().stream(), currentProperties.stringPropertyNames().stream())
+                    .filter(name -> !Objects.equals(previousProperties.getProperty(name), currentProperties.getProperty(name)))
+                    .collect(Collectors.toSet());
+            if (!Collections.disjoint(findReferences(currentModelWithoutProperties), withReferencingProperties(changedProperties, inheritedProperties))) {
+                logger.debug("{} references changed properties outside of properties", pom);
+                return Optional.empty();
+            }
+            return Optional.of(changedProperties);
+        } catch (IOException | XmlPullParserException e) {
+            logger.warn("Failed to compare properties of {}, falling back to impacting all child modules: {}", pom, e.toString());
+            logger.debug("Full exception:", e);
+            return Optional.empty();
+        }
+    }
+
+    private void collectImpactedChildren(MavenProject parent, Set<String> changedProperties, Properties parentProperties,
+            Map<MavenProject, List<MavenProject>> childrenByParent, Map<MavenProject, Set<String>> referencesByProject, Set<MavenProject> impactedChildren) {
+        for (MavenProject child : childrenByParent.getOrDefault(parent, Collections.emptyList())) {
+            Model childModel = child.getOriginalModel();
+            if (childModel == null) {   // cannot tell, so be conservative
+                collectAllDescendants(child, childrenByParent, impactedChildren);
+                continue;
+            }
+            // properties redefined by the child shadow the changed ones
+            Properties childProperties = childModel.getProperties();
+            Set<String> effectiveChangedProperties = changedProperties.stream()
+                    .filter(name -> !childProperties.containsKey(name))
+                    .collect(Collectors.toSet());
+            if (effectiveChangedProperties.isEmpty()) {
+                continue;
+            }
+            // like Maven, resolve property references only after inheritance
+            Properties mergedProperties = new Properties();
+            mergedProperties.putAll(parentProperties);
+            mergedProperties.putAll(childProperties);
+            Set<String> references = referencesByProject.computeIfAbsent(child, proj -> findReferences(writeWithoutProperties(proj.getOriginalModel())));
+            if (!Collections.disjoint(references, withReferencingProperties(effectiveChangedProperties, mergedProperties))) {
+                // the grandchildren inherit whatever the child has resolved from the changed properties
+                collectAllDescendants(child, childrenByParent, impactedChildren);
+            } else {
+                collectImpactedChildren(child, effectiveChangedProperties, mergedProperties, childrenByParent, referencesByProject, impactedChildren);
+            }
+        }
+    }
+
+    private void collectAllDescendants(MavenProject project, Map<MavenProject, List<MavenProject>> childrenByParent, Set<MavenProject> impactedChildren) {
+        if (impactedChildren.add(project)) {
+            childrenByParent.getOrDefault(project, Collections.emptyList())
+                    .forEach(child -> collectAllDescendants(child, childrenByParent, impactedChildren));
+        }
+    }
+
+    // returns the raw (uninterpolated) properties of the given project, including the ones inherited from its parents
+    private static Properties collectRawProperties(MavenProject project) {
+        Deque<MavenProject> lineage = new ArrayDeque<>();
+        for (MavenProject current = project; current != null; current = current.getParent()) {
+            lineage.push(current);
+        }
+        Properties properties = new Properties();
+        lineage.stream()
+                .map(MavenProject::getOriginalModel)
+                .filter(Objects::nonNull)
+                .forEach(model -> properties.putAll(model.getProperties()));
+        return properties;
+    }
+
+    // returns the given properties plus all properties that are (transitively) defined in terms of any of them
+    private static Set<String> withReferencingProperties(Set<String> changedProperties, Properties properties) {
+        Set<String> result = new HashSet<>(changedProperties);
+        boolean added;
+        do {
+            added = false;
+            for (String name : properties.stringPropertyNames()) {
+                if (!result.contains(name) && !Collections.disjoint(findReferences(properties.getProperty(name)), result)) {
+                    result.add(name);
+                    added = true;
+                }
+            }
+        } while (added);
+        return result;
+    }
+
+    private static Set<String> findReferences(String text) {
+        Set<String> references = new HashSet<>();
+        Matcher matcher = PROPERTY_REFERENCE.matcher(text);
+        while (matcher.find()) {
+            references.add(matcher.group(1));
+        }
+        return references;
+    }
+
+    private static Model readModel(Reader reader) throws IOException, XmlPullParserException {
+        return new MavenXpp3Reader().read(reader, false);
+    }
+
+    private static String writeWithoutProperties(Model model) {
+        Model copy = model.clone();
+        copy.setProperties(new Properties());
+        StringWriter writer = new StringWriter();
+        try {
+            new MavenXpp3Writer().write(writer, copy);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write model of " + model.getId(), e);
+        }
+        return writer.toString();
+    }
+}
@@ -0,0 +1,415 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads the projects of a multi-module build directly from the module poms, skipping all the costly parts of Maven's project building like
+ * plugin and dependency resolution or a full interpolation of the model.<br/>
+ * The poms are read via {@link PomParser}, which only picks the parts that are relevant for the project dependency graph.
+ * The resulting projects provide just what change detection and the downstream calculation need:
+ * <ul>
+ * <li>inherited coordinates, properties, dependencies, dependency management and build plugins</li>
+ * <li>interpolated coordinates of the dependencies and build plugins</li>
+ * <li>managed dependencies imported from BOMs that are part of the reactor</li>
+ * <li>the original model (read in full on demand) and the parent project</li>
+ * </ul>
+ * Profiles are only considered for their modules (if active by default or explicitly activated).
+ */
+class ReactorLoader {
+
+    private static final String POM_XML = "pom.xml";
+    private static final String DEFAULT_PARENT_RELATIVE_PATH = "../" + POM_XML;
+    private static final Pattern EXPRESSION = Pattern.compile("\\$\\{([^}]+)}");
+    private static final int MAX_INTERPOLATION_DEPTH = 10;
+
+    private Logger logger = LoggerFactory.getLogger(ReactorLoader.class);
+
+    private final Properties userProperties;
+    private final Set<String> activeProfiles;
+
+    private final PomParser pomParser = new PomParser();
+
+    private final Map<Path, Model> rawModels = new HashMap<>();
+    private final Map<Path, Model> inheritedModels = new HashMap<>();
+    private final Map<Path, MavenProject> projects = new HashMap<>();
+    // key: groupId:artifactId:version of each reactor pom, used to resolve BOM imports
+    private final Map<String, Path> reactorPoms = new HashMap<>();
+    private final Set<Path> importing = new HashSet<>();
+
+    /**
+     * @param userProperties properties which take precedence over the properties defined in the poms
+     * @param activeProfiles ids of explicitly activated profiles
+     */
+    ReactorLoader(Properties userProperties, Set<String> activeProfiles) {
+        this.userProperties = userProperties;
+        this.activeProfiles = activeProfiles;
+    }
+
+    /**
+     * Loads the given pom and all its (transitive) modules.
+     *
+     * @param rootPom the {@code pom.xml} of the execution root
+     * @return the reactor projects, the first one being the execution root, followed by its modules in declaration order (depth first)
+     * @throws IOException if reading a pom fails
+     */
+    List<MavenProject> load(Path rootPom) throws IOException {
+        Set<Path> poms = new LinkedHashSet<>();
+        collect(rootPom.toAbsolutePath().normalize(), poms);
+        // all coordinates have to be known upfront since a BOM might be imported by a module that is declared before the BOM itself
+        for (Path pom : poms) {
+            Model inherited = getInheritedModel(pom);
+            reactorPoms.put(interpolate(inherited.getGroupId(), inherited, pom, 0) + ":" + inherited.getArtifactId() + ":"
+                    + interpolate(inherited.getVersion(), inherited, pom, 0), pom);
+        }
+        List<MavenProject> reactor = new ArrayList<>();
+        for (Path pom : poms) {
+            reactor.add(getProject(pom));
+        }
+        reactor.get(0).setExecutionRoot(true);
+        return reactor;
+    }
+
+    private void collect(Path pom, Set<Path> reactor) throws IOException {
+        if (!reactor.add(pom)) {
+            return;
+        }
+        Model raw = readRaw(pom);
+        for (String module : getModules(raw)) {
+            Path modulePath = pom.resolveSibling(module).normalize();
+            Path modulePom = Files.isDirectory(modulePath) ? modulePath.resolve(POM_XML) : modulePath;
+            if (!Files.isRegularFile(modulePom)) {
+                throw new IllegalStateException("Module '" + module + "' of " + pom + " does not exist: " + modulePom);
+            }
+            collect(modulePom, reactor);
+        }
+    }
+
+    private Collection<String> getModules(Model raw) {
+        Set<String> modules = new LinkedHashSet<>(raw.getModules());
+        boolean explicitlyActivated = raw.getProfiles().stream().anyMatch(profile -> activeProfiles.contains(profile.getId()));
+        for (Profile profile : raw.getProfiles()) {
+            // like Maven: profiles that are active by default are deactivated if any other profile of the same pom is activated explicitly
+            boolean activeByDefault = profile.getActivation() != null && profile.getActivation().isActiveByDefault() && !explicitlyActivated;
+            if (activeByDefault || activeProfiles.contains(profile.getId())) {
+                modules.addAll(profile.getModules());
+            }
+        }
+        return modules;
+    }
+
+    private MavenProject getProject(Path pom) throws IOException {
+        MavenProject project = projects.get(pom);
+        if (project == null) {
+            Model model = interpolate(getInheritedModel(pom).clone(), pom);
+            importBoms(model, pom);
+            project = new ReactorProject(model, pom);
+            project.setFile(pom.toFile());
+            Optional<Path> parentPom = findParentPom(readRaw(pom), pom);
+            if (parentPom.isPresent()) {
+                project.setParent(getProject(parentPom.get()));
+            }
+            projects.put(pom, project);
+        }
+        return project;
+    }
+
+    // returns the model of the given pom, merged with the models of its parents but not yet interpolated
+    private Model getInheritedModel(Path pom) throws IOException {
+        Model inherited = inheritedModels.get(pom);
+        if (inherited != null) {
+            return inherited;
+        }
+        Model raw = readRaw(pom);
+        inherited = raw.clone();
+        Optional<Path> parentPom = findParentPom(raw, pom);
+        if (parentPom.isPresent()) {
+            inherit(inherited, getInheritedModel(parentPom.get()));
+        } else if (raw.getParent() != null) {    // parent not available locally, so only the coordinates can be inherited
+            Parent parent = raw.getParent();
+            inherited.setGroupId(Optional.ofNullable(raw.getGroupId()).orElse(parent.getGroupId()));
+            inherited.setVersion(Optional.ofNullable(raw.getVersion()).orElse(parent.getVersion()));
+        }
+        inheritedModels.put(pom, inherited);
+        return inherited;
+    }
+
+    private static void inherit(Model child, Model parent) {
+        if (child.getGroupId() == null) {
+            child.setGroupId(parent.getGroupId());
+        }
+        if (child.getVersion() == null) {
+            child.setVersion(parent.getVersion());
+        }
+
+        Properties properties = new Properties();
+        properties.putAll(parent.getProperties());
+        properties.putAll(child.getProperties());
+        child.setProperties(properties);
+
+        child.setDependencies(merge(parent.getDependencies(), child.getDependencies(), Dependency::getManagementKey, Dependency::clone));
+
+        if (parent.getDependencyManagement() != null) {
+            DependencyManagement depMgmt = Optional.ofNullable(child.getDependencyManagement()).orElseGet(DependencyManagement::new);
+            depMgmt.setDependencies(merge(parent.getDependencyManagement().getDependencies(), depMgmt.getDependencies(),
+                    Dependency::getManagementKey, Dependency::clone));
+            child.setDependencyManagement(depMgmt);
+        }
+
+        if (parent.getBuild() != null) {
+            Build build = Optional.ofNullable(child.getBuild()).orElseGet(Build::new);
+            build.setPlugins(merge(parent.getBuild().getPlugins(), build.getPlugins(), Plugin::getKey, Plugin::clone));
+            child.setBuild(build);
+        }
+    }
+
+    // elements of the child replace the elements of the parent with the same key
+    private static <T> List<T> merge(List<T> parentElements, List<T> childElements, Function<T, String> keyFunction, Function<T, T> cloneFunction) {
+        Map<String, T> merged = new LinkedHashMap<>();
+        parentElements.forEach(element -> merged.put(keyFunction.apply(element), cloneFunction.apply(element)));
+        childElements.forEach(element -> merged.put(keyFunction.apply(element), element));
+        return new ArrayList<>(merged.values());
+    }
+
+    private Optional<Path> findParentPom(Model raw, Path pom) throws IOException {
+        Parent parent = raw.getParent();
+        if (parent == null) {
+            return Optional.empty();
+        }
+        String relativePath = parent.getRelativePath() != null ? parent.getRelativePath() : DEFAULT_PARENT_RELATIVE_PATH;
+        if (relativePath.isEmpty()) {
+            return Optional.empty();
+        }
+        Path parentPath = pom.resolveSibling(relativePath).normalize();
+        Path parentPom = Files.isDirectory(parentPath) ? parentPath.resolve(POM_XML) : parentPath;
+        if (!Files.isRegularFile(parentPom)) {
+            logger.debug("Parent of {} not found at {}", pom, parentPom);
+            return Optional.empty();
+        }
+        Model parentRaw = readRaw(parentPom);
+        String parentGroupId = parentRaw.getGroupId() != null ? parentRaw.getGroupId()
+                : Optional.ofNullable(parentRaw.getParent()).map(Parent::getGroupId).orElse(null);
+        if (!Objects.equals(parent.getArtifactId(), parentRaw.getArtifactId()) || !Objects.equals(parent.getGroupId(), parentGroupId)) {
+            logger.debug("{} is not the parent of {}", parentPom, pom);
+            return Optional.empty();
+        }
+        return Optional.of(parentPom);
+    }
+
+    // replaces the imports of reactor BOMs with their (effective) managed dependencies, like Maven does
+    private void importBoms(Model model, Path pom) throws IOException {
+        if (model.getDependencyManagement() == null) {
+            return;
+        }
+        importing.add(pom);
+        try {
+            List<Dependency> declared = new ArrayList<>();
+            List<Dependency> imported = new ArrayList<>();
+            for (Dependency managed : model.getDependencyManagement().getDependencies()) {
+                Path bomPom = isImport(managed) ? reactorPoms.get(managed.getGroupId() + ":" + managed.getArtifactId() + ":" + managed.getVersion()) : null;
+                if (bomPom == null) {
+                    declared.add(managed);
+                } else if (importing.contains(bomPom)) {
+                    logger.debug("Skipping cyclic import of {} in {}", bomPom, pom);
+                } else {
+                    Optional.ofNullable(getProject(bomPom).getModel().getDependencyManagement())
+                            .ifPresent(bomDepMgmt -> bomDepMgmt.getDependencies().forEach(dep -> imported.add(dep.clone())));
+                }
+            }
+            // declared managed dependencies win over imported ones, and the first import wins among the imported ones
+            Map<String, Dependency> merged = new LinkedHashMap<>();
+            declared.forEach(dep -> merged.put(dep.getManagementKey(), dep));
+            imported.forEach(dep -> merged.putIfAbsent(dep.getManagementKey(), dep));
+            model.getDependencyManagement().setDependencies(new ArrayList<>(merged.values()));
+            applyDependencyManagement(model);
+        } finally {
+            importing.remove(pom);
+        }
+    }
+
+    private static boolean isImport(Dependency dependency) {
+        return "pom".equals(dependency.getType()) && "import".equals(dependency.getScope());
+    }
+
+    private Model readRaw(Path pom) throws IOException {
+        Model raw = rawModels.get(pom);
+        if (raw == null) {
+            raw = pomParser.parse(pom);
+            rawModels.put(pom, raw);
+        }
+        return raw;
+    }
+
+    private static Model readFull(Path pom) throws IOException {
+        try (Reader reader = Files.newBufferedReader(pom, StandardCharsets.UTF_8)) {
+            Model model = new MavenXpp3Reader().read(reader, false);
+            model.setPomFile(pom.toFile());
+            return model;
+        } catch (XmlPullParserException e) {
+            throw new IOException("Failed to parse " + pom, e);
+        }
+    }
+
+    // interpolates just the parts of the model that are relevant for building the project dependency graph
+    private Model interpolate(Model model, Path pom) {
+        Function<String, String> interpolator = value -> interpolate(value, model, pom, 0);
+        model.setGroupId(interpolator.apply(model.getGroupId()));
+        model.setArtifactId(interpolator.apply(model.getArtifactId()));
+        model.setVersion(interpolator.apply(model.getVersion()));
+        if (model.getParent() != null) {
+            model.getParent().setGroupId(interpolator.apply(model.getParent().getGroupId()));
+            model.getParent().setVersion(interpolator.apply(model.getParent().getVersion()));
+        }
+
+        if (model.getDependencyManagement() != null) {
+            model.getDependencyManagement().getDependencies().forEach(managed -> interpolate(managed, interpolator));
+        }
+        model.getDependencies().forEach(dependency -> interpolate(dependency, interpolator));
+        if (model.getBuild() != null) {
+            for (Plugin plugin : model.getBuild().getPlugins()) {
+                plugin.setGroupId(interpolator.apply(plugin.getGroupId()));
+                plugin.setArtifactId(interpolator.apply(plugin.getArtifactId()));
+                plugin.setVersion(interpolator.apply(plugin.getVersion()));
+                plugin.getDependencies().forEach(dependency -> interpolate(dependency, interpolator));
+            }
+        }
+        return model;
+    }
+
+    private static void applyDependencyManagement(Model model) {
+        Map<String, Dependency> managedDependencies = new HashMap<>();
+        model.getDependencyManagement().getDependencies().forEach(managed -> managedDependencies.put(managed.getManagementKey(), managed));
+        for (Dependency dependency : model.getDependencies()) {
+            Dependency managed = managedDependencies.get(dependency.getManagementKey());
+            if (managed != null) {
+                if (dependency.getVersion() == null) {
+                    dependency.setVersion(managed.getVersion());
+                }
+                if (dependency.getScope() == null) {
+                    dependency.setScope(managed.getScope());
+                }
+            }
+        }
+    }
+
+    private static void interpolate(Dependency dependency, Function<String, String> interpolator) {
+        dependency.setGroupId(interpolator.apply(dependency.getGroupId()));
+        dependency.setArtifactId(interpolator.apply(dependency.getArtifactId()));
+        dependency.setVersion(interpolator.apply(dependency.getVersion()));
+        dependency.setType(interpolator.apply(dependency.getType()));
+        dependency.setClassifier(interpolator.apply(dependency.getClassifier()));
+        dependency.setScope(interpolator.apply(dependency.getScope()));
+    }
+
+    private String interpolate(String value, Model model, Path pom, int depth) {
+        if (value == null || !value.contains("${") || depth > MAX_INTERPOLATION_DEPTH) {
+            return value;
+        }
+        Matcher matcher = EXPRESSION.matcher(value);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            String resolved = resolve(matcher.group(1), model, pom);
+            String replacement = resolved != null ? interpolate(resolved, model, pom, depth + 1) : matcher.group();
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    // precedence like in Maven: user properties, model properties, system properties
+    private String resolve(String expression, Model model, Path pom) {
+        String value = userProperties.getProperty(expression);
+        if (value == null) {
+            value = model.getProperties().getProperty(expression);
+        }
+        if (value == null) {
+            value = System.getProperty(expression);
+        }
+        if (value != null) {
+            return value;
+        }
+        String modelExpression = expression.startsWith("project.") || expression.startsWith("pom.")
+                ? expression.substring(expression.indexOf('.') + 1)
+                : expression;
+        switch (modelExpression) {
+            case "groupId":
+                return model.getGroupId();
+            case "artifactId":
+                return model.getArtifactId();
+            case "version":
+                return model.getVersion();
+            case "parent.groupId":
+                return Optional.ofNullable(model.getParent()).map(Parent::getGroupId).orElse(null);
+            case "parent.version":
+                return Optional.ofNullable(model.getParent()).map(Parent::getVersion).orElse(null);
+            case "basedir":
+                return Objects.toString(pom.getParent());
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Reads the original model lazily and in full (via {@code MavenXpp3Reader}) since only a few corner cases need it
+     * (e.g. property changes in parent poms), whereas the model provided by {@link PomParser} is partial.
+     */
+    private static class ReactorProject extends MavenProject {
+
+        private final Path pom;
+        private Model originalModel;
+
+        ReactorProject(Model model, Path pom) {
+            super(model);
+            this.pom = pom;
+        }
+
+        @Override
+        public Model getOriginalModel() {
+            if (originalModel == null) {
+                try {
+                    originalModel = readFull(pom);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return originalModel;
+        }
+
+        @Override
+        public void setOriginalModel(Model originalModel) {
+            this.originalModel = originalModel;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+
+/**
+ * Partitions the impacted projects into a given number of shards with balanced (estimated) build durations, e.g. for parallel CI jobs.<br/>
+ * Projects are distributed longest first, each to the shard with the smallest total duration after adding it ("longest processing time" heuristic).
+ * Since each shard is built in isolation, it also contains the impacted upstream projects of its projects and their durations count against it.
+ */
+@Singleton
+@Named
+class ShardPlanner {
+
+    private Logger logger = LoggerFactory.getLogger(ShardPlanner.class);
+
+    /**
+     * Partitions the given projects.
+     *
+     * @param impacted the projects to partition
+     * @param shardCount the number of shards
+     * @param config the configuration providing the project dependency graph and the durations file
+     * @return exactly {@code shardCount} shards (some of them might be empty)
+     */
+    List<Set<MavenProject>> plan(Set<MavenProject> impacted, int shardCount, Configuration config) {
+        // the slowest shard determines the total duration, so a module that is occasionally slow should not be underestimated
+        Map<MavenProject, Long> durations = ModuleDurations.read(config.moduleDurationsFile).estimateP95(impacted);
+        Map<MavenProject, List<MavenProject>> requiredUpstream = new HashMap<>();
+        for (MavenProject project : impacted) {
+            requiredUpstream.put(project, config.projectDependencyGraph.get().getUpstreamProjects(project, true).stream()
+                    .filter(impacted::contains)
+                    .collect(Collectors.toList()));
+        }
+
+        List<Set<MavenProject>> shards = new ArrayList<>(shardCount);
+        long[] shardDurations = new long[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new LinkedHashSet<>());
+        }
+        List<MavenProject> longestFirst = impacted.stream()
+                .sorted(Comparator.comparing(durations::get).reversed())   // stable, so ties retain the reactor order
+                .collect(Collectors.toList());
+        for (MavenProject project : longestFirst) {
+            if (shards.stream().anyMatch(shard -> shard.contains(project))) {
+                continue;   // already pulled into a shard as an upstream project
+            }
+            int bestShard = 0;
+            long bestDuration = Long.MAX_VALUE;
+            for (int i = 0; i < shardCount; i++) {
+                Set<MavenProject> shard = shards.get(i);
+                long duration = shardDurations[i] + durations.get(project) + requiredUpstream.get(project).stream()
+                        .filter(upstream -> !shard.contains(upstream))
+                        .mapToLong(durations::get)
+                        .sum();
+                if (duration < bestDuration) {
+                    bestShard = i;
+                    bestDuration = duration;
+                }
+            }
+            shards.get(bestShard).add(project);
+            shards.get(bestShard).addAll(requiredUpstream.get(project));
+            shardDurations[bestShard] = bestDuration;
+        }
+
+        for (int i = 0; i < shardCount; i++) {
+            logger.info("Shard {}/{}: {} project(s), estimated duration {}ms", i + 1, shardCount, shards.get(i).size(), shardDurations[i]);
+        }
+        return shards;
+    }
+}
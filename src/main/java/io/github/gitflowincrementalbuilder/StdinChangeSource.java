@@ -0,0 +1,28 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.stream.Stream;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+
+/**
+ * {@link ChangeSource} reading the changes from the standard input, in the same format as {@link FileListChangeSource}, e.g.:
+ * <pre>git diff --name-only origin/develop... | mvn -Dgib.changeSource=stdin ...</pre>
+ */
+@Singleton
+@Named(StdinChangeSource.NAME)
+class StdinChangeSource implements ChangeSource {
+
+    static final String NAME = "stdin";
+
+    @Override
+    public Stream<Change> stream(Configuration config) {
+        // note: System.in must not be closed
+        return FileListChangeSource.parse(new BufferedReader(new InputStreamReader(System.in, Charset.defaultCharset())).lines());
+    }
+}
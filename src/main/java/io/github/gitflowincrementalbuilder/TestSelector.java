@@ -0,0 +1,131 @@
+package io.github.gitflowincrementalbuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Restricts the tests of downstream modules to the test classes that (transitively) reference classes of changed source files, based on the class files of
+ * the previous build (see {@link ClassDependencyIndex}). The selected test classes of each module are passed to surefire via {@value #SUREFIRE_TEST}
+ * (a file in the build directory would not survive {@code clean}).<br/>
+ * Whenever the selection cannot be trusted (e.g. resources or poms were changed, a changed class declares constants that might be inlined anywhere, there are
+ * no class files of a previous build or no test is selected at all), all tests are run.
+ */
+@Singleton
+@Named
+class TestSelector {
+
+    static final String SUREFIRE_TEST = "test";
+    // abstract test classes might be selected as well
+    static final String SUREFIRE_FAIL_IF_NO_SPECIFIED_TESTS = "surefire.failIfNoSpecifiedTests";
+
+    private Logger logger = LoggerFactory.getLogger(TestSelector.class);
+
+    /**
+     * Selects the tests of the given downstream modules.
+     *
+     * @param changed the changed modules (their tests are not restricted)
+     * @param downstream the unchanged downstream modules of the changed modules
+     */
+    void select(Set<MavenProject> changed, Collection<MavenProject> downstream) {
+        if (downstream.isEmpty()) {
+            return;
+        }
+        Optional<Set<String>> changedSourcePaths = collectChangedSourcePaths(changed);
+        if (changedSourcePaths.isEmpty()) {
+            return;
+        }
+        ClassDependencyIndex index;
+        try {
+            index = ClassDependencyIndex.read(Stream.concat(changed.stream(), downstream.stream())
+                    .flatMap(proj -> Stream.of(proj.getBuild().getOutputDirectory(), proj.getBuild().getTestOutputDirectory()))
+                    .map(Paths::get)
+                    .collect(Collectors.toList()));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Running all tests of downstream modules since class files could not be read: {}", e.toString());
+            logger.debug("Full exception:", e);
+            return;
+        }
+        Set<String> changedClasses = changedSourcePaths.get().stream()
+                .flatMap(sourcePath -> index.getClassesOf(sourcePath).stream())
+                .collect(Collectors.toSet());
+        Optional<String> constantHolder = changedClasses.stream().filter(index::declaresConstants).findFirst();
+        if (constantHolder.isPresent()) {
+            logger.info("Running all tests of downstream modules since {} declares constants that might be inlined anywhere.",
+                    constantHolder.get().replace('/', '.'));
+            return;
+        }
+        Set<String> affected = index.getDependentsClosure(changedClasses);
+        downstream.forEach(proj -> selectTests(proj, affected));
+    }
+
+    // relative to the source roots, e.g. a/b/Foo.java, or empty if any change is not a Java source file
+    private Optional<Set<String>> collectChangedSourcePaths(Set<MavenProject> changed) {
+        Set<String> sourcePaths = new HashSet<>();
+        for (MavenProject project : changed) {
+            Optional<Set<Path>> changedFiles = ChangedProjects.getChangedFiles(project);
+            if (changedFiles.isEmpty()) {
+                logger.info("Running all tests of downstream modules since the changes of {} are unknown.", project.getArtifactId());
+                return Optional.empty();
+            }
+            List<Path> sourceRoots = Stream.concat(project.getCompileSourceRoots().stream(), project.getTestCompileSourceRoots().stream())
+                    .map(Paths::get)
+                    .collect(Collectors.toList());
+            for (Path changedFile : changedFiles.get()) {
+                Optional<Path> sourceRoot = sourceRoots.stream().filter(changedFile::startsWith).findFirst();
+                // e.g. META-INF/services or other resources within a source root are not mapped to classes
+                if (sourceRoot.isEmpty() || !changedFile.getFileName().toString().endsWith(".java")) {
+                    logger.info("Running all tests of downstream modules since {} is not a Java source file.", changedFile);
+                    return Optional.empty();
+                }
+                sourcePaths.add(sourceRoot.get().relativize(changedFile).toString().replace('\\', '/'));
+            }
+        }
+        return Optional.of(sourcePaths);
+    }
+
+    private void selectTests(MavenProject project, Set<String> affected) {
+        Path testClassesDir = Paths.get(project.getBuild().getTestOutputDirectory());
+        Set<String> testClasses;
+        try {
+            testClasses = ClassDependencyIndex.listClasses(testClassesDir);
+        } catch (IOException e) {
+            logger.warn("Running all tests of {} since {} could not be read: {}", project.getArtifactId(), testClassesDir, e.toString());
+            return;
+        }
+        if (testClasses.isEmpty()) {
+            logger.debug("Running all tests of {} since there are no test classes of a previous build.", project.getArtifactId());
+            return;
+        }
+        List<String> includes = testClasses.stream()
+                .filter(affected::contains)
+                .map(ClassFile::topLevelName)
+                .distinct()
+                .sorted()
+                .map(className -> className + ".java")
+                .collect(Collectors.toList());
+        if (includes.isEmpty()) {
+            // changed code might still be reached in ways the class references don't reveal (reflection, service loading etc.)
+            logger.info("Running all tests of {} since none of them reference changed classes.", project.getArtifactId());
+            return;
+        }
+        logger.info("Running {} selected test class(es) of {}.", includes.size(), project.getArtifactId());
+        logger.debug("Selected tests of {}: {}", project.getArtifactId(), includes);
+        project.getProperties().setProperty(SUREFIRE_TEST, String.join(",", includes));
+        project.getProperties().setProperty(SUREFIRE_FAIL_IF_NO_SPECIFIED_TESTS, Boolean.FALSE.toString());
+    }
+}
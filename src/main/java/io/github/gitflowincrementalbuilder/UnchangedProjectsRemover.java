@@ -5,14 +5,19 @@ import static java.util.stream.Collectors.toList;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +25,8 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -31,13 +38,17 @@ import javax.inject.Singleton;
 
 import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
 import org.apache.maven.project.MavenProject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.github.gitflowincrementalbuilder.config.Configuration;
 import io.github.gitflowincrementalbuilder.config.Configuration.BuildUpstreamMode;
+import io.github.gitflowincrementalbuilder.config.Configuration.DownstreamAbiMode;
 import io.github.gitflowincrementalbuilder.config.Configuration.LogProjectsMode;
+import io.github.gitflowincrementalbuilder.config.Configuration.ProjectOrder;
+import io.github.gitflowincrementalbuilder.config.Property;
 import io.github.gitflowincrementalbuilder.jgit.GitProvider;
 
 @Singleton
@@ -47,6 +58,7 @@ class UnchangedProjectsRemover {
     private static final String MAVEN_TEST_SKIP = "maven.test.skip";
     private static final String MAVEN_TEST_SKIP_EXEC = "skipTests";
     private static final String GOAL_TEST_JAR = "test-jar";
+    private static final Pattern ADDITIONAL_REFERENCE_PREFIX = Pattern.compile("^refs/(remotes/[^/]+/|heads/|tags/)");
 
     private Logger logger = LoggerFactory.getLogger(UnchangedProjectsRemover.class);
 
@@ -58,20 +70,67 @@ class UnchangedProjectsRemover {
 
     @Inject private GitProvider gitProvider;
 
+    @Inject private ShardPlanner shardPlanner;
+
+    @Inject private CriticalPathSorter criticalPathSorter;
+
+    @Inject private TestSelector testSelector;
+
+    @Inject private AbiTracker abiTracker;
+
+    @Inject private ArtifactTracker artifactTracker;
+
+    @Inject private PrebuiltArtifacts prebuiltArtifacts;
+
     public void act(Configuration config) {
+        boolean logFootprint = config.logAnalysisFootprint || logger.isDebugEnabled();
+        long start = System.nanoTime();
+        long usedBefore = logFootprint ? usedHeapAfterGc() : 0;
         try {
             doAct(config);
         } finally {
+            if (logFootprint) {
+                // before clearing the cache, since the downstream closures are part of the footprint
+                logAnalysisFootprint(start, usedBefore, config);
+            }
             // don't be a memory hog
             downstreamCalculator.clearCache();
         }
     }
 
+    private void logAnalysisFootprint(long start, long usedBefore, Configuration config) {
+        long duration = (System.nanoTime() - start) / 1_000_000;
+        long retained = Math.max(0, usedHeapAfterGc() - usedBefore);
+        String message = "Analysis of {} modules took {} ms and retained {} KiB";
+        Object[] arguments = {config.mavenSession.getAllProjects().size(), duration, retained / 1024};
+        if (config.logAnalysisFootprint) {
+            logger.info(message, arguments);
+        } else {
+            logger.debug(message, arguments);
+        }
+    }
+
+    // note: the garbage of the analysis is collected, so that only what it retains (changed files, closures, etc.) is left;
+    // the result is approximate since other threads might allocate or release memory in the meantime
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        memoryBean.gc();
+        return memoryBean.getHeapMemoryUsage().getUsed();
+    }
+
     private void doAct(Configuration config) {
         LazyMavenProjectComparator projectComparator = new LazyMavenProjectComparator(config.mavenSession);
         // remove possibly existing logfiles of a previous run (so that e.g. SkipExecutionException doesn't leave behind an empty file like in < 4.5.0)
         deleteLogFileIfExists(config.logImpactedTo);
         deleteLogFileIfExists(config.logImpactedGavTo);
+        config.additionalReferenceBranches.forEach(reference -> {
+            deleteLogFileIfExists(additionalReferenceLogFile(config.logImpactedTo, reference));
+            deleteLogFileIfExists(additionalReferenceLogFile(config.logImpactedGavTo, reference));
+        });
+        IntStream.rangeClosed(1, config.logImpactedShards).forEach(shard -> {
+            deleteLogFileIfExists(shardLogFile(config.logImpactedTo, shard));
+            deleteLogFileIfExists(shardLogFile(config.logImpactedGavTo, shard));
+        });
 
         final Set<MavenProject> selected;
         if (config.disableSelectedProjectsHandling) {
@@ -107,7 +166,7 @@ class UnchangedProjectsRemover {
             logger.info("Using impacted dependencies from file: {}", config.impactedDependenciesFrom.get());
             changed = impactedDependencies.get(config);
         } else {
-            changed = changedProjects.get(config);
+            changed = getChangedProjects(selected, projectComparator, config);
         }
 
         printDelimiter();
@@ -123,6 +182,18 @@ class UnchangedProjectsRemover {
         if (!config.argsForDownstreamModules.isEmpty()) {
             lazyDownstreamProjects.get().forEach(proj -> config.argsForDownstreamModules.forEach(proj.getProperties()::setProperty));
         }
+        if (config.selectTestsForDownstreamModules) {
+            testSelector.select(changed, lazyDownstreamProjects.get());
+        }
+        if (config.downstreamAbiMode != DownstreamAbiMode.OFF) {
+            abiTracker.register(changed, lazyDownstreamProjects.get(), config);
+        }
+        if (config.skipDownstreamIfArtifactUnchanged) {
+            artifactTracker.register(changed, lazyDownstreamProjects.get(), config);
+        }
+        if (config.reuseUpstreamArtifacts) {
+            prebuiltArtifacts.register(config);
+        }
 
         writeImpactedLogFiles(impacted, projectComparator, config);
 
@@ -218,8 +289,74 @@ class UnchangedProjectsRemover {
         });
     }
 
+    // the changes compared to the additional reference branches are detected along with the regular ones, so their log files are written here
+    private Set<MavenProject> getChangedProjects(Set<MavenProject> selected, LazyMavenProjectComparator projectComparator, Configuration config) {
+        if (config.additionalReferenceBranches.isEmpty() || config.disableBranchComparison) {
+            return changedProjects.get(config);
+        }
+        if (!ChangeSource.JGIT.equals(config.changeSource)) {
+            logger.warn("Ignoring {} since it is only supported by {} {}.", Property.additionalReferenceBranches.prefixedName(),
+                    Property.changeSource.prefixedName(), ChangeSource.JGIT);
+            return changedProjects.get(config);
+        }
+        if (config.logImpactedTo.isEmpty() && config.logImpactedGavTo.isEmpty()) {
+            logger.warn("Ignoring {} since neither {} nor {} is defined.", Property.additionalReferenceBranches.prefixedName(),
+                    Property.logImpactedTo.prefixedName(), Property.logImpactedGavTo.prefixedName());
+            return changedProjects.get(config);
+        }
+        try {
+            return changedProjects.get(config, (reference, changed) -> {
+                Set<MavenProject> impacted = changed.isEmpty() ? Collections.emptySet() : calculateImpactedProjects(selected, changed, config);
+                logger.info("{} impacted project(s) compared to {}", impacted.size(), reference);
+                writeImpactedLogFiles(impacted, projectComparator, config,
+                        additionalReferenceLogFile(config.logImpactedTo, reference), additionalReferenceLogFile(config.logImpactedGavTo, reference));
+            });
+        } finally {
+            // cached downstream projects are not aware of changed properties which are only tracked for the regular reference branch
+            downstreamCalculator.clearCache();
+        }
+    }
+
+    // e.g. impacted.txt and refs/remotes/origin/release/1.x -> impacted-release_1.x.txt
+    private static Optional<Path> additionalReferenceLogFile(Optional<Path> logFilePath, String reference) {
+        return suffixedLogFile(logFilePath, ADDITIONAL_REFERENCE_PREFIX.matcher(reference).replaceFirst("").replaceAll("[^A-Za-z0-9._-]", "_"));
+    }
+
+    // e.g. impacted.txt and 2 -> impacted-shard-2.txt
+    private static Optional<Path> shardLogFile(Optional<Path> logFilePath, int shard) {
+        return suffixedLogFile(logFilePath, "shard-" + shard);
+    }
+
+    private static Optional<Path> suffixedLogFile(Optional<Path> logFilePath, String suffix) {
+        return logFilePath.map(path -> {
+            String fileName = path.getFileName().toString();
+            int extensionIndex = fileName.lastIndexOf('.');
+            return path.resolveSibling(extensionIndex > 0
+                    ? fileName.substring(0, extensionIndex) + "-" + suffix + fileName.substring(extensionIndex)
+                    : fileName + "-" + suffix);
+        });
+    }
+
     private void writeImpactedLogFiles(Set<MavenProject> impacted, LazyMavenProjectComparator projectComparator, Configuration config) {
-        config.logImpactedTo.ifPresent(logFilePath -> {
+        writeImpactedLogFiles(impacted, projectComparator, config, config.logImpactedTo, config.logImpactedGavTo);
+        if (config.logImpactedShards == 0) {
+            return;
+        }
+        if (config.logImpactedTo.isEmpty() && config.logImpactedGavTo.isEmpty()) {
+            logger.warn("Ignoring {} since neither {} nor {} is defined.", Property.logImpactedShards.prefixedName(),
+                    Property.logImpactedTo.prefixedName(), Property.logImpactedGavTo.prefixedName());
+            return;
+        }
+        List<Set<MavenProject>> shards = shardPlanner.plan(impacted, config.logImpactedShards, config);
+        for (int i = 0; i < shards.size(); i++) {
+            writeImpactedLogFiles(shards.get(i), projectComparator, config,
+                    shardLogFile(config.logImpactedTo, i + 1), shardLogFile(config.logImpactedGavTo, i + 1));
+        }
+    }
+
+    private void writeImpactedLogFiles(Set<MavenProject> impacted, LazyMavenProjectComparator projectComparator, Configuration config,
+            Optional<Path> logImpactedTo, Optional<Path> logImpactedGavTo) {
+        logImpactedTo.ifPresent(logFilePath -> {
             Path projectRootDir = gitProvider.getProjectRoot(config);
             List<String> projectsToLog = impacted.isEmpty()
                     ? Collections.emptyList()
@@ -229,7 +366,7 @@ class UnchangedProjectsRemover {
                             .collect(toList());
             writeLogFile(logFilePath, projectsToLog, "project paths", impacted);
         });
-        config.logImpactedGavTo.ifPresent(logFilePath -> {
+        logImpactedGavTo.ifPresent(logFilePath -> {
             List<String> gavsToLog = impacted.isEmpty()
                     ? Collections.emptyList()
                     : impacted.stream()
@@ -275,9 +412,12 @@ class UnchangedProjectsRemover {
                         .collect(Collectors.toCollection(LinkedHashSet::new));
                 rebuild.addAll(forceBuildModules);
             }
-            config.mavenSession.setProjects(rebuild.stream()
+            List<MavenProject> sortedRebuild = rebuild.stream()
                     .sorted(projectComparator)
-                    .collect(toList()));
+                    .collect(toList());
+            config.mavenSession.setProjects(config.projectOrder == ProjectOrder.CRITICAL_PATH
+                    ? criticalPathSorter.sort(sortedRebuild, config)
+                    : sortedRebuild);
         }
     }
 
@@ -299,11 +439,11 @@ class UnchangedProjectsRemover {
             default:
                 throw new IllegalStateException("Unsupported BuildUpstreamMode: " + buildUpstreamMode);
         }
-        Set<MavenProject> upstreamProjects = upstreamRequiringProjects.stream()
-                .flatMap(proj -> streamUpstreamProjects(proj, config))
-                .filter(not(impacted::contains))
-                .peek(proj -> applyUpstreamModuleArgs(proj, config))
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<MavenProject> upstreamProjects = collectUpstreamProjects(upstreamRequiringProjects, not(impacted::contains), config);
+        if (config.reuseUpstreamArtifacts) {
+            // note: upstream modules of reused modules are still built, in case their prebuilt artifacts don't match
+            upstreamProjects.removeAll(prebuiltArtifacts.findReusable(upstreamProjects, config));
+        }
 
         return config.mavenSession.getProjects().stream()
                 .filter(proj -> impacted.contains(proj) || upstreamProjects.contains(proj))
@@ -360,8 +500,39 @@ class UnchangedProjectsRemover {
         logger.info("------------------------------------------------------------------------");
     }
 
-    private Stream<MavenProject> streamUpstreamProjects(MavenProject project, Configuration config) {
-        return config.projectDependencyGraph.get().getUpstreamProjects(project, true).stream();
+    // Collects the (transitive) upstream projects of all given projects in a single traversal of the direct upstream projects (instead of one
+    // transitive traversal per project, which would walk the common upstream projects over and over again) and applies the upstream module args.
+    private Set<MavenProject> collectUpstreamProjects(Collection<MavenProject> projects, Predicate<MavenProject> filter, Configuration config) {
+        ProjectDependencyGraph graph = config.projectDependencyGraph.get();
+        Set<MavenProject> upstreamProjects = new LinkedHashSet<>();
+        if (graph.getSortedProjects().size() != graph.getAllProjects().size()) {
+            // filtered graph (-pl with rebuildProjectDependencyGraphMode=off): the direct upstream projects of filtered projects are missing,
+            // so at least skip the projects that are upstream of an already processed project (downstream projects first, see getProjects())
+            List<MavenProject> sortedProjects = config.mavenSession.getProjects();
+            Map<MavenProject, Integer> order = IntStream.range(0, sortedProjects.size()).boxed()
+                    .collect(Collectors.toMap(sortedProjects::get, Function.identity(), (a, b) -> a));
+            projects.stream()
+                    .sorted(Comparator.<MavenProject, Integer> comparing(proj -> order.getOrDefault(proj, -1)).reversed())
+                    .filter(not(upstreamProjects::contains))
+                    .forEach(proj -> upstreamProjects.addAll(graph.getUpstreamProjects(proj, true)));
+        } else {
+            Deque<MavenProject> queue = new ArrayDeque<>(projects);
+            Set<MavenProject> visited = new HashSet<>();
+            while (!queue.isEmpty()) {
+                MavenProject proj = queue.poll();
+                if (visited.add(proj)) {
+                    for (MavenProject upstreamProj : graph.getUpstreamProjects(proj, false)) {
+                        upstreamProjects.add(upstreamProj);
+                        if (!visited.contains(upstreamProj)) {
+                            queue.add(upstreamProj);
+                        }
+                    }
+                }
+            }
+        }
+        upstreamProjects.removeIf(not(filter));
+        upstreamProjects.forEach(proj -> applyUpstreamModuleArgs(proj, config));
+        return upstreamProjects;
     }
 
     private boolean matchesAny(final String str, Collection<Pattern> patterns) {
@@ -7,6 +7,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.AbstractMap;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -51,47 +52,79 @@ public class Configuration {
     public final boolean disableBranchComparison;
     public final String referenceBranch;
     public final boolean fetchReferenceBranch;
+    public final List<String> additionalReferenceBranches;
     public final String baseBranch;
     public final boolean fetchBaseBranch;
+    public final int fetchTtl;
+    public final int credentialsCacheTtl;
+    public final boolean checkoutBaseBranch;
     public final boolean compareToMergeBase;
     public final boolean uncommitted;
     public final boolean untracked;
     public final Optional<Predicate<String>> skipIfPathMatches;
     public final Optional<Predicate<String>> excludePathsMatching;
     public final Optional<Predicate<String>> includePathsMatching;
+    public final String changeSource;
+    public final Optional<Path> changeSourceFile;
+    public final boolean detectChangesEarly;
 
     public final boolean buildAll;
     public final boolean buildAllIfNoChanges;
     public final boolean buildDownstream;
     public final BuildUpstreamMode buildUpstreamMode;
     public final boolean skipTestsForUpstreamModules;
+    public final boolean reuseUpstreamArtifacts;
+    public final Optional<Path> reuseUpstreamArtifactsDir;
     public final Map<String, String> argsForUpstreamModules;
     public final Map<String, String> argsForDownstreamModules;
+    public final boolean selectTestsForDownstreamModules;
+    public final DownstreamAbiMode downstreamAbiMode;
+    public final boolean skipDownstreamIfArtifactUnchanged;
     public final List<Pattern> forceBuildModules;
     public final Map<Pattern, Pattern> forceBuildModulesConditionally;
     public final List<String> excludeDownstreamModulesPackagedAs;
     public final boolean disableSelectedProjectsHandling;
     public final RebuildProjectDependencyGraphMode rebuildProjectDependencyGraphMode;
+    public final boolean indexProjectDependencyGraph;
+    public final boolean trackPropertyChanges;
+    public final ProjectOrder projectOrder;
 
     public final boolean failOnMissingGitDir;
     public final boolean failOnError;
 
     public final Optional<Path> logImpactedTo;
     public final Optional<Path> logImpactedGavTo;
+    public final int logImpactedShards;
+    public final Optional<Path> moduleDurationsFile;
+    public final boolean recordModuleDurations;
     public final Optional<Path> impactedDependenciesFrom;
     public final LogProjectsMode logProjectsMode;
+    public final boolean logAnalysisFootprint;
+
+    private final Properties pluginProperties;
+    private final Properties projectProperties;
 
     private Logger logger = LoggerFactory.getLogger(Configuration.class);
 
-    @SuppressFBWarnings(value = "CT_CONSTRUCTOR_THROW", justification = "Finalizers are deprecated.")
     public Configuration(MavenSession session) {
+        this(session, findCurrentProject(session));
+    }
+
+    /**
+     * Creates a configuration for the given (current) project, e.g. for a project that is not (yet) part of the session.
+     *
+     * @param session the session
+     * @param currentProject the project to read the configuration from
+     */
+    @SuppressFBWarnings(value = "CT_CONSTRUCTOR_THROW", justification = "Finalizers are deprecated.")
+    public Configuration(MavenSession session, MavenProject currentProject) {
         this.mavenSession = session;
-        this.currentProject = findCurrentProject(session);
+        this.currentProject = currentProject;
         projectDependencyGraph = new LazyValue<>(() -> ProjectDependencyGraphFactory.createGraph(mavenSession.getProjects(), Configuration.this, false));
 
         Properties[] properties = getProperties(currentProject, logger);
-        Properties projectProperties = properties[0];
-        Properties pluginProperties = properties[1];
+        projectProperties = properties[0];
+        pluginProperties = properties[1];
 
         help = Boolean.parseBoolean(Property.help.getValue(pluginProperties, projectProperties));
         disable = Boolean.parseBoolean(Property.disable.getValue(pluginProperties, projectProperties));
@@ -104,14 +137,21 @@ public class Configuration {
             disableBranchComparison = false;
             referenceBranch = null;
             fetchReferenceBranch = false;
+            additionalReferenceBranches = null;
             baseBranch = null;
             fetchBaseBranch = false;
+            fetchTtl = 0;
+            credentialsCacheTtl = 0;
+            checkoutBaseBranch = false;
             compareToMergeBase = false;
             uncommitted = false;
             untracked = false;
             skipIfPathMatches = null;
             excludePathsMatching = null;
             includePathsMatching = null;
+            changeSource = null;
+            changeSourceFile = null;
+            detectChangesEarly = false;
 
             // build config
 
@@ -120,9 +160,14 @@ public class Configuration {
             buildDownstream = false;
             buildUpstreamMode = null;
             skipTestsForUpstreamModules = false;
+            reuseUpstreamArtifacts = false;
+            reuseUpstreamArtifactsDir = null;
 
             argsForUpstreamModules = null;
             argsForDownstreamModules = null;
+            selectTestsForDownstreamModules = false;
+            downstreamAbiMode = null;
+            skipDownstreamIfArtifactUnchanged = false;
 
             forceBuildModules = null;
             forceBuildModulesConditionally = null;
@@ -131,6 +176,9 @@ public class Configuration {
 
             disableSelectedProjectsHandling = false;
             rebuildProjectDependencyGraphMode = null;
+            indexProjectDependencyGraph = false;
+            trackPropertyChanges = false;
+            projectOrder = null;
 
             // error handling config
 
@@ -140,8 +188,12 @@ public class Configuration {
             // log related
             logImpactedTo = null;
             logImpactedGavTo = null;
+            logImpactedShards = 0;
+            moduleDurationsFile = null;
+            recordModuleDurations = false;
             impactedDependenciesFrom = null;
             logProjectsMode = null;
+            logAnalysisFootprint = false;
 
             return;
         }
@@ -156,14 +208,24 @@ public class Configuration {
         disableBranchComparison = Boolean.parseBoolean(Property.disableBranchComparison.getValue(pluginProperties, projectProperties));
         referenceBranch = Property.referenceBranch.getValue(pluginProperties, projectProperties);
         fetchReferenceBranch = Boolean.parseBoolean(Property.fetchReferenceBranch.getValue(pluginProperties, projectProperties));
+        additionalReferenceBranches = parseDelimited(Property.additionalReferenceBranches.getValue(pluginProperties, projectProperties), ",")
+                .filter(branch -> !branch.equals(referenceBranch))
+                .distinct()
+                .collect(collectingAndThen(toList(), Collections::unmodifiableList));
         baseBranch = Property.baseBranch.getValue(pluginProperties, projectProperties);
         fetchBaseBranch = Boolean.parseBoolean(Property.fetchBaseBranch.getValue(pluginProperties, projectProperties));
+        fetchTtl = parseNonNegativeInt(Property.fetchTtl, pluginProperties, projectProperties);
+        credentialsCacheTtl = parseNonNegativeInt(Property.credentialsCacheTtl, pluginProperties, projectProperties);
+        checkoutBaseBranch = Boolean.parseBoolean(Property.checkoutBaseBranch.getValue(pluginProperties, projectProperties));
         compareToMergeBase = Boolean.parseBoolean(Property.compareToMergeBase.getValue(pluginProperties, projectProperties));
         uncommitted = Boolean.parseBoolean(Property.uncommitted.getValue(pluginProperties, projectProperties));
         untracked = Boolean.parseBoolean(Property.untracked.getValue(pluginProperties, projectProperties));
         skipIfPathMatches = compileOptionalPatternPredicate(Property.skipIfPathMatches, pluginProperties, projectProperties);
         excludePathsMatching = compileOptionalPatternPredicate(Property.excludePathsMatching, pluginProperties, projectProperties);
         includePathsMatching = compileOptionalPatternPredicate(Property.includePathsMatching, pluginProperties, projectProperties);
+        changeSource = Property.changeSource.getValue(pluginProperties, projectProperties);
+        changeSourceFile = Property.changeSourceFile.getValueOpt(pluginProperties, projectProperties).map(Paths::get);
+        detectChangesEarly = Boolean.parseBoolean(Property.detectChangesEarly.getValue(pluginProperties, projectProperties));
 
         // build config
 
@@ -173,6 +235,8 @@ public class Configuration {
                 Property.buildDownstream, pluginProperties, projectProperties, session, MavenExecutionRequest.REACTOR_MAKE_DOWNSTREAM);
         buildUpstreamMode = parseBuildUpstreamMode(session, pluginProperties, projectProperties);
         skipTestsForUpstreamModules = Boolean.parseBoolean(Property.skipTestsForUpstreamModules.getValue(pluginProperties, projectProperties));
+        reuseUpstreamArtifacts = Boolean.parseBoolean(Property.reuseUpstreamArtifacts.getValue(pluginProperties, projectProperties));
+        reuseUpstreamArtifactsDir = Property.reuseUpstreamArtifactsDir.getValueOpt(pluginProperties, projectProperties).map(Paths::get);
 
         argsForUpstreamModules = parseDelimited(Property.argsForUpstreamModules.getValue(pluginProperties, projectProperties), " ")
                 .map(Configuration::keyValueStringToEntry)
@@ -180,6 +244,10 @@ public class Configuration {
         argsForDownstreamModules = parseDelimited(Property.argsForDownstreamModules.getValue(pluginProperties, projectProperties), " ")
                 .map(Configuration::keyValueStringToEntry)
                 .collect(collectingAndThen(toLinkedMap(), Collections::unmodifiableMap));
+        selectTestsForDownstreamModules = Boolean.parseBoolean(Property.selectTestsForDownstreamModules.getValue(pluginProperties, projectProperties));
+        downstreamAbiMode = parseEnum(Property.downstreamAbiMode, DownstreamAbiMode.class, pluginProperties, projectProperties);
+        skipDownstreamIfArtifactUnchanged = Boolean.parseBoolean(
+                Property.skipDownstreamIfArtifactUnchanged.getValue(pluginProperties, projectProperties));
 
         Map<String, String> forceBuildModulesMap = parseDelimited(Property.forceBuildModules.getValue(pluginProperties, projectProperties), ",")
                 .map(Configuration::keyValueStringToEntry)
@@ -202,6 +270,9 @@ public class Configuration {
         disableSelectedProjectsHandling = Boolean.parseBoolean(Property.disableSelectedProjectsHandling.getValue(pluginProperties, projectProperties));
         rebuildProjectDependencyGraphMode =
                 parseEnum(Property.rebuildProjectDependencyGraphMode, RebuildProjectDependencyGraphMode.class, pluginProperties, projectProperties);
+        indexProjectDependencyGraph = Boolean.parseBoolean(Property.indexProjectDependencyGraph.getValue(pluginProperties, projectProperties));
+        trackPropertyChanges = Boolean.parseBoolean(Property.trackPropertyChanges.getValue(pluginProperties, projectProperties));
+        projectOrder = parseEnum(Property.projectOrder, ProjectOrder.class, pluginProperties, projectProperties);
 
         // error handling config
 
@@ -215,9 +286,13 @@ public class Configuration {
         var logImpactedGavTo = Property.logImpactedGavTo.getValueOpt(pluginProperties, projectProperties).map(Paths::get);
         this.logImpactedTo = deprecatedLogImpactedFormatIsGav ? Optional.empty() : logImpactedTo;
         this.logImpactedGavTo = logImpactedGavTo.or(() -> deprecatedLogImpactedFormatIsGav ? logImpactedTo : Optional.empty());
+        logImpactedShards = parseNonNegativeInt(Property.logImpactedShards, pluginProperties, projectProperties);
+        moduleDurationsFile = Property.moduleDurationsFile.getValueOpt(pluginProperties, projectProperties).map(Paths::get);
+        recordModuleDurations = Boolean.parseBoolean(Property.recordModuleDurations.getValue(pluginProperties, projectProperties));
 
         impactedDependenciesFrom = Property.loadImpactedDependenciesFrom.getValueOpt(pluginProperties, projectProperties).map(Paths::get);
         logProjectsMode = parseEnum(Property.logProjectsMode, LogProjectsMode.class, pluginProperties, projectProperties);
+        logAnalysisFootprint = Boolean.parseBoolean(Property.logAnalysisFootprint.getValue(pluginProperties, projectProperties));
     }
 
     /**
@@ -232,6 +307,18 @@ public class Configuration {
         return expectedMakeBehavior.equals(actualMakeBehavior) || MavenExecutionRequest.REACTOR_MAKE_BOTH.equals(actualMakeBehavior);
     }
 
+    /**
+     * Returns the (unparsed) values of the given properties, e.g. to compare parts of two configurations.
+     *
+     * @param properties the properties
+     * @return the values, in the order of the given properties
+     */
+    public Map<Property, String> getValues(Collection<Property> properties) {
+        Map<Property, String> values = new LinkedHashMap<>();
+        properties.forEach(property -> values.put(property, property.getValue(pluginProperties, projectProperties)));
+        return values;
+    }
+
     private static MavenProject findCurrentProject(MavenSession session) {
         // MavenSession.getCurrentProject() does not return the correct value in some cases,
         // see: https://issues.apache.org/jira/browse/MNG-6979
@@ -283,6 +370,20 @@ public class Configuration {
         }
     }
 
+    private static int parseNonNegativeInt(Property property, Properties pluginProperties, Properties projectProperties) {
+        ValueWithOriginContext propertyValue = property.getValueWithOriginContext(pluginProperties, projectProperties);
+        int value;
+        try {
+            value = Integer.parseInt(propertyValue.value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("GIB property '" + propertyValue.originName + "' defines an invalid number: " + propertyValue, e);
+        }
+        if (value < 0) {
+            throw new IllegalArgumentException("GIB property '" + propertyValue.originName + "' must not be negative: " + propertyValue);
+        }
+        return value;
+    }
+
     private static boolean isBuildStreamActive(Property property, Properties pluginProperties, Properties projectProperties, MavenSession session,
             String expectedMakeBehavior) {
         ValueWithOriginContext propertyValue = property.getValueWithOriginContext(pluginProperties, projectProperties);
@@ -358,6 +459,17 @@ public class Configuration {
         OFF
     }
 
+    public enum ProjectOrder {
+        REACTOR,
+        CRITICAL_PATH
+    }
+
+    public enum DownstreamAbiMode {
+        OFF,
+        TEST,
+        SKIP
+    }
+
     private enum LogImpactedFormat {
         PATH,
         GAV
@@ -52,6 +52,10 @@ public enum Property {
      * Fetches the referenceBranch from the remote repository.
      */
     fetchReferenceBranch("false", "frb", true),
+    /**
+     * Comma separated list of further branches to compare baseBranch to, in addition to referenceBranch.
+     */
+    additionalReferenceBranches("", "arb"),
     /**
      * The branch that is compared to referenceBranch.
      */
@@ -60,6 +64,19 @@ public enum Property {
      * Fetches the baseBranch from the remote repository
      */
     fetchBaseBranch("false", "fbb", true),
+    /**
+     * Defines the number of seconds in which a branch that was fetched before is not fetched again (0: always fetch, if not up to date).
+     */
+    fetchTtl("0", "fttl"),
+    /**
+     * Defines the number of seconds in which HTTP(S) credentials that were looked up via native Git are reused by subsequent builds in the same JVM
+     * (0: not reused).
+     */
+    credentialsCacheTtl("0", "cct"),
+    /**
+     * Checks out the baseBranch (if it is not the current branch), otherwise the changes are detected in the object database only.
+     */
+    checkoutBaseBranch("true", "cbb", true),
     /**
      * Controls whether or not to the merge-base mechanism to compare the branches.
      */
@@ -84,6 +101,18 @@ public enum Property {
      * Can be used to include only certain changed files from being detected as changed, reducing the number of modules to build.
      */
     includePathsMatching("", "ipm"),
+    /**
+     * Defines the name of the source of the changes: {@code jgit} (default), {@code native-git}, {@code file}, {@code stdin} or a custom one.
+     */
+    changeSource("jgit", "cs"),
+    /**
+     * Defines the file containing the changed paths and/or GAVs (one per line) for {@link #changeSource} {@code file}.
+     */
+    changeSourceFile("", "csf"),
+    /**
+     * Starts detecting the changes (via JGit) right at the start of the session, in parallel to Maven reading the projects.
+     */
+    detectChangesEarly("false", "dce", true),
 
     /**
      * Builds all modules, including upstream modules.
@@ -113,10 +142,30 @@ public enum Property {
      * This property allows adding arbitrary arguments/properties for upstream modules to further reduce overhead.
      */
     argsForUpstreamModules("", "afum"),
+    /**
+     * This property drops upstream modules from the build whose artifacts were already built from the same sources (see buildUpstreamMode).
+     */
+    reuseUpstreamArtifacts("false", "rua", true),
+    /**
+     * This property defines an additional directory to store and look up prebuilt artifacts for reuseUpstreamArtifacts.
+     */
+    reuseUpstreamArtifactsDir("", "ruad"),
     /**
      * This property allows adding arbitrary arguments/properties for downstream modules to further reduce overhead.
      */
     argsForDownstreamModules("", "afdm"),
+    /**
+     * This property restricts the tests of downstream modules to the test classes that (transitively) reference changed classes.
+     */
+    selectTestsForDownstreamModules("false", "stfdm", true),
+    /**
+     * Controls what happens to downstream modules if the ABI of their upstream modules did not change: {@code off} (default) builds them as usual, {@code test} skips their compilation, {@code skip} skips their compilation and tests.
+     */
+    downstreamAbiMode("off", "dam"),
+    /**
+     * This property skips downstream modules during the build if the main artifacts of all their (transitive) upstream modules turned out to be identical to the installed ones.
+     */
+    skipDownstreamIfArtifactUnchanged("false", "sdiau", true),
     /**
      * Defines artifact ids of modules to build forcibly.
      */
@@ -133,6 +182,18 @@ public enum Property {
      * Controls whether or not to rebuild the project dependency graph instead of using the one provided by MavenSession.
      */
     rebuildProjectDependencyGraphMode("auto", "rpdgm"),
+    /**
+     * Indexes the project dependency graphs that are created by GIB, for faster queries in large reactors.
+     */
+    indexProjectDependencyGraph("false", "ipdg", true),
+    /**
+     * Limits the impact of changed properties in a parent pom to those child modules that actually reference them.
+     */
+    trackPropertyChanges("false", "tpc", true),
+    /**
+     * Controls the order of the modules that are built: {@code reactor} (default) retains Maven's order, {@code critical_path} starts modules with the longest remaining (downstream) build duration first.
+     */
+    projectOrder("reactor", "po"),
 
     /**
      * Controls whether or not to fail on missing .git directory.
@@ -162,6 +223,18 @@ public enum Property {
      * Defines an optional logfile which GIB shall write all "impacted" module GAVs (GroupId:ArtifactId:Version) to.
      */
     logImpactedGavTo("", "ligt"),
+    /**
+     * Defines the number of shards which the "impacted" modules shall additionally be partitioned into, written next to {@link #logImpactedTo} and {@link #logImpactedGavTo}.
+     */
+    logImpactedShards("0", "lis"),
+    /**
+     * Defines an optional file containing the build durations of the modules, used for balancing the shards of {@link #logImpactedShards} and for {@link #projectOrder}.
+     */
+    moduleDurationsFile("", "mdf"),
+    /**
+     * Controls whether or not to record the build durations of the modules in {@link #moduleDurationsFile}.
+     */
+    recordModuleDurations("false", "rmd", true),
     /**
      * Defines an optional file containing GAVs of dependencies (one per line) to determine which modules should be built based on transitive dependencies.
      */
@@ -169,7 +242,11 @@ public enum Property {
     /**
      * Controls which projects to log.
      */
-    logProjectsMode("changed", "lpm");
+    logProjectsMode("changed", "lpm"),
+    /**
+     * Logs the duration and the memory allocation of the analysis (which are otherwise only logged in debug mode).
+     */
+    logAnalysisFootprint("false", "laf", true);
 
     public static final String PREFIX = "gib.";
 
@@ -1,12 +1,26 @@
 package io.github.gitflowincrementalbuilder.jgit;
 
+import static java.util.function.Predicate.not;
+
+import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -16,14 +30,22 @@ import javax.inject.Singleton;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.Status;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.errors.TransportException;
 import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.EmptyProgressMonitor;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
-import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.transport.FetchConnection;
+import org.eclipse.jgit.transport.PackLock;
 import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.Transport;
 import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
 import org.eclipse.jgit.treewalk.filter.TreeFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +53,7 @@ import org.slf4j.LoggerFactory;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.github.gitflowincrementalbuilder.SkipExecutionException;
 import io.github.gitflowincrementalbuilder.config.Configuration;
+import io.github.gitflowincrementalbuilder.config.Property;
 
 @Singleton
 @Named
@@ -41,38 +64,190 @@ public class DifferentFiles {
     private static final String REFS_HEADS = "refs/heads/";
     private static final String REFS_TAGS = "refs/tags/";
 
+    // all properties that the changes detected by get(Configuration) depend on (apart from the project directory)
+    private static final List<Property> CHANGE_DETECTION_PROPERTIES = List.of(
+            Property.disableBranchComparison, Property.referenceBranch, Property.fetchReferenceBranch, Property.baseBranch,
+            Property.fetchBaseBranch, Property.fetchTtl, Property.checkoutBaseBranch, Property.compareToMergeBase, Property.uncommitted,
+            Property.untracked, Property.skipIfPathMatches, Property.excludePathsMatching, Property.includePathsMatching,
+            Property.trackPropertyChanges, Property.failOnMissingGitDir);
+
     private Logger logger = LoggerFactory.getLogger(DifferentFiles.class);
 
     @Inject private GitProvider gitProvider;
 
     private final Map<String, String> additionalNativeGitEnvironment = new HashMap<>();
+    private final MergeBases mergeBases = new MergeBases();
+    private final FetchTimes fetchTimes = new FetchTimes();
+
+    // the tree that the changes of the last get() call were detected against (reference/merge base or base if branch comparison is disabled)
+    private ObjectId previousTreeId;
+
+    // the changes that are detected in the background for a preliminary configuration, see startEarly()
+    private EarlyDetection earlyDetection;
 
     public Set<Path> get(Configuration config) {
-        Set<Path> paths = new HashSet<>();
+        Optional<Set<Path>> earlyPaths = joinEarly(config);
+        if (earlyPaths.isPresent()) {
+            return earlyPaths.get();
+        }
+        return get(gitProvider, config, false).get(config.referenceBranch);
+    }
+
+    /**
+     * Starts detecting the changes in the background, e.g. while Maven is still reading the projects.<br/>
+     * The result is returned by the next {@link #get(Configuration)} call if its configuration has the same values for all properties that affect
+     * the change detection, otherwise the changes are detected again.<br/>
+     * Nothing is started if the base branch would have to be checked out or if any of the relevant values is not interpolated yet.
+     *
+     * @param preliminaryConfig the preliminary configuration, e.g. read from the raw pom of the top-level project
+     */
+    public void startEarly(Configuration preliminaryConfig) {
+        discardEarly();
+        Map<Property, String> values = preliminaryConfig.getValues(CHANGE_DETECTION_PROPERTIES);
+        boolean checkoutRequired = !HEAD.equals(preliminaryConfig.baseBranch) && preliminaryConfig.checkoutBaseBranch;
+        if (checkoutRequired || values.values().stream().anyMatch(value -> value.contains("${"))) {
+            logger.debug("Not detecting changes early for preliminary configuration: {}", values);
+            return;
+        }
+        logger.debug("Detecting changes early for preliminary configuration: {}", values);
+        // with its own repository, so that it can be cancelled without waiting for it (see discardEarly())
+        GitProvider earlyGitProvider = new GitProvider();
+        CompletableFuture<Set<Path>> paths = new CompletableFuture<>();
+        Thread thread = startThread("gib-early-change-detection", paths, () -> {
+            try {
+                return get(earlyGitProvider, preliminaryConfig, false).get(preliminaryConfig.referenceBranch);
+            } finally {
+                earlyGitProvider.close();
+            }
+        });
+        earlyDetection = new EarlyDetection(preliminaryConfig.currentProject.getBasedir(), values, paths, thread);
+    }
+
+    /**
+     * Cancels the detection of changes that were {@link #startEarly(Configuration) started early}, e.g. because they are not needed anymore.<br/>
+     * This does not wait for the detection to stop, it closes its repository once it does.
+     */
+    public void discardEarly() {
+        discardEarly(false);
+    }
+
+    /**
+     * Returns the changed files like {@link #get(Configuration)} and, detected in the same pass, the changed files compared to each of the
+     * {@link Configuration#additionalReferenceBranches additional reference branches}.
+     *
+     * @param config the configuration
+     * @return the changed files per reference branch: first {@link Configuration#referenceBranch}, then the additional ones in the configured order
+     */
+    public Map<String, Set<Path>> getPerReference(Configuration config) {
+        discardEarly(true);
+        return get(gitProvider, config, true);
+    }
+
+    private Map<String, Set<Path>> get(GitProvider provider, Configuration config, boolean withAdditionalReferences) {
+        Map<String, Set<Path>> pathsPerReference = new LinkedHashMap<>();
+        previousTreeId = null;
 
         Worker worker = null;
+        CompletableFuture<Set<Path>> statusPaths = null;
         try {
-            worker = new Worker(gitProvider.get(config), config);
+            worker = new Worker(provider, config);
 
-            worker.fetch();
+            // the status is filesystem bound and the diff is object database bound, so both are collected concurrently
+            // (the status even concurrently to the fetch, unless the base branch is to be checked out)
+            boolean withStatus = (config.uncommitted || config.untracked) && worker.isStatusRelevant();
+            if (withStatus && !worker.isCheckoutRequired()) {
+                statusPaths = supplyAsync("gib-status", worker::getChangesFromStatus);
+            }
+            worker.fetch(withAdditionalReferences);
             worker.checkout();
+            if (withStatus && statusPaths == null) {
+                statusPaths = supplyAsync("gib-status", worker::getChangesFromStatus);
+            }
             if (!config.disableBranchComparison) {
-                paths.addAll(worker.getBranchDiff());
+                RevCommit base = worker.getBranchCommit(config.baseBranch, false);
+                RevCommit reference = worker.resolveReference(base, config.referenceBranch);
+                previousTreeId = reference.getTree().getId();
+                pathsPerReference.put(config.referenceBranch, worker.getBranchDiff(base, reference));
+                if (withAdditionalReferences) {
+                    for (String additionalReference : config.additionalReferenceBranches) {
+                        pathsPerReference.put(additionalReference, worker.getBranchDiff(base, worker.resolveReference(base, additionalReference)));
+                    }
+                }
+            } else {
+                if (config.trackPropertyChanges) {
+                    previousTreeId = worker.getBranchCommit(config.baseBranch, false).getTree().getId();
+                }
+                pathsPerReference.put(config.referenceBranch, new HashSet<>());
             }
-            if (config.uncommitted || config.untracked) {
-                paths.addAll(worker.getChangesFromStatus());
+            if (statusPaths != null) {
+                Set<Path> paths = join(statusPaths);
+                statusPaths = null;
+                pathsPerReference.values().forEach(referencePaths -> referencePaths.addAll(paths));
             }
         } catch (GitAPIException | IOException e) {
             throw new IllegalStateException("Failed to get file differences", e);
         } finally {
+            if (statusPaths != null) {
+                // the diff failed: wait for the status before the repository might be closed
+                statusPaths.exceptionally(e -> null).join();
+            }
             if (worker != null) {
-                worker.credentialsProvider.resetAll();
+                worker.close();
             }
         }
+        Set<Path> paths = pathsPerReference.get(config.referenceBranch);
         if (!paths.isEmpty() && logger.isDebugEnabled()) {
             logger.debug("Changed files:\n\t" + paths.stream().map(Path::toString).collect(Collectors.joining("\n\t")));
         }
-        return paths;
+        return pathsPerReference;
+    }
+
+    /**
+     * Returns the content of the given file as it was in the tree that the changes of the last {@link #get(Configuration)} call were detected against:
+     * the reference branch (or the merge base) or, if branch comparison is disabled, the base branch.
+     *
+     * @param config the configuration
+     * @param path the absolute path of a file in the worktree
+     * @return the previous content of the file or empty if the file did not exist back then or if {@link #get(Configuration)} was not called before
+     */
+    public Optional<String> getPreviousContent(Configuration config, Path path) {
+        if (previousTreeId == null) {
+            return Optional.empty();
+        }
+        Repository repository = gitProvider.get(config).getRepository();
+        try {
+            Path workTree = repository.getWorkTree().toPath().normalize().toAbsolutePath();
+            Path relativePath = path.startsWith(workTree)
+                    ? workTree.relativize(path)
+                    : workTree.toRealPath().relativize(path.toRealPath());  // symlinks
+            try (TreeWalk treeWalk = TreeWalk.forPath(repository, relativePath.toString().replace(File.separatorChar, '/'), previousTreeId)) {
+                if (treeWalk == null) {
+                    return Optional.empty();
+                }
+                return Optional.of(new String(repository.open(treeWalk.getObjectId(0)).getBytes(), StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns whether or not the given changed path passes {@link Configuration#excludePathsMatching} and {@link Configuration#includePathsMatching}.
+     *
+     * @param relativePath the changed path, relative to the root of the changes
+     * @param config the configuration
+     * @return whether or not the path is included
+     * @throws SkipExecutionException if the path matches {@link Configuration#skipIfPathMatches}
+     */
+    public boolean isIncluded(Path relativePath, Configuration config) {
+        final String pathString = relativePath.toString();
+        if (config.skipIfPathMatches.map(pred -> pred.test(pathString)).orElse(false)) {
+            throw new SkipExecutionException("Changed path matches regex defined by skipIfPathMatches: " + pathString);
+        }
+        boolean excluded = config.excludePathsMatching.map(pred -> pred.test(pathString)).orElse(false);
+        boolean included = !excluded && config.includePathsMatching.map(pred -> pred.test(pathString)).orElse(true);
+        logger.debug("included {}: {}", included, pathString);
+        return included;
     }
 
     /**
@@ -85,50 +260,223 @@ public class DifferentFiles {
         additionalNativeGitEnvironment.put(key, value);
     }
 
-    private class Worker {
+    private Optional<Set<Path>> joinEarly(Configuration config) {
+        EarlyDetection early = earlyDetection;
+        if (early == null) {
+            return Optional.empty();
+        }
+        if (!early.matches(config)) {
+            discardEarly(true);
+            logger.info("Detecting changes again since the configuration differs from the preliminary one that was used to detect them early.");
+            return Optional.empty();
+        }
+        earlyDetection = null;
+        try {
+            Set<Path> paths = early.paths.join();
+            logger.info("Using the changes that were detected early.");
+            return Optional.of(paths);
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
 
+    // await: whether to wait for the detection to stop, e.g. before detecting the changes again in the same repository (fetching the same refs etc.)
+    private void discardEarly(boolean await) {
+        EarlyDetection early = earlyDetection;
+        if (early != null) {
+            earlyDetection = null;
+            early.cancel();
+            if (await) {
+                early.awaitCancelled();
+            }
+        }
+    }
+
+    // runs the given callable in a new daemon thread
+    private static <T> CompletableFuture<T> supplyAsync(String threadName, Callable<T> callable) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        startThread(threadName, future, callable);
+        return future;
+    }
+
+    // runs the given callable in a new daemon thread that completes the given future
+    private static <T> Thread startThread(String threadName, CompletableFuture<T> future, Callable<T> callable) {
+        Thread thread = new Thread(() -> {
+            try {
+                future.complete(callable.call());
+            } catch (Exception | Error e) {
+                future.completeExceptionally(e);
+            }
+        }, threadName);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws GitAPIException, IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof GitAPIException) {
+                throw (GitAPIException) e.getCause();
+            }
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalStateException("Failed to get file differences", cause);
+    }
+
+    private static class EarlyDetection {
+
+        private final File baseDir;
+        private final Map<Property, String> values;
+        private final CompletableFuture<Set<Path>> paths;
+        private final Thread thread;
+
+        EarlyDetection(File baseDir, Map<Property, String> values, CompletableFuture<Set<Path>> paths, Thread thread) {
+            this.baseDir = baseDir;
+            this.values = values;
+            this.paths = paths;
+            this.thread = thread;
+        }
+
+        boolean matches(Configuration config) {
+            return baseDir.equals(config.currentProject.getBasedir()) && values.equals(config.getValues(CHANGE_DETECTION_PROPERTIES));
+        }
+
+        // the worker checks for the interrupt between its steps and while fetching or diffing
+        void cancel() {
+            thread.interrupt();
+        }
+
+        void awaitCancelled() {
+            paths.exceptionally(e -> null).join();
+        }
+    }
+
+    private class Worker implements AutoCloseable {
+
+        private final GitProvider provider;
         private final Git git;
+        // the revision of the checked out commit, which is not "HEAD" for a worktree checkout (see GitProvider#getHead)
+        private final String head;
         private final Path workTree;
         private final Configuration configuration;
         private final HttpDelegatingCredentialsProvider credentialsProvider;
+        private final Optional<SparseCheckout> sparseCheckout;
+        // shared by all walks of this worker, except for the status which runs concurrently and uses its own reader
+        private final ObjectReader reader;
+        private final RevWalk revWalk;
 
         @SuppressFBWarnings(value = "CT_CONSTRUCTOR_THROW", justification = "Finalizers are deprecated.")
-        public Worker(Git git, Configuration configuration) {
-            this.git = git;
+        public Worker(GitProvider provider, Configuration configuration) throws IOException {
+            this.provider = provider;
+            this.git = provider.get(configuration);
+            this.head = provider.getHead(configuration);
             this.workTree = git.getRepository().getWorkTree().toPath().normalize().toAbsolutePath();
             this.configuration = configuration;
-            this.credentialsProvider = new HttpDelegatingCredentialsProvider(workTree, additionalNativeGitEnvironment);
+            this.credentialsProvider = new HttpDelegatingCredentialsProvider(workTree, additionalNativeGitEnvironment,
+                    configuration.credentialsCacheTtl);
+            this.sparseCheckout = SparseCheckout.read(git.getRepository(), provider.getCheckoutGitDir(configuration));
+            if (!configuration.disableBranchComparison && configuration.compareToMergeBase) {
+                MergeBases.useCommitGraph(git.getRepository());
+            }
+            this.reader = git.getRepository().newObjectReader();
+            this.revWalk = new RevWalk(reader);
         }
 
-        private Set<Path> getBranchDiff() throws IOException {
-            RevCommit base = getBranchCommit(configuration.baseBranch, false);
-            try (final TreeWalk treeWalk = new TreeWalk(git.getRepository())) {
+        @Override
+        public void close() {
+            revWalk.close();
+            reader.close();
+            credentialsProvider.resetAll();
+        }
+
+        private Set<Path> getBranchDiff(RevCommit base, RevCommit reference) throws IOException {
+            try (final TreeWalk treeWalk = new TreeWalk(git.getRepository(), reader)) {
                 treeWalk.addTree(base.getTree());
-                treeWalk.addTree(resolveReference(base).getTree());
-                treeWalk.setFilter(TreeFilter.ANY_DIFF);
+                treeWalk.addTree(reference.getTree());
+                Set<String> notCheckedOut = new TreeSet<>();
+                // ANY_DIFF first, so that only actual differences are checked against the sparse checkout
+                treeWalk.setFilter(sparseCheckout
+                        .map(sparse -> AndTreeFilter.create(TreeFilter.ANY_DIFF, sparse.newTreeFilter(notCheckedOut::add)))
+                        .orElse(TreeFilter.ANY_DIFF));
                 treeWalk.setRecursive(true);
-                return getDiff(treeWalk, workTree);
+                Set<Path> paths = getDiff(treeWalk, workTree);
+                logNotCheckedOut(notCheckedOut);
+                return paths;
+            }
+        }
+
+        private void logNotCheckedOut(Set<String> notCheckedOut) {
+            if (!notCheckedOut.isEmpty()) {
+                logger.info("Ignoring {} changed file(s) or directories outside of the sparse checkout since they cannot be built.", notCheckedOut.size());
+                logger.debug("Changed outside of the sparse checkout:\n\t{}", String.join("\n\t", notCheckedOut));
+            }
+        }
+
+        private boolean isBaseBranchCurrent() throws IOException {
+            return HEAD.equals(configuration.baseBranch) || configuration.baseBranch.startsWith("worktrees/")
+                    || provider.getFullBranch(configuration).equals(configuration.baseBranch);
+        }
+
+        private boolean isCheckoutRequired() throws IOException {
+            return configuration.checkoutBaseBranch && !isBaseBranchCurrent();
+        }
+
+        // uncommitted and untracked changes in the worktree do not belong to a base branch that is not checked out
+        private boolean isStatusRelevant() throws IOException {
+            if (configuration.checkoutBaseBranch || isBaseBranchCurrent()) {
+                return true;
             }
+            logger.info("Ignoring uncommitted and untracked changes since base branch {} is not checked out.", configuration.baseBranch);
+            return false;
         }
 
         private void checkout() throws IOException, GitAPIException {
-            if (! (HEAD.equals(configuration.baseBranch) || configuration.baseBranch.startsWith("worktrees/")) && ! git.getRepository().getFullBranch().equals(configuration.baseBranch)) {
+            if (isCheckoutRequired()) {
+                if (!HEAD.equals(head)) {
+                    // JGit would move the HEAD of the main checkout
+                    throw new IllegalArgumentException("Cannot check out base branch '" + configuration.baseBranch + "' in worktree checkout "
+                            + workTree + ". Check it out manually or disable " + Property.checkoutBaseBranch.prefixedName() + ".");
+                }
                 logger.info("Checking out base branch " + configuration.baseBranch);
                 git.checkout().setName(configuration.baseBranch).call();
             }
         }
 
-        private void fetch() throws GitAPIException {
+        private void fetch(boolean withAdditionalReferences) throws IOException {
+            // key: remote name, value: ref spec per branch (so that each remote is only contacted once)
+            Map<String, Map<String, RefSpec>> refSpecsPerRemote = new LinkedHashMap<>();
             if (!configuration.disableBranchComparison && configuration.fetchReferenceBranch) {
-                fetch(configuration.referenceBranch, true);
+                addRefSpec(refSpecsPerRemote, configuration.referenceBranch, true);
+                if (withAdditionalReferences) {
+                    for (String additionalReference : configuration.additionalReferenceBranches) {
+                        addRefSpec(refSpecsPerRemote, additionalReference, true);
+                    }
+                }
             }
             if (configuration.fetchBaseBranch) {
-                fetch(configuration.baseBranch, false);
+                addRefSpec(refSpecsPerRemote, configuration.baseBranch, false);
+            }
+            for (Map.Entry<String, Map<String, RefSpec>> entry : refSpecsPerRemote.entrySet()) {
+                fetch(entry.getKey(), entry.getValue());
             }
         }
 
-        private void fetch(String branchName, boolean reference) throws GitAPIException {
-            logger.info("Fetching " + branchName);
+        private void addRefSpec(Map<String, Map<String, RefSpec>> refSpecsPerRemote, String branchName, boolean reference) {
             final String remoteName;
             final String spec;
             if (branchName.startsWith(REFS_TAGS)) {
@@ -142,11 +490,83 @@ public class DifferentFiles {
                 remoteName = extractRemoteName(branchName);
                 spec = REFS_HEADS + extractShortName(remoteName, branchName) + ":" + branchName;
             }
-            git.fetch()
-                    .setCredentialsProvider(credentialsProvider)
-                    .setRemote(remoteName)
-                    .setRefSpecs(new RefSpec(spec))
-                    .call();
+            refSpecsPerRemote.computeIfAbsent(remoteName, name -> new LinkedHashMap<>()).put(branchName, new RefSpec(spec));
+        }
+
+        // fetches all given branches of the given remote that were not fetched recently and that are outdated via a single connection
+        private void fetch(String remoteName, Map<String, RefSpec> refSpecsPerBranch) throws IOException {
+            checkCancelled();
+            Repository repository = git.getRepository();
+            Map<String, RefSpec> toCheck = new LinkedHashMap<>();
+            refSpecsPerBranch.forEach((branchName, refSpec) -> {
+                if (configuration.fetchTtl > 0 && fetchTimes.isFresh(repository, remoteName, refSpec.toString(), configuration.fetchTtl)) {
+                    logger.info("Not fetching {} since it was fetched less than {}s ago.", branchName, configuration.fetchTtl);
+                } else {
+                    toCheck.put(branchName, refSpec);
+                }
+            });
+            if (toCheck.isEmpty()) {
+                return;
+            }
+            try (Transport transport = Transport.open(repository, remoteName)) {
+                transport.setCredentialsProvider(credentialsProvider);
+                // with protocol v2, only the refs matching the sources of the specs are advertised ("ref-prefix")
+                try (FetchConnection connection = transport.openFetch(toCheck.values())) {
+                    fetch(transport, connection, toCheck);
+                }
+            } catch (URISyntaxException e) {
+                throw new IllegalArgumentException("Invalid URI of remote " + remoteName, e);
+            }
+            if (configuration.fetchTtl > 0) {
+                toCheck.values().forEach(refSpec -> fetchTimes.record(repository, remoteName, refSpec.toString()));
+            }
+        }
+
+        // compares the advertised refs with the local ones and only requests the objects of the outdated ones
+        private void fetch(Transport transport, FetchConnection connection, Map<String, RefSpec> refSpecsPerBranch) throws IOException {
+            Repository repository = git.getRepository();
+            Map<RefSpec, Ref> toFetch = new LinkedHashMap<>();
+            for (Map.Entry<String, RefSpec> entry : refSpecsPerBranch.entrySet()) {
+                RefSpec refSpec = entry.getValue();
+                Ref remoteRef = connection.getRef(refSpec.getSource());
+                if (remoteRef == null || remoteRef.getObjectId() == null) {
+                    throw new TransportException(transport.getURI(), "Remote does not have " + refSpec.getSource() + " available for fetch.");
+                }
+                Ref localRef = repository.exactRef(refSpec.getDestination());
+                if (localRef != null && remoteRef.getObjectId().equals(localRef.getObjectId())) {
+                    logger.info("Not fetching {} since it is up to date.", entry.getKey());
+                } else {
+                    logger.info("Fetching " + entry.getKey());
+                    toFetch.put(refSpec, remoteRef);
+                }
+            }
+            if (toFetch.isEmpty()) {
+                return;
+            }
+            connection.fetch(new CancellingProgressMonitor(Thread.currentThread()), toFetch.values(), Set.of());
+            try {
+                for (Map.Entry<RefSpec, Ref> entry : toFetch.entrySet()) {
+                    RefUpdate update = repository.updateRef(entry.getKey().getDestination());
+                    update.setNewObjectId(entry.getValue().getObjectId());
+                    update.setForceUpdate(entry.getKey().isForceUpdate());
+                    update.setRefLogMessage("fetch", true);
+                    RefUpdate.Result result = update.update();
+                    if (result == RefUpdate.Result.REJECTED || result == RefUpdate.Result.LOCK_FAILURE || result == RefUpdate.Result.IO_FAILURE) {
+                        logger.warn("Failed to update {}: {}", entry.getKey().getDestination(), result);
+                    }
+                }
+            } finally {
+                // the fetched packs are protected from garbage collection until the refs point to their objects
+                connection.getPackLocks().forEach(this::unlock);
+            }
+        }
+
+        private void unlock(PackLock lock) {
+            try {
+                lock.unlock();
+            } catch (IOException e) {
+                logger.debug("Failed to unlock pack: {}", e.toString());
+            }
         }
 
         private String getSingleRemoteName() {
@@ -163,24 +583,20 @@ public class DifferentFiles {
         }
 
         private RevCommit getMergeBase(RevCommit baseCommit, RevCommit referenceHeadCommit) throws IOException {
-            try (final RevWalk walk = new RevWalk(git.getRepository())) {
-                walk.setRevFilter(RevFilter.MERGE_BASE);
-                walk.markStart(walk.lookupCommit(baseCommit));
-                walk.markStart(walk.lookupCommit(referenceHeadCommit));
-                RevCommit commit = walk.next();
-                if (commit == null) {
-                    throw new IllegalStateException(String.format(
+            checkCancelled();
+            ObjectId mergeBase = mergeBases.find(git.getRepository(), revWalk, baseCommit, referenceHeadCommit)
+                    .orElseThrow(() -> new IllegalStateException(String.format(
                             "Cannot find merge base, try fetching more history.%n\tbase: %s%n\treference: %s",
-                            baseCommit, referenceHeadCommit));
-                }
-                logger.info("Using merge base of id: " + commit.getId());
-                return commit;
-            }
+                            baseCommit, referenceHeadCommit)));
+            RevCommit commit = revWalk.parseCommit(mergeBase);
+            logger.info("Using merge base of id: " + commit.getId());
+            return commit;
         }
 
         private Set<Path> getDiff(TreeWalk treeWalk, Path gitDir) throws IOException {
             final Set<Path> paths = new HashSet<>();
             while (treeWalk.next()) {
+                checkCancelled();
                 Path path = Paths.get(treeWalk.getPathString()).normalize();
                 if (pathIncluded(path)) {
                     paths.add(gitDir.resolve(path));
@@ -191,7 +607,7 @@ public class DifferentFiles {
 
         private RevCommit getBranchCommit(String branchName, boolean reference) throws IOException {
             Repository repository = git.getRepository();
-            ObjectId objectId = repository.resolve(branchName);
+            ObjectId objectId = repository.resolve(HEAD.equals(branchName) ? head : branchName);
 
             boolean isRemoteTrackingBranch = branchName.startsWith(REFS_REMOTES);
             String branchDesc = String.format("%s %s branch '%s'",
@@ -212,22 +628,25 @@ public class DifferentFiles {
                         + "or by fetching it from the remote repository via 'git fetch <remote> <branch>:<branch>' (or just 'git fetch <branch>'). "
                         + "Also make sure to not confuse remote tracking branches (refs/remotes/...) with local branches, 'git branch -a' is your friend!");
             }
-            try (final RevWalk walk = new RevWalk(repository)) {
-                RevCommit commit = walk.parseCommit(objectId);
-                logger.info("Reference commit of " + branchDesc + " has id: " + commit.getId());
-                return commit;
-            }
+            RevCommit commit = revWalk.parseCommit(objectId);
+            logger.info("Reference commit of " + branchDesc + " has id: " + commit.getId());
+            return commit;
         }
 
-        private Set<Path> getChangesFromStatus() throws GitAPIException {
+        private Set<Path> getChangesFromStatus() throws IOException {
             Set<String> changes = new HashSet<>();
-            Status status = git.status().call();
+            Status status = provider.getStatus(configuration, sparseCheckout.map(SparseCheckout::getStatusPaths).orElse(List.of()));
             if (configuration.uncommitted) {
                 changes.addAll(status.getUncommittedChanges());
             }
             if (configuration.untracked) {
                 changes.addAll(status.getUntracked());
             }
+            if (sparseCheckout.isPresent()) {
+                Set<String> notCheckedOut = changes.stream().filter(not(sparseCheckout.get()::contains)).collect(Collectors.toCollection(TreeSet::new));
+                changes.removeAll(notCheckedOut);
+                logNotCheckedOut(notCheckedOut);
+            }
             return changes.stream()
                     .map(Paths::get)
                     .map(Path::normalize)
@@ -236,8 +655,8 @@ public class DifferentFiles {
                     .collect(Collectors.toSet());
         }
 
-        private RevCommit resolveReference(RevCommit base) throws IOException {
-            RevCommit refHead = getBranchCommit(configuration.referenceBranch, true);
+        private RevCommit resolveReference(RevCommit base, String referenceBranch) throws IOException {
+            RevCommit refHead = getBranchCommit(referenceBranch, true);
             if (configuration.compareToMergeBase) {
                 return getMergeBase(base, refHead);
             } else {
@@ -246,14 +665,29 @@ public class DifferentFiles {
         }
 
         private boolean pathIncluded(Path path) {
-            final String pathString = path.toString();
-            if (configuration.skipIfPathMatches.map(pred -> pred.test(pathString)).orElse(false)) {
-                throw new SkipExecutionException("Changed path matches regex defined by skipIfPathMatches: " + pathString);
-            }
-            boolean excluded = configuration.excludePathsMatching.map(pred -> pred.test(pathString)).orElse(false);
-            boolean included = !excluded && configuration.includePathsMatching.map(pred -> pred.test(pathString)).orElse(true);
-            logger.debug("included {}: {}", included, pathString);
-            return included;
+            return isIncluded(path, configuration);
+        }
+
+        // see discardEarly()
+        private void checkCancelled() throws InterruptedIOException {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Change detection was cancelled");
+            }
+        }
+    }
+
+    // cancels a fetch of the given thread once it is interrupted, see discardEarly()
+    private static class CancellingProgressMonitor extends EmptyProgressMonitor {
+
+        private final Thread thread;
+
+        CancellingProgressMonitor(Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return thread.isInterrupted();
         }
     }
 }
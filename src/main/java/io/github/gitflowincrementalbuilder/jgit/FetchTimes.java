@@ -0,0 +1,109 @@
+package io.github.gitflowincrementalbuilder.jgit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.eclipse.jgit.lib.Repository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records when ref specs were fetched (or found to be up to date) in {@value #FILE} within the common git directory, so that repeated fetches of the
+ * same refs within a short period of time (e.g. by multiple builds of a pipeline) can be skipped.
+ */
+class FetchTimes {
+
+    static final String FILE = "gib/fetch-times";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FetchTimes.class);
+
+    /**
+     * Returns whether or not the given ref spec of the given remote was fetched less than the given number of seconds ago.
+     *
+     * @param repository the repository
+     * @param remoteName the name of the remote
+     * @param refSpec the ref spec
+     * @param ttlSeconds the number of seconds
+     * @return {@code true} if fetched recently
+     */
+    synchronized boolean isFresh(Repository repository, String remoteName, String refSpec, int ttlSeconds) {
+        Long fetched = load(getFile(repository)).get(key(remoteName, refSpec));
+        return fetched != null && System.currentTimeMillis() - fetched < ttlSeconds * 1000L;
+    }
+
+    /**
+     * Records that the given ref spec of the given remote was just fetched (or found to be up to date).
+     *
+     * @param repository the repository
+     * @param remoteName the name of the remote
+     * @param refSpec the ref spec
+     */
+    synchronized void record(Repository repository, String remoteName, String refSpec) {
+        Path file = getFile(repository);
+        Map<String, Long> entries = load(file);
+        entries.put(key(remoteName, refSpec), System.currentTimeMillis());
+        store(file, entries);
+    }
+
+    private static Path getFile(Repository repository) {
+        return repository.getDirectory().toPath().resolve(FILE);
+    }
+
+    private static String key(String remoteName, String refSpec) {
+        return remoteName + " " + refSpec;
+    }
+
+    // line format: <millis> <remote> <ref spec>
+    private static Map<String, Long> load(Path file) {
+        Map<String, Long> entries = new LinkedHashMap<>();
+        if (!Files.exists(file)) {
+            return entries;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] parts = line.split(" ", 2);
+                if (parts.length == 2) {
+                    try {
+                        entries.put(parts[1], Long.valueOf(parts[0]));
+                    } catch (NumberFormatException e) {
+                        LOGGER.debug("Ignoring invalid line in {}: {}", file, line);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Failed to read {}: {}", file, e.toString());
+        }
+        return entries;
+    }
+
+    // the file is shared by all worktrees of a repository and is therefore replaced atomically
+    private static void store(Path file, Map<String, Long> entries) {
+        List<String> lines = entries.entrySet().stream()
+                .map(entry -> entry.getValue() + " " + entry.getKey())
+                .collect(Collectors.toList());
+        Path tempFile = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tempFile = Files.createTempFile(file.getParent(), "fetch-times", ".tmp");
+            Files.write(tempFile, lines, StandardCharsets.UTF_8);
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.debug("Failed to write {}: {}", file, e.toString());
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    LOGGER.debug("Failed to delete {}: {}", tempFile, e.toString());
+                }
+            }
+        }
+    }
+}
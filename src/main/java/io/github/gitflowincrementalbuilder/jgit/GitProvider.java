@@ -4,14 +4,20 @@ import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Path;
-import java.util.Objects;
+import java.util.Collection;
 import java.util.Optional;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.IndexDiff;
+import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,19 +28,21 @@ import io.github.gitflowincrementalbuilder.config.Configuration;
 @Named
 public class GitProvider {
 
-    private static final String UNSUPPORTED_WORKTREE = "JGit unsupported separate worktree checkout detected from current git dir path: ";
+    private static final String MISSING_WORKTREE_GIT_DIR = "Git directory of worktree checkout not found (pruned or moved?): ";
 
     private Logger logger = LoggerFactory.getLogger(GitProvider.class);
 
     private Git git;
+    // empty unless the repository is opened for a worktree checkout, see Worktree
+    private Optional<Worktree> worktree = Optional.empty();
 
     /**
-     * Returns a {@link Git} instance which is constructed when first called. Subsequent calls will return the same instance.
+     * Returns a {@link Git} instance which is constructed when first called. Subsequent calls will return the same instance (until {@link #close()}).
      *
      * @param config the configuration
      * @return a {@link Git} instance
      */
-    Git get(Configuration config) {
+    synchronized Git get(Configuration config) {
         if (git == null) {
             try {
                 git = setupGit(config);
@@ -46,21 +54,79 @@ public class GitProvider {
     }
 
     public Path getProjectRoot(Configuration config) {
-        return get(config).getRepository().getDirectory().toPath().getParent();
+        return get(config).getRepository().getWorkTree().toPath();
     }
 
     public String getCurrentBranch(Configuration config) {
         try {
-            return get(config).getRepository().getBranch();
+            return Repository.shortenRefName(getFullBranch(config));
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
     }
 
-    public void close() {
+    /**
+     * Returns the full name of the checked out branch (e.g. "refs/heads/main") or the commit id if HEAD is detached.
+     *
+     * @param config the configuration
+     * @return the full branch name or commit id
+     * @throws IOException if HEAD cannot be read
+     */
+    synchronized String getFullBranch(Configuration config) throws IOException {
+        Git git = get(config);
+        return worktree.isPresent() ? worktree.get().readHead() : git.getRepository().getFullBranch();
+    }
+
+    /**
+     * Returns the revision of the checked out commit: "HEAD" or, for a worktree checkout, the full name of its branch or its commit id
+     * (since "HEAD" of the {@link #get(Configuration) repository} is the one of the main checkout).
+     *
+     * @param config the configuration
+     * @return the revision to resolve instead of "HEAD"
+     * @throws IOException if HEAD cannot be read
+     */
+    synchronized String getHead(Configuration config) throws IOException {
+        get(config);
+        return worktree.isPresent() ? worktree.get().readHead() : Constants.HEAD;
+    }
+
+    /**
+     * Returns the git dir that contains the HEAD and the index of the checkout, which is not the one of the {@link #get(Configuration) repository}
+     * for a worktree checkout.
+     *
+     * @param config the configuration
+     * @return the git dir of the checkout
+     */
+    synchronized File getCheckoutGitDir(Configuration config) {
+        Git git = get(config);
+        return worktree.map(Worktree::getGitDir).orElseGet(() -> git.getRepository().getDirectory());
+    }
+
+    /**
+     * Returns the uncommitted and untracked changes of the checkout, like {@link Git#status()} which always compares the index to the HEAD of the
+     * repository though.
+     *
+     * @param config the configuration
+     * @param paths the paths to limit the status to or empty for all paths
+     * @return the status
+     * @throws IOException if the index, HEAD or the worktree cannot be read
+     */
+    Status getStatus(Configuration config, Collection<String> paths) throws IOException {
+        Repository repository = get(config).getRepository();
+        IndexDiff diff = new IndexDiff(repository, repository.resolve(getHead(config)), new FileTreeIterator(repository));
+        if (!paths.isEmpty()) {
+            diff.setFilter(PathFilterGroup.createFromStrings(paths));
+        }
+        diff.diff();
+        return new Status(diff);
+    }
+
+    public synchronized void close() {
         if (git != null) {
             git.close();
             git.getRepository().close();
+            git = null;
+            worktree = Optional.empty();
         }
     }
 
@@ -78,23 +144,16 @@ public class GitProvider {
                 throw new SkipExecutionException(gitDirNotFoundMessage);
             }
         }
-        if (isWorktree(builder)) {
-            throw new SkipExecutionException(UNSUPPORTED_WORKTREE + builder.getGitDir());
+        // a worktree checkout (see "git worktree") has a ".git" file that points to its own git dir (HEAD, index etc.),
+        // objects, refs and config are shared via the common dir of the main checkout (see Worktree)
+        if (!builder.getGitDir().isDirectory()) {
+            throw new SkipExecutionException(MISSING_WORKTREE_GIT_DIR + builder.getGitDir());
         }
-        return Git.wrap(builder.build());
-    }
-
-    private static boolean isWorktree(FileRepositoryBuilder builder) {
-        return Optional.ofNullable(builder.getGitDir().toPath().getParent())
-                .filter(parent -> fileNameEquals(parent, "worktrees"))
-                .map(Path::getParent)
-                .filter(Objects::nonNull)
-                .map(parentParent -> fileNameEquals(parentParent, ".git"))
-                .orElse(false);
-    }
-
-    private static boolean fileNameEquals(Path path, String fileName) {
-        Path fileNameAsPath = path.getFileName();
-        return fileNameAsPath != null && fileNameAsPath.toString().equals(fileName);
+        worktree = Worktree.of(builder.getGitDir());
+        if (worktree.isEmpty()) {
+            return Git.wrap(builder.build());
+        }
+        logger.info("Worktree checkout detected, sharing the git directory {}", worktree.get().getCommonDir());
+        return Git.wrap(worktree.get().build(builder));
     }
 }
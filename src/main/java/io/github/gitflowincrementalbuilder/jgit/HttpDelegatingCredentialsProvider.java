@@ -7,9 +7,10 @@ import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -32,21 +33,40 @@ import org.slf4j.LoggerFactory;
  * This provider will suppress any console input requests (see
  * <a href="https://git-scm.com/docs/git#Documentation/git.txt-codeGITTERMINALPROMPTcode">GIT_TERMINAL_PROMPT</a>).
  * </p>
+ * <p>
+ * Since spawning native Git (and the credential helpers) is rather expensive, the credentials can be cached for the lifetime of the JVM (e.g. a Maven
+ * daemon) for a given number of seconds. Cached credentials are dropped as soon as they are rejected by the server (see {@link #reset(URIish)}). Each
+ * instance uses its own copy of the cached credentials, so that it can clear them without affecting other instances.
+ * </p>
  *
  * @see <a href="https://git-scm.com/docs/git-credential">Git documentation: git credential</a>
  */
 class HttpDelegatingCredentialsProvider extends CredentialsProvider {
 
+    // shared by all instances, key: see cacheKey()
+    private static final Map<String, CredentialsPair> CACHE = new ConcurrentHashMap<>();
+
     private Logger logger = LoggerFactory.getLogger(HttpDelegatingCredentialsProvider.class);
 
     private final Path projectDir;
     private final Map<String, String> additionalNativeGitEnvironment;
+    private final int cacheTtlSeconds;
 
     private final Map<URIish, CredentialsPair> credentials = new HashMap<>();
 
     public HttpDelegatingCredentialsProvider(Path projectDir, Map<String, String> additionalNativeGitEnvironment) {
+        this(projectDir, additionalNativeGitEnvironment, 0);
+    }
+
+    /**
+     * @param projectDir the directory to run native Git in
+     * @param additionalNativeGitEnvironment additional environment variables for native Git (test only)
+     * @param cacheTtlSeconds the number of seconds that looked up credentials are cached across instances (0: not cached)
+     */
+    public HttpDelegatingCredentialsProvider(Path projectDir, Map<String, String> additionalNativeGitEnvironment, int cacheTtlSeconds) {
         this.projectDir = projectDir;
         this.additionalNativeGitEnvironment = new HashMap<>(additionalNativeGitEnvironment);
+        this.cacheTtlSeconds = cacheTtlSeconds;
     }
 
     @Override
@@ -69,14 +89,7 @@ class HttpDelegatingCredentialsProvider extends CredentialsProvider {
             return false;
         }
 
-        CredentialsPair credentialsPair = credentials.computeIfAbsent(uri, u -> {
-            try {
-                return lookupCredentials(uri);
-            } catch (IOException | InterruptedException | RuntimeException e) {
-                logger.warn("Failed to look up credentials via 'git credential fill' for: " + uri, e);
-                return null;
-            }
-        });
+        CredentialsPair credentialsPair = credentials.computeIfAbsent(uri, this::getCachedOrLookupCredentials);
         if (credentialsPair == null) {
             return false;
         }
@@ -98,18 +111,50 @@ class HttpDelegatingCredentialsProvider extends CredentialsProvider {
     }
 
     @Override
-    // see also: org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider.clear()
+    // called by JGit if the credentials were rejected, see also: org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider.clear()
     public void reset(URIish uri) {
-        Optional.ofNullable(credentials.remove(uri))
-                .ifPresent(credPair -> {
-                    credPair.username = null;
-                    Arrays.fill(credPair.password, (char) 0);
-                    credPair.password = null;
-                });
+        Optional.ofNullable(CACHE.remove(cacheKey(uri))).ifPresent(CredentialsPair::clear);
+        Optional.ofNullable(credentials.remove(uri)).ifPresent(CredentialsPair::clear);
     }
 
+    /**
+     * Forgets all credentials of this instance. Cached credentials are kept for other instances until they expire.
+     */
     public void resetAll() {
-        new HashSet<>(credentials.keySet()).forEach(this::reset);
+        credentials.values().forEach(CredentialsPair::clear);
+        credentials.clear();
+    }
+
+    private CredentialsPair getCachedOrLookupCredentials(URIish uri) {
+        String cacheKey = cacheTtlSeconds > 0 ? cacheKey(uri) : null;
+        if (cacheKey != null) {
+            CredentialsPair cached = CACHE.get(cacheKey);
+            // null if the cached credentials were rejected (and cleared) in the meantime
+            CredentialsPair copy = cached != null && cached.expiresAt > System.currentTimeMillis() ? cached.copy() : null;
+            if (copy != null) {
+                logger.debug("Using cached credentials for: {}", uri);
+                return copy;
+            }
+            if (cached != null && CACHE.remove(cacheKey, cached)) {
+                cached.clear();
+            }
+        }
+        try {
+            CredentialsPair credPair = lookupCredentials(uri);
+            if (cacheKey != null) {
+                credPair.expiresAt = System.currentTimeMillis() + cacheTtlSeconds * 1000L;
+                CACHE.put(cacheKey, credPair.copy());
+            }
+            return credPair;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            logger.warn("Failed to look up credentials via 'git credential fill' for: " + uri, e);
+            return null;
+        }
+    }
+
+    // the credential helpers (and therefore the credentials) might depend on the repository config and on the environment
+    private String cacheKey(URIish uri) {
+        return projectDir + "|" + new TreeMap<>(additionalNativeGitEnvironment) + "|" + uri;
     }
 
     private CredentialsPair lookupCredentials(URIish uri) throws IOException, InterruptedException {
@@ -180,5 +225,26 @@ class HttpDelegatingCredentialsProvider extends CredentialsProvider {
     private static class CredentialsPair {
         private String username;
         private char[] password;
+        private long expiresAt;
+
+        // synchronized: the cached instance is shared
+        private synchronized CredentialsPair copy() {
+            if (password == null) {
+                return null;
+            }
+            CredentialsPair copy = new CredentialsPair();
+            copy.username = username;
+            copy.password = password.clone();
+            copy.expiresAt = expiresAt;
+            return copy;
+        }
+
+        private synchronized void clear() {
+            username = null;
+            if (password != null) {
+                Arrays.fill(password, (char) 0);
+                password = null;
+            }
+        }
     }
 }
\ No newline at end of file
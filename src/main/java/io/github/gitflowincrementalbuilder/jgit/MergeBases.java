@@ -0,0 +1,151 @@
+package io.github.gitflowincrementalbuilder.jgit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes merge bases, using git's commit-graph file if present (e.g. written via "git commit-graph write").<br/>
+ * Since the merge base of two given commits never changes, results are cached in memory and in {@value #CACHE_FILE} within the (common) git
+ * directory, unless the repository is shallow (fetching more history might reveal a different merge base).<br/>
+ * The cache file is shared by all worktrees of a repository and is therefore replaced atomically.
+ */
+class MergeBases {
+
+    static final String CACHE_FILE = "gib/merge-bases";
+
+    private static final String COMMIT_GRAPH_FILE = "objects/info/commit-graph";
+    private static final String SHALLOW_FILE = "shallow";
+    private static final int MAX_CACHE_ENTRIES = 100;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MergeBases.class);
+
+    // key: common git directory, value: (base + " " + reference) -> merge base
+    private final Map<Path, Map<String, ObjectId>> cache = new HashMap<>();
+
+    /**
+     * Returns the merge base of the given commits.
+     *
+     * @param repository the repository containing the commits
+     * @param walk the walk that parsed the commits, which is reset afterwards (so that its parsed objects can be reused across calls)
+     * @param base the base commit
+     * @param reference the reference commit
+     * @return the merge base or empty if the commits do not have a common ancestor (in the available history)
+     * @throws IOException if reading from the repository fails
+     */
+    synchronized Optional<ObjectId> find(Repository repository, RevWalk walk, RevCommit base, RevCommit reference) throws IOException {
+        Path gitDir = repository.getDirectory().toPath();
+        boolean shallow = Files.exists(gitDir.resolve(SHALLOW_FILE));
+        Map<String, ObjectId> repositoryCache = shallow ? new HashMap<>() : cache.computeIfAbsent(gitDir, MergeBases::load);
+        String key = base.name() + " " + reference.name();
+        ObjectId mergeBase = repositoryCache.get(key);
+        if (mergeBase != null) {
+            LOGGER.debug("Using cached merge base of {}", key);
+            return Optional.of(mergeBase);
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            walk.setRevFilter(RevFilter.MERGE_BASE);
+            walk.markStart(base);
+            walk.markStart(reference);
+            RevCommit commit = walk.next();
+            LOGGER.debug("Merge base calculation took {}ms", System.currentTimeMillis() - start);
+            if (commit == null) {
+                return Optional.empty();
+            }
+            mergeBase = commit.toObjectId();
+        } finally {
+            walk.reset();
+            walk.setRevFilter(RevFilter.ALL);
+        }
+        if (!shallow) {
+            repositoryCache.put(key, mergeBase);
+            store(gitDir, repositoryCache);
+        }
+        return Optional.of(mergeBase);
+    }
+
+    /**
+     * Enables the use of git's commit-graph file for the given repository (in memory only), if there is one and if the repository is not shallow.<br/>
+     * JGit ignores the commit-graph by default and a {@link RevWalk} only checks for it once, so this has to be called before creating the walk.
+     *
+     * @param repository the repository
+     */
+    static void useCommitGraph(Repository repository) {
+        Path gitDir = repository.getDirectory().toPath();
+        if (Files.exists(gitDir.resolve(COMMIT_GRAPH_FILE)) && !Files.exists(gitDir.resolve(SHALLOW_FILE))) {
+            repository.getConfig().setBoolean(ConfigConstants.CONFIG_CORE_SECTION, null, ConfigConstants.CONFIG_COMMIT_GRAPH, true);
+        }
+    }
+
+    private static Map<String, ObjectId> load(Path gitDir) {
+        Map<String, ObjectId> entries = new LinkedHashMap<>();
+        Path cacheFile = gitDir.resolve(CACHE_FILE);
+        if (!Files.exists(cacheFile)) {
+            return entries;
+        }
+        try {
+            for (String line : Files.readAllLines(cacheFile, StandardCharsets.UTF_8)) {
+                String[] parts = line.split(" ");
+                if (parts.length == 3 && ObjectId.isId(parts[2])) {
+                    entries.put(parts[0] + " " + parts[1], ObjectId.fromString(parts[2]));
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Failed to read {}: {}", cacheFile, e.toString());
+        }
+        return entries;
+    }
+
+    private static void store(Path gitDir, Map<String, ObjectId> entries) {
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (entries.size() > MAX_CACHE_ENTRIES) {
+            iterator.next();
+            iterator.remove();
+        }
+        Path cacheFile = gitDir.resolve(CACHE_FILE);
+        List<String> lines = entries.entrySet().stream()
+                .map(entry -> entry.getKey() + " " + entry.getValue().name())
+                .collect(Collectors.toList());
+        Path tempFile = null;
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            tempFile = Files.createTempFile(cacheFile.getParent(), "merge-bases", ".tmp");
+            Files.write(tempFile, lines, StandardCharsets.UTF_8);
+            Files.move(tempFile, cacheFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.debug("Failed to write {}: {}", cacheFile, e.toString());
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOGGER.debug("Failed to delete {}: {}", file, e.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package io.github.gitflowincrementalbuilder.jgit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.errors.ConfigInvalidException;
+import org.eclipse.jgit.lib.Config;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileBasedConfig;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The checked out part of a sparse checkout (see {@code git sparse-checkout}): either the cones as defined by the patterns in {@value #PATTERNS_FILE}
+ * (cone mode) or, for any other patterns, the entries of the index without the skip-worktree bit.<br/>
+ * Changed files outside of the checkout belong to modules that are not present and can therefore not be built.
+ */
+class SparseCheckout {
+
+    private static final String PATTERNS_FILE = "info/sparse-checkout";
+    private static final String WORKTREE_CONFIG_FILE = "config.worktree";
+    private static final String CONFIG_EXTENSIONS_SECTION = "extensions";
+    private static final String CONFIG_WORKTREE_CONFIG = "worktreeConfig";
+    private static final String CONFIG_SPARSE_CHECKOUT = "sparseCheckout";
+    private static final String CONFIG_SPARSE_CHECKOUT_CONE = "sparseCheckoutCone";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SparseCheckout.class);
+
+    // cone mode only: directories that are checked out recursively and directories of which only the files are checked out (always incl. the root: "")
+    private final Set<String> recursiveDirs;
+    private final Set<String> parentDirs;
+    private final DirCache index;
+
+    private SparseCheckout(Set<String> recursiveDirs, Set<String> parentDirs, DirCache index) {
+        this.recursiveDirs = recursiveDirs;
+        this.parentDirs = parentDirs;
+        this.index = index;
+    }
+
+    /**
+     * Returns the sparse checkout of the given repository.
+     *
+     * @param repository the repository
+     * @param gitDir the git dir of the checkout, which contains the patterns (and is not the one of the repository for a worktree checkout)
+     * @return the sparse checkout or empty if the worktree is not a sparse checkout
+     */
+    static Optional<SparseCheckout> read(Repository repository, File gitDir) {
+        Config config = readConfig(repository, gitDir);
+        if (!config.getBoolean(ConfigConstants.CONFIG_CORE_SECTION, CONFIG_SPARSE_CHECKOUT, false)) {
+            return Optional.empty();
+        }
+        Path patternsFile = gitDir.toPath().resolve(PATTERNS_FILE);
+        try {
+            DirCache index = repository.readDirCache();
+            if (config.getBoolean(ConfigConstants.CONFIG_CORE_SECTION, CONFIG_SPARSE_CHECKOUT_CONE, false) && Files.exists(patternsFile)) {
+                Optional<SparseCheckout> cone = parseCone(Files.readAllLines(patternsFile, StandardCharsets.UTF_8), index);
+                if (cone.isPresent()) {
+                    LOGGER.info("Limiting change detection to the cones of the sparse checkout: {}", cone.get().recursiveDirs);
+                    return cone;
+                }
+            }
+            LOGGER.info("Limiting change detection to the sparse checkout as per the skip-worktree bits of the index (patterns are only evaluated in cone mode).");
+            return Optional.of(new SparseCheckout(null, null, index));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // git sparse-checkout writes its settings to the worktree specific config (which JGit does not read) if extensions.worktreeConfig is enabled
+    private static Config readConfig(Repository repository, File gitDir) {
+        Config config = repository.getConfig();
+        if (!config.getBoolean(CONFIG_EXTENSIONS_SECTION, CONFIG_WORKTREE_CONFIG, false)) {
+            return config;
+        }
+        FileBasedConfig worktreeConfig = new FileBasedConfig(config, new File(gitDir, WORKTREE_CONFIG_FILE), repository.getFS());
+        try {
+            worktreeConfig.load();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ConfigInvalidException e) {
+            throw new IllegalStateException("Failed to read " + worktreeConfig.getFile(), e);
+        }
+        return worktreeConfig;
+    }
+
+    // e.g.: /*  !/*/  /parent/  !/parent/*/  /parent/module/
+    private static Optional<SparseCheckout> parseCone(List<String> lines, DirCache index) {
+        Set<String> dirs = new HashSet<>();
+        Set<String> parentDirs = new HashSet<>();
+        parentDirs.add("");
+        for (String rawLine : lines) {
+            String line = rawLine.trim();
+            if (line.isEmpty() || line.startsWith("#") || line.equals("/*")) {
+                continue;
+            }
+            if (line.startsWith("!/") && line.endsWith("/*/")) {
+                parentDirs.add(trimSlashes(line.substring(1, line.length() - 2)));
+            } else if (line.startsWith("/") && line.endsWith("/") && !line.contains("*")) {
+                dirs.add(trimSlashes(line));
+            } else {
+                LOGGER.debug("Not a cone mode pattern: {}", line);
+                return Optional.empty();
+            }
+        }
+        dirs.removeAll(parentDirs);
+        return Optional.of(new SparseCheckout(dirs, parentDirs, index));
+    }
+
+    /**
+     * Returns whether or not the given file is checked out.
+     *
+     * @param path the path of the file, relative to the worktree and with {@code /} as separator
+     * @return {@code true} if checked out (or not tracked at all in non-cone mode)
+     */
+    boolean contains(String path) {
+        if (recursiveDirs == null) {
+            DirCacheEntry entry = index.getEntry(path);
+            return entry == null || !entry.isSkipWorkTree();
+        }
+        int lastSlash = path.lastIndexOf('/');
+        return parentDirs.contains(lastSlash < 0 ? "" : path.substring(0, lastSlash))
+                || recursiveDirs.stream().anyMatch(dir -> path.startsWith(dir + "/"));
+    }
+
+    /**
+     * Returns the paths that a status walk needs to be limited to, in order to not walk the parts of the worktree that are not checked out.
+     *
+     * @return the directories and files to pass to {@link org.eclipse.jgit.api.StatusCommand#addPath(String)} or empty if the walk cannot be limited
+     */
+    Collection<String> getStatusPaths() {
+        if (recursiveDirs == null) {
+            return List.of();
+        }
+        // note: new (untracked) files directly within the parent directories are not covered
+        Set<String> paths = new HashSet<>(recursiveDirs);
+        for (int i = 0; i < index.getEntryCount(); i++) {
+            String path = index.getEntry(i).getPathString();
+            int lastSlash = path.lastIndexOf('/');
+            if (parentDirs.contains(lastSlash < 0 ? "" : path.substring(0, lastSlash))) {
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Returns a recursive filter that only includes files that are checked out, without walking into directories that are not checked out at all.
+     *
+     * @param notCheckedOut receives each excluded file or directory (with trailing {@code /})
+     * @return the filter
+     */
+    TreeFilter newTreeFilter(Consumer<String> notCheckedOut) {
+        return new TreeFilter() {
+
+            @Override
+            public boolean include(TreeWalk walker) {
+                String path = walker.getPathString();
+                boolean included = walker.isSubtree() ? mayContainCheckedOutFiles(path) : contains(path);
+                if (!included) {
+                    notCheckedOut.accept(walker.isSubtree() ? path + "/" : path);
+                }
+                return included;
+            }
+
+            @Override
+            public boolean shouldBeRecursive() {
+                return true;
+            }
+
+            @Override
+            public TreeFilter clone() {
+                return this;
+            }
+        };
+    }
+
+    private boolean mayContainCheckedOutFiles(String dir) {
+        if (recursiveDirs == null) {
+            return true;
+        }
+        String dirPrefix = dir + "/";
+        return parentDirs.contains(dir)
+                || recursiveDirs.stream().anyMatch(recursiveDir -> recursiveDir.equals(dir) || dir.startsWith(recursiveDir + "/")
+                        || recursiveDir.startsWith(dirPrefix))
+                || parentDirs.stream().anyMatch(parentDir -> parentDir.startsWith(dirPrefix));
+    }
+
+    private static String trimSlashes(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.endsWith("/") ? path.length() - 1 : path.length();
+        return start < end ? path.substring(start, end) : "";
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.gitflowincrementalbuilder.jgit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+
+/**
+ * Computes fingerprints of module directories from the git tree of {@code HEAD}: the fingerprint of a directory is the hash of the ids of all its
+ * committed files, excluding the directories of nested modules (so that e.g. the fingerprint of a parent module does not change with each change of its
+ * child modules). Since git ids are content hashes, this does not require reading any file.
+ */
+@Singleton
+@Named
+public class TreeFingerprints {
+
+    @Inject private GitProvider gitProvider;
+
+    /**
+     * Returns the fingerprints of the given module directories.
+     *
+     * @param moduleDirs the absolute directories of all modules (nested modules are only excluded if they are part of this collection)
+     * @param config the configuration
+     * @return the hex encoded fingerprint per module directory; directories that are not committed are missing
+     */
+    public Map<Path, String> get(Collection<Path> moduleDirs, Configuration config) {
+        Repository repository = gitProvider.get(config).getRepository();
+        Path workTree = repository.getWorkTree().toPath().normalize().toAbsolutePath();
+        Map<Path, String> relativePaths = new HashMap<>();
+        for (Path dir : moduleDirs) {
+            relativePaths.put(dir, toGitPath(relativize(workTree, dir.normalize().toAbsolutePath())));
+        }
+        Set<String> allModulePaths = Set.copyOf(relativePaths.values());
+
+        Map<Path, String> fingerprints = new HashMap<>();
+        try (ObjectReader reader = repository.newObjectReader(); RevWalk revWalk = new RevWalk(reader)) {
+            ObjectId headId = repository.resolve(gitProvider.getHead(config));
+            if (headId == null) {
+                return fingerprints;
+            }
+            ObjectId headTree = revWalk.parseCommit(headId).getTree();
+            for (Map.Entry<Path, String> entry : relativePaths.entrySet()) {
+                findTree(reader, headTree, entry.getValue())
+                        .map(tree -> fingerprint(reader, tree, entry.getValue(), allModulePaths))
+                        .ifPresent(fingerprint -> fingerprints.put(entry.getKey(), fingerprint));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Returns whether or not the worktree contains any uncommitted or untracked changes, in which case the fingerprints do not describe the worktree.
+     *
+     * @param config the configuration
+     * @return {@code true} if the worktree is clean
+     */
+    public boolean isWorkTreeClean(Configuration config) {
+        try {
+            return gitProvider.getStatus(config, List.of()).isClean();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Optional<ObjectId> findTree(ObjectReader reader, ObjectId headTree, String path) {
+        if (path.isEmpty()) {
+            return Optional.of(headTree);
+        }
+        try (TreeWalk treeWalk = TreeWalk.forPath(reader, path, headTree)) {
+            return treeWalk != null && treeWalk.isSubtree() ? Optional.of(treeWalk.getObjectId(0)) : Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String fingerprint(ObjectReader reader, ObjectId tree, String modulePath, Set<String> allModulePaths) {
+        String prefix = modulePath.isEmpty() ? "" : modulePath + "/";
+        Set<String> nestedModulePaths = allModulePaths.stream()
+                .filter(path -> !path.equals(modulePath) && path.startsWith(prefix))
+                .map(path -> path.substring(prefix.length()))
+                .collect(Collectors.toSet());
+        MessageDigest digest = newDigest();
+        try (TreeWalk treeWalk = new TreeWalk(reader)) {
+            treeWalk.addTree(tree);
+            // non-recursive: unless they contain nested modules, subtrees are covered by their id without walking into them
+            while (treeWalk.next()) {
+                String path = treeWalk.getPathString();
+                if (nestedModulePaths.contains(path)) {
+                    continue;
+                }
+                if (treeWalk.isSubtree() && nestedModulePaths.stream().anyMatch(nested -> nested.startsWith(path + "/"))) {
+                    treeWalk.enterSubtree();
+                    continue;
+                }
+                digest.update((path + ' ' + treeWalk.getRawMode(0) + ' ' + treeWalk.getObjectId(0).name() + '\n').getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static Path relativize(Path workTree, Path dir) {
+        if (dir.startsWith(workTree)) {
+            return workTree.relativize(dir);
+        }
+        try {
+            return workTree.toRealPath().relativize(dir.toRealPath());   // symlinks
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toGitPath(Path relativePath) {
+        return relativePath.toString().replace(File.separatorChar, '/');
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.gitflowincrementalbuilder.jgit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+/**
+ * A worktree checkout (see "git worktree"), which JGit 6 cannot open on its own.<br/>
+ * The ".git" file of such a checkout points to a git dir that only contains the per-worktree files (HEAD, index etc.) and a "commondir" file that
+ * points to the git dir of the main checkout, which contains the shared objects, refs and config.<br/>
+ * The {@link #build(FileRepositoryBuilder) repository} is therefore opened on the common git dir, with the index and the work tree of the worktree
+ * checkout. Its HEAD is the one of the main checkout though, so the HEAD of the worktree checkout has to be read via {@link #readHead()}.
+ */
+final class Worktree {
+
+    private static final String COMMON_DIR_FILE = "commondir";
+    private static final String GIT_DIR_FILE = "gitdir";
+    private static final String INDEX_FILE = "index";
+
+    private final File gitDir;
+    private final File commonDir;
+
+    private Worktree(File gitDir, File commonDir) {
+        this.gitDir = gitDir;
+        this.commonDir = commonDir;
+    }
+
+    /**
+     * Returns the worktree checkout of the given git dir.
+     *
+     * @param gitDir the git dir (e.g. as found via {@link FileRepositoryBuilder#findGitDir(File)})
+     * @return the worktree checkout or empty if the git dir does not contain a "commondir" file
+     * @throws IOException if the "commondir" file cannot be read
+     */
+    static Optional<Worktree> of(File gitDir) throws IOException {
+        return readPath(gitDir, COMMON_DIR_FILE).map(commonDir -> new Worktree(gitDir, commonDir));
+    }
+
+    /**
+     * @return the git dir of the worktree checkout, which contains its HEAD, index etc.
+     */
+    File getGitDir() {
+        return gitDir;
+    }
+
+    /**
+     * @return the git dir of the main checkout, which contains the shared objects, refs and config
+     */
+    File getCommonDir() {
+        return commonDir;
+    }
+
+    /**
+     * Builds the repository of this worktree checkout.
+     *
+     * @param builder the builder, its git dir and index file are replaced
+     * @return the repository
+     * @throws IOException if the repository cannot be opened
+     */
+    Repository build(FileRepositoryBuilder builder) throws IOException {
+        if (builder.getWorkTree() == null) {
+            // "gitdir" points to the ".git" file of the worktree checkout
+            builder.setWorkTree(readPath(gitDir, GIT_DIR_FILE)
+                    .orElseThrow(() -> new IOException("Worktree checkout of git directory not found: " + gitDir))
+                    .getParentFile());
+        }
+        return builder.setGitDir(commonDir)
+                .setIndexFile(new File(gitDir, INDEX_FILE))
+                .build();
+    }
+
+    /**
+     * Reads the HEAD of this worktree checkout.
+     *
+     * @return the full name of the checked out branch (e.g. "refs/heads/feature") or the commit id if HEAD is detached
+     * @throws IOException if HEAD cannot be read
+     */
+    String readHead() throws IOException {
+        String head = Files.readString(gitDir.toPath().resolve(Constants.HEAD), StandardCharsets.UTF_8).trim();
+        return head.startsWith("ref:") ? head.substring("ref:".length()).trim() : head;
+    }
+
+    private static Optional<File> readPath(File gitDir, String fileName) throws IOException {
+        Path file = gitDir.toPath().resolve(fileName);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(gitDir.toPath().resolve(Files.readString(file, StandardCharsets.UTF_8).trim()).normalize().toFile());
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.gitflowincrementalbuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link AbiHash}.
+ */
+class AbiHashTest {
+
+    private static final String API = "package a; public class Api { %s }";
+    private static final String RUNTIME_ANNOTATION = "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME) "
+            + "public @interface A { int value() default 1; }";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void compute_noClasses() throws IOException {
+        assertThat(AbiHash.compute(tempDir.resolve("missing"))).isEmpty();
+        assertThat(AbiHash.compute(tempDir)).isEmpty();
+    }
+
+    @Test
+    public void compute_sameAbi() throws IOException {
+        Optional<String> hash = hash("public int foo() { return 1; }");
+
+        assertThat(hash).isNotEmpty();
+        assertThat(hash("public int foo() { return 2; }")).as("method body").isEqualTo(hash);
+        assertThat(hash("public int foo() { return bar(); } private int bar() { return 1; } private String baz;")).as("private members").isEqualTo(hash);
+        assertThat(hash("public synchronized int foo() { return 1; }")).as("synchronized").isEqualTo(hash);
+    }
+
+    @Test
+    public void compute_changedAbi() throws IOException {
+        Optional<String> hash = hash("public int foo() { return 1; }");
+
+        assertThat(hash("public long foo() { return 1; }")).as("return type").isNotEqualTo(hash);
+        assertThat(hash("public int foo() { return 1; } protected void bar() {}")).as("protected method").isNotEqualTo(hash);
+        assertThat(hash("public static int foo() { return 1; }")).as("static").isNotEqualTo(hash);
+        assertThat(hash("public java.util.List<String> foo() { return null; }")).as("generic signature")
+                .isNotEqualTo(hash("public java.util.List<Integer> foo() { return null; }"));
+        assertThat(hash("public static final int FOO = 1;")).as("constant").isNotEqualTo(hash("public static final int FOO = 2;"));
+        assertThat(hash("public static final String FOO = \"a\";")).as("constant").isNotEqualTo(hash("public static final String FOO = \"b\";"));
+        assertThat(hash("@Deprecated public int foo() { return 1; }")).as("annotation").isNotEqualTo(hash);
+        assertThat(hash(RUNTIME_ANNOTATION + " public int foo(@A int a) { return a; }")).as("parameter annotation")
+                .isNotEqualTo(hash(RUNTIME_ANNOTATION + " public int foo(int a) { return a; }"));
+        assertThat(hash(RUNTIME_ANNOTATION.replace("default 1", "default 2"))).as("annotation default").isNotEqualTo(hash(RUNTIME_ANNOTATION));
+    }
+
+    @Test
+    public void compute_changedThrowsClause() throws IOException {
+        Optional<String> hash = hash("public int foo() throws java.io.IOException { return 1; }");
+
+        assertThat(hash("public int foo() throws java.io.IOException, InterruptedException { return 1; }")).isNotEqualTo(hash);
+        assertThat(hash("public int foo() throws java.io.FileNotFoundException { return 1; }")).isNotEqualTo(hash);
+        assertThat(hash("public int foo() { return 1; }")).isNotEqualTo(hash);
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_17)
+    public void compute_changedSealedClassOrRecord() throws IOException {
+        String subclasses = "public static final class X implements S {} public static final class Y implements S {}";
+        assertThat(hash("public sealed interface S permits X, Y {} " + subclasses)).as("permitted subclasses")
+                .isNotEqualTo(hash("public sealed interface S permits X {} " + subclasses.replace("Y implements S", "Y")));
+
+        String componentAnnotation = "@java.lang.annotation.Target(java.lang.annotation.ElementType.RECORD_COMPONENT) "
+                + "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME) public @interface C {} ";
+        assertThat(hash(componentAnnotation + "public record R(@C int a) {}")).as("record component")
+                .isNotEqualTo(hash(componentAnnotation + "public record R(int a) {}"));
+    }
+
+    private Optional<String> hash(String body) throws IOException {
+        Path dir = tempDir.resolve(String.valueOf(body.hashCode()));
+        return AbiHash.compute(ClassDependencyIndexTest.compile(dir.resolve("src"), dir.resolve("classes"), Map.of("a/Api.java", String.format(API, body))));
+    }
+}
@@ -0,0 +1,263 @@
+package io.github.gitflowincrementalbuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.model.Build;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.quality.Strictness;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+import io.github.gitflowincrementalbuilder.config.Property;
+
+/**
+ * Tests {@link AbiTracker}.
+ */
+class AbiTrackerTest {
+
+    private static final String API = "package a; public class Api { %s }";
+
+    @TempDir
+    Path tempDir;
+
+    private final MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+    private final ExecutionListener originalListener = mock(ExecutionListener.class);
+    private final MavenSession session = mock(MavenSession.class, withSettings().strictness(Strictness.LENIENT));
+    private final ProjectDependencyGraph graph = mock(ProjectDependencyGraph.class, withSettings().strictness(Strictness.LENIENT));
+    private final Properties projectProperties = new Properties();
+    private final List<String> goals = new ArrayList<>(List.of("install"));
+
+    private MavenProject changed;
+    private MavenProject downstream;
+
+    @BeforeEach
+    void before() throws IOException {
+        changed = createProject("changed");
+        downstream = createProject("downstream");
+        compile(changed, "public int foo() { return 1; }");
+        ClassDependencyIndexTest.compile(tempDir.resolve("downstream/src"), Path.of(downstream.getBuild().getOutputDirectory()), Map.of(
+                "d/Service.java", "package d; public class Service { int foo = new a.Api().foo(); }"), Path.of(changed.getBuild().getOutputDirectory()));
+        setChangedFiles(tempDir.resolve("changed/src/a/Api.java"));
+        // the previous build
+        AbiTracker.record(changed, List.of());
+        AbiTracker.record(downstream, List.of(changed));
+
+        MavenProject currentProject = mock(MavenProject.class, withSettings().strictness(Strictness.LENIENT));
+        when(currentProject.getProperties()).thenReturn(projectProperties);
+        projectProperties.setProperty(Property.downstreamAbiMode.prefixedName(), "test");
+        request.setExecutionListener(originalListener);
+        when(session.getRequest()).thenReturn(request);
+        when(session.getCurrentProject()).thenReturn(currentProject);
+        when(session.getGoals()).thenReturn(goals);
+        when(session.getProjectDependencyGraph()).thenReturn(graph);
+        when(graph.getUpstreamProjects(downstream, true)).thenReturn(List.of(changed));
+    }
+
+    @Test
+    public void unchangedAbi() throws IOException {
+        ExecutionListener listener = register();
+
+        build(listener, changed, () -> compile(changed, "public int foo() { return 2; }"));
+        build(listener, downstream, () -> { });
+
+        assertThat(downstream.getProperties()).containsOnly(Map.entry("maven.main.skip", "true"));
+        verify(originalListener, times(2)).projectStarted(any());
+    }
+
+    @Test
+    public void unchangedAbi_skip() throws IOException {
+        projectProperties.setProperty(Property.downstreamAbiMode.prefixedName(), "skip");
+        ExecutionListener listener = register();
+
+        build(listener, changed, () -> compile(changed, "public int foo() { return 2; }"));
+        build(listener, downstream, () -> { });
+
+        assertThat(downstream.getProperties()).containsOnly(Map.entry("maven.main.skip", "true"), Map.entry("skipTests", "true"));
+    }
+
+    @Test
+    public void changedAbi() throws IOException {
+        ExecutionListener listener = register();
+
+        build(listener, changed, () -> compile(changed, "public int foo() { return 1; } public int bar() { return 1; }"));
+        build(listener, downstream, () -> { });
+
+        assertThat(downstream.getProperties()).isEmpty();
+    }
+
+    @Test
+    public void changedPom() throws IOException {
+        setChangedFiles(tempDir.resolve("changed/src/a/Api.java"), tempDir.resolve("changed/pom.xml"));
+        ExecutionListener listener = register();
+
+        build(listener, changed, () -> compile(changed, "public int foo() { return 2; }"));
+        build(listener, downstream, () -> { });
+
+        assertThat(downstream.getProperties()).isEmpty();
+    }
+
+    @Test
+    public void noPreviousBuild() throws IOException {
+        downstream.getBuild().setOutputDirectory(tempDir.resolve("missing").toString());
+        ExecutionListener listener = register();
+
+        build(listener, changed, () -> compile(changed, "public int foo() { return 2; }"));
+        build(listener, downstream, () -> { });
+
+        assertThat(downstream.getProperties()).isEmpty();
+    }
+
+    @Test
+    public void noRecord() throws IOException {
+        Files.delete(recordFile(downstream));
+        ExecutionListener listener = register();
+
+        build(listener, changed, () -> compile(changed, "public int foo() { return 2; }"));
+        build(listener, downstream, () -> { });
+
+        assertThat(downstream.getProperties()).isEmpty();
+        assertThat(recordFile(downstream)).exists();
+    }
+
+    @Test
+    public void noRecordOfChanged() throws IOException {
+        Files.delete(recordFile(changed));
+        ExecutionListener listener = register();
+
+        build(listener, changed, () -> compile(changed, "public int foo() { return 2; }"));
+        build(listener, downstream, () -> { });
+
+        assertThat(downstream.getProperties()).isEmpty();
+    }
+
+    @Test
+    public void changedSourcesSinceRecord() throws IOException {
+        Path source = tempDir.resolve("downstream/src/d/Service.java");
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 1000));
+        ExecutionListener listener = register();
+
+        build(listener, changed, () -> compile(changed, "public int foo() { return 2; }"));
+        build(listener, downstream, () -> { });
+
+        assertThat(downstream.getProperties()).isEmpty();
+    }
+
+    @Test
+    public void changedUpstreamAbiSinceRecord() throws IOException {
+        // e.g. a build of just the changed module
+        compile(changed, "public int foo() { return 1; } public int bar() { return 1; }");
+        AbiTracker.record(changed, List.of());
+        ExecutionListener listener = register();
+
+        build(listener, changed, () -> compile(changed, "public int foo() { return 2; } public int bar() { return 1; }"));
+        build(listener, downstream, () -> { });
+
+        assertThat(downstream.getProperties()).isEmpty();
+    }
+
+    @Test
+    public void record() throws IOException {
+        ExecutionListener listener = register();
+        String recordBefore = Files.readString(recordFile(changed));
+
+        build(listener, changed, () -> compile(changed, "public int foo() { return 1; } public int bar() { return 1; }"));
+
+        assertThat(Files.readString(recordFile(changed))).isNotEqualTo(recordBefore);
+        assertThat(AbiTracker.readRecord(changed)).isPresent();
+    }
+
+    @Test
+    public void record_failed() throws IOException {
+        ExecutionListener listener = register();
+        ExecutionEvent event = event(changed);
+
+        listener.projectStarted(event);
+        listener.projectFailed(event);
+
+        assertThat(recordFile(changed)).doesNotExist();
+    }
+
+    @Test
+    public void register_clean() {
+        goals.add(0, "clean");
+
+        new AbiTracker().register(Set.of(changed), List.of(downstream), new Configuration(session));
+
+        assertThat(request.getExecutionListener()).isSameAs(originalListener);
+    }
+
+    private ExecutionListener register() {
+        new AbiTracker().register(Set.of(changed), List.of(downstream), new Configuration(session));
+        assertThat(request.getExecutionListener()).isNotSameAs(originalListener);
+        return request.getExecutionListener();
+    }
+
+    private void build(ExecutionListener listener, MavenProject project, IORunnable build) throws IOException {
+        ExecutionEvent event = event(project);
+        listener.projectStarted(event);
+        build.run();
+        listener.projectSucceeded(event);
+    }
+
+    private ExecutionEvent event(MavenProject project) {
+        ExecutionEvent event = mock(ExecutionEvent.class, withSettings().strictness(Strictness.LENIENT));
+        when(event.getProject()).thenReturn(project);
+        when(event.getSession()).thenReturn(session);
+        return event;
+    }
+
+    private void compile(MavenProject project, String apiBody) throws IOException {
+        ClassDependencyIndexTest.compile(tempDir.resolve(project.getArtifactId()).resolve("src"), Path.of(project.getBuild().getOutputDirectory()),
+                Map.of("a/Api.java", String.format(API, apiBody)));
+    }
+
+    private MavenProject createProject(String name) {
+        Path baseDir = tempDir.resolve(name);
+        MavenProject project = new MavenProject();
+        project.setArtifactId(name);
+        project.setFile(baseDir.resolve("pom.xml").toFile());
+        Build build = new Build();
+        build.setSourceDirectory(baseDir.resolve("src").toString());
+        build.setOutputDirectory(baseDir.resolve("target/classes").toString());
+        project.setBuild(build);
+        return project;
+    }
+
+    private static Path recordFile(MavenProject project) {
+        return Path.of(project.getBuild().getOutputDirectory()).resolveSibling(AbiTracker.RECORD_FILE);
+    }
+
+    private void setChangedFiles(Path... files) {
+        changed.setContextValue(ChangedProjects.CTX_CHANGED_FILES, new HashSet<>(List.of(files)));
+    }
+
+    @FunctionalInterface
+    private interface IORunnable {
+        void run() throws IOException;
+    }
+}
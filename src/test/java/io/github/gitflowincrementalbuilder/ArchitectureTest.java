@@ -28,6 +28,7 @@ public class ArchitectureTest {
             .that().areNotAssignableTo(MavenLifecycleParticipant.class)
                     .and().areNotAssignableTo(FakeMojo.class)
                     .and().areNotAssignableTo(MojoParametersGeneratingByteBuddyPlugin.class)
+                    .and().doNotBelongToAnyOf(ChangeSource.class)   // SPI for custom implementations
                     .and(new DescribedPredicate<JavaClass>("are only called from classes that reside in same package") {
                             @Override
                             public boolean test(final JavaClass cls) {
@@ -0,0 +1,188 @@
+package io.github.gitflowincrementalbuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.model.Build;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.LocalRepositoryManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.quality.Strictness;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+import io.github.gitflowincrementalbuilder.config.Property;
+
+/**
+ * Tests {@link ArtifactTracker}.
+ */
+class ArtifactTrackerTest {
+
+    private static final String INSTALLED_JAR = "changed-1.0.jar";
+
+    @TempDir
+    Path tempDir;
+
+    private final MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+    private final ExecutionListener originalListener = mock(ExecutionListener.class);
+    private final MavenSession session = mock(MavenSession.class, withSettings().strictness(Strictness.LENIENT));
+    private final ProjectDependencyGraph graph = mock(ProjectDependencyGraph.class, withSettings().strictness(Strictness.LENIENT));
+    private final Properties projectProperties = new Properties();
+
+    private MavenProject changed;
+    private MavenProject downstream;
+
+    @BeforeEach
+    void before() throws IOException {
+        changed = createProject("changed");
+        downstream = createProject("downstream");
+        Path downstreamClasses = Files.createDirectories(Path.of(downstream.getBuild().getOutputDirectory()));
+        Files.write(downstreamClasses.resolve("Service.class"), new byte[] {1});
+
+        LocalRepositoryManager localRepositoryManager = mock(LocalRepositoryManager.class, withSettings().strictness(Strictness.LENIENT));
+        when(localRepositoryManager.getRepository()).thenReturn(new LocalRepository(tempDir.resolve("repo").toFile()));
+        when(localRepositoryManager.getPathForLocalArtifact(any())).thenReturn(INSTALLED_JAR);
+        DefaultRepositorySystemSession repositorySession = new DefaultRepositorySystemSession();
+        repositorySession.setLocalRepositoryManager(localRepositoryManager);
+
+        MavenProject currentProject = mock(MavenProject.class, withSettings().strictness(Strictness.LENIENT));
+        when(currentProject.getProperties()).thenReturn(projectProperties);
+        projectProperties.setProperty(Property.skipDownstreamIfArtifactUnchanged.prefixedName(), "true");
+        request.setExecutionListener(originalListener);
+        when(session.getRequest()).thenReturn(request);
+        when(session.getCurrentProject()).thenReturn(currentProject);
+        when(session.getRepositorySession()).thenReturn(repositorySession);
+        when(session.getProjectDependencyGraph()).thenReturn(graph);
+        when(graph.getUpstreamProjects(downstream, true)).thenReturn(List.of(changed));
+    }
+
+    @Test
+    public void unchangedArtifact() throws IOException {
+        install("content");
+        ExecutionListener listener = register();
+
+        build(listener, changed, "content");
+        build(listener, downstream, null);
+
+        assertThat(downstream.getProperties()).containsOnly(
+                Map.entry("maven.main.skip", "true"), Map.entry("skipTests", "true"), Map.entry("maven.clean.skip", "true"));
+        verify(originalListener, times(2)).projectStarted(any());
+    }
+
+    @Test
+    public void unchangedArtifact_alreadyInstalled() throws IOException {
+        install("content");
+        // the previously packaged jar of the downstream module is identical to the installed one (which is the same file for all modules here)
+        Files.writeString(tempDir.resolve("downstream/target/downstream.jar"), "content");
+        ExecutionListener listener = register();
+
+        build(listener, changed, "content");
+        build(listener, downstream, null);
+
+        assertThat(downstream.getProperties()).containsOnly(Map.entry("maven.main.skip", "true"), Map.entry("skipTests", "true"),
+                Map.entry("maven.clean.skip", "true"), Map.entry("maven.install.skip", "true"));
+    }
+
+    @Test
+    public void changedArtifact() throws IOException {
+        install("content");
+        ExecutionListener listener = register();
+
+        build(listener, changed, "changed content");
+        build(listener, downstream, null);
+
+        assertThat(downstream.getProperties()).isEmpty();
+    }
+
+    @Test
+    public void notInstalled() throws IOException {
+        ExecutionListener listener = register();
+
+        build(listener, changed, "content");
+        build(listener, downstream, null);
+
+        assertThat(downstream.getProperties()).isEmpty();
+    }
+
+    @Test
+    public void notPackaged() throws IOException {
+        install("content");
+        ExecutionListener listener = register();
+
+        build(listener, changed, null);
+        build(listener, downstream, null);
+
+        assertThat(downstream.getProperties()).isEmpty();
+    }
+
+    @Test
+    public void register_noDownstream() {
+        new ArtifactTracker().register(Set.of(changed), List.of(), new Configuration(session));
+
+        assertThat(request.getExecutionListener()).isSameAs(originalListener);
+    }
+
+    private ExecutionListener register() {
+        new ArtifactTracker().register(Set.of(changed), List.of(downstream), new Configuration(session));
+        assertThat(request.getExecutionListener()).isNotSameAs(originalListener);
+        return request.getExecutionListener();
+    }
+
+    private void install(String content) throws IOException {
+        Files.writeString(Files.createDirectories(tempDir.resolve("repo")).resolve(INSTALLED_JAR), content);
+    }
+
+    private void build(ExecutionListener listener, MavenProject project, String packagedContent) throws IOException {
+        ExecutionEvent event = mock(ExecutionEvent.class, withSettings().strictness(Strictness.LENIENT));
+        when(event.getProject()).thenReturn(project);
+        when(event.getSession()).thenReturn(session);
+        listener.projectStarted(event);
+        if (packagedContent != null) {
+            Path jar = tempDir.resolve(project.getArtifactId()).resolve("target/" + project.getArtifactId() + ".jar");
+            Files.writeString(jar, packagedContent);
+            project.getArtifact().setFile(jar.toFile());
+        }
+        listener.projectSucceeded(event);
+    }
+
+    private MavenProject createProject(String name) throws IOException {
+        Path baseDir = tempDir.resolve(name);
+        Files.createDirectories(baseDir.resolve("target"));
+        MavenProject project = new MavenProject();
+        project.setGroupId("com.example");
+        project.setArtifactId(name);
+        project.setVersion("1.0");
+        project.setFile(baseDir.resolve("pom.xml").toFile());
+        project.setArtifact(new DefaultArtifact("com.example", name, "1.0", "compile", "jar", null, new DefaultArtifactHandler("jar")));
+        Build build = new Build();
+        build.setDirectory(baseDir.resolve("target").toString());
+        build.setOutputDirectory(baseDir.resolve("target/classes").toString());
+        build.setFinalName(name);
+        project.setBuild(build);
+        return project;
+    }
+}
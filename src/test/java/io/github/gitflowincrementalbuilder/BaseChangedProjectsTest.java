@@ -11,10 +11,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -96,6 +98,25 @@ abstract class BaseChangedProjectsTest extends BaseRepoTest {
         assertThat(projects).noneMatch(project -> project.getContextValue(ChangedProjects.CTX_TEST_ONLY) == Boolean.TRUE);
     }
 
+    @Test
+    public void listForAdditionalReferences() {
+        projectProperties.setProperty(Property.additionalReferenceBranches.prefixedName(), "refs/heads/feature/2");
+        Configuration config = config();
+
+        Map<String, Set<Path>> result = new LinkedHashMap<>();
+        Set<MavenProject> regularResult = underTest.get(config, (reference, projects) -> result.put(reference, toRelativePaths(projects)));
+
+        assertThat(result).containsOnlyKeys("refs/heads/feature/2");
+        assertThat(result.get("refs/heads/feature/2")).contains(Paths.get("parent/child3"), Paths.get("parent/child6"));
+
+        // regular changes have been detected along with the additional ones
+        assertThat(toRelativePaths(regularResult)).containsExactlyInAnyOrder(
+                Paths.get("parent/child2/subchild2"),
+                Paths.get("parent/child3"),
+                Paths.get("parent/child4"),
+                Paths.get("parent/testJarDependent"));
+    }
+
     @Test
     public void list_ignoreChangedNonReactorModule() {
         // remove child3 (which contains changes) from the reactor/session
@@ -123,6 +144,8 @@ abstract class BaseChangedProjectsTest extends BaseRepoTest {
 
         MavenProject project = assertExpectedProjectsFound(expected).get(0);
         assertThat(project.getContextValue(ChangedProjects.CTX_TEST_ONLY)).isSameAs(Boolean.TRUE);
+        assertThat(ChangedProjects.getChangedFiles(project))
+                .hasValueSatisfying(files -> assertThat(files).extracting(Path::getFileName).containsExactly(Paths.get("FooTest.java")));
 
         Path mainJavaPath = Files.createDirectories(localRepoMock.getRepoDir().resolve("parent/child6/src/main/java"));
         Files.createFile(mainJavaPath.resolve("Foo.java"));
@@ -131,6 +154,25 @@ abstract class BaseChangedProjectsTest extends BaseRepoTest {
         assertThat(project.getContextValue(ChangedProjects.CTX_TEST_ONLY)).isSameAs(Boolean.FALSE);
     }
 
+    @Test
+    public void list_pomOnly() throws IOException {
+        projectProperties.setProperty(Property.disableBranchComparison.prefixedName(), "true");
+        projectProperties.setProperty(Property.uncommitted.prefixedName(), "true");
+        projectProperties.setProperty(Property.untracked.prefixedName(), "true");
+        Files.write(localRepoMock.getRepoDir().resolve("parent/child6/pom.xml"), "<!-- changed -->".getBytes(), StandardOpenOption.APPEND);
+
+        final Set<Path> expected = Collections.singleton(Paths.get("parent/child6"));
+
+        MavenProject project = assertExpectedProjectsFound(expected).get(0);
+        assertThat(project.getContextValue(ChangedProjects.CTX_POM_ONLY)).isSameAs(Boolean.TRUE);
+
+        Path mainJavaPath = Files.createDirectories(localRepoMock.getRepoDir().resolve("parent/child6/src/main/java"));
+        Files.createFile(mainJavaPath.resolve("Foo.java"));
+
+        project = assertExpectedProjectsFound(expected).get(0);
+        assertThat(project.getContextValue(ChangedProjects.CTX_POM_ONLY)).isSameAs(Boolean.FALSE);
+    }
+
     @Test
     public void embeddedTestMavenProject() throws IOException {
         projectProperties.setProperty(Property.disableBranchComparison.prefixedName(), "true");
@@ -177,15 +219,18 @@ abstract class BaseChangedProjectsTest extends BaseRepoTest {
 
     private List<MavenProject> assertExpectedProjectsFound(final Set<Path> expected) {
         Set<MavenProject> foundProjects = underTest.get(config());
-        final Set<Path> actual = foundProjects.stream()
+
+        assertThat(toRelativePaths(foundProjects)).isEqualTo(expected);
+
+        return new ArrayList<>(foundProjects);
+    }
+
+    private Set<Path> toRelativePaths(Set<MavenProject> projects) {
+        return projects.stream()
                 .map(MavenProject::getBasedir)
                     .map(File::toPath)
                     .map(localRepoMock.getRepoDir()::relativize)
                 .collect(Collectors.toSet());
-
-        assertThat(actual).isEqualTo(expected);
-
-        return new ArrayList<>(foundProjects);
     }
 
     protected Configuration config() {
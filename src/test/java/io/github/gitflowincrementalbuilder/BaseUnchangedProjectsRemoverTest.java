@@ -88,6 +88,24 @@ abstract class BaseUnchangedProjectsRemoverTest {
     @Spy
     protected DownstreamCalculator downstreamCalculator;
 
+    @Spy
+    protected ShardPlanner shardPlanner;
+
+    @Spy
+    protected CriticalPathSorter criticalPathSorter;
+
+    @Mock
+    protected TestSelector testSelector;
+
+    @Mock
+    protected AbiTracker abiTracker;
+
+    @Mock
+    protected ArtifactTracker artifactTracker;
+
+    @Mock
+    protected PrebuiltArtifacts prebuiltArtifacts;
+
     @InjectMocks
     protected UnchangedProjectsRemover underTest;
 
@@ -177,6 +195,8 @@ abstract class BaseUnchangedProjectsRemoverTest {
 
     protected void setUpstreamProjects(MavenProject module, MavenProject... upstreamModules) {
         when(projectDependencyGraphMock.getUpstreamProjects(module, true)).thenReturn(Arrays.asList(upstreamModules));
+        // the transitive upstream modules as direct ones: not quite realistic, but it yields the same closure
+        when(projectDependencyGraphMock.getUpstreamProjects(module, false)).thenReturn(Arrays.asList(upstreamModules));
     }
 
     protected void setDownstreamProjectsNonTransitive(MavenProject module, MavenProject... downstreamModules) {
@@ -0,0 +1,106 @@
+package io.github.gitflowincrementalbuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link ClassDependencyIndex}.
+ */
+class ClassDependencyIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void read() throws IOException {
+        Path classesDir = compile(Map.of(
+                "a/Api.java", "package a; public class Api { public static class Nested {} }",
+                "a/Helper.java", "package a; public class Helper { Api.Nested nested; } class PackagePrivate { Helper[] helpers; }",
+                "b/Client.java", "package b; public class Client { public java.util.List<a.Helper> helpers() { return null; } }",
+                "b/Unrelated.java", "package b; public class Unrelated {}"));
+
+        ClassDependencyIndex index = ClassDependencyIndex.read(Arrays.asList(classesDir, tempDir.resolve("missing")));
+
+        assertThat(index.getClassesOf("a/Api.java")).containsExactlyInAnyOrder("a/Api", "a/Api$Nested");
+        assertThat(index.getClassesOf("a/Helper.java")).containsExactlyInAnyOrder("a/Helper", "a/PackagePrivate");
+        assertThat(index.getClassesOf("a/Missing.java")).isEmpty();
+        // array type of field, generic signature of method return type
+        assertThat(index.getDependentsClosure(Set.of("a/Helper")))
+                .containsExactlyInAnyOrder("a/Helper", "a/PackagePrivate", "b/Client");
+        assertThat(index.getDependentsClosure(Set.of("a/Api$Nested")))
+                .containsExactlyInAnyOrder("a/Api", "a/Api$Nested", "a/Helper", "a/PackagePrivate", "b/Client");
+        assertThat(index.getDependentsClosure(Set.of("b/Unrelated"))).containsExactly("b/Unrelated");
+    }
+
+    @Test
+    public void read_constants() throws IOException {
+        Path classesDir = compile(Map.of(
+                "a/Constants.java", "package a; public class Constants { public static final String NAME = \"a\"; }",
+                "a/NoConstants.java", "package a; public class NoConstants { public static final Object NAME = \"a\"; static int count; }",
+                "b/Client.java", "package b; public class Client { String name = a.Constants.NAME; }"));
+
+        ClassDependencyIndex index = ClassDependencyIndex.read(List.of(classesDir));
+
+        assertThat(index.declaresConstants("a/Constants")).isTrue();
+        assertThat(index.declaresConstants("a/NoConstants")).isFalse();
+        assertThat(index.declaresConstants("b/Client")).isFalse();
+    }
+
+    @Test
+    public void read_invalidClassFile() throws IOException {
+        Files.write(tempDir.resolve("Invalid.class"), new byte[] { 1, 2, 3, 4 });
+
+        assertThatExceptionOfType(IOException.class).isThrownBy(() -> ClassDependencyIndex.read(List.of(tempDir)))
+                .withMessageContaining("Not a class file");
+    }
+
+    @Test
+    public void listClasses() throws IOException {
+        Path classesDir = compile(Map.of("a/Api.java", "package a; public class Api { class Nested {} }"));
+
+        assertThat(ClassDependencyIndex.listClasses(classesDir)).containsExactlyInAnyOrder("a/Api", "a/Api$Nested");
+        assertThat(ClassDependencyIndex.listClasses(tempDir.resolve("missing"))).isEmpty();
+    }
+
+    /**
+     * Compiles the given sources (mapped by their path relative to the source directory) into the given classes directory.
+     */
+    static Path compile(Path sourceDir, Path classesDir, Map<String, String> sources, Path... classpath) throws IOException {
+        Files.createDirectories(classesDir);
+        List<String> args = new ArrayList<>(Arrays.asList("-d", classesDir.toString()));
+        if (classpath.length > 0) {
+            args.add("-cp");
+            args.add(Arrays.stream(classpath).map(Path::toString).collect(Collectors.joining(File.pathSeparator)));
+        }
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Path sourceFile = sourceDir.resolve(source.getKey());
+            Files.createDirectories(sourceFile.getParent());
+            Files.writeString(sourceFile, source.getValue());
+            args.add(sourceFile.toString());
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertThat(compiler.run(null, null, null, args.toArray(new String[0]))).as("compiler exit code").isZero();
+        return classesDir;
+    }
+
+    private Path compile(Map<String, String> sources) throws IOException {
+        return compile(tempDir.resolve("src"), tempDir.resolve("classes"), sources);
+    }
+}
@@ -0,0 +1,192 @@
+package io.github.gitflowincrementalbuilder;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.graph.DefaultProjectDependencyGraph;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.quality.Strictness;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+import io.github.gitflowincrementalbuilder.config.Property;
+
+/**
+ * Tests {@link DownstreamCalculator}.
+ */
+class DownstreamCalculatorTest {
+
+    private final MavenSession session = mock(MavenSession.class, withSettings().strictness(Strictness.LENIENT));
+    private final Properties projectProperties = new Properties();
+    private final List<MavenProject> projects = new ArrayList<>();
+    private final DownstreamCalculator underTest = new DownstreamCalculator();
+
+    private MavenProject a;
+    private MavenProject bom;
+    private MavenProject b;
+    private MavenProject c;
+    private MavenProject d;
+    private MavenProject e;
+
+    // a <- b (compile) <- d, a <- c (test-jar, test) <- d, c <- e, bom <- e (import); declared in a valid but not in the traversal order
+    @BeforeEach
+    void before() throws Exception {
+        a = createProject("a");
+        addTestJarExecution(a);
+        bom = createProject("bom");
+        bom.setPackaging("pom");
+        c = createProject("c");
+        addDependency(c, a, "test-jar", "test");
+        e = createProject("e");
+        addDependency(e, c, null, null);
+        addBomImport(e, bom);
+        b = createProject("b");
+        addDependency(b, a, null, null);
+        d = createProject("d");
+        addDependency(d, b, null, null);
+        addDependency(d, c, null, null);
+
+        MavenProject currentProject = mock(MavenProject.class, withSettings().strictness(Strictness.LENIENT));
+        when(currentProject.getProperties()).thenReturn(projectProperties);
+        projectProperties.setProperty(Property.rebuildProjectDependencyGraphMode.prefixedName(), "off");
+        when(session.getRequest()).thenReturn(new DefaultMavenExecutionRequest());
+        when(session.getCurrentProject()).thenReturn(currentProject);
+        when(session.getProjects()).thenReturn(projects);
+        when(session.getAllProjects()).thenReturn(projects);
+        when(session.getProjectDependencyGraph()).thenReturn(new DefaultProjectDependencyGraph(projects));
+    }
+
+    @AfterEach
+    void after() {
+        underTest.clearCache();
+    }
+
+    @Test
+    public void closure() {
+        // c is only a test dependency of a, so only the test-jar of c (if any) would affect its downstream modules
+        assertThat(downstream(a)).containsExactly(a, c, b, d);
+    }
+
+    @Test
+    public void closure_cachedTestOnlyStateDoesNotAffectMainState() {
+        downstream(a);
+
+        assertThat(downstream(c)).containsExactly(c, e, d);
+        assertThat(downstream(b)).containsExactly(b, d);
+    }
+
+    @Test
+    public void closure_testOnly() {
+        a.setContextValue(ChangedProjects.CTX_TEST_ONLY, Boolean.TRUE);
+
+        assertThat(downstream(a)).containsExactly(a, c);
+    }
+
+    @Test
+    public void closure_bomImporters() {
+        assertThat(downstream(bom)).containsExactly(bom, e);
+    }
+
+    @Test
+    public void closure_excludedPackaging() {
+        projectProperties.setProperty(Property.excludeDownstreamModulesPackagedAs.prefixedName(), "war");
+        b.setPackaging("war");
+
+        assertThat(downstream(a)).containsExactly(a, c, d);
+    }
+
+    @Test
+    public void closure_longChain() {
+        projects.clear();
+        List<MavenProject> chain = new ArrayList<>();
+        Map<MavenProject, List<MavenProject>> downstream = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            MavenProject project = createProject("chain-" + i);
+            if (i > 0) {
+                MavenProject upstream = chain.get(i - 1);
+                addDependency(project, upstream, null, null);
+                downstream.put(upstream, List.of(project));
+            }
+            chain.add(project);
+        }
+        // a plain graph, sorting that many projects via DefaultProjectDependencyGraph takes a while
+        ProjectDependencyGraph graph = mock(ProjectDependencyGraph.class, withSettings().strictness(Strictness.LENIENT));
+        when(graph.getDownstreamProjects(any(), eq(false))).thenAnswer(invocation -> downstream.getOrDefault(invocation.getArgument(0), List.of()));
+        when(session.getProjectDependencyGraph()).thenReturn(graph);
+
+        assertThat(downstream(chain.get(0))).isEqualTo(chain);
+        assertThat(downstream(chain.get(4000))).isEqualTo(chain.subList(4000, 5000));
+    }
+
+    private List<MavenProject> downstream(MavenProject project) {
+        return underTest.streamProjectWithDownstreamProjects(project, new Configuration(session)).collect(toList());
+    }
+
+    private MavenProject createProject(String artifactId) {
+        MavenProject project = new MavenProject();
+        project.setGroupId("com.example");
+        project.setArtifactId(artifactId);
+        project.setVersion("1.0");
+        project.setFile(new File(artifactId, "pom.xml"));
+        project.setOriginalModel(project.getModel().clone());
+        projects.add(project);
+        return project;
+    }
+
+    private static void addDependency(MavenProject project, MavenProject upstream, String type, String scope) {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId(upstream.getGroupId());
+        dependency.setArtifactId(upstream.getArtifactId());
+        dependency.setVersion(upstream.getVersion());
+        if (type != null) {
+            dependency.setType(type);
+        }
+        dependency.setScope(scope);
+        project.getModel().addDependency(dependency);
+    }
+
+    private static void addBomImport(MavenProject project, MavenProject bom) {
+        Dependency dependency = new Dependency();
+        dependency.setGroupId(bom.getGroupId());
+        dependency.setArtifactId(bom.getArtifactId());
+        dependency.setVersion(bom.getVersion());
+        dependency.setType("pom");
+        dependency.setScope("import");
+        DependencyManagement dependencyManagement = new DependencyManagement();
+        dependencyManagement.addDependency(dependency);
+        project.getOriginalModel().setDependencyManagement(dependencyManagement);
+    }
+
+    private static void addTestJarExecution(MavenProject project) {
+        PluginExecution execution = new PluginExecution();
+        execution.addGoal("test-jar");
+        Plugin plugin = new Plugin();
+        plugin.setArtifactId("maven-jar-plugin");
+        plugin.addExecution(execution);
+        Build build = new Build();
+        build.addPlugin(plugin);
+        project.setBuild(build);
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.gitflowincrementalbuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.quality.Strictness;
+
+import io.github.gitflowincrementalbuilder.ChangeSource.Change;
+import io.github.gitflowincrementalbuilder.config.Configuration;
+import io.github.gitflowincrementalbuilder.config.Property;
+
+/**
+ * Tests {@link FileListChangeSource}.
+ */
+class FileListChangeSourceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void parse() {
+        List<Change> changes = FileListChangeSource.parse(Stream.of("# comment", "", "  module/src/main/java/Foo.java ", "com.example:lib:1.0",
+                "/abs/path:with:colons", "C:\\some\\file"))
+                .collect(Collectors.toList());
+
+        assertThat(changes).extracting(change -> change.getPath().orElse(null))
+                .containsExactly(Paths.get("module/src/main/java/Foo.java"), null, Paths.get("/abs/path:with:colons"), Paths.get("C:\\some\\file"));
+        assertThat(changes).extracting(change -> change.getGav().orElse(null))
+                .containsExactly(null, "com.example:lib:1.0", null, null);
+    }
+
+    @Test
+    public void stream() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("changes.txt"), "pom.xml\ncom.example:lib:1.0\n");
+
+        try (Stream<Change> changes = new FileListChangeSource().stream(config(file.toString()))) {
+            assertThat(changes).extracting(Change::toString).containsExactly("pom.xml", "com.example:lib:1.0");
+        }
+    }
+
+    @Test
+    public void stream_noFile() {
+        assertThatThrownBy(() -> new FileListChangeSource().stream(config(null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(Property.changeSourceFile.prefixedName());
+    }
+
+    private Configuration config(String file) {
+        MavenProject currentProject = new MavenProject();
+        currentProject.getProperties().setProperty(Property.changeSource.prefixedName(), FileListChangeSource.NAME);
+        if (file != null) {
+            currentProject.getProperties().setProperty(Property.changeSourceFile.prefixedName(), file);
+        }
+        MavenSession session = mock(MavenSession.class, withSettings().strictness(Strictness.LENIENT));
+        when(session.getRequest()).thenReturn(new DefaultMavenExecutionRequest());
+        when(session.getCurrentProject()).thenReturn(currentProject);
+        return new Configuration(session);
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.gitflowincrementalbuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.gitflowincrementalbuilder.config.Property;
+
+/**
+ * Tests {@link ImpactedProjectsCli} against the template repository.
+ */
+public class ImpactedProjectsCliTest extends BaseRepoTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @Test
+    public void paths() {
+        int exitCode = run();
+
+        assertThat(exitCode).isEqualTo(ImpactedProjectsCli.EXIT_OK);
+        assertThat(outLines()).containsExactlyInAnyOrder("child2/subchild2", "child3", "child4", "child4/subchild41", "testJarDependent");
+    }
+
+    @Test
+    public void gav() {
+        int exitCode = run("--gav", "-D" + Property.buildDownstream.prefixedName() + "=false");
+
+        assertThat(exitCode).isEqualTo(ImpactedProjectsCli.EXIT_OK);
+        assertThat(outLines()).containsExactlyInAnyOrder(
+                "subchild2:subchild2:1.0-SNAPSHOT", "child3:child3:1.0-SNAPSHOT", "child4:child4:1.0-SNAPSHOT",
+                "testJarDependent:testJarDependent:1.0-SNAPSHOT");
+    }
+
+    @Test
+    public void disabled() {
+        int exitCode = run("-D" + Property.disable.prefixedName() + "=true");
+
+        assertThat(exitCode).isEqualTo(ImpactedProjectsCli.EXIT_OK);
+        assertThat(outLines()).hasSize(13).contains(".", "child1", "child6");
+    }
+
+    @Test
+    public void changeSource() {
+        int exitCode = run("-D" + Property.changeSource.prefixedName() + "=native-git");
+
+        // the named change sources are wired by Sisu
+        assertThat(exitCode).isEqualTo(ImpactedProjectsCli.EXIT_OK);
+        assertThat(outLines()).isNotEmpty();
+    }
+
+    @Test
+    public void unknownChangeSource() {
+        int exitCode = run("-D" + Property.changeSource.prefixedName() + "=foo");
+
+        assertThat(exitCode).isEqualTo(ImpactedProjectsCli.EXIT_ERROR);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEmpty();
+    }
+
+    @Test
+    public void unknownArgument() {
+        int exitCode = run("--foo");
+
+        assertThat(exitCode).isEqualTo(ImpactedProjectsCli.EXIT_USAGE);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEmpty();
+        assertThat(err.toString(StandardCharsets.UTF_8)).contains("--foo").contains("Usage:");
+    }
+
+    @Test
+    public void missingPom() {
+        int exitCode = new ImpactedProjectsCli().run(new String[] { "-f", repoPath.resolve("foo").toString() }, printStream(out), printStream(err));
+
+        assertThat(exitCode).isEqualTo(ImpactedProjectsCli.EXIT_USAGE);
+        assertThat(err.toString(StandardCharsets.UTF_8)).contains("File not found");
+    }
+
+    private int run(String... args) {
+        List<String> allArgs = new ArrayList<>(Arrays.asList("-f", repoPath.resolve("parent").toString()));
+        projectProperties.forEach((key, value) -> allArgs.add("-D" + key + "=" + value));
+        allArgs.addAll(Arrays.asList(args));
+        return new ImpactedProjectsCli().run(allArgs.toArray(new String[0]), printStream(out), printStream(err));
+    }
+
+    private List<String> outLines() {
+        return out.toString(StandardCharsets.UTF_8).lines().collect(Collectors.toList());
+    }
+
+    private static PrintStream printStream(ByteArrayOutputStream stream) {
+        return new PrintStream(stream, true, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.gitflowincrementalbuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.graph.DefaultProjectDependencyGraph;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class IndexedProjectDependencyGraphTest {
+
+    private final List<MavenProject> projects = new ArrayList<>();
+
+    private DefaultProjectDependencyGraph defaultGraph;
+    private IndexedProjectDependencyGraph underTest;
+
+    // a <- b <- d <- e, a <- c <- d, c <- f (declared in non-topological order)
+    @BeforeEach
+    void before() throws Exception {
+        createProject("e", "d");
+        createProject("d", "b", "c");
+        createProject("f", "c");
+        createProject("b", "a");
+        createProject("c", "a");
+        createProject("a");
+        createProject("unrelated");
+        defaultGraph = new DefaultProjectDependencyGraph(projects);
+        underTest = new IndexedProjectDependencyGraph(defaultGraph);
+    }
+
+    @Test
+    public void example() {
+        assertThat(underTest.getDownstreamProjects(projects.get(1), false)).containsExactly(projects.get(0));
+        assertThat(underTest.getUpstreamProjects(projects.get(2), true)).extracting(MavenProject::getArtifactId).containsExactly("a", "c");
+    }
+
+    @Test
+    public void getSortedProjects() {
+        assertThat(underTest.getSortedProjects()).isEqualTo(defaultGraph.getSortedProjects());
+        assertThat(underTest.getAllProjects()).isEqualTo(defaultGraph.getAllProjects());
+    }
+
+    @Test
+    public void getDownstreamProjects() {
+        for (MavenProject project : projects) {
+            assertThat(underTest.getDownstreamProjects(project, false)).as(project.getArtifactId())
+                    .isEqualTo(defaultGraph.getDownstreamProjects(project, false));
+            assertThat(underTest.getDownstreamProjects(project, true)).as(project.getArtifactId() + " transitive")
+                    .isEqualTo(defaultGraph.getDownstreamProjects(project, true));
+        }
+    }
+
+    @Test
+    public void getUpstreamProjects() {
+        for (MavenProject project : projects) {
+            assertThat(underTest.getUpstreamProjects(project, false)).as(project.getArtifactId())
+                    .isEqualTo(defaultGraph.getUpstreamProjects(project, false));
+            assertThat(underTest.getUpstreamProjects(project, true)).as(project.getArtifactId() + " transitive")
+                    .isEqualTo(defaultGraph.getUpstreamProjects(project, true));
+        }
+    }
+
+    @Test
+    public void getUpstreamProjects_cachedResultNotModifiable() {
+        MavenProject e = projects.get(0);
+        underTest.getUpstreamProjects(e, true).clear();
+
+        assertThat(underTest.getUpstreamProjects(e, true)).hasSize(4);
+    }
+
+    @Test
+    public void getDownstreamProjects_unknownProject() {
+        assertThatIllegalArgumentException().isThrownBy(() -> underTest.getDownstreamProjects(createProject("unknown"), true));
+    }
+
+    private MavenProject createProject(String artifactId, String... dependencyArtifactIds) {
+        MavenProject project = new MavenProject();
+        project.setGroupId("com.example");
+        project.setArtifactId(artifactId);
+        project.setVersion("1.0");
+        project.setFile(new File(artifactId, "pom.xml"));
+        for (String dependencyArtifactId : dependencyArtifactIds) {
+            Dependency dependency = new Dependency();
+            dependency.setGroupId("com.example");
+            dependency.setArtifactId(dependencyArtifactId);
+            dependency.setVersion("1.0");
+            project.getModel().addDependency(dependency);
+        }
+        projects.add(project);
+        return project;
+    }
+}
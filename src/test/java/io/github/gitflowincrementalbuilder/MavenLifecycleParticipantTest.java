@@ -1,5 +1,6 @@
 package io.github.gitflowincrementalbuilder;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -11,7 +12,11 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Properties;
 
 import org.apache.maven.MavenExecutionException;
@@ -22,14 +27,18 @@ import org.apache.maven.project.MavenProject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
 import org.slf4j.Logger;
 
 import io.github.gitflowincrementalbuilder.config.Configuration;
 import io.github.gitflowincrementalbuilder.config.Property;
+import io.github.gitflowincrementalbuilder.jgit.DifferentFiles;
 import io.github.gitflowincrementalbuilder.jgit.GitProvider;
 import io.github.gitflowincrementalbuilder.util.LoggerSpyUtil;
 
@@ -52,6 +61,15 @@ public class MavenLifecycleParticipantTest {
     @Mock
     private GitProvider gitProviderMock;
 
+    @Mock
+    private ModuleDurationsRecorder moduleDurationsRecorderMock;
+
+    @Mock
+    private DifferentFiles differentFilesMock;
+
+    @TempDir
+    Path tempDir;
+
     @InjectMocks
     private MavenLifecycleParticipant underTest = new MavenLifecycleParticipant(TEST_IMPL_VERSION);
 
@@ -59,7 +77,7 @@ public class MavenLifecycleParticipantTest {
 
     @BeforeEach
     void before() {
-        MavenProject currentProjectMock = mock(MavenProject.class);
+        MavenProject currentProjectMock = mock(MavenProject.class, withSettings().strictness(Strictness.LENIENT));  // not used by afterSessionStart
         when(currentProjectMock.getProperties()).thenReturn(projectProperties);
         when(mavenSessionMock.getCurrentProject()).thenReturn(currentProjectMock);
 
@@ -77,6 +95,24 @@ public class MavenLifecycleParticipantTest {
         verify(unchangedProjectsRemoverMock).act(any(Configuration.class));
     }
 
+    @Test
+    public void recordModuleDurations() throws MavenExecutionException {
+        projectProperties.setProperty(Property.recordModuleDurations.prefixedName(), "true");
+
+        underTest.afterProjectsRead(mavenSessionMock);
+
+        verify(moduleDurationsRecorderMock).register(any(Configuration.class));
+        verify(unchangedProjectsRemoverMock).act(any(Configuration.class));
+    }
+
+    @Test
+    public void recordModuleDurations_default() throws MavenExecutionException {
+
+        underTest.afterProjectsRead(mavenSessionMock);
+
+        verifyNoInteractions(moduleDurationsRecorderMock);
+    }
+
     @Test
     public void disabled() throws MavenExecutionException {
         projectProperties.setProperty(Property.disable.prefixedName(), "true");
@@ -216,6 +252,81 @@ public class MavenLifecycleParticipantTest {
         verifyNoInteractions(unchangedProjectsRemoverMock);
     }
 
+    @Test
+    public void afterSessionStart() throws IOException {
+        mockPom("<gib.detectChangesEarly>true</gib.detectChangesEarly><gib.referenceBranch>refs/heads/main</gib.referenceBranch>");
+
+        underTest.afterSessionStart(mavenSessionMock);
+
+        ArgumentCaptor<Configuration> configCaptor = ArgumentCaptor.forClass(Configuration.class);
+        verify(differentFilesMock).startEarly(configCaptor.capture());
+        assertThat(configCaptor.getValue().currentProject.getBasedir()).isEqualTo(tempDir.toFile());
+        assertThat(configCaptor.getValue().referenceBranch).isEqualTo("refs/heads/main");
+    }
+
+    @Test
+    public void afterSessionStart_default() throws IOException {
+        mockPom("<gib.referenceBranch>refs/heads/main</gib.referenceBranch>");
+
+        underTest.afterSessionStart(mavenSessionMock);
+
+        verifyNoInteractions(differentFilesMock);
+    }
+
+    @Test
+    public void afterSessionStart_disabled() throws IOException {
+        mockPom("<gib.detectChangesEarly>true</gib.detectChangesEarly><gib.disable>true</gib.disable>");
+
+        underTest.afterSessionStart(mavenSessionMock);
+
+        verifyNoInteractions(differentFilesMock);
+    }
+
+    @Test
+    public void afterSessionStart_disabledNotInterpolated() throws IOException {
+        mockPom("<gib.detectChangesEarly>true</gib.detectChangesEarly><gib.disable>${skipGib}</gib.disable>");
+
+        underTest.afterSessionStart(mavenSessionMock);
+
+        verifyNoInteractions(differentFilesMock);
+    }
+
+    @Test
+    public void afterSessionStart_disabledForReferenceBranch() throws IOException {
+        mockPom("<gib.detectChangesEarly>true</gib.detectChangesEarly><gib.referenceBranch>refs/heads/main</gib.referenceBranch>"
+                + "<gib.disableIfReferenceBranchMatches>refs/heads/main</gib.disableIfReferenceBranchMatches>");
+
+        underTest.afterSessionStart(mavenSessionMock);
+
+        verifyNoInteractions(differentFilesMock);
+    }
+
+    @Test
+    public void afterSessionStart_disabledForCurrentBranch() throws IOException {
+        mockPom("<gib.detectChangesEarly>true</gib.detectChangesEarly><gib.disableIfBranchMatches>develop</gib.disableIfBranchMatches>");
+        mockCurrentBranch("develop");
+
+        underTest.afterSessionStart(mavenSessionMock);
+
+        verifyNoInteractions(differentFilesMock);
+    }
+
+    @Test
+    public void afterProjectsRead_discardsEarlyChanges() throws MavenExecutionException {
+        projectProperties.setProperty(Property.disable.prefixedName(), "true");
+
+        underTest.afterProjectsRead(mavenSessionMock);
+
+        verify(differentFilesMock).discardEarly();
+        verify(gitProviderMock).close();
+    }
+
+    private void mockPom(String properties) throws IOException {
+        Path pom = Files.writeString(tempDir.resolve("pom.xml"), "<project><properties>" + properties + "</properties></project>");
+        when(execRequestMock.isRecursive()).thenReturn(true);
+        when(execRequestMock.getPom()).thenReturn(pom.toFile());
+    }
+
     private void mockCurrentBranch(String branchName) {
         when(gitProviderMock.getCurrentBranch(any(Configuration.class))).thenReturn(branchName);
     }
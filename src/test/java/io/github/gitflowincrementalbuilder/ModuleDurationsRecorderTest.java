@@ -0,0 +1,147 @@
+package io.github.gitflowincrementalbuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.quality.Strictness;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+import io.github.gitflowincrementalbuilder.config.Property;
+
+/**
+ * Tests {@link ModuleDurationsRecorder}.
+ */
+class ModuleDurationsRecorderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+    private final ExecutionListener originalListener = mock(ExecutionListener.class);
+    private final MavenSession session = mock(MavenSession.class, withSettings().strictness(Strictness.LENIENT));
+    private final MavenProject project = mock(MavenProject.class, withSettings().strictness(Strictness.LENIENT));
+    private final Properties projectProperties = new Properties();
+    private final List<String> goals = new ArrayList<>(List.of("install"));
+
+    private Path durationsFile;
+
+    @BeforeEach
+    void before() {
+        durationsFile = tempDir.resolve("durations.txt");
+        projectProperties.setProperty(Property.moduleDurationsFile.prefixedName(), durationsFile.toString());
+        request.setExecutionListener(originalListener);
+        when(session.getRequest()).thenReturn(request);
+        when(session.getCurrentProject()).thenReturn(project);
+        when(session.getGoals()).thenReturn(goals);
+        when(project.getProperties()).thenReturn(projectProperties);
+        when(project.getGroupId()).thenReturn("g");
+        when(project.getArtifactId()).thenReturn("a");
+    }
+
+    @Test
+    public void record() throws IOException {
+        ExecutionListener listener = register();
+        ExecutionEvent projectEvent = event(null);
+        ExecutionEvent mojoEvent = event("test");
+
+        listener.projectStarted(projectEvent);
+        listener.mojoStarted(mojoEvent);
+        listener.mojoSucceeded(mojoEvent);
+        listener.projectSucceeded(projectEvent);
+        listener.sessionEnded(projectEvent);
+
+        verify(originalListener).projectStarted(projectEvent);
+        verify(originalListener).mojoSucceeded(mojoEvent);
+        verify(originalListener).sessionEnded(projectEvent);
+        assertThat(ModuleDurations.read(Optional.of(durationsFile)).get(project)).isPresent();
+        assertThat(Files.readAllLines(durationsFile)).anyMatch(line -> line.startsWith(ModuleDurations.key(project, "test") + "="));
+    }
+
+    @Test
+    public void record_failed() {
+        ExecutionListener listener = register();
+        ExecutionEvent projectEvent = event(null);
+
+        listener.projectStarted(projectEvent);
+        listener.projectFailed(projectEvent);
+        listener.sessionEnded(projectEvent);
+
+        verify(originalListener).projectFailed(projectEvent);
+        assertThat(durationsFile).doesNotExist();
+    }
+
+    @Test
+    public void record_testsSkipped() {
+        projectProperties.setProperty("maven.test.skip", "true");
+        ExecutionListener listener = register();
+        ExecutionEvent projectEvent = event(null);
+
+        listener.projectStarted(projectEvent);
+        listener.projectSucceeded(projectEvent);
+        listener.sessionEnded(projectEvent);
+
+        assertThat(durationsFile).doesNotExist();
+    }
+
+    @Test
+    public void record_validateOnly() {
+        goals.set(0, "validate");
+        ExecutionListener listener = register();
+        ExecutionEvent projectEvent = event(null);
+
+        listener.projectStarted(projectEvent);
+        listener.projectSucceeded(projectEvent);
+        listener.sessionEnded(projectEvent);
+
+        assertThat(durationsFile).doesNotExist();
+    }
+
+    @Test
+    public void register_withoutFile() {
+        projectProperties.remove(Property.moduleDurationsFile.prefixedName());
+
+        new ModuleDurationsRecorder().register(new Configuration(session));
+
+        assertThat(request.getExecutionListener()).isSameAs(originalListener);
+    }
+
+    private ExecutionListener register() {
+        new ModuleDurationsRecorder().register(new Configuration(session));
+        assertThat(request.getExecutionListener()).isNotSameAs(originalListener);
+        return request.getExecutionListener();
+    }
+
+    private ExecutionEvent event(String phase) {
+        ExecutionEvent event = mock(ExecutionEvent.class, withSettings().strictness(Strictness.LENIENT));
+        when(event.getProject()).thenReturn(project);
+        when(event.getSession()).thenReturn(session);
+        if (phase != null) {
+            MojoExecution mojoExecution = new MojoExecution(new Plugin(), "goal", "id");
+            mojoExecution.setLifecyclePhase(phase);
+            when(event.getMojoExecution()).thenReturn(mojoExecution);
+        }
+        return event;
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.gitflowincrementalbuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link ModuleDurations}.
+ */
+class ModuleDurationsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final MavenProject projectA = mockProject("a");
+    private final MavenProject projectB = mockProject("b");
+
+    @Test
+    public void read_noFile() {
+        assertThat(ModuleDurations.read(Optional.empty()).get(projectA)).isEmpty();
+        assertThat(ModuleDurations.read(Optional.of(tempDir.resolve("missing.txt"))).get(projectA)).isEmpty();
+    }
+
+    @Test
+    public void read_singleSample() throws IOException {
+        Path file = write("# comment", "", "g:a=100", "g:a@test=60", "invalid", "g:b=foo");
+
+        ModuleDurations durations = ModuleDurations.read(Optional.of(file));
+
+        assertThat(durations.get(projectA)).hasValue(100L);
+        assertThat(durations.getP95(projectA)).hasValue(100L);
+        assertThat(durations.get(projectB)).isEmpty();
+    }
+
+    @Test
+    public void read_multipleSamples() throws IOException {
+        Path file = write("g:a=100", "g:a=200", "g:a=100");
+
+        ModuleDurations durations = ModuleDurations.read(Optional.of(file));
+
+        // 100 -> 0.3 * 200 + 0.7 * 100 = 130 -> 0.3 * 100 + 0.7 * 130 = 121
+        assertThat(durations.get(projectA)).hasValue(121L);
+        assertThat(durations.getP95(projectA)).hasValue(200L);
+    }
+
+    @Test
+    public void estimate() throws IOException {
+        Path file = write("g:a=100", "g:c=300");
+
+        Map<MavenProject, Long> estimates = ModuleDurations.read(Optional.of(file)).estimate(Arrays.asList(projectA, projectB));
+
+        // average of the recorded durations of the given projects only (so not including c)
+        assertThat(estimates).containsEntry(projectA, 100L).containsEntry(projectB, 100L);
+    }
+
+    @Test
+    public void estimateP95() throws IOException {
+        Path file = write("g:a=100", "g:a=200", "g:a=100", "g:c=300");
+
+        Map<MavenProject, Long> estimates = ModuleDurations.read(Optional.of(file)).estimateP95(Arrays.asList(projectA, projectB));
+
+        assertThat(estimates).containsEntry(projectA, 200L).containsEntry(projectB, 200L);
+    }
+
+    @Test
+    public void estimate_noDurations() {
+        Map<MavenProject, Long> estimates = ModuleDurations.read(Optional.empty()).estimate(Arrays.asList(projectA, projectB));
+
+        assertThat(estimates).containsEntry(projectA, 1L).containsEntry(projectB, 1L);
+    }
+
+    @Test
+    public void append() throws IOException {
+        Path file = tempDir.resolve("sub/durations.txt");
+
+        ModuleDurations.append(file, Map.of("g:a", 100L));
+        ModuleDurations.append(file, Map.of("g:a", 200L));
+
+        assertThat(Files.readAllLines(file)).containsExactly("g:a=100", "g:a=200");
+    }
+
+    @Test
+    public void append_compact() throws IOException {
+        // same length as the appended sample
+        List<String> lines = IntStream.rangeClosed(1, ModuleDurations.COMPACTION_FACTOR + 1)
+                .mapToObj(i -> "g:a=" + (1000 + i))
+                .collect(Collectors.toList());
+        Path file = write(lines.toArray(new String[0]));
+
+        ModuleDurations.append(file, Map.of("g:a", 1000L));
+
+        List<String> expected = new ArrayList<>(lines.subList(lines.size() - ModuleDurations.MAX_SAMPLES, lines.size()));
+        expected.add("g:a=1000");
+        assertThat(Files.readAllLines(file)).isEqualTo(expected);
+    }
+
+    @Test
+    public void append_concurrently() throws Exception {
+        Path file = tempDir.resolve("durations.txt");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> appends = IntStream.range(0, 100)
+                    .mapToObj(i -> executor.submit(() -> {
+                        ModuleDurations.append(file, Map.of("g:m" + i, 100L));
+                        return null;
+                    }))
+                    .collect(Collectors.toList());
+            for (Future<?> append : appends) {
+                append.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // enough samples to be compacted in between, but none is lost
+        assertThat(Files.readAllLines(file)).hasSize(100);
+        assertThat(tempDir.resolve("durations.txt.lock")).exists();
+    }
+
+    private Path write(String... lines) throws IOException {
+        return Files.write(tempDir.resolve("durations.txt"), Arrays.asList(lines));
+    }
+
+    private static MavenProject mockProject(String artifactId) {
+        MavenProject project = mock(MavenProject.class);
+        when(project.getGroupId()).thenReturn("g");
+        when(project.getArtifactId()).thenReturn(artifactId);
+        return project;
+    }
+}
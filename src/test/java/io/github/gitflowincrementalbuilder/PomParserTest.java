@@ -0,0 +1,115 @@
+package io.github.gitflowincrementalbuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.Profile;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link PomParser}.
+ */
+class PomParserTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void parse() throws IOException {
+        Path pom = writePom("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<!-- comment -->\n"
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                + "  <modelVersion>4.0.0</modelVersion>\n"
+                + "  <parent><groupId>org.example</groupId><artifactId>parent</artifactId><version>1</version>"
+                + "<relativePath>../p</relativePath></parent>\n"
+                + "  <artifactId> a </artifactId>\n"
+                + "  <name>skipped</name>\n"
+                + "  <properties><foo.version>1.2.3</foo.version><!-- comment --></properties>\n"
+                + "  <modules><module>sub</module></modules>\n"
+                + "  <dependencies><dependency><groupId>org.example</groupId><artifactId>foo</artifactId><version>${foo.version}</version>"
+                + "<type>test-jar</type><scope>test</scope><exclusions><exclusion><groupId>*</groupId><artifactId>*</artifactId></exclusion>"
+                + "</exclusions></dependency></dependencies>\n"
+                + "  <dependencyManagement><dependencies><dependency><groupId>org.example</groupId><artifactId>bom</artifactId>"
+                + "<version>1</version><type>pom</type><scope>import</scope></dependency></dependencies></dependencyManagement>\n"
+                + "  <build><pluginManagement><plugins><plugin><artifactId>skipped</artifactId></plugin></plugins></pluginManagement>"
+                + "<plugins><plugin><groupId>io.github.gitflow-incremental-builder</groupId><artifactId>gitflow-incremental-builder</artifactId>"
+                + "<configuration><gib.disable>  true </gib.disable><list combine.children=\"append\"><item>x</item></list></configuration>"
+                + "<executions><execution><id>e</id><goals><goal>g</goal></goals></execution></executions></plugin></plugins></build>\n"
+                + "  <reporting><plugins><plugin><artifactId>skipped</artifactId></plugin></plugins></reporting>\n"
+                + "  <profiles><profile><id>p</id><activation><activeByDefault>true</activeByDefault><jdk>17</jdk></activation>"
+                + "<modules><module>extra</module></modules><properties><skipped>true</skipped></properties></profile></profiles>\n"
+                + "</project>\n");
+
+        Model model = new PomParser().parse(pom);
+
+        assertThat(model.getPomFile().toPath()).isEqualTo(pom);
+        assertThat(model.getParent().getId()).isEqualTo("org.example:parent:pom:1");
+        assertThat(model.getParent().getRelativePath()).isEqualTo("../p");
+        assertThat(model.getGroupId()).isNull();
+        assertThat(model.getArtifactId()).isEqualTo("a");
+        assertThat(model.getPackaging()).isEqualTo("jar");
+        assertThat(model.getName()).isNull();
+        assertThat(model.getProperties()).containsOnlyKeys("foo.version").containsEntry("foo.version", "1.2.3");
+        assertThat(model.getModules()).containsExactly("sub");
+        assertThat(model.getDependencies()).extracting(Dependency::getArtifactId, Dependency::getVersion, Dependency::getType, Dependency::getScope)
+                .containsExactly(tuple("foo", "${foo.version}", "test-jar", "test"));
+        assertThat(model.getDependencies().get(0).getExclusions()).hasSize(1);
+        assertThat(model.getDependencyManagement().getDependencies()).extracting(Dependency::getScope).containsExactly("import");
+
+        assertThat(model.getBuild().getPluginManagement()).isNull();
+        Plugin plugin = model.getBuild().getPlugins().get(0);
+        assertThat(plugin.getKey()).isEqualTo("io.github.gitflow-incremental-builder:gitflow-incremental-builder");
+        Xpp3Dom configuration = (Xpp3Dom) plugin.getConfiguration();
+        assertThat(configuration.getChild("gib.disable").getValue()).isEqualTo("true");
+        assertThat(configuration.getChild("list").getAttribute("combine.children")).isEqualTo("append");
+        assertThat(configuration.getChild("list").getChild("item").getValue()).isEqualTo("x");
+        assertThat(plugin.getExecutions().get(0).getGoals()).containsExactly("g");
+        assertThat(model.getReporting()).isNull();
+
+        Profile profile = model.getProfiles().get(0);
+        assertThat(profile.getId()).isEqualTo("p");
+        assertThat(profile.getActivation().isActiveByDefault()).isTrue();
+        assertThat(profile.getModules()).containsExactly("extra");
+        assertThat(profile.getProperties()).isEmpty();
+    }
+
+    @Test
+    public void parse_nestedElements() throws IOException {
+        Path pom = writePom("<project><artifactId>a<!-- comment --><foo>skipped</foo>b</artifactId>"
+                + "<properties><bar><baz>skipped</baz></bar><foo.version> 1.2.3 <x/></foo.version></properties></project>");
+
+        Model model = new PomParser().parse(pom);
+
+        assertThat(model.getArtifactId()).isEqualTo("ab");
+        assertThat(model.getProperties()).containsEntry("bar", "").containsEntry("foo.version", "1.2.3");
+    }
+
+    @Test
+    public void parse_malformed() throws IOException {
+        Path pom = writePom("<project><artifactId>a</artifactId>");
+
+        assertThatIOException().isThrownBy(() -> new PomParser().parse(pom)).withMessageContaining(pom.toString());
+    }
+
+    @Test
+    public void parse_noProject() throws IOException {
+        Path pom = writePom("<foo/>");
+
+        assertThatIOException().isThrownBy(() -> new PomParser().parse(pom)).withMessageContaining("<project>");
+    }
+
+    private Path writePom(String content) throws IOException {
+        return Files.write(tempDir.resolve("pom.xml"), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
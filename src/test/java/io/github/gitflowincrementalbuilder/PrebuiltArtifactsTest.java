@@ -0,0 +1,219 @@
+package io.github.gitflowincrementalbuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.LocalRepositoryManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+import io.github.gitflowincrementalbuilder.config.Property;
+import io.github.gitflowincrementalbuilder.jgit.TreeFingerprints;
+
+/**
+ * Tests {@link PrebuiltArtifacts}.
+ */
+@ExtendWith(MockitoExtension.class)
+class PrebuiltArtifactsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+    private final MavenSession session = mock(MavenSession.class, withSettings().strictness(Strictness.LENIENT));
+    private final ProjectDependencyGraph graph = mock(ProjectDependencyGraph.class, withSettings().strictness(Strictness.LENIENT));
+    private final Map<Path, String> dirFingerprints = new HashMap<>();
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private TreeFingerprints treeFingerprints;
+
+    @InjectMocks
+    private PrebuiltArtifacts underTest;
+
+    private Path localRepo;
+    private MavenProject root;
+    private MavenProject upstream;
+
+    @BeforeEach
+    void before() throws IOException {
+        localRepo = tempDir.resolve("repo");
+        root = createProject("root", "pom");
+        upstream = createProject("upstream", "jar");
+        root.getProperties().setProperty(Property.reuseUpstreamArtifacts.prefixedName(), "true");
+        root.getProperties().setProperty(Property.rebuildProjectDependencyGraphMode.prefixedName(), "off");
+        dirFingerprints.put(root.getBasedir().toPath(), "root-1");
+        dirFingerprints.put(upstream.getBasedir().toPath(), "upstream-1");
+
+        LocalRepositoryManager localRepositoryManager = mock(LocalRepositoryManager.class, withSettings().strictness(Strictness.LENIENT));
+        when(localRepositoryManager.getRepository()).thenReturn(new LocalRepository(localRepo.toFile()));
+        when(localRepositoryManager.getPathForLocalArtifact(any())).thenAnswer(invocation -> {
+            Artifact artifact = invocation.getArgument(0);
+            return artifact.getArtifactId() + "/" + artifact.getArtifactId() + "-" + artifact.getVersion()
+                    + (artifact.getClassifier().isEmpty() ? "" : "-" + artifact.getClassifier()) + "." + artifact.getExtension();
+        });
+        DefaultRepositorySystemSession repositorySession = new DefaultRepositorySystemSession();
+        repositorySession.setLocalRepositoryManager(localRepositoryManager);
+
+        when(session.getRequest()).thenReturn(request);
+        when(session.getCurrentProject()).thenReturn(root);
+        when(session.getProjects()).thenReturn(List.of(root, upstream));
+        when(session.getRepositorySession()).thenReturn(repositorySession);
+        when(session.getProjectDependencyGraph()).thenReturn(graph);
+        when(graph.getUpstreamProjects(upstream, true)).thenReturn(List.of(root));
+        when(treeFingerprints.get(any(), any())).thenAnswer(invocation -> Map.copyOf(dirFingerprints));
+        when(treeFingerprints.isWorkTreeClean(any())).thenReturn(true);
+    }
+
+    @Test
+    public void findReusable_installed() throws IOException {
+        buildAndInstall();
+
+        assertThat(findReusable()).containsExactly(root, upstream);
+    }
+
+    @Test
+    public void findReusable_notRecorded() {
+        assertThat(findReusable()).isEmpty();
+    }
+
+    @Test
+    public void findReusable_overwritten() throws IOException {
+        buildAndInstall();
+        Files.writeString(localRepo.resolve("upstream/upstream-1.0.jar"), "other");
+
+        assertThat(findReusable()).containsExactly(root);
+    }
+
+    @Test
+    public void findReusable_changedUpstream() throws IOException {
+        buildAndInstall();
+        dirFingerprints.put(root.getBasedir().toPath(), "root-2");
+
+        assertThat(findReusable()).isEmpty();
+    }
+
+    @Test
+    public void findReusable_differentUserProperties() throws IOException {
+        buildAndInstall();
+        request.getUserProperties().setProperty("revision", "2.0");
+
+        assertThat(findReusable()).isEmpty();
+    }
+
+    @Test
+    public void findReusable_ignoredUserProperties() throws IOException {
+        buildAndInstall();
+        request.getUserProperties().setProperty("maven.repo.local", tempDir.resolve("other").toString());
+        request.getUserProperties().setProperty(Property.reuseUpstreamArtifactsDir.prefixedName(), tempDir.resolve("other").toString());
+
+        assertThat(findReusable()).containsExactly(root, upstream);
+    }
+
+    @Test
+    public void findReusable_differentProfiles() throws IOException {
+        buildAndInstall();
+        upstream.setInjectedProfileIds(upstream.getId(), List.of("ci"));
+
+        assertThat(findReusable()).containsExactly(root);
+    }
+
+    @Test
+    public void findReusable_differentJavaVersion() throws IOException {
+        request.getSystemProperties().setProperty("java.version", "17.0.1");
+        buildAndInstall();
+        request.getSystemProperties().setProperty("java.version", "21.0.1");
+
+        assertThat(findReusable()).isEmpty();
+    }
+
+    @Test
+    public void findReusable_dir() throws IOException {
+        root.getProperties().setProperty(Property.reuseUpstreamArtifactsDir.prefixedName(), tempDir.resolve("prebuilt").toString());
+        buildAndInstall();
+        Files.writeString(localRepo.resolve("upstream/upstream-1.0.jar"), "other");
+        Files.delete(localRepo.resolve("upstream/upstream-1.0-tests.jar"));
+
+        assertThat(findReusable()).containsExactly(root, upstream);
+        assertThat(localRepo.resolve("upstream/upstream-1.0.jar")).hasContent("upstream jar");
+        assertThat(localRepo.resolve("upstream/upstream-1.0-tests.jar")).hasContent("upstream tests");
+    }
+
+    @Test
+    public void register_dirtyWorkTree() {
+        when(treeFingerprints.isWorkTreeClean(any())).thenReturn(false);
+        ExecutionListener originalListener = request.getExecutionListener();
+
+        underTest.register(new Configuration(session));
+
+        assertThat(request.getExecutionListener()).isSameAs(originalListener);
+    }
+
+    private void buildAndInstall() throws IOException {
+        underTest.register(new Configuration(session));
+        ExecutionListener listener = request.getExecutionListener();
+        for (MavenProject project : List.of(root, upstream)) {
+            Path installDir = Files.createDirectories(localRepo.resolve(project.getArtifactId()));
+            Files.copy(project.getFile().toPath(), installDir.resolve(project.getArtifactId() + "-1.0.pom"));
+            if (project == upstream) {
+                Path jar = Files.writeString(tempDir.resolve("upstream.jar"), "upstream jar");
+                Path testJar = Files.writeString(tempDir.resolve("upstream-tests.jar"), "upstream tests");
+                project.getArtifact().setFile(jar.toFile());
+                DefaultArtifact attached = new DefaultArtifact("com.example", "upstream", "1.0", "test", "jar", "tests", new DefaultArtifactHandler("jar"));
+                attached.setFile(testJar.toFile());
+                project.addAttachedArtifact(attached);
+                Files.copy(jar, installDir.resolve("upstream-1.0.jar"));
+                Files.copy(testJar, installDir.resolve("upstream-1.0-tests.jar"));
+            }
+            ExecutionEvent event = mock(ExecutionEvent.class, withSettings().strictness(Strictness.LENIENT));
+            when(event.getProject()).thenReturn(project);
+            when(event.getSession()).thenReturn(session);
+            listener.projectStarted(event);
+            listener.projectSucceeded(event);
+        }
+    }
+
+    private List<MavenProject> findReusable() {
+        return List.copyOf(underTest.findReusable(List.of(root, upstream), new Configuration(session)));
+    }
+
+    private MavenProject createProject(String name, String packaging) throws IOException {
+        Path baseDir = Files.createDirectories(tempDir.resolve(name));
+        MavenProject project = new MavenProject();
+        project.setGroupId("com.example");
+        project.setArtifactId(name);
+        project.setVersion("1.0");
+        project.setPackaging(packaging);
+        project.setFile(Files.writeString(baseDir.resolve("pom.xml"), "<project>" + name + "</project>").toFile());
+        project.setArtifact(new DefaultArtifact("com.example", name, "1.0", "compile", packaging, null, new DefaultArtifactHandler(packaging)));
+        return project;
+    }
+}
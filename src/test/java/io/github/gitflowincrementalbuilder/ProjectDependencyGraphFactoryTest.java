@@ -70,6 +70,26 @@ public class ProjectDependencyGraphFactoryTest {
                 .isNotSameAs(sessionGraphMock);
     }
 
+    @Test
+    void createGraph_indexed() {
+        projectProperties.setProperty(Property.indexProjectDependencyGraph.prefixedName(), "true");
+
+        var result = createGraph(List.of(), new Configuration(mavenSessionMock), false);
+
+        assertThat(result).isExactlyInstanceOf(IndexedProjectDependencyGraph.class);
+    }
+
+    @Test
+    void createGraph_modeOff_indexed() {
+        projectProperties.setProperty(Property.rebuildProjectDependencyGraphMode.prefixedName(), "off");
+        projectProperties.setProperty(Property.indexProjectDependencyGraph.prefixedName(), "true");
+
+        var result = createGraph(List.of(), new Configuration(mavenSessionMock), false);
+
+        assertThat(result).isExactlyInstanceOf(IndexedProjectDependencyGraph.class);
+        verify(sessionGraphMock).getSortedProjects();
+    }
+
     // note: Maven38DefaultDependencyGraph case not testable due to https://github.com/mockito/mockito/issues/3629,
     //       same for CycleDetectedException and DuplicateProjectException cases, as they are thrown from the constructor
     
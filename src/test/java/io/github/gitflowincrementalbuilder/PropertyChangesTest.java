@@ -0,0 +1,217 @@
+package io.github.gitflowincrementalbuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.github.gitflowincrementalbuilder.config.Configuration;
+import io.github.gitflowincrementalbuilder.jgit.DifferentFiles;
+
+/**
+ * Tests {@link PropertyChanges}.
+ */
+@ExtendWith(MockitoExtension.class)
+class PropertyChangesTest {
+
+    private static final String PARENT_PROPERTIES_BEFORE =
+            "<properties><foo.version>1</foo.version><bar.version>${foo.version}</bar.version><baz>x</baz></properties>";
+    private static final String PARENT_PROPERTIES_AFTER =
+            "<properties><foo.version>2</foo.version><bar.version>${foo.version}</bar.version><baz>x</baz></properties>";
+
+    @TempDir
+    Path tempDir;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private MavenSession mavenSessionMock;
+
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private MavenExecutionRequest mavenExecutionRequestMock;
+
+    @Mock
+    private DifferentFiles differentFilesMock;
+
+    @InjectMocks
+    private PropertyChanges underTest;
+
+    private final List<MavenProject> projects = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(mavenSessionMock.getProjects()).thenReturn(projects);
+        when(mavenSessionMock.getAllProjects()).thenReturn(projects);
+        when(mavenSessionMock.getRequest()).thenReturn(mavenExecutionRequestMock);
+        when(mavenSessionMock.getGoals()).thenReturn(new ArrayList<>());
+    }
+
+    @Test
+    public void propertiesOnly() throws Exception {
+        MavenProject parent = addProject("parent", "pom", null, PARENT_PROPERTIES_AFTER);
+        MavenProject childA = addProject("child-a", "jar", parent, dependency("${foo.version}"));
+        addProject("child-b", "jar", parent, dependency("1"));
+        MavenProject childC = addProject("child-c", "jar", parent, dependency("${bar.version}"));
+        // redefines foo.version, so neither its own bar.version nor its children are affected
+        MavenProject aggregator = addProject("aggregator", "pom", parent, "<properties><foo.version>5</foo.version></properties>" + plugin("${bar.version}"));
+        addProject("child-d", "jar", aggregator, dependency("${foo.version}"));
+        // references foo.version, so all its children are affected
+        MavenProject aggregator2 = addProject("aggregator2", "pom", parent, plugin("${foo.version}"));
+        MavenProject childE = addProject("child-e", "jar", aggregator2, dependency("1"));
+        // does not reference anything itself, but its child does
+        MavenProject aggregator3 = addProject("aggregator3", "pom", parent, "");
+        MavenProject childF = addProject("child-f", "jar", aggregator3, dependency("${foo.version}"));
+        parent.setContextValue(ChangedProjects.CTX_POM_ONLY, Boolean.TRUE);
+        whenPreviousContent(parent, PARENT_PROPERTIES_BEFORE);
+
+        Set<MavenProject> result = underTest.addImpactedChildren(Collections.singleton(parent), config());
+
+        assertThat(result).containsExactlyInAnyOrder(parent, childA, childC, aggregator2, childE, childF);
+        assertThat(PropertyChanges.isPropertiesOnly(parent)).isTrue();
+        assertThat(ChangedProjects.isTestOnly(childA)).isFalse();
+    }
+
+    @Test
+    public void propertiesOnly_noReferences() throws Exception {
+        MavenProject parent = addProject("parent", "pom", null, PARENT_PROPERTIES_AFTER.replace("<baz>x</baz>", "<baz>y</baz>"));
+        addProject("child-a", "jar", parent, dependency("${foo.version}"));
+        parent.setContextValue(ChangedProjects.CTX_POM_ONLY, Boolean.TRUE);
+        whenPreviousContent(parent, PARENT_PROPERTIES_AFTER);
+
+        Set<MavenProject> result = underTest.addImpactedChildren(Collections.singleton(parent), config());
+
+        assertThat(result).containsExactly(parent);
+        assertThat(PropertyChanges.isPropertiesOnly(parent)).isTrue();
+    }
+
+    @Test
+    public void changesOutsideOfProperties() throws Exception {
+        MavenProject parent = addProject("parent", "pom", null, PARENT_PROPERTIES_AFTER);
+        addProject("child-a", "jar", parent, dependency("${foo.version}"));
+        parent.setContextValue(ChangedProjects.CTX_POM_ONLY, Boolean.TRUE);
+        whenPreviousContent(parent, PARENT_PROPERTIES_BEFORE + "<description>foo</description>");
+
+        Set<MavenProject> result = underTest.addImpactedChildren(Collections.singleton(parent), config());
+
+        assertThat(result).containsExactly(parent);
+        assertThat(PropertyChanges.isPropertiesOnly(parent)).isFalse();
+    }
+
+    @Test
+    public void parentReferencesChangedProperty() throws Exception {
+        String dependencyManagement = "<dependencyManagement>" + dependency("${bar.version}") + "</dependencyManagement>";
+        MavenProject parent = addProject("parent", "pom", null, PARENT_PROPERTIES_AFTER + dependencyManagement);
+        addProject("child-a", "jar", parent, "");
+        parent.setContextValue(ChangedProjects.CTX_POM_ONLY, Boolean.TRUE);
+        whenPreviousContent(parent, PARENT_PROPERTIES_BEFORE + dependencyManagement);
+
+        Set<MavenProject> result = underTest.addImpactedChildren(Collections.singleton(parent), config());
+
+        assertThat(result).containsExactly(parent);
+        assertThat(PropertyChanges.isPropertiesOnly(parent)).isFalse();
+    }
+
+    @Test
+    public void noPreviousContent() throws Exception {
+        MavenProject parent = addProject("parent", "pom", null, PARENT_PROPERTIES_AFTER);
+        addProject("child-a", "jar", parent, "");
+        parent.setContextValue(ChangedProjects.CTX_POM_ONLY, Boolean.TRUE);
+        when(differentFilesMock.getPreviousContent(any(Configuration.class), eq(parent.getFile().toPath()))).thenReturn(Optional.empty());
+
+        Set<MavenProject> result = underTest.addImpactedChildren(Collections.singleton(parent), config());
+
+        assertThat(result).containsExactly(parent);
+        assertThat(PropertyChanges.isPropertiesOnly(parent)).isFalse();
+    }
+
+    @Test
+    public void invalidPreviousContent() throws Exception {
+        MavenProject parent = addProject("parent", "pom", null, PARENT_PROPERTIES_AFTER);
+        addProject("child-a", "jar", parent, "");
+        parent.setContextValue(ChangedProjects.CTX_POM_ONLY, Boolean.TRUE);
+        when(differentFilesMock.getPreviousContent(any(Configuration.class), eq(parent.getFile().toPath()))).thenReturn(Optional.of("<project>"));
+
+        Set<MavenProject> result = underTest.addImpactedChildren(Collections.singleton(parent), config());
+
+        assertThat(result).containsExactly(parent);
+        assertThat(PropertyChanges.isPropertiesOnly(parent)).isFalse();
+    }
+
+    @Test
+    public void notOnlyPomChanged() throws Exception {
+        MavenProject parent = addProject("parent", "pom", null, PARENT_PROPERTIES_AFTER);
+        MavenProject child = addProject("child-a", "jar", parent, "");
+        parent.setContextValue(ChangedProjects.CTX_POM_ONLY, Boolean.FALSE);
+        child.setContextValue(ChangedProjects.CTX_POM_ONLY, Boolean.TRUE);
+
+        Set<MavenProject> result = underTest.addImpactedChildren(Set.of(parent, child), config());
+
+        assertThat(result).containsExactlyInAnyOrder(parent, child);
+        assertThat(PropertyChanges.isPropertiesOnly(parent)).isFalse();
+        verifyNoInteractions(differentFilesMock);
+    }
+
+    private MavenProject addProject(String artifactId, String packaging, MavenProject parent, String content) throws IOException, XmlPullParserException {
+        Path pom = Files.createDirectories(tempDir.resolve(artifactId)).resolve("pom.xml");
+        Files.write(pom, pomXml(artifactId, packaging, content).getBytes(StandardCharsets.UTF_8));
+        Model model = new MavenXpp3Reader().read(new StringReader(pomXml(artifactId, packaging, content)));
+        MavenProject project = new MavenProject(model.clone());
+        project.setOriginalModel(model);
+        project.setFile(pom.toFile());
+        project.setParent(parent);
+        projects.add(project);
+        if (parent == null) {
+            when(mavenSessionMock.getCurrentProject()).thenReturn(project);
+        }
+        return project;
+    }
+
+    private void whenPreviousContent(MavenProject project, String content) {
+        when(differentFilesMock.getPreviousContent(any(Configuration.class), eq(project.getFile().toPath())))
+                .thenReturn(Optional.of(pomXml(project.getArtifactId(), project.getPackaging(), content)));
+    }
+
+    private static String pomXml(String artifactId, String packaging, String content) {
+        return "<project><modelVersion>4.0.0</modelVersion><groupId>io.github.gitflow-incremental-builder</groupId>"
+                + "<artifactId>" + artifactId + "</artifactId><version>0.0.1</version><packaging>" + packaging + "</packaging>"
+                + content + "</project>";
+    }
+
+    private static String dependency(String version) {
+        return "<dependencies><dependency><groupId>org.example</groupId><artifactId>foo</artifactId><version>" + version + "</version></dependency>"
+                + "</dependencies>";
+    }
+
+    private static String plugin(String value) {
+        return "<build><plugins><plugin><artifactId>maven-foo-plugin</artifactId><configuration><foo>" + value + "</foo></configuration></plugin>"
+                + "</plugins></build>";
+    }
+
+    private Configuration config() {
+        return new Configuration(mavenSessionMock);
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.gitflowincrementalbuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link ReactorLoader}.
+ */
+class ReactorLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void load() throws IOException {
+        writePom("external-parent", "<groupId>org.example</groupId><artifactId>external-parent</artifactId><version>1</version>"
+                + "<properties><foo.version>1.2.3</foo.version></properties>");
+        writePom("root", "<parent><groupId>org.example</groupId><artifactId>external-parent</artifactId><version>1</version>"
+                + "<relativePath>../external-parent</relativePath></parent>"
+                + "<groupId>org.example.app</groupId><artifactId>root</artifactId><version>${revision}</version><packaging>pom</packaging>"
+                + "<properties><revision>2.0-SNAPSHOT</revision></properties>"
+                + "<modules><module>a</module><module>b/pom.xml</module></modules>"
+                + "<dependencyManagement><dependencies><dependency><groupId>org.example</groupId><artifactId>foo</artifactId>"
+                + "<version>${foo.version}</version><scope>test</scope></dependency></dependencies></dependencyManagement>");
+        writePom("root/a", parent("root") + "<artifactId>a</artifactId>"
+                + "<dependencies><dependency><groupId>org.example</groupId><artifactId>foo</artifactId></dependency></dependencies>");
+        writePom("root/b", parent("root") + "<artifactId>b</artifactId>"
+                + "<dependencies><dependency><groupId>${project.groupId}</groupId><artifactId>a</artifactId><version>${project.version}</version>"
+                + "</dependency></dependencies>");
+
+        List<MavenProject> projects = load(Collections.emptySet());
+
+        assertThat(projects).extracting(MavenProject::getId).containsExactly(
+                "org.example.app:root:pom:2.0-SNAPSHOT", "org.example.app:a:jar:2.0-SNAPSHOT", "org.example.app:b:jar:2.0-SNAPSHOT");
+        MavenProject root = projects.get(0);
+        assertThat(root.isExecutionRoot()).isTrue();
+        assertThat(root.getParent().getArtifactId()).isEqualTo("external-parent");
+        assertThat(root.getOriginalModel().getVersion()).isEqualTo("${revision}");
+        assertThat(projects.get(1).getParent()).isSameAs(root);
+        assertThat(projects.get(1).getProperties()).containsEntry("foo.version", "1.2.3");
+        Dependency managedDependency = projects.get(1).getDependencies().get(0);
+        assertThat(managedDependency.getVersion()).isEqualTo("1.2.3");
+        assertThat(managedDependency.getScope()).isEqualTo("test");
+        assertThat(projects.get(2).getDependencies()).extracting(Dependency::getGroupId, Dependency::getVersion)
+                .containsExactly(tuple("org.example.app", "2.0-SNAPSHOT"));
+        assertThat(projects.get(2).getBasedir().toPath()).isEqualTo(tempDir.resolve("root/b"));
+    }
+
+    @Test
+    public void load_profiles() throws IOException {
+        writePom("root", "<groupId>org.example.app</groupId><artifactId>root</artifactId><version>1</version><packaging>pom</packaging>"
+                + "<profiles>"
+                + "<profile><id>default</id><activation><activeByDefault>true</activeByDefault></activation><modules><module>a</module></modules></profile>"
+                + "<profile><id>extra</id><modules><module>b</module></modules></profile>"
+                + "</profiles>");
+        writePom("root/a", parent("root") + "<artifactId>a</artifactId>");
+        writePom("root/b", parent("root") + "<artifactId>b</artifactId>");
+
+        assertThat(load(Collections.emptySet())).extracting(MavenProject::getArtifactId).containsExactly("root", "a");
+        // explicitly activating another profile deactivates the default one
+        assertThat(load(Set.of("extra"))).extracting(MavenProject::getArtifactId).containsExactly("root", "b");
+    }
+
+    @Test
+    public void load_bomImport() throws IOException {
+        writePom("root", "<groupId>org.example.app</groupId><artifactId>root</artifactId><version>1</version><packaging>pom</packaging>"
+                + "<modules><module>a</module><module>bom</module></modules>");
+        // a is declared before the BOM it imports
+        writePom("root/a", "<parent><groupId>org.example.app</groupId><artifactId>root</artifactId><version>1</version></parent>"
+                + "<artifactId>a</artifactId>"
+                + "<dependencyManagement><dependencies>"
+                + "<dependency><groupId>org.example</groupId><artifactId>bar</artifactId><version>2</version></dependency>"
+                + "<dependency><groupId>${project.groupId}</groupId><artifactId>bom</artifactId><version>${project.version}</version>"
+                + "<type>pom</type><scope>import</scope></dependency>"
+                + "</dependencies></dependencyManagement>"
+                + "<dependencies><dependency><groupId>org.example</groupId><artifactId>foo</artifactId></dependency>"
+                + "<dependency><groupId>org.example</groupId><artifactId>bar</artifactId></dependency></dependencies>");
+        writePom("root/bom", "<parent><groupId>org.example.app</groupId><artifactId>root</artifactId><version>1</version></parent>"
+                + "<artifactId>bom</artifactId><packaging>pom</packaging>"
+                + "<dependencyManagement><dependencies>"
+                + "<dependency><groupId>org.example</groupId><artifactId>foo</artifactId><version>1.0</version><scope>runtime</scope></dependency>"
+                + "<dependency><groupId>org.example</groupId><artifactId>bar</artifactId><version>1.0</version></dependency>"
+                + "</dependencies></dependencyManagement>");
+
+        MavenProject a = load(Collections.emptySet()).get(1);
+
+        assertThat(a.getDependencies()).extracting(Dependency::getArtifactId, Dependency::getVersion, Dependency::getScope)
+                .containsExactly(tuple("foo", "1.0", "runtime"), tuple("bar", "2", null));
+        assertThat(a.getDependencyManagement().getDependencies()).extracting(Dependency::getArtifactId).containsExactly("bar", "foo");
+        // the import is retained in the original model (e.g. for DownstreamCalculator)
+        assertThat(a.getOriginalModel().getDependencyManagement().getDependencies()).extracting(Dependency::getScope).contains("import");
+    }
+
+    @Test
+    public void load_missingModule() throws IOException {
+        writePom("root", "<groupId>org.example</groupId><artifactId>root</artifactId><version>1</version><packaging>pom</packaging>"
+                + "<modules><module>missing</module></modules>");
+
+        assertThatIllegalStateException().isThrownBy(() -> load(Collections.emptySet())).withMessageContaining("missing");
+    }
+
+    private List<MavenProject> load(Set<String> activeProfiles) throws IOException {
+        return new ReactorLoader(new Properties(), activeProfiles).load(tempDir.resolve("root/pom.xml"));
+    }
+
+    private void writePom(String dir, String content) throws IOException {
+        Path pom = Files.createDirectories(tempDir.resolve(dir)).resolve("pom.xml");
+        Files.write(pom, ("<project><modelVersion>4.0.0</modelVersion>" + content + "</project>").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String parent(String artifactId) {
+        return "<parent><groupId>org.example.app</groupId><artifactId>" + artifactId + "</artifactId><version>${revision}</version></parent>";
+    }
+}
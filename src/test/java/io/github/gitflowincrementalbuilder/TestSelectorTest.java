@@ -0,0 +1,160 @@
+package io.github.gitflowincrementalbuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link TestSelector}.
+ */
+class TestSelectorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final TestSelector underTest = new TestSelector();
+
+    private MavenProject changed;
+    private MavenProject downstream;
+
+    @BeforeEach
+    void before() throws IOException {
+        changed = createProject("changed");
+        downstream = createProject("downstream");
+        Path changedClasses = ClassDependencyIndexTest.compile(mainSourceDir(changed), classesDir(changed), Map.of(
+                "c/Api.java", "package c; public class Api {}",
+                "c/Unused.java", "package c; public class Unused {}"));
+        Path downstreamClasses = ClassDependencyIndexTest.compile(mainSourceDir(downstream), classesDir(downstream), Map.of(
+                "d/Service.java", "package d; public class Service { c.Api api; }"), changedClasses);
+        ClassDependencyIndexTest.compile(testSourceDir(downstream), testClassesDir(downstream), Map.of(
+                "d/ServiceTest.java", "package d; public class ServiceTest { Service service; class Nested {} }",
+                "d/PlainTest.java", "package d; public class PlainTest {}"), changedClasses, downstreamClasses);
+    }
+
+    @Test
+    public void select() {
+        setChangedFiles(mainSourceDir(changed).resolve("c/Api.java"));
+
+        underTest.select(Set.of(changed), List.of(downstream));
+
+        assertThat(downstream.getProperties()).containsOnly(
+                Map.entry(TestSelector.SUREFIRE_TEST, "d/ServiceTest.java"),
+                Map.entry(TestSelector.SUREFIRE_FAIL_IF_NO_SPECIFIED_TESTS, "false"));
+    }
+
+    @Test
+    public void select_changedTestClass() throws IOException {
+        ClassDependencyIndexTest.compile(testSourceDir(changed), testClassesDir(changed), Map.of(
+                "c/ApiTestSupport.java", "package c; public class ApiTestSupport {}"));
+        ClassDependencyIndexTest.compile(testSourceDir(downstream), testClassesDir(downstream), Map.of(
+                "d/SupportedTest.java", "package d; public class SupportedTest { c.ApiTestSupport support; }"), testClassesDir(changed));
+        setChangedFiles(testSourceDir(changed).resolve("c/ApiTestSupport.java"));
+
+        underTest.select(Set.of(changed), List.of(downstream));
+
+        assertThat(downstream.getProperties()).containsEntry(TestSelector.SUREFIRE_TEST, "d/SupportedTest.java");
+    }
+
+    @Test
+    public void select_noTestAffected() {
+        setChangedFiles(mainSourceDir(changed).resolve("c/Unused.java"));
+
+        underTest.select(Set.of(changed), List.of(downstream));
+
+        assertThat(downstream.getProperties()).isEmpty();
+    }
+
+    @Test
+    public void select_changedConstant() throws IOException {
+        ClassDependencyIndexTest.compile(mainSourceDir(changed), classesDir(changed), Map.of(
+                "c/Constants.java", "package c; public class Constants { public static final int LIMIT = 1; }"));
+        ClassDependencyIndexTest.compile(testSourceDir(downstream), testClassesDir(downstream), Map.of(
+                "d/LimitTest.java", "package d; public class LimitTest { int limit = c.Constants.LIMIT; }"), classesDir(changed));
+        setChangedFiles(mainSourceDir(changed).resolve("c/Api.java"), mainSourceDir(changed).resolve("c/Constants.java"));
+
+        underTest.select(Set.of(changed), List.of(downstream));
+
+        assertThat(downstream.getProperties()).isEmpty();
+    }
+
+    @Test
+    public void select_nonJavaSourceFile() {
+        setChangedFiles(mainSourceDir(changed).resolve("c/Api.java"), mainSourceDir(changed).resolve("META-INF/services/c.Api"));
+
+        underTest.select(Set.of(changed), List.of(downstream));
+
+        assertThat(downstream.getProperties()).isEmpty();
+    }
+
+    @Test
+    public void select_nonSourceChange() {
+        setChangedFiles(mainSourceDir(changed).resolve("c/Api.java"), changed.getBasedir().toPath().resolve("pom.xml"));
+
+        underTest.select(Set.of(changed), List.of(downstream));
+
+        assertThat(downstream.getProperties()).isEmpty();
+    }
+
+    @Test
+    public void select_unknownChanges() {
+        underTest.select(Set.of(changed), List.of(downstream));
+
+        assertThat(downstream.getProperties()).isEmpty();
+    }
+
+    @Test
+    public void select_noPreviousBuild() {
+        setChangedFiles(mainSourceDir(changed).resolve("c/Api.java"));
+        downstream.getBuild().setTestOutputDirectory(tempDir.resolve("missing").toString());
+
+        underTest.select(Set.of(changed), List.of(downstream));
+
+        assertThat(downstream.getProperties()).isEmpty();
+    }
+
+    private MavenProject createProject(String name) {
+        Path baseDir = tempDir.resolve(name);
+        MavenProject project = new MavenProject();
+        project.setArtifactId(name);
+        project.setFile(baseDir.resolve("pom.xml").toFile());
+        Build build = new Build();
+        build.setDirectory(baseDir.resolve("target").toString());
+        build.setOutputDirectory(baseDir.resolve("target/classes").toString());
+        build.setTestOutputDirectory(baseDir.resolve("target/test-classes").toString());
+        project.setBuild(build);
+        project.addCompileSourceRoot(baseDir.resolve("src/main/java").toString());
+        project.addTestCompileSourceRoot(baseDir.resolve("src/test/java").toString());
+        return project;
+    }
+
+    private void setChangedFiles(Path... files) {
+        changed.setContextValue(ChangedProjects.CTX_CHANGED_FILES, new HashSet<>(List.of(files)));
+    }
+
+    private static Path mainSourceDir(MavenProject project) {
+        return Path.of(project.getCompileSourceRoots().get(0));
+    }
+
+    private static Path testSourceDir(MavenProject project) {
+        return Path.of(project.getTestCompileSourceRoots().get(0));
+    }
+
+    private static Path classesDir(MavenProject project) {
+        return Path.of(project.getBuild().getOutputDirectory());
+    }
+
+    private static Path testClassesDir(MavenProject project) {
+        return Path.of(project.getBuild().getTestOutputDirectory());
+    }
+}
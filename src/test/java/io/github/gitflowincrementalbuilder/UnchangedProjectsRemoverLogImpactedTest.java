@@ -3,13 +3,23 @@ package io.github.gitflowincrementalbuilder;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 import org.apache.maven.project.MavenProject;
@@ -25,7 +35,7 @@ import io.github.gitflowincrementalbuilder.jgit.GitProvider;
 
 /**
  * Tests {@link UnchangedProjectsRemover} with Mockito mocks in context of {@link Property#logImpactedTo}
- * and {@link Property#logImpactedGavTo}.
+ * and {@link Property#logImpactedGavTo} (incl. {@link Property#logImpactedShards}).
  */
 public class UnchangedProjectsRemoverLogImpactedTest extends BaseUnchangedProjectsRemoverTest {
 
@@ -250,6 +260,159 @@ public class UnchangedProjectsRemoverLogImpactedTest extends BaseUnchangedProjec
         }
     }
 
+    @Nested
+    class AdditionalReferenceBranches {
+
+        private static final String RELEASE_BRANCH = "refs/remotes/origin/release/1.x";
+        private static final String MAIN_BRANCH = "refs/heads/main";
+
+        private Path releaseLogFilePath;
+        private Path mainLogFilePath;
+
+        @BeforeEach
+        void beforeAdditional() {
+            addGibProperty(Property.additionalReferenceBranches, RELEASE_BRANCH + "," + MAIN_BRANCH);
+            releaseLogFilePath = tempDir.resolve("impacted-release_1.x.log");
+            mainLogFilePath = tempDir.resolve("impacted-main.log");
+        }
+
+        @Test
+        public void changed() throws IOException {
+            MavenProject changedModuleMock = addModuleMock(AID_MODULE_B, true);
+            MavenProject dependentModuleMock = addModuleMock(AID_MODULE_C, false);
+            setUpstreamProjects(dependentModuleMock, changedModuleMock, moduleA);
+            setDownstreamProjectsNonTransitive(changedModuleMock, dependentModuleMock);
+            stubAdditionalReferences(Map.of(RELEASE_BRANCH, Set.of(changedModuleMock), MAIN_BRANCH, Set.of()));
+
+            underTest.act(config());
+
+            assertPathLogFileContains(logFilePath, changedModuleMock, dependentModuleMock);
+            assertPathLogFileContains(releaseLogFilePath, changedModuleMock, dependentModuleMock);
+            assertPathLogFileContains(mainLogFilePath);
+        }
+
+        @Test
+        public void withoutLogImpactedTo() throws IOException {
+            addGibProperty(Property.logImpactedTo, "");
+            addModuleMock(AID_MODULE_B, true);
+
+            underTest.act(config());
+
+            verify(changedProjectsMock, never()).get(any(Configuration.class), any());
+            assertThat(releaseLogFilePath).doesNotExist();
+        }
+
+        @Test
+        public void skipExecutionException() throws IOException {
+            addModuleMock(AID_MODULE_B, true);
+            Files.createFile(releaseLogFilePath);
+            Configuration config = config();
+            doThrow(new SkipExecutionException("deliberate test exception")).when(changedProjectsMock).get(eq(config), any());
+
+            assertThatThrownBy(() -> underTest.act(config)).isInstanceOf(SkipExecutionException.class);
+
+            assertThat(releaseLogFilePath).doesNotExist();
+        }
+
+        private void stubAdditionalReferences(Map<String, Set<MavenProject>> changedPerReference) {
+            doAnswer(invocation -> {
+                BiConsumer<String, Set<MavenProject>> consumer = invocation.getArgument(1);
+                changedPerReference.forEach(consumer);
+                return changedProjects;
+            }).when(changedProjectsMock).get(any(Configuration.class), any());
+        }
+    }
+
+    @Nested
+    class Shards {
+
+        private Path shard1LogFilePath;
+        private Path shard2LogFilePath;
+
+        @BeforeEach
+        void beforeShards() {
+            addGibProperty(Property.logImpactedShards, "2");
+            shard1LogFilePath = tempDir.resolve("impacted-shard-1.log");
+            shard2LogFilePath = tempDir.resolve("impacted-shard-2.log");
+        }
+
+        @Test
+        public void withoutDurations() throws IOException {
+            MavenProject changedModuleMockB = addModuleMock(AID_MODULE_B, true);
+            MavenProject changedModuleMockC = addModuleMock(AID_MODULE_C, true);
+            MavenProject changedModuleMockD = addModuleMock(AID_MODULE_D, true);
+
+            underTest.act(config());
+
+            assertPathLogFileContains(logFilePath, changedModuleMockB, changedModuleMockC, changedModuleMockD);
+            assertPathLogFileContains(shard1LogFilePath, changedModuleMockB, changedModuleMockD);
+            assertPathLogFileContains(shard2LogFilePath, changedModuleMockC);
+        }
+
+        @Test
+        public void withDurations() throws IOException {
+            MavenProject changedModuleMockB = addModuleMock(AID_MODULE_B, true);
+            MavenProject changedModuleMockC = addModuleMock(AID_MODULE_C, true);
+            MavenProject changedModuleMockD = addModuleMock(AID_MODULE_D, true);
+            writeDurations(changedModuleMockB, 100, changedModuleMockC, 10, changedModuleMockD, 10);
+
+            underTest.act(config());
+
+            assertPathLogFileContains(shard1LogFilePath, changedModuleMockB);
+            assertPathLogFileContains(shard2LogFilePath, changedModuleMockC, changedModuleMockD);
+        }
+
+        @Test
+        public void withImpactedUpstream() throws IOException {
+            MavenProject changedModuleMockB = addModuleMock(AID_MODULE_B, true);
+            MavenProject dependentModuleMockC = addModuleMock(AID_MODULE_C, false);
+            MavenProject changedModuleMockD = addModuleMock(AID_MODULE_D, true);
+            setUpstreamProjects(dependentModuleMockC, changedModuleMockB, moduleA);
+            setDownstreamProjectsNonTransitive(changedModuleMockB, dependentModuleMockC);
+            writeDurations(changedModuleMockB, 10, dependentModuleMockC, 100, changedModuleMockD, 50);
+
+            underTest.act(config());
+
+            // C needs B, which is impacted as well and therefore not available from any repository
+            assertPathLogFileContains(shard1LogFilePath, changedModuleMockB, dependentModuleMockC);
+            assertPathLogFileContains(shard2LogFilePath, changedModuleMockD);
+        }
+
+        @Test
+        public void moreShardsThanProjects() throws IOException {
+            addGibProperty(Property.logImpactedShards, "3");
+            MavenProject changedModuleMock = addModuleMock(AID_MODULE_B, true);
+
+            underTest.act(config());
+
+            assertPathLogFileContains(shard1LogFilePath, changedModuleMock);
+            assertPathLogFileContains(shard2LogFilePath);
+            assertPathLogFileContains(tempDir.resolve("impacted-shard-3.log"));
+        }
+
+        @Test
+        public void withoutLogImpactedTo() throws IOException {
+            addGibProperty(Property.logImpactedTo, "");
+            addModuleMock(AID_MODULE_B, true);
+
+            underTest.act(config());
+
+            verify(shardPlanner, never()).plan(any(), anyInt(), any(Configuration.class));
+            assertThat(shard1LogFilePath).doesNotExist();
+        }
+
+        private void writeDurations(Object... projectsAndDurations) throws IOException {
+            Path durationsFile = tempDir.resolve("durations.txt");
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < projectsAndDurations.length; i += 2) {
+                MavenProject project = (MavenProject) projectsAndDurations[i];
+                lines.add(project.getGroupId() + ":" + project.getArtifactId() + "=" + projectsAndDurations[i + 1]);
+            }
+            Files.write(durationsFile, lines);
+            addGibProperty(Property.moduleDurationsFile, durationsFile.toString());
+        }
+    }
+
     private void assertPathLogFileContains(Path logFilePath, MavenProject... mavenProjects) throws IOException {
         assertThat(Files.isReadable(logFilePath))
                 .as(logFilePath + " is missing")
@@ -0,0 +1,87 @@
+package io.github.gitflowincrementalbuilder;
+
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.gitflowincrementalbuilder.config.Property;
+
+/**
+ * Tests {@link UnchangedProjectsRemover} with Mockito mocks in context of {@link Property#projectOrder}.
+ */
+public class UnchangedProjectsRemoverProjectOrderTest extends BaseUnchangedProjectsRemoverTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MavenProject changedModuleMockB;
+    private MavenProject dependentModuleMockC;
+    private MavenProject changedModuleMockD;
+
+    @BeforeEach
+    void beforeThis() {
+        changedModuleMockB = addModuleMock(AID_MODULE_B, true);
+        dependentModuleMockC = addModuleMock(AID_MODULE_C, false);
+        changedModuleMockD = addModuleMock(AID_MODULE_D, true);
+        setUpstreamProjects(dependentModuleMockC, changedModuleMockB, moduleA);
+        setDownstreamProjectsNonTransitive(changedModuleMockB, dependentModuleMockC);
+    }
+
+    @Test
+    public void reactor() throws IOException {
+        writeDurations(10, 100, 200);
+
+        underTest.act(config());
+
+        verify(mavenSessionMock).setProjects(Arrays.asList(changedModuleMockB, dependentModuleMockC, changedModuleMockD));
+    }
+
+    @Test
+    public void criticalPath() throws IOException {
+        addGibProperty(Property.projectOrder, "critical_path");
+        writeDurations(10, 100, 200);
+
+        underTest.act(config());
+
+        // D (200) is longer than B + C (110)
+        verify(mavenSessionMock).setProjects(Arrays.asList(changedModuleMockD, changedModuleMockB, dependentModuleMockC));
+    }
+
+    @Test
+    public void criticalPath_downstreamWork() throws IOException {
+        addGibProperty(Property.projectOrder, "critical_path");
+        writeDurations(1, 1000, 200);
+
+        underTest.act(config());
+
+        // B is short, but C depends on it (B + C = 1001), still B has to be built before C
+        verify(mavenSessionMock).setProjects(Arrays.asList(changedModuleMockB, dependentModuleMockC, changedModuleMockD));
+    }
+
+    @Test
+    public void criticalPath_withoutDurations() {
+        addGibProperty(Property.projectOrder, "critical_path");
+
+        underTest.act(config());
+
+        // B + C is the longest chain, ties (C and D) retain the reactor order
+        verify(mavenSessionMock).setProjects(Arrays.asList(changedModuleMockB, dependentModuleMockC, changedModuleMockD));
+    }
+
+    private void writeDurations(long durationB, long durationC, long durationD) throws IOException {
+        Path durationsFile = tempDir.resolve("durations.txt");
+        Files.write(durationsFile, Arrays.asList(
+                changedModuleMockB.getGroupId() + ":" + AID_MODULE_B + "=" + durationB,
+                dependentModuleMockC.getGroupId() + ":" + AID_MODULE_C + "=" + durationC,
+                changedModuleMockD.getGroupId() + ":" + AID_MODULE_D + "=" + durationD));
+        addGibProperty(Property.moduleDurationsFile, durationsFile.toString());
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.gitflowincrementalbuilder;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -215,6 +216,26 @@ public class UnchangedProjectsRemoverTest extends BaseUnchangedProjectsRemoverTe
         assertProjectPropertiesEqual(dependsOnBothModuleMock);
     }
 
+    @Test
+    public void singleChanged_buildUpstream_modeChanged_reuseUpstreamArtifacts() {
+        MavenProject changedModuleMock = addModuleMock(AID_MODULE_B, true);
+        MavenProject unchangedModuleMock = addModuleMock("unchanged-module", false);
+        MavenProject dependsOnBothModuleMock = addModuleMock("changed-and-unchanged-dependent", false);
+
+        when(mavenExecutionRequestMock.getMakeBehavior()).thenReturn(MavenExecutionRequest.REACTOR_MAKE_UPSTREAM);
+        when(prebuiltArtifacts.findReusable(any(), any())).thenReturn(Collections.singleton(moduleA));
+
+        setUpAndDownstreamsForBuildUpstreamModeTests(changedModuleMock, unchangedModuleMock, dependsOnBothModuleMock);
+
+        addGibProperty(Property.buildUpstreamMode, "changed");
+        addGibProperty(Property.reuseUpstreamArtifacts, "true");
+
+        underTest.act(config());
+
+        verify(mavenSessionMock).setProjects(Arrays.asList(changedModuleMock, dependsOnBothModuleMock));
+        verify(prebuiltArtifacts).register(any());
+    }
+
     @Test
     public void singleChanged_buildUpstream_modeChanged_argsForUpstreamModules() {
         MavenProject changedModuleMock = addModuleMock(AID_MODULE_B, true);
@@ -337,6 +358,34 @@ public class UnchangedProjectsRemoverTest extends BaseUnchangedProjectsRemoverTe
         assertProjectPropertiesEqual(dependsOnIntermediateModuleMock);
     }
 
+    // common upstream: A <- B <- C, A <- B <- D
+    @Test
+    public void singleChanged_buildUpstream_modeImpacted_commonUpstream() {
+        MavenProject changedModuleMock = addModuleMock(AID_MODULE_B, true);
+        MavenProject dependentModuleMock = addModuleMock(AID_MODULE_C, false);
+        MavenProject otherDependentModuleMock = addModuleMock(AID_MODULE_D, false);
+
+        when(mavenExecutionRequestMock.getMakeBehavior()).thenReturn(MavenExecutionRequest.REACTOR_MAKE_UPSTREAM);
+
+        setUpstreamProjects(dependentModuleMock, changedModuleMock);
+        setUpstreamProjects(otherDependentModuleMock, changedModuleMock);
+        setDownstreamProjectsNonTransitive(changedModuleMock, dependentModuleMock, otherDependentModuleMock);
+
+        addGibProperty(Property.buildUpstreamMode, "impacted");
+        addGibProperty(Property.argsForUpstreamModules, "foo=bar");
+
+        underTest.act(config());
+
+        verify(mavenSessionMock).setProjects(Arrays.asList(moduleA, changedModuleMock, dependentModuleMock, otherDependentModuleMock));
+
+        assertProjectPropertiesEqual(moduleA, "foo", "bar");
+        assertProjectPropertiesEqual(changedModuleMock);
+        // each module is visited once, instead of walking the upstream modules of each impacted module separately
+        verify(projectDependencyGraphMock).getUpstreamProjects(changedModuleMock, false);
+        verify(projectDependencyGraphMock).getUpstreamProjects(moduleA, false);
+        verify(projectDependencyGraphMock, never()).getUpstreamProjects(any(MavenProject.class), eq(true));
+    }
+
     @Test
     public void singleChanged_buildAll_argsForUpstreamModules() {
         MavenProject changedModuleMock = addModuleMock(AID_MODULE_B, true);
@@ -590,6 +639,26 @@ public class UnchangedProjectsRemoverTest extends BaseUnchangedProjectsRemoverTe
         verify(dependentModuleMock, never()).getDependencies();
     }
 
+    @Test
+    public void singleChanged_buildDownstream_parent_propertiesOnly() {
+        MavenProject changedModuleMock = addModuleMock(AID_MODULE_B, true);
+        MavenProject dependentModuleMock = addModuleMock(AID_MODULE_B + "-dependent-jar", false);
+        MavenProject transitiveDependentModuleMock = addModuleMock(AID_MODULE_B + "-dependent-jar-transitive", false);
+
+        setUpAndDownstreamsForThreeChainedModules(changedModuleMock, dependentModuleMock, transitiveDependentModuleMock);
+
+        // buildDownstream is enabled by default!
+
+        when(dependentModuleMock.getDependencies()).thenReturn(Collections.emptyList());
+        when(changedModuleMock.getPackaging()).thenReturn("pom");
+        when(changedModuleMock.getContextValue(PropertyChanges.CTX_PROPERTIES_ONLY)).thenReturn(Boolean.TRUE);
+        when(dependentModuleMock.getParent()).thenReturn(changedModuleMock);
+
+        underTest.act(config());
+
+        verify(mavenSessionMock).setProjects(Collections.singletonList(changedModuleMock));
+    }
+
     @Test
     public void singleChanged_buildDownstream_parent_logNone() {
         addGibProperty(Property.logProjectsMode, "none");
@@ -643,6 +712,22 @@ public class UnchangedProjectsRemoverTest extends BaseUnchangedProjectsRemoverTe
         inOrder.verify(loggerSpy).info("- module-A");
     }
 
+    @Test
+    public void singleChanged_buildDownstream_parent_logAnalysisFootprint() {
+        addGibProperty(Property.logAnalysisFootprint, "true");
+
+        singleChanged_buildDownstream_parent();
+
+        verify(loggerSpy).info(eq("Analysis of {} modules took {} ms and retained {} KiB"), eq(4), any(), any());
+    }
+
+    @Test
+    public void singleChanged_buildDownstream_parent_logAnalysisFootprint_default() {
+        singleChanged_buildDownstream_parent();
+
+        verify(loggerSpy, never()).info(eq("Analysis of {} modules took {} ms and retained {} KiB"), any(), any(), any());
+    }
+
     @Test
     public void singleChanged_buildDownstream_noDep() {
         MavenProject changedModuleMock = addModuleMock(AID_MODULE_B, true);
@@ -664,6 +749,32 @@ public class UnchangedProjectsRemoverTest extends BaseUnchangedProjectsRemoverTe
         verify(dependentModuleMock).getDependencies();
     }
 
+    @Test
+    public void singleChanged_buildDownstream_fanOut() {
+        MavenProject changedModuleMock = addModuleMock(AID_MODULE_B, true);
+        // many dependents sharing the closure of the same transitive dependent
+        MavenProject[] dependentModuleMocks = new MavenProject[40];
+        for (int i = 0; i < dependentModuleMocks.length; i++) {
+            dependentModuleMocks[i] = addModuleMock(AID_MODULE_B + "-dependent-" + i, false);
+        }
+        MavenProject transitiveDependentModuleMock = addModuleMock(AID_MODULE_B + "-dependent-transitive", false);
+        MavenProject unrelatedModuleMock = addModuleMock(AID_MODULE_C, false);
+
+        setDownstreamProjectsNonTransitive(changedModuleMock, dependentModuleMocks);
+        for (MavenProject dependentModuleMock : dependentModuleMocks) {
+            setDownstreamProjectsNonTransitive(dependentModuleMock, transitiveDependentModuleMock);
+        }
+
+        underTest.act(config());
+
+        MavenProject[] expected = new MavenProject[dependentModuleMocks.length + 2];
+        expected[0] = changedModuleMock;
+        System.arraycopy(dependentModuleMocks, 0, expected, 1, dependentModuleMocks.length);
+        expected[expected.length - 1] = transitiveDependentModuleMock;
+        verify(mavenSessionMock).setProjects(Arrays.asList(expected));
+        verify(unrelatedModuleMock, never()).getDependencies();
+    }
+
     @Test
     public void singleChanged_buildDownstream_argsForDownstreamModules() {
         MavenProject changedModuleMock = addModuleMock(AID_MODULE_B, true);
@@ -683,6 +794,54 @@ public class UnchangedProjectsRemoverTest extends BaseUnchangedProjectsRemoverTe
         assertProjectPropertiesEqual(dependentModuleMock, "foo", "bar", "baz", "bing");
     }
 
+    @Test
+    public void singleChanged_buildDownstream_selectTestsForDownstreamModules() {
+        MavenProject changedModuleMock = addModuleMock(AID_MODULE_B, true);
+        MavenProject dependentModuleMock = addModuleMock(AID_MODULE_B + "-dependent-jar", false);
+
+        setUpstreamProjects(dependentModuleMock, changedModuleMock, moduleA);
+        setDownstreamProjectsNonTransitive(changedModuleMock, dependentModuleMock);
+
+        addGibProperty(Property.selectTestsForDownstreamModules, "true");
+
+        underTest.act(config());
+
+        verify(mavenSessionMock).setProjects(Arrays.asList(changedModuleMock, dependentModuleMock));
+        verify(testSelector).select(Collections.singleton(changedModuleMock), Collections.singletonList(dependentModuleMock));
+    }
+
+    @Test
+    public void singleChanged_buildDownstream_downstreamAbiMode() {
+        MavenProject changedModuleMock = addModuleMock(AID_MODULE_B, true);
+        MavenProject dependentModuleMock = addModuleMock(AID_MODULE_B + "-dependent-jar", false);
+
+        setUpstreamProjects(dependentModuleMock, changedModuleMock, moduleA);
+        setDownstreamProjectsNonTransitive(changedModuleMock, dependentModuleMock);
+
+        addGibProperty(Property.downstreamAbiMode, "test");
+
+        underTest.act(config());
+
+        verify(mavenSessionMock).setProjects(Arrays.asList(changedModuleMock, dependentModuleMock));
+        verify(abiTracker).register(eq(Collections.singleton(changedModuleMock)), eq(Collections.singletonList(dependentModuleMock)), any());
+    }
+
+    @Test
+    public void singleChanged_buildDownstream_skipDownstreamIfArtifactUnchanged() {
+        MavenProject changedModuleMock = addModuleMock(AID_MODULE_B, true);
+        MavenProject dependentModuleMock = addModuleMock(AID_MODULE_B + "-dependent-jar", false);
+
+        setUpstreamProjects(dependentModuleMock, changedModuleMock, moduleA);
+        setDownstreamProjectsNonTransitive(changedModuleMock, dependentModuleMock);
+
+        addGibProperty(Property.skipDownstreamIfArtifactUnchanged, "true");
+
+        underTest.act(config());
+
+        verify(mavenSessionMock).setProjects(Arrays.asList(changedModuleMock, dependentModuleMock));
+        verify(artifactTracker).register(eq(Collections.singleton(changedModuleMock)), eq(Collections.singletonList(dependentModuleMock)), any());
+    }
+
     @Test
     public void singleChanged_forceBuildModules() {
         MavenProject changedModuleMock = addModuleMock(AID_MODULE_B, true);
@@ -536,6 +536,31 @@ public class ConfigurationTest {
         assertThat(configuration.logImpactedGavTo).hasValue(Path.of("foo2.txt"));
     }
 
+    @Test
+    public void logImpactedShards() {
+        System.setProperty(Property.logImpactedShards.prefixedName(), "4");
+
+        Configuration configuration = new Configuration(mavenSessionMock);
+
+        assertThat(configuration.logImpactedShards).isEqualTo(4);
+    }
+
+    @Test
+    public void logImpactedShards_invalid() {
+        System.setProperty(Property.logImpactedShards.prefixedName(), "foo");
+
+        assertThatIllegalArgumentException().isThrownBy(() -> new Configuration(mavenSessionMock))
+                .withMessageContaining(Property.logImpactedShards.prefixedName());
+    }
+
+    @Test
+    public void logImpactedShards_negative() {
+        System.setProperty(Property.logImpactedShards.prefixedName(), "-1");
+
+        assertThatIllegalArgumentException().isThrownBy(() -> new Configuration(mavenSessionMock))
+                .withMessageContaining(Property.logImpactedShards.prefixedName());
+    }
+
     private void mockPluginConfig(String propertyName, String value) {
         Xpp3Dom childConfigMock = mock(Xpp3Dom.class);
         when(childConfigMock.getName()).thenReturn(propertyName);
@@ -63,7 +63,7 @@ public abstract class MavenIntegrationTestBase extends BaseRepoTest {
 
     private static final Pattern LOG_LINE_FILTER_PATTERN = Pattern.compile("^\\[.*INFO.*\\] Download(ing|ed) from local.central: .*");
 
-    private static final String UNSUPPORTED_WORKTREE = "JGit unsupported separate worktree checkout detected from current git dir path: ";
+    private static final String MISSING_WORKTREE_GIT_DIR = "Git directory of worktree checkout not found (pruned or moved?): ";
 
     protected static String gibVersion;
 
@@ -151,9 +151,9 @@ public abstract class MavenIntegrationTestBase extends BaseRepoTest {
     }
 
     @Test
-    public void worktreeFails() throws Exception {
+    public void worktreeWithoutGitDirFails() throws Exception {
         final String output = executeBuild("--file=wrkf2/parent/pom.xml");
-        assertThat(output).contains(UNSUPPORTED_WORKTREE);
+        assertThat(output).contains(MISSING_WORKTREE_GIT_DIR);
     }
 
     @Test
@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.maven.execution.MavenSession;
@@ -39,7 +40,7 @@ abstract class BaseDifferentFilesTest extends BaseRepoTest {
 
     @Spy
     @InjectMocks
-    private DifferentFiles underTest;
+    protected DifferentFiles underTest;
 
     protected Path userHome;
     private File jGitUserHomeBackup;
@@ -120,4 +121,18 @@ abstract class BaseDifferentFilesTest extends BaseRepoTest {
         assertThat(result).as("Resulting set is unexpectedly null").isNotNull();
         return result;
     }
+
+    protected Configuration config() throws Exception {
+        MavenSession mavenSessionMock = getMavenSessionMock();
+        mavenSessionMock.getCurrentProject().getProperties().putAll(projectProperties);
+        return new Configuration(mavenSessionMock);
+    }
+
+    protected Map<String, Set<Path>> invokeUnderTestPerReference(final Configuration config) {
+        return underTest.getPerReference(config);
+    }
+
+    protected Set<Path> invokeUnderTest(final Configuration config) {
+        return underTest.get(config);
+    }
 }
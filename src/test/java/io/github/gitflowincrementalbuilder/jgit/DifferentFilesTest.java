@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
@@ -14,15 +15,21 @@ import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.apache.maven.execution.MavenSession;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ResetCommand;
+import org.eclipse.jgit.dircache.DirCacheCheckout;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.junit.jupiter.api.Test;
 
 import io.github.gitflowincrementalbuilder.SkipExecutionException;
+import io.github.gitflowincrementalbuilder.config.Configuration;
 import io.github.gitflowincrementalbuilder.config.Property;
 import io.github.gitflowincrementalbuilder.mocks.EmptyLocalRepoMock;
 import io.github.gitflowincrementalbuilder.mocks.MavenSessionMock;
@@ -40,9 +47,45 @@ public class DifferentFilesTest extends BaseDifferentFilesTest {
     @Test
     public void worktree() throws Exception {
         Path workDir = repoBaseDir.resolve("tmp/repo/wrkf2");
+        createWorktreeGitDir(workDir, REFS_HEADS_FEATURE_2);
+
+        Set<Path> result = invokeUnderTest(MavenSessionMock.get(workDir, projectProperties));
+
+        assertThat(result).contains(workDir.resolve("parent/feature2-only-file.txt"));
+        assertThat(result).allMatch(path -> path.startsWith(workDir));
+    }
+
+    @Test
+    public void worktree_uncommitted() throws Exception {
+        Path workDir = repoBaseDir.resolve("tmp/repo/wrkf2");
+        createWorktreeGitDir(workDir, REFS_HEADS_FEATURE_2);
+        Path modifiedFilePath = modifyTrackedFile(workDir);
+        projectProperties.setProperty(Property.disableBranchComparison.prefixedName(), "true");
+
+        // against the HEAD of the worktree checkout, not the one of the main checkout
+        assertThat(invokeUnderTest(MavenSessionMock.get(workDir, projectProperties))).containsExactly(modifiedFilePath);
+    }
+
+    @Test
+    public void worktree_checkout() throws Exception {
+        Path workDir = repoBaseDir.resolve("tmp/repo/wrkf2");
+        createWorktreeGitDir(workDir, REFS_HEADS_FEATURE_2);
+        String mainBranch = localRepoMock.getGit().getRepository().getFullBranch();
+        projectProperties.setProperty(Property.baseBranch.prefixedName(), DEVELOP);
+
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(
+                () -> invokeUnderTest(MavenSessionMock.get(workDir, projectProperties)))
+                .withMessageContaining("worktree");
+        assertThat(localRepoMock.getGit().getRepository().getFullBranch()).isEqualTo(mainBranch);
+    }
+
+    @Test
+    public void worktree_gitDirMissing() throws Exception {
+        Path workDir = repoBaseDir.resolve("tmp/repo/wrkf2");
 
         assertThatExceptionOfType(SkipExecutionException.class).isThrownBy(
-                () -> invokeUnderTest(MavenSessionMock.get(workDir, projectProperties)));
+                () -> invokeUnderTest(MavenSessionMock.get(workDir, projectProperties)))
+                .withMessageContaining("worktree");
     }
 
     @Test
@@ -105,6 +148,21 @@ public class DifferentFilesTest extends BaseDifferentFilesTest {
         verify(loggerSpy).info(contains("Checking out base branch refs/heads/feature/2"));
     }
 
+    @Test
+    public void listWithoutCheckout() throws Exception {
+        localRepoMock.getGit().reset().setRef(HEAD).setMode(ResetCommand.ResetType.HARD).call();
+        String currentBranch = localRepoMock.getGit().getRepository().getFullBranch();
+        Path newFilePath = createNewUntrackedFile(repoPath);
+        projectProperties.setProperty(Property.baseBranch.prefixedName(), REFS_HEADS_FEATURE_2);
+        projectProperties.setProperty(Property.checkoutBaseBranch.prefixedName(), "false");
+
+        Set<Path> result = invokeUnderTest();
+
+        assertThat(result).contains(repoPath.resolve("parent/feature2-only-file.txt")).doesNotContain(newFilePath);
+        assertThat(localRepoMock.getGit().getRepository().getFullBranch()).isEqualTo(currentBranch);
+        verify(loggerSpy, times(0)).info(contains("Checking out base branch"));
+    }
+
     @Test
     public void list() throws Exception {
         final Set<Path> expected = new HashSet<>(Arrays.asList(
@@ -118,6 +176,36 @@ public class DifferentFilesTest extends BaseDifferentFilesTest {
         assertThat(invokeUnderTest()).isEqualTo(expected);
     }
 
+    @Test
+    public void startEarly() throws Exception {
+        Set<Path> expected = invokeUnderTest();
+        underTest.startEarly(config());
+
+        assertThat(invokeUnderTest()).isEqualTo(expected);
+        verify(loggerSpy).info("Using the changes that were detected early.");
+    }
+
+    @Test
+    public void startEarly_differentConfiguration() throws Exception {
+        Set<Path> expected = invokeUnderTest();
+        underTest.startEarly(config());
+        projectProperties.setProperty(Property.fetchTtl.prefixedName(), "60");  // without effect since nothing is fetched
+
+        assertThat(invokeUnderTest()).isEqualTo(expected);
+        verify(loggerSpy).info(contains("Detecting changes again"));
+    }
+
+    @Test
+    public void startEarly_discard() throws Exception {
+        Set<Path> expected = invokeUnderTest();
+        underTest.startEarly(config());
+
+        underTest.discardEarly();
+
+        assertThat(invokeUnderTest()).isEqualTo(expected);
+        verify(loggerSpy, times(0)).info("Using the changes that were detected early.");
+    }
+
     @Test
     public void list_skipIfPathMatches_matches() throws Exception {
         projectProperties.setProperty(Property.skipIfPathMatches.prefixedName(), ".*[/\\\\]subchild2[/\\\\].*");
@@ -203,6 +291,36 @@ public class DifferentFilesTest extends BaseDifferentFilesTest {
         verify(loggerSpy).info(contains("59dc82fa887d9ca82a0d3d1790c6d767e738e71a"));
     }
 
+    @Test
+    public void listForAdditionalReferences() throws Exception {
+        projectProperties.setProperty(Property.additionalReferenceBranches.prefixedName(), REFS_HEADS_FEATURE_2 + "," + REMOTE_DEVELOP);
+        Configuration config = config();
+
+        Map<String, Set<Path>> result = invokeUnderTestPerReference(config);
+
+        // the regular reference branch comes first and is not repeated
+        assertThat(result.keySet()).containsExactly(REMOTE_DEVELOP, REFS_HEADS_FEATURE_2);
+        assertThat(result.get(REFS_HEADS_FEATURE_2)).contains(repoPath.resolve("parent/child3/src/resources/file1"));
+        verify(loggerSpy).info(contains("59dc82fa887d9ca82a0d3d1790c6d767e738e71a"));
+
+        // regular changes have been detected along with the additional ones
+        verify(loggerSpy, times(1)).info(contains("Reference commit of local base branch 'HEAD'"));
+        assertThat(result.get(REMOTE_DEVELOP)).isNotEqualTo(result.get(REFS_HEADS_FEATURE_2)).isEqualTo(invokeUnderTest(config));
+    }
+
+    @Test
+    public void listForAdditionalReferences_withUncommitted() throws Exception {
+        Path modifiedFilePath = modifyTrackedFile(repoPath);
+        projectProperties.setProperty(Property.uncommitted.prefixedName(), "true");
+        projectProperties.setProperty(Property.additionalReferenceBranches.prefixedName(), REFS_HEADS_FEATURE_2);
+        Configuration config = config();
+
+        Map<String, Set<Path>> result = invokeUnderTestPerReference(config);
+
+        assertThat(result.get(REFS_HEADS_FEATURE_2)).contains(modifiedFilePath);
+        assertThat(result.get(REMOTE_DEVELOP)).contains(modifiedFilePath);
+    }
+
     @Test
     public void fetch() throws Exception {
         addCommitToRemoteRepo(FETCH_FILE);
@@ -214,6 +332,49 @@ public class DifferentFilesTest extends BaseDifferentFilesTest {
         assertFetchFileCommitExistsInDevelop();
     }
 
+    @Test
+    public void fetch_upToDate() throws Exception {
+        addCommitToRemoteRepo(FETCH_FILE);
+        projectProperties.setProperty(Property.fetchReferenceBranch.prefixedName(), "true");
+        projectProperties.setProperty(Property.referenceBranch.prefixedName(), REMOTE_DEVELOP);
+        invokeUnderTest();
+
+        invokeUnderTest();
+
+        verify(loggerSpy).info("Fetching " + REMOTE_DEVELOP);
+        verify(loggerSpy).info("Not fetching {} since it is up to date.", REMOTE_DEVELOP);
+        assertFetchFileCommitExistsInDevelop();
+    }
+
+    @Test
+    public void fetch_referenceAndBaseBranch() throws Exception {
+        addCommitToRemoteRepo(FETCH_FILE);
+        projectProperties.setProperty(Property.fetchReferenceBranch.prefixedName(), "true");
+        projectProperties.setProperty(Property.referenceBranch.prefixedName(), REMOTE_DEVELOP);
+        projectProperties.setProperty(Property.fetchBaseBranch.prefixedName(), "true");
+        projectProperties.setProperty(Property.baseBranch.prefixedName(), REMOTE_DEVELOP);
+        projectProperties.setProperty(Property.checkoutBaseBranch.prefixedName(), "false");
+
+        invokeUnderTest();
+
+        verify(loggerSpy).info("Fetching " + REMOTE_DEVELOP);
+        assertFetchFileCommitExistsInDevelop();
+    }
+
+    @Test
+    public void fetch_ttl() throws Exception {
+        projectProperties.setProperty(Property.fetchReferenceBranch.prefixedName(), "true");
+        projectProperties.setProperty(Property.referenceBranch.prefixedName(), REMOTE_DEVELOP);
+        projectProperties.setProperty(Property.fetchTtl.prefixedName(), "3600");
+        invokeUnderTest();
+        addCommitToRemoteRepo(FETCH_FILE);
+
+        invokeUnderTest();
+
+        verify(loggerSpy).info("Not fetching {} since it was fetched less than {}s ago.", REMOTE_DEVELOP, 3600);
+        assertThat(localRepoMock.getGit().getRepository().getDirectory().toPath().resolve(FetchTimes.FILE)).exists();
+    }
+
     @Test
     public void fetchNonExistent() throws Exception {
         addCommitToRemoteRepo(FETCH_FILE);
@@ -279,4 +440,19 @@ public class DifferentFilesTest extends BaseDifferentFilesTest {
         Files.write(newFilePath, "\nuncommitted".getBytes(), StandardOpenOption.CREATE_NEW);
         return newFilePath;
     }
+
+    // the template only contains the worktree itself, not its git dir within the git dir of the main checkout (as "git worktree add" would create it)
+    private static void createWorktreeGitDir(Path workDir, String branch) throws Exception {
+        Path gitDir = Files.createDirectories(workDir.resolve("../.git/worktrees").resolve(workDir.getFileName()).normalize());
+        Files.writeString(gitDir.resolve("HEAD"), "ref: " + branch + "\n");
+        Files.writeString(gitDir.resolve("commondir"), "../..\n");
+        Files.writeString(gitDir.resolve("gitdir"), workDir.resolve(".git") + "\n");
+        // creates the index and replaces the files of the template (a checkout or reset would move the HEAD of the main checkout, see Worktree)
+        try (Repository repository = Worktree.of(gitDir.toFile()).orElseThrow().build(new FileRepositoryBuilder());
+                RevWalk revWalk = new RevWalk(repository)) {
+            DirCacheCheckout checkout = new DirCacheCheckout(repository, repository.lockDirCache(), revWalk.parseCommit(repository.resolve(branch)).getTree());
+            checkout.setFailOnConflict(false);
+            checkout.checkout();
+        }
+    }
 }
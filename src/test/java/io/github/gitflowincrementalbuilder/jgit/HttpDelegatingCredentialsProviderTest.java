@@ -0,0 +1,88 @@
+package io.github.gitflowincrementalbuilder.jgit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.eclipse.jgit.transport.CredentialItem;
+import org.eclipse.jgit.transport.URIish;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class HttpDelegatingCredentialsProviderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private URIish uri;
+    private Map<String, String> environment;
+
+    @BeforeEach
+    void before() throws Exception {
+        uri = new URIish("https://example.com/repo.git");
+        // isolate native git from the settings of the system the test is running on
+        environment = Map.of("GIT_CONFIG_NOSYSTEM", "1", "HOME", tempDir.toAbsolutePath().toString());
+        Files.writeString(tempDir.resolve(".gitconfig"), "[credential]\n\thelper = store\n");
+        storeCredentials("secret1");
+    }
+
+    @Test
+    public void get() {
+        assertThat(getPassword(new HttpDelegatingCredentialsProvider(tempDir, environment))).isEqualTo("secret1");
+    }
+
+    @Test
+    public void get_notCached() throws Exception {
+        getPassword(new HttpDelegatingCredentialsProvider(tempDir, environment));
+        storeCredentials("secret2");
+
+        assertThat(getPassword(new HttpDelegatingCredentialsProvider(tempDir, environment))).isEqualTo("secret2");
+    }
+
+    @Test
+    public void get_cached() throws Exception {
+        HttpDelegatingCredentialsProvider first = new HttpDelegatingCredentialsProvider(tempDir, environment, 60);
+        getPassword(first);
+        first.resetAll();
+        storeCredentials("secret2");
+
+        assertThat(getPassword(new HttpDelegatingCredentialsProvider(tempDir, environment, 60))).isEqualTo("secret1");
+    }
+
+    @Test
+    public void get_cachedButRejected() throws Exception {
+        HttpDelegatingCredentialsProvider first = new HttpDelegatingCredentialsProvider(tempDir, environment, 60);
+        getPassword(first);
+        first.reset(uri);
+        storeCredentials("secret2");
+
+        assertThat(getPassword(new HttpDelegatingCredentialsProvider(tempDir, environment, 60))).isEqualTo("secret2");
+    }
+
+    @Test
+    public void get_cachedAndResetByAnotherInstance() throws Exception {
+        HttpDelegatingCredentialsProvider first = new HttpDelegatingCredentialsProvider(tempDir, environment, 60);
+        HttpDelegatingCredentialsProvider second = new HttpDelegatingCredentialsProvider(tempDir, environment, 60);
+        getPassword(first);
+        getPassword(second);
+        first.reset(uri);
+        first.resetAll();
+
+        assertThat(getPassword(second)).isEqualTo("secret1");
+    }
+
+    private void storeCredentials(String password) throws Exception {
+        Files.writeString(tempDir.resolve(".git-credentials"), "https://user:" + password + "@example.com\n");
+    }
+
+    private String getPassword(HttpDelegatingCredentialsProvider underTest) {
+        CredentialItem.Username username = new CredentialItem.Username();
+        CredentialItem.Password password = new CredentialItem.Password();
+        assertThat(underTest.get(uri, username, password)).isTrue();
+        assertThat(username.getValue()).isEqualTo("user");
+        return new String(password.getValue());
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.gitflowincrementalbuilder.jgit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+
+import io.github.gitflowincrementalbuilder.BaseRepoTest;
+import io.github.gitflowincrementalbuilder.util.ProcessUtils;
+
+public class MergeBasesTest extends BaseRepoTest {
+
+    private static final String EXPECTED_MERGE_BASE = "59dc82fa887d9ca82a0d3d1790c6d767e738e71a";
+
+    private Repository repository;
+    private RevCommit base;
+    private RevCommit reference;
+
+    @Override
+    @BeforeEach
+    protected void before(TestInfo testInfo) throws Exception {
+        super.before(testInfo);
+        repository = localRepoMock.getGit().getRepository();
+        try (RevWalk walk = new RevWalk(repository)) {
+            base = walk.parseCommit(repository.resolve("refs/heads/feature/2"));
+            reference = walk.parseCommit(repository.resolve("refs/heads/develop"));
+        }
+    }
+
+    @Test
+    public void find() throws Exception {
+        Optional<ObjectId> result = find(new MergeBases(), base, reference);
+
+        assertThat(result).map(ObjectId::name).hasValue(EXPECTED_MERGE_BASE);
+        assertThat(cacheFile()).content(StandardCharsets.UTF_8).contains(base.name() + " " + reference.name() + " " + EXPECTED_MERGE_BASE);
+    }
+
+    @Test
+    public void find_walkReset() throws Exception {
+        try (RevWalk walk = new RevWalk(repository)) {
+            RevCommit walkBase = walk.parseCommit(base);
+            new MergeBases().find(repository, walk, walkBase, walk.parseCommit(reference));
+
+            walk.markStart(walkBase);
+            assertThat(walk.next()).isEqualTo(walkBase);
+        }
+    }
+
+    @Test
+    public void find_persistentCache() throws Exception {
+        String fakeMergeBase = reference.name();
+        Files.createDirectories(cacheFile().getParent());
+        Files.write(cacheFile(), Collections.singletonList(base.name() + " " + reference.name() + " " + fakeMergeBase));
+
+        Optional<ObjectId> result = find(new MergeBases(), base, reference);
+
+        assertThat(result).map(ObjectId::name).hasValue(fakeMergeBase);
+    }
+
+    @Test
+    public void find_shallow() throws Exception {
+        Files.createFile(repository.getDirectory().toPath().resolve("shallow"));
+
+        Optional<ObjectId> result = find(new MergeBases(), base, reference);
+
+        assertThat(result).map(ObjectId::name).hasValue(EXPECTED_MERGE_BASE);
+        assertThat(cacheFile()).doesNotExist();
+    }
+
+    @Test
+    public void find_commitGraph() throws Exception {
+        ProcessUtils.startAndWaitForProcess(List.of("git", "commit-graph", "write", "--reachable"), repository.getWorkTree().toPath(), line -> true);
+        assertThat(commitGraphFile()).isNotEmptyFile();
+        MergeBases.useCommitGraph(repository);
+        MergeBases underTest = new MergeBases();
+
+        Optional<ObjectId> result = find(underTest, base, reference);
+
+        assertThat(result).map(ObjectId::name).hasValue(EXPECTED_MERGE_BASE);
+        assertThat(repository.getConfig().getBoolean("core", "commitGraph", false)).isTrue();
+
+        // cached in memory
+        Files.delete(cacheFile());
+        assertThat(find(underTest, base, reference)).map(ObjectId::name).hasValue(EXPECTED_MERGE_BASE);
+        assertThat(cacheFile()).doesNotExist();
+    }
+
+    private Optional<ObjectId> find(MergeBases mergeBases, RevCommit base, RevCommit reference) throws IOException {
+        try (RevWalk walk = new RevWalk(repository)) {
+            return mergeBases.find(repository, walk, walk.parseCommit(base), walk.parseCommit(reference));
+        }
+    }
+
+    private Path cacheFile() {
+        return repository.getDirectory().toPath().resolve(MergeBases.CACHE_FILE);
+    }
+
+    private Path commitGraphFile() {
+        return repository.getDirectory().toPath().resolve("objects/info/commit-graph");
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.gitflowincrementalbuilder.jgit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SparseCheckoutTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Git git;
+    private RevCommit commit;
+
+    @BeforeEach
+    void before() throws Exception {
+        git = Git.init().setDirectory(tempDir.toFile()).call();
+        for (String file : List.of("pom.xml", "a/pom.xml", "a/src/A.java", "p/pom.xml", "p/x/pom.xml", "p/y/pom.xml", "c/pom.xml")) {
+            Path path = tempDir.resolve(file);
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, file);
+        }
+        git.add().addFilepattern(".").call();
+        commit = git.commit().setMessage("init").setSign(false).call();
+    }
+
+    @AfterEach
+    void after() {
+        git.close();
+    }
+
+    @Test
+    public void notSparse() {
+        assertThat(SparseCheckout.read(git.getRepository(), git.getRepository().getDirectory())).isEmpty();
+    }
+
+    @Test
+    public void cone() throws Exception {
+        SparseCheckout underTest = enableCone("/*", "!/*/", "/a/", "/p/", "!/p/*/", "/p/x/").orElseThrow();
+
+        assertThat(underTest.contains("pom.xml")).isTrue();
+        assertThat(underTest.contains("a/src/A.java")).isTrue();
+        assertThat(underTest.contains("p/pom.xml")).isTrue();
+        assertThat(underTest.contains("p/x/pom.xml")).isTrue();
+        assertThat(underTest.contains("p/y/pom.xml")).isFalse();
+        assertThat(underTest.contains("c/pom.xml")).isFalse();
+        assertThat(underTest.getStatusPaths()).containsExactlyInAnyOrder("pom.xml", "a", "p/pom.xml", "p/x");
+    }
+
+    @Test
+    public void cone_treeFilter() throws Exception {
+        SparseCheckout underTest = enableCone("/*", "!/*/", "/a/", "/p/", "!/p/*/", "/p/x/").orElseThrow();
+        List<String> notCheckedOut = new ArrayList<>();
+        List<String> included = new ArrayList<>();
+
+        try (TreeWalk treeWalk = new TreeWalk(git.getRepository())) {
+            treeWalk.addTree(commit.getTree());
+            treeWalk.setFilter(underTest.newTreeFilter(notCheckedOut::add));
+            treeWalk.setRecursive(true);
+            while (treeWalk.next()) {
+                included.add(treeWalk.getPathString());
+            }
+        }
+
+        assertThat(included).containsExactly("a/pom.xml", "a/src/A.java", "p/pom.xml", "p/x/pom.xml", "pom.xml");
+        assertThat(notCheckedOut).containsExactly("c/", "p/y/");
+    }
+
+    @Test
+    public void nonCone() throws Exception {
+        SparseCheckout underTest = enableCone("/a/", "*.xml").orElseThrow();
+
+        // fallback: skip-worktree bits (which are not set in this test)
+        assertThat(underTest.contains("c/pom.xml")).isTrue();
+        assertThat(underTest.getStatusPaths()).isEmpty();
+    }
+
+    private Optional<SparseCheckout> enableCone(String... patterns) throws Exception {
+        StoredConfig config = git.getRepository().getConfig();
+        config.setBoolean("core", null, "sparseCheckout", true);
+        config.setBoolean("core", null, "sparseCheckoutCone", true);
+        config.save();
+        Path patternsFile = git.getRepository().getDirectory().toPath().resolve("info/sparse-checkout");
+        Files.createDirectories(patternsFile.getParent());
+        Files.write(patternsFile, List.of(patterns));
+        return SparseCheckout.read(git.getRepository(), git.getRepository().getDirectory());
+    }
+}
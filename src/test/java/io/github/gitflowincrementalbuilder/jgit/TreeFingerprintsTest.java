@@ -0,0 +1,98 @@
+package io.github.gitflowincrementalbuilder.jgit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import io.github.gitflowincrementalbuilder.BaseRepoTest;
+import io.github.gitflowincrementalbuilder.config.Configuration;
+
+@ExtendWith(MockitoExtension.class)
+public class TreeFingerprintsTest extends BaseRepoTest {
+
+    @Spy
+    private GitProvider gitProviderSpy;
+
+    @InjectMocks
+    private TreeFingerprints underTest;
+
+    private Configuration config;
+    private Path parent;
+    private Path child2;
+    private Path subchild1;
+
+    @Override
+    @BeforeEach
+    protected void before(TestInfo testInfo) throws Exception {
+        super.before(testInfo);
+        config = new Configuration(getMavenSessionMock());
+        parent = repoPath.resolve("parent");
+        child2 = parent.resolve("child2");
+        subchild1 = child2.resolve("subchild1");
+    }
+
+    @Override
+    @AfterEach
+    protected void after() throws Exception {
+        gitProviderSpy.close();
+        super.after();
+    }
+
+    @Test
+    public void get() throws Exception {
+        Map<Path, String> before = underTest.get(List.of(parent, child2, subchild1), config);
+        assertThat(before).containsOnlyKeys(parent, child2, subchild1);
+        assertThat(before.values()).doesNotHaveDuplicates();
+
+        commit(subchild1.resolve("src/resources/file2"));
+
+        Map<Path, String> after = underTest.get(List.of(parent, child2, subchild1), config);
+        assertThat(after.get(parent)).as("parent").isEqualTo(before.get(parent));
+        assertThat(after.get(child2)).as("nested module excluded").isEqualTo(before.get(child2));
+        assertThat(after.get(subchild1)).as("changed module").isNotEqualTo(before.get(subchild1));
+    }
+
+    @Test
+    public void get_withoutNestedModules() throws Exception {
+        Map<Path, String> before = underTest.get(List.of(child2), config);
+
+        commit(subchild1.resolve("src/resources/file2"));
+
+        assertThat(underTest.get(List.of(child2), config).get(child2)).isNotEqualTo(before.get(child2));
+    }
+
+    @Test
+    public void get_notCommitted() throws Exception {
+        Path newModule = Files.createDirectories(parent.resolve("new-module"));
+        Files.writeString(newModule.resolve("pom.xml"), "<project/>");
+
+        assertThat(underTest.get(List.of(parent, newModule), config)).containsOnlyKeys(parent);
+    }
+
+    @Test
+    public void isWorkTreeClean() throws Exception {
+        Files.writeString(subchild1.resolve("src/resources/file2"), "changed");
+
+        assertThat(underTest.isWorkTreeClean(config)).isFalse();
+    }
+
+    private void commit(Path file) throws Exception {
+        Files.writeString(file, "changed");
+        Git git = localRepoMock.getGit();
+        git.add().addFilepattern(repoPath.relativize(file).toString().replace('\\', '/')).call();
+        git.commit().setMessage("change " + file.getFileName()).call();
+    }
+}